@@ -24,9 +24,9 @@ import java.security.PublicKey;
 import java.security.SecureRandom;
 import java.security.cert.Certificate;
 import java.security.cert.X509Certificate;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
@@ -785,14 +785,10 @@ public class K {
 	public static Object deserialize(String argString) {
 		
         // Base64 decode serialized object
-        byte[] decodedData	= Base64.getDecoder().decode(argString);
-        Object newObject	= null;
+        Object newObject = deserializeFromBytes(Base64.getDecoder().decode(argString));
         
-        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(decodedData))) {
-            newObject = ois.readObject();
-        } catch (Exception e) {
-			KLog.error("Unable to deserialize object: {}", e.toString());
-			return null;
+        if (newObject == null) {
+        	return null;
         }
         
         KLog.debug("Decode and deserialize object {} successful", newObject.getClass().getName());
@@ -800,6 +796,25 @@ public class K {
         return newObject;
 	}
 	
+	/**
+	 * Return deserialized object from the binary serialized form (without Base64 encoding and debug logging, e.g. for
+	 * journals and queues).
+	 * 
+	 * @param	argBuffer	Serialized object
+	 * @return	Object or null for errors
+	 * 
+	 * @since 2026.10.17
+	 */
+	public static Object deserializeFromBytes(byte[] argBuffer) {
+		
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(argBuffer))) {
+            return ois.readObject();
+        } catch (Exception e) {
+			KLog.error("Unable to deserialize object: {}", e.toString());
+			return null;
+        }
+	}
+	
 	/**
 	 * Return encoded buffer to Base64 string
 	 * 
@@ -1840,12 +1855,32 @@ public class K {
 	}
 	
 	/**
-	 * Return current date and time in ISO 8601 format (Example: "2024-02-24T14:12:44.234").
+	 * Return current date and time in ISO 8601 format (Example: "2024-02-24T14:12:44.234").<br>
+	 * 
+	 * Note: The formatted date and time up to the seconds is cached, only the milliseconds are formatted for each call.
 	 * 
 	 * @return	String	ISO 8601 date/time
 	 */
 	public static String getTimeISO8601() {
-        return getTimeISO8601(LocalDateTime.now());
+        return KTimestamp.format(System.currentTimeMillis());
+	}
+
+	/**
+	 * Return date and time in ISO 8601 format in the local time zone (Example: "2024-02-24T14:12:44.234").<br>
+	 * 
+	 * Note: The formatted date and time up to the seconds is cached, only the milliseconds are formatted for each call.
+	 * 
+	 * @param 	argInstant	Instant (e.g. LogRecord.getInstant())
+	 * @return	String		ISO 8601 date/time
+	 * 
+	 * @since 2026.10.17
+	 */
+	public static String getTimeISO8601(Instant argInstant) {
+
+		// Check argument
+		KLog.argException(argInstant == null, "argInstant is required");
+		
+        return KTimestamp.format(argInstant.toEpochMilli());
 	}
 
 	/**
@@ -1861,7 +1896,7 @@ public class K {
 		// Check argument
 		KLog.argException(K.isEmpty(argDateTime), "argDateTime is required");
 		
-        return argDateTime.format(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS"));
+        return argDateTime.format(KTimestamp.ISO8601_FORMATTER);
 	}
 	
 	/**
@@ -2346,7 +2381,7 @@ public class K {
 	}
 	
 	/**
-	 * Replace parameter holders "{}" with the passed arguments.
+	 * Replace parameter holders "{}" with the passed arguments. The parsed message text is cached, so constant messages are only parsed once.
 	 * 
 	 * @param	argData		Message text
 	 * @param	argObjects	Data to be inserted
@@ -2367,26 +2402,7 @@ public class K {
 		}
 		
 		// Replace parameter holders, e.g. KLog.info("Program {} started at {}", "Test", new Date())
-		StringBuilder	result				= new StringBuilder(argData);
-		int				placeholderIndex	= 0;
-				
-		for (Object argObject : argObjects) {
-
-			// Find the next placeholder after the current position
-			placeholderIndex = result.indexOf("{}", placeholderIndex);
-
-			if (placeholderIndex == -1) {
-				// No more place holders found
-				break;
-			} else {
-				// Replace {} with the passed argument
-				String replacement = (argObject == null) ? "null" : argObject.toString();
-				result.replace(placeholderIndex, placeholderIndex + 2, replacement);
-				placeholderIndex += replacement.length();
-			}
-		}
-
-		return result.toString();
+		return KTemplate.format(argData, argObjects);
 	}
 
 	/**
@@ -2570,23 +2586,42 @@ public class K {
 	 */
 	public static String serialize(Serializable argObject) {
 		
-        ByteArrayOutputStream	byteOutputStream	= new ByteArrayOutputStream();
+        byte[] serializedData = serializeToBytes(argObject);
         
-        try (ObjectOutputStream objectOutputStream	= new ObjectOutputStream(byteOutputStream)) {
-        	objectOutputStream.writeObject(argObject);
-        } catch (Exception e) {
-			KLog.error("Unable to serialize object: {}", e.toString());
-			return "";
+        if (serializedData.length == 0) {
+        	return "";
         }
 
         // Base64 encode serialized object
-        String encodedString = Base64.getEncoder().encodeToString(byteOutputStream.toByteArray());
+        String encodedString = Base64.getEncoder().encodeToString(serializedData);
         
         KLog.debug("Serialize and encode object {} successful ({})", argObject.getClass().getName(), K.formatBytes(encodedString.length()));
         
         return encodedString;
 	}
 	
+	/**
+	 * Return the binary serialized form of the object (without Base64 encoding and debug logging, e.g. for journals and queues).
+	 * 
+	 * @param	argObject	Object to serialize
+	 * @return	Serialized object or empty array for errors
+	 * 
+	 * @since 2026.10.17
+	 */
+	public static byte[] serializeToBytes(Serializable argObject) {
+		
+        ByteArrayOutputStream	byteOutputStream	= new ByteArrayOutputStream();
+        
+        try (ObjectOutputStream objectOutputStream	= new ObjectOutputStream(byteOutputStream)) {
+        	objectOutputStream.writeObject(argObject);
+        } catch (Exception e) {
+			KLog.error("Unable to serialize object: {}", e.toString());
+			return new byte[0];
+        }
+
+        return byteOutputStream.toByteArray();
+	}
+	
 	/**
 	 * Signal interrupt to thread.
 	 * 
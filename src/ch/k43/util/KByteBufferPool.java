@@ -0,0 +1,95 @@
+package ch.k43.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of direct byte buffers of the same size.<p>
+ *
+ * Notes:<br>
+ * - Direct buffers are expensive to allocate and are freed only by the garbage collector, so released buffers are kept for
+ *   reuse up to the given maximum number of pooled buffers.<br>
+ * - All methods are thread-safe.<br>
+ *
+ * @since 2026.10.17
+ */
+final class KByteBufferPool {
+
+	// Declarations
+	private final ConcurrentLinkedQueue<ByteBuffer>	gBuffers		= new ConcurrentLinkedQueue<>();
+	private final AtomicInteger						gPooledCount	= new AtomicInteger(0);
+	private final int								gBufferSize;
+	private final int								gMaxPooled;
+
+	/**
+	 * Create pool.
+	 *
+	 * @param	argBufferSize	Size of each buffer in bytes
+	 * @param	argMaxPooled	Maximum number of released buffers kept for reuse
+	 */
+	KByteBufferPool(int argBufferSize, int argMaxPooled) {
+
+		// Check arguments
+		KLog.argException(argBufferSize < 1, "Buffer size must be positive");
+		KLog.argException(argMaxPooled < 0, "Maximum number of pooled buffers must not be negative");
+
+		gBufferSize	= argBufferSize;
+		gMaxPooled	= argMaxPooled;
+	}
+
+	/**
+	 * Get a cleared buffer from the pool or allocate a new one.
+	 *
+	 * @return	Buffer
+	 */
+	ByteBuffer acquire() {
+
+		ByteBuffer buffer = gBuffers.poll();
+
+		if (buffer == null) {
+			return ByteBuffer.allocateDirect(gBufferSize);
+		}
+
+		gPooledCount.decrementAndGet();
+		buffer.clear();
+		return buffer;
+	}
+
+	/**
+	 * Get the size of the buffers.
+	 *
+	 * @return	Buffer size in bytes
+	 */
+	int getBufferSize() {
+		return gBufferSize;
+	}
+
+	/**
+	 * Return a buffer to the pool. The buffer must not be used by the caller afterwards.
+	 *
+	 * @param	argBuffer	Buffer or null
+	 */
+	void release(ByteBuffer argBuffer) {
+
+		if ((argBuffer == null) || (gPooledCount.incrementAndGet() > gMaxPooled)) {
+			if (argBuffer != null) {
+				gPooledCount.decrementAndGet();
+			}
+			return;
+		}
+
+		argBuffer.clear();
+		gBuffers.offer(argBuffer);
+	}
+
+	/**
+	 * String representation of object.
+	 *
+	 * @return	Object representation
+	 */
+	@Override
+	public String toString() {
+		return "KByteBufferPool [gBufferSize=" + gBufferSize + ", gMaxPooled=" + gMaxPooled + ", gPooledCount=" + gPooledCount + "]";
+	}
+}
@@ -26,6 +26,11 @@ import java.util.Arrays;
  *	  db.execPrepare("Smith", "Joe");
  *	  db.execPrepare("Miller", "Bob");
  *	  db.execPrepare("Johnson", "Evelyn");
+ *
+ *	  db.addBatch("Brown", "Ann");
+ *	  db.addBatch("Davis", "Tom");
+ *	  db.execBatch();
+ *
  *	  db.exec("SELECT * FROM addresses");
  *
  *    System.out.println(db.getDataAsJSON());
@@ -188,6 +193,43 @@ public class KDB implements AutoCloseable{
 		gColumnCount		= 0;
 	}
 	
+	/**
+	 * Add a set of values to the batch of the precompiled SQL statement. The batch is executed with execBatch().
+	 * 
+	 * @param	argObjects...		Values to be inserted in the sequence of the placeholder(s) '?' of the precompiled SQL statement
+	 * @return	Success or failure
+	 * 
+	 * @see		#execBatch()
+	 * 
+	 * @since 2026.10.17
+	 */
+	public boolean addBatch(Object... argObjects) {
+		
+		// Check if database is connected
+		if (!isConnected()) {
+			return (false);
+		}
+		
+		// Check if SQL statement previously prepared
+		KLog.argException(gPreparedStatement == null, "No previous SQL statement prepared thru KDB.prepare()");
+		
+		try {
+			gPreparedStatement.clearParameters();
+			setParameters(argObjects);
+			gPreparedStatement.addBatch();
+			return (true);
+			
+		} catch (Exception e) {
+			
+			clearTransactionData();
+			
+			gErrorMessage = e.toString();
+			KLog.error(gErrorMessage);
+
+			return (false);
+		}
+	}
+	
 	/**
 	 * Close the JDBC connection.
 	 */
@@ -340,6 +382,69 @@ public class KDB implements AutoCloseable{
 		}
 	}
 	
+	/**
+	 * Execute all sets of values added to the batch of the precompiled SQL statement with a single database call. The number
+	 * of updated rows is returned by getRowCount().
+	 * 
+	 * @return	Success or failure
+	 * 
+	 * @see		#addBatch(Object...)
+	 * 
+	 * @since 2026.10.17
+	 */
+	public boolean execBatch() {
+		
+		// Declarations
+		KTimer timer = new KTimer();
+		
+		// Check if database is connected
+		if (!isConnected()) {
+			return (false);
+		}
+		
+		// Check if SQL statement previously prepared
+		KLog.argException(gPreparedStatement == null, "No previous SQL statement prepared thru KDB.prepare()");
+		
+		// Clear variables
+		clearTransactionData();
+		
+		KLog.debug("SQL prepared statement batch started");
+		
+		try {
+			
+			// Set SQL statement timeout
+			gPreparedStatement.setQueryTimeout(gPrepareTimeOutSec);
+			
+			// Execute batch and count updated rows
+			for (int updateCount : gPreparedStatement.executeBatch()) {
+				if (updateCount > 0) {
+					gRowCount += updateCount;
+				}
+			}
+			
+			// Save transaction elapsed time
+			gElapsedTime = timer.getElapsedMilliseconds();
+			
+			KLog.debug("SQL prepared statement batch completed ({} ms, {} rows)", gElapsedTime, gRowCount);
+			return (true);
+			
+		} catch (Exception e) {
+			
+			clearTransactionData();
+			
+			gErrorMessage = e.toString();
+			KLog.error(gErrorMessage);
+			
+			try {
+				gPreparedStatement.clearBatch();
+			} catch (Exception ee) {
+				KLog.error(ee.toString());
+			}
+
+			return (false);
+		}
+	}
+	
 	/**
 	 * Complete and execute precompiled SQL statement. For SELECT statements, the result set is fetched and saved as convenient Java Objects to be
 	 * retrieved by getDataXXX().
@@ -386,80 +491,8 @@ public class KDB implements AutoCloseable{
 			int parameterCount = gPreparedStatement.getParameterMetaData().getParameterCount();
 			KLog.argException(parameterCount != argObjects.length, "Expected number of arguments: {}", parameterCount);
 
-			//
 			// Replace all '?' SQL placeholder(s) with the passed values
-			//
-			int placeHolder = 1;
-			
-			for (Object argObject : argObjects) {
-					
-				switch (argObject.getClass().getName()) {
-					
-				// 
-				// Java types
-				//
-				case "java.lang.String":
-					gPreparedStatement.setString(placeHolder, argObject.toString());
-					break;
-						
-				case "java.lang.Integer":
-					gPreparedStatement.setInt(placeHolder, ((Integer) argObject));
-					break;
-						
-				case "java.lang.Short":
-					gPreparedStatement.setShort(placeHolder, ((Short) argObject));
-					break;
-
-				case "java.lang.Byte":
-					gPreparedStatement.setByte(placeHolder, ((Byte) argObject));
-					break;
-
-				case "java.lang.Long":
-					gPreparedStatement.setLong(placeHolder, ((Long) argObject));
-					break;
-
-				case "java.math.BigDecimal":
-					gPreparedStatement.setBigDecimal(placeHolder, ((java.math.BigDecimal) argObject));
-					break;
-						
-				case "java.lang.Float":
-					gPreparedStatement.setFloat(placeHolder, ((Float) argObject));
-					break;
-
-				case "java.lang.Double":
-					gPreparedStatement.setDouble(placeHolder, ((Double) argObject));
-					break;
-			
-				case "java.lang.Boolean":
-					gPreparedStatement.setBoolean(placeHolder, ((Boolean) argObject));
-					break;
-
-				//
-				// SQL types
-				//
-				case "java.sql.Date":
-					gPreparedStatement.setDate(placeHolder, ((java.sql.Date) argObject));
-					break;
-					
-				case "java.sql.Time":
-					gPreparedStatement.setTime(placeHolder, ((java.sql.Time) argObject));
-					break;
-						
-				case "java.sql.Timestamp":
-					gPreparedStatement.setTimestamp(placeHolder, ((java.sql.Timestamp) argObject));
-					break;
-												
-				case "java.sql.Array":
-					gPreparedStatement.setArray(placeHolder, ((java.sql.Array) argObject));
-					break;
-							
-				default:
-					KLog.argException(true, "Unsupported object type {}", argObject.getClass().getName());
-					break;
-				}
-					
-				placeHolder++;
-			}
+			setParameters(argObjects);
 			
 			// Execute SQL statement and process result
 			gPreparedStatement.execute();
@@ -1120,6 +1153,90 @@ public class KDB implements AutoCloseable{
 		}
 	}
 
+	/**
+	 * Replace all '?' SQL placeholder(s) of the prepared statement with the passed values.
+	 * 
+	 * @param	argObjects	Values to be inserted in the sequence of the placeholder(s) '?' of the precompiled SQL statement
+	 * @throws	Exception	If a value could not be set
+	 * 
+	 * @since 2026.10.17
+	 */
+	private void setParameters(Object[] argObjects) throws Exception {
+		
+		int placeHolder = 1;
+		
+		for (Object argObject : argObjects) {
+				
+			switch (argObject.getClass().getName()) {
+				
+			// 
+			// Java types
+			//
+			case "java.lang.String":
+				gPreparedStatement.setString(placeHolder, argObject.toString());
+				break;
+					
+			case "java.lang.Integer":
+				gPreparedStatement.setInt(placeHolder, ((Integer) argObject));
+				break;
+					
+			case "java.lang.Short":
+				gPreparedStatement.setShort(placeHolder, ((Short) argObject));
+				break;
+
+			case "java.lang.Byte":
+				gPreparedStatement.setByte(placeHolder, ((Byte) argObject));
+				break;
+
+			case "java.lang.Long":
+				gPreparedStatement.setLong(placeHolder, ((Long) argObject));
+				break;
+
+			case "java.math.BigDecimal":
+				gPreparedStatement.setBigDecimal(placeHolder, ((java.math.BigDecimal) argObject));
+				break;
+					
+			case "java.lang.Float":
+				gPreparedStatement.setFloat(placeHolder, ((Float) argObject));
+				break;
+
+			case "java.lang.Double":
+				gPreparedStatement.setDouble(placeHolder, ((Double) argObject));
+				break;
+		
+			case "java.lang.Boolean":
+				gPreparedStatement.setBoolean(placeHolder, ((Boolean) argObject));
+				break;
+
+			//
+			// SQL types
+			//
+			case "java.sql.Date":
+				gPreparedStatement.setDate(placeHolder, ((java.sql.Date) argObject));
+				break;
+				
+			case "java.sql.Time":
+				gPreparedStatement.setTime(placeHolder, ((java.sql.Time) argObject));
+				break;
+					
+			case "java.sql.Timestamp":
+				gPreparedStatement.setTimestamp(placeHolder, ((java.sql.Timestamp) argObject));
+				break;
+											
+			case "java.sql.Array":
+				gPreparedStatement.setArray(placeHolder, ((java.sql.Array) argObject));
+				break;
+						
+			default:
+				KLog.argException(true, "Unsupported object type {}", argObject.getClass().getName());
+				break;
+			}
+				
+			placeHolder++;
+		}
+		
+	}
+	
 	/**
 	 * String representation of object.
 	 * 
@@ -8,6 +8,9 @@ import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.FileWriter;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.MappedByteBuffer;
 import java.util.Properties;
 
 import org.json.JSONObject;
@@ -17,6 +20,9 @@ import org.json.JSONObject;
  */
 public class KFile {
 	
+	// Unmap method (Unsafe.invokeCleaner) and its object or null if not available
+	private static final Object[]	UNMAPPER	= createUnmapper();
+	
 	/**
 	 * Delete a file or directory.<br>
 	 * 
@@ -277,6 +283,50 @@ public class KFile {
 		}
 	}
 	
+	/**
+	 * Get the method to release a mapping at once (sun.misc.Unsafe.invokeCleaner, Java 9+), looked up at runtime.
+	 * 
+	 * @return	Unsafe object and method or null if not available
+	 * 
+	 * @since 2026.10.17
+	 */
+	private static Object[] createUnmapper() {
+		
+		try {
+			Class<?>	unsafeClass	= Class.forName("sun.misc.Unsafe");
+			Field		unsafeField	= unsafeClass.getDeclaredField("theUnsafe");
+			
+			unsafeField.setAccessible(true);
+			
+			return new Object[] {unsafeField.get(null), unsafeClass.getMethod("invokeCleaner", java.nio.ByteBuffer.class)};
+		} catch (Exception e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * Release the mapping of a memory-mapped file at once instead of at the next garbage collection, so the file may be truncated or
+	 * deleted on all platforms (Windows rejects this for mapped files). The buffer must not be used afterwards by any thread.<br>
+	 * 
+	 * @param	argBuffer	Mapped buffer (may be null)
+	 * @return	True if unmapped, false if not supported by the JVM
+	 * 
+	 * @since 2026.10.17
+	 */
+	static boolean unmap(MappedByteBuffer argBuffer) {
+		
+		if ((argBuffer == null) || (UNMAPPER == null)) {
+			return (false);
+		}
+		
+		try {
+			((Method) UNMAPPER[1]).invoke(UNMAPPER[0], argBuffer);
+			return (true);
+		} catch (Exception e) {
+			return (false);
+		}
+	}
+	
 	/**
 	 * Write bytes to file.<br>
 	 * 
@@ -264,7 +264,7 @@ public abstract class KHTTPServerThread extends KSocketServerThread {
 				KLog.debug("Received payload size ({}) does not match Content-Length request parameter ({})", K.formatBytes(gPayloadData.length), K.formatBytes(contentLength));
 			}
 			
-			KLog.debug("HTTP request read ({} headers, {} payload, {} ms)", gRequestHeaders.size(), K.formatBytes(gPayloadData.length), timer.getElapsedMilliseconds());
+			KLog.debug("HTTP request read ({} headers, {} payload, {} ms)", () -> new Object[] {gRequestHeaders.size(), K.formatBytes(gPayloadData.length), timer.getElapsedMilliseconds()});
 			
 			//
 			// Call appropriate method to handle HTTP request by the overriding user subclass
@@ -452,7 +452,7 @@ public abstract class KHTTPServerThread extends KSocketServerThread {
 				.append(Integer.toString(argStatus))
 				.append(' ')
 				.append(K.getHTTPStatusText(argStatus));
-			KLog.debug("HTTP Response: {}", clientData.toString());
+			KLog.debug("HTTP Response: {}", clientData);
 			clientData.append(K.LINE_SEPARATOR);
 			
 			// Set standard HTTP response headers
@@ -496,10 +496,10 @@ public abstract class KHTTPServerThread extends KSocketServerThread {
 				write(argData);
 			}
 			
-			KLog.debug("HTTP response sent ({} headers, {} payload, {} ms)",
+			KLog.debug("HTTP response sent ({} headers, {} payload, {} ms)", () -> new Object[] {
 					headers.size(),
 					K.formatBytes((K.isEmpty(argData) ? 0 : argData.length)),
-					timer.getElapsedMilliseconds());
+					timer.getElapsedMilliseconds()});
 			
 			return true;
 			
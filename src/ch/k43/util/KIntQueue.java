@@ -0,0 +1,154 @@
+package ch.k43.util;
+
+/**
+ * Implements a fast, thread-safe and named bounded FIFO queue of int values without boxing.<p>
+ *
+ * The values are stored in a lock-free array ring, so producers and consumers neither allocate objects nor take a lock while
+ * values flow. The capacity is rounded up to the next power of two. The queue shares the names, the metrics (KQueue.getAllMetrics())
+ * and the close semantics with KQueue: After close(), put() returns false and consumers take the remaining values. Then get()
+ * returns EMPTY and isEndOfStream() returns true.<p>
+ *
+ * <pre>
+ * Example:
+ *
+ * try (KIntQueue queue = new KIntQueue("Counters", 65536)) {
+ *    queue.put(4711);
+ *    ...
+ *    int counter = queue.get();
+ * }
+ * </pre>
+ *
+ * @see KQueue
+ * @see KLongQueue
+ *
+ * @since 2026.10.17
+ */
+public final class KIntQueue extends KPrimitiveQueue {
+
+	/**
+	 * Value returned if no value is available (time-out or queue closed). This value cannot be added to the queue.
+	 */
+	public static final int	EMPTY		= Integer.MIN_VALUE;
+
+	// Declarations
+	private final int[]		gBuffer;
+
+	/**
+	 * Create queue.
+	 *
+	 * @param	argQueueName	The name of the queue
+	 * @param	argCapacity		Maximum number of values (rounded up to the next power of two)
+	 */
+	public KIntQueue(String argQueueName, int argCapacity) {
+		this(argQueueName, argCapacity, 0);
+	}
+
+	/**
+	 * Create queue with options.
+	 *
+	 * @param	argQueueName	The name of the queue
+	 * @param	argCapacity		Maximum number of values (rounded up to the next power of two)
+	 * @param	argOptions		0 or KQueue.METRICS to record the detailed metrics
+	 */
+	public KIntQueue(String argQueueName, int argCapacity, int argOptions) {
+		super(argQueueName, argCapacity, argOptions);
+		gBuffer = new int[gMask + 1];
+
+		register();
+	}
+
+	/**
+	 * Return the queue if present.
+	 *
+	 * @param	argQueueName	The name of the queue
+	 * @return	Queue object or null if no KIntQueue with this name exists
+	 */
+	public static KIntQueue open(String argQueueName) {
+		return KQueue.openPrimitive(argQueueName, KIntQueue.class);
+	}
+
+	/**
+	 * Return the next value and wait if the queue is empty.
+	 *
+	 * @return	Value or EMPTY if the queue is closed and drained
+	 */
+	public int get() {
+		return get(Long.MAX_VALUE);
+	}
+
+	/**
+	 * Return the next value and wait up to the given time if the queue is empty.
+	 *
+	 * @param	argTimeOutMs	Maximum wait time in milliseconds (0 for no wait)
+	 * @return	Value or EMPTY if no value is available or the queue is closed and drained
+	 */
+	public int get(long argTimeOutMs) {
+
+		long position = claimGet(argTimeOutMs);
+
+		if (position < 0) {
+			return EMPTY;
+		}
+
+		int value = gBuffer[(int) position & gMask];
+
+		releaseGet(position);
+		return value;
+	}
+
+	/**
+	 * Move the available values into the given array. Waits up to the given time for the first value.
+	 *
+	 * @param	argValues		Target array
+	 * @param	argTimeOutMs	Maximum wait time in milliseconds (0 for no wait)
+	 * @return	Number of values stored in the array (0 if no value is available or the queue is closed and drained)
+	 */
+	public int get(int[] argValues, long argTimeOutMs) {
+
+		// Check argument
+		KLog.argException(argValues == null, "Missing required array");
+
+		int		count		= 0;
+		long	position	= 0;
+
+		while ((count < argValues.length) && ((position = claimGet((count == 0) ? argTimeOutMs : 0)) >= 0)) {
+			argValues[count++] = gBuffer[(int) position & gMask];
+			releaseGet(position);
+		}
+
+		return count;
+	}
+
+	/**
+	 * Add a value and wait if the queue is full.
+	 *
+	 * @param	argValue	Value (not EMPTY)
+	 * @return	True if success, false if the queue was closed
+	 */
+	public boolean put(int argValue) {
+		return put(argValue, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Add a value and wait up to the given time if the queue is full.
+	 *
+	 * @param	argValue		Value (not EMPTY)
+	 * @param	argTimeOutMs	Maximum wait time in milliseconds (0 for no wait)
+	 * @return	True if success, false if the queue is still full after the wait time or was closed
+	 */
+	public boolean put(int argValue, long argTimeOutMs) {
+
+		// Check argument
+		KLog.argException(argValue == EMPTY, "Value EMPTY cannot be added");
+
+		long position = claimPut(argTimeOutMs);
+
+		if (position < 0) {
+			return false;
+		}
+
+		gBuffer[(int) position & gMask] = argValue;
+		releasePut(position);
+		return true;
+	}
+}
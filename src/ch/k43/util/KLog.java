@@ -4,9 +4,14 @@ import java.util.logging.Level;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
 import java.util.TimeZone;
+import java.util.function.Supplier;
 import java.util.logging.Handler;
+import java.util.logging.LogRecord;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -18,12 +23,31 @@ import java.io.FileNotFoundException;
  * - To enable logging, the file KLog.properties must be in the current directory or set thru -DKLogPropertyFile.<br>
  * - The syntax follows the rules set by the java.util.logging framework (Java Logging API).<br>
  * - This class only supports Java Logger levels FINEST, INFO and SEVERE thru KLog.debug(), KLog.info() and KLog.error().<br>
+ * - The optional asynchronous mode writes the log records thru a background thread (enable with -DKLogAsync=true or the properties below).<br>
+ * - The code location (class, method and line number) of the caller may be disabled for maximum throughput with -DKLogLocation=false.<br>
+ * - The logging level may be set per package or class. The most specific entry for the calling class is used, otherwise the logger level applies.
+ *   The logger level OFF (e.g. setLevelOff() or -DKLogLevel=Off) disables all logging, including the package and class levels.<br>
+ * - Debug and info messages may be sampled or rate limited per call site (class and line number). Error messages are never suppressed.<br>
+ * - The include/exclude RegEx filters (-DKLogInclude, -DKLogExclude) are applied to the formatted message after the level checks.<br>
+ * 
+ * The following properties are supported:
+ * <pre>
+ * ch.k43.util.KLog.location = true/false (log code location of caller, default true)
+ * ch.k43.util.KLog.level.{package or class name} = DEBUG/INFO/ERROR/OFF (e.g. ch.k43.util.KLog.level.ch.k43.util.KDB = ERROR)
+ * ch.k43.util.KLog.sample = N (log only 1 of N debug/info messages per call site, default 1)
+ * ch.k43.util.KLog.ratelimit = M (log at most M debug/info messages per second per call site, default 0 = unlimited)
+ * ch.k43.util.KLog.ratelimit.summary = Minimum seconds between two "Suppressed x messages from site y" lines per call site (default 60)
+ * ch.k43.util.KLog.async = true/false (default false)
+ * ch.k43.util.KLog.async.buffersize = Number of buffered log records (default 8192)
+ * ch.k43.util.KLog.async.overflow = block/dropdebug/dropnewest (action if buffer is full, default block)
+ * </pre>
  * 
  * <pre>
  * Example:
  *
  * KLog.info("Program started at {}", new Date());
  * KLog.debug("Any debugging message");
+ * KLog.debug("Payload {}", () -> new Object[] {K.toHex(payload)});	// Arguments only evaluated if debug level is enabled
  * 
  * Output:
  * 2025-02-18T08:18:18.477 D main[1]:ch.k43.util.KLog:clinit:121                        ===== Application started 2025-02-18T08:18:18.456 =====
@@ -53,26 +77,44 @@ public class KLog {
 	protected static final	String		LOG_LEVEL_OVERRIDE		= System.getProperty("KLogLevel", "").trim().toUpperCase();
 	protected static final	String		LOG_EXCLUDE				= System.getProperty("KLogExclude", "").trim();
 	protected static final	String		LOG_INCLUDE				= System.getProperty("KLogInclude", "").trim();
+	protected static final	String		LOG_ASYNC				= System.getProperty("KLogAsync", "").trim();
+	protected static final	String		LOG_LOCATION			= System.getProperty("KLogLocation", "").trim();
 	
 	protected static final	String		LOG_DELIMITER			= "∞∞∞";				// Used by KLog and all KLogxxxx formatter/handler
 
 	protected static final	int			MAX_LOG_DATA			= 1_000;
 	
-	private static final	String[]	EXCLUDE_CLASSES			= {
-																KLogJDBCHandler.class.getName(),
-																KLogSMTPHandler.class.getName(),
-																KLogSMTPHandlerThread.class.getName(),
-																KLogCSVFormatter.class.getName(),
-																KLogJSONFormatter.class.getName(),
-																KLogLineFormatter.class.getName(),
-																KLogXMLFormatter.class.getName(),
-																KLogYAMLFormatter.class.getName(),
-																};
+	private static final	long		ASYNC_TIMEOUT_MS		= 5_000;
+	
+	private static final	int			MAX_STACK_FRAMES		= 32;				// Maximum number of frames inspected to find the caller
+	
+	private static final	int			LEVEL_DEBUG				= Level.FINEST.intValue();
+	private static final	int			LEVEL_INFO				= Level.INFO.intValue();
+	private static final	int			LEVEL_ERROR				= Level.SEVERE.intValue();
+	private static final	int			LEVEL_OFF				= Level.OFF.intValue();
+	
+	private static final	StackWalker				STACK_WALKER	= StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+	private static final	ThreadLocal<Boolean>	WRITE_GUARD		= ThreadLocal.withInitial(() -> Boolean.FALSE);
+	private static final	Map<String, Level>		CLASS_LEVELS	= new HashMap<>();		// Read-only after class initialization
+	
+	// Level of a class resolved once from CLASS_LEVELS (null if neither class nor package has a level set)
+	private static final	ClassValue<Integer>		CLASS_LEVEL_CACHE	= new ClassValue<Integer>() {
+		@Override
+		protected Integer computeValue(Class<?> argClass) {
+			return getClassLevel(argClass.getName());
+		}
+	};
 
 	private static Logger				gLogLogger				= null;
 	private	static Level				gLogInitLevel			= Level.OFF;
 	private static Pattern				gExcludeRegEx			= null;
 	private static Pattern				gIncludeRegEx			= null;
+	private static volatile KLogAsyncWriter	gAsyncWriter	= null;
+	private static boolean				gLogLocation			= true;
+	private static boolean				gSiteLimits				= false;			// Sampling or rate limiting per call site enabled
+	private static volatile Level		gLogLevel				= Level.OFF;		// Effective KLog level
+	private static volatile int			gLevelThreshold			= LEVEL_OFF;		// Most verbose level of KLog and all class levels (Level.intValue())
+	private static Level				gClassLevelMin			= Level.OFF;		// Most verbose class level
 	
 	//
 	// Static block to initialize class
@@ -100,8 +142,12 @@ public class KLog {
 			if (!gLogLogger.isLoggable(Level.FINEST) && (!gLogLogger.isLoggable(Level.INFO)) && (!gLogLogger.isLoggable(Level.SEVERE))) {
 				close();
 			} else {
+				// Read class and package levels
+				readClassLevels();
+				
 				// Save configured Logger level
 				gLogInitLevel = gLogLogger.getLevel();
+				updateLevelThreshold(gLogInitLevel);
 			}
 		} catch (Exception e) {
 			
@@ -191,6 +237,83 @@ public class KLog {
 			}
 		}
 		
+		//
+		// Check if code location is disabled by -DKLogLocation or KLog.property "ch.k43.util.KLog.location"
+		//
+		String locationValue = !K.isEmpty(LOG_LOCATION) ? LOG_LOCATION : getProperty(".location", "true");
+		
+		if (locationValue.equalsIgnoreCase("false")) {
+			gLogLocation = false;
+		}
+		
+		//
+		// Set sampling and rate limiting per call site from KLog.properties "ch.k43.util.KLog.sample" and "ch.k43.util.KLog.ratelimit"
+		//
+		String sampleRate	= getProperty(".sample", "1");
+		String rateLimit	= getProperty(".ratelimit", "0");
+		String summarySecs	= getProperty(".ratelimit.summary", "60");
+		
+		if (!K.isInteger(sampleRate, 1, Integer.MAX_VALUE)) {
+			throw new RuntimeException("Logging property " + KLog.class.getName() + ".sample must be a positive number");
+		}
+		
+		if (!K.isInteger(rateLimit, 0, Integer.MAX_VALUE)) {
+			throw new RuntimeException("Logging property " + KLog.class.getName() + ".ratelimit must be zero or a positive number");
+		}
+		
+		if (!K.isInteger(summarySecs, 0, Integer.MAX_VALUE)) {
+			throw new RuntimeException("Logging property " + KLog.class.getName() + ".ratelimit.summary must be zero or a positive number");
+		}
+		
+		KLogSite.configure(Integer.parseInt(sampleRate), Integer.parseInt(rateLimit), Integer.parseInt(summarySecs));
+		gSiteLimits = KLogSite.isEnabled();
+		
+		//
+		// Start asynchronous log writer if requested by -DKLogAsync or KLog.property "ch.k43.util.KLog.async"
+		//
+		if (isActive()) {
+			
+			String asyncValue = !K.isEmpty(LOG_ASYNC) ? LOG_ASYNC : getProperty(".async", "false");
+			
+			if (asyncValue.equalsIgnoreCase("true")) {
+				
+				String bufferSize = getProperty(".async.buffersize", String.valueOf(KLogAsyncWriter.DEFAULT_BUFFER_SIZE));
+				
+				if (!K.isInteger(bufferSize, 2, Integer.MAX_VALUE)) {
+					throw new RuntimeException("Logging property " + KLog.class.getName() + ".async.buffersize must be a positive number");
+				}
+
+				int overflowPolicy = 0;
+				
+				switch (getProperty(".async.overflow", "block").toLowerCase()) {
+				
+					case "block": {
+						overflowPolicy = KLogAsyncWriter.OVERFLOW_BLOCK;
+						break;
+					}
+					
+					case "dropdebug": {
+						overflowPolicy = KLogAsyncWriter.OVERFLOW_DROP_DEBUG;
+						break;
+					}
+					
+					case "dropnewest": {
+						overflowPolicy = KLogAsyncWriter.OVERFLOW_DROP_NEWEST;
+						break;
+					}
+					
+					default: {
+						throw new RuntimeException("Logging property " + KLog.class.getName() + ".async.overflow must be 'block', 'dropdebug' or 'dropnewest'");
+					}
+				}
+				
+				gAsyncWriter = new KLogAsyncWriter(gLogLogger, Integer.parseInt(bufferSize), overflowPolicy);
+				
+				// Write all pending log records at JVM termination
+				Runtime.getRuntime().addShutdownHook(new Thread(KLog::flush, "KLogShutdownHook"));
+			}
+		}
+		
 		//
 		// Log environment if in debug mode
 		//
@@ -216,6 +339,22 @@ public class KLog {
 				debug("KLog logging filter set with -DKLogInclude={}", LOG_INCLUDE);
 			}
 			
+			if (gAsyncWriter != null) {
+				debug("KLog asynchronous mode enabled ({} buffered records)", gAsyncWriter.getBufferSize());
+			}
+			
+			if (!gLogLocation) {
+				debug("KLog code location disabled");
+			}
+			
+			if (gSiteLimits) {
+				debug("KLog sampling 1 of {} and rate limit {} messages per second per call site", sampleRate, rateLimit);
+			}
+			
+			for (Map.Entry<String, Level> classLevel : CLASS_LEVELS.entrySet()) {
+				debug("KLog level for {} set to {}", classLevel.getKey(), classLevel.getValue());
+			}
+			
 			// Show network and OS
 			debug("Network host {} ({})",
 					K.getLocalHostName(),
@@ -304,8 +443,11 @@ public class KLog {
 		
 		// Log error and exception
 		if (isActive()) {
-			write(Level.SEVERE, formatLogMessage(workString));
-			logStackTrace(runtimeException);
+			StackWalker.StackFrame caller = getCaller();
+			if (isLoggable(LEVEL_ERROR, caller)) {
+				write(Level.SEVERE, formatLogMessage(workString, caller));
+				logStackTrace(runtimeException);
+			}
 		}
 		
 		// Throw exception
@@ -330,8 +472,11 @@ public class KLog {
 		
 		// Log error and exception
 		if (isActive()) {
-			write(Level.SEVERE, formatLogMessage(exception.toString()));
-			logStackTrace(exception);
+			StackWalker.StackFrame caller = getCaller();
+			if (isLoggable(LEVEL_ERROR, caller)) {
+				write(Level.SEVERE, formatLogMessage(exception.toString(), caller));
+				logStackTrace(exception);
+			}
 		}
 		
 		// Throw exception
@@ -377,8 +522,11 @@ public class KLog {
 		
 		// Log error and exception
 		if (isActive()) {
-			write(Level.SEVERE, formatLogMessage(workString));
-			logStackTrace(illegalArgumentException);
+			StackWalker.StackFrame caller = getCaller();
+			if (isLoggable(LEVEL_ERROR, caller)) {
+				write(Level.SEVERE, formatLogMessage(workString, caller));
+				logStackTrace(illegalArgumentException);
+			}
 		}
 		
 		// Throw exception
@@ -408,14 +556,34 @@ public class KLog {
 			return;
 		}
 		
+		// Report suppressed messages of all call sites
+		for (String summary : KLogSite.pollAllSummaries()) {
+			write(Level.INFO, formatLogMessage(summary, null));
+		}
+		
 		// Write close message
 		debug("KLog terminated");
 		
-		// Close all handlers
-		for (Handler handler : gLogLogger.getParent().getHandlers()) {
-			handler.flush();
-		    handler.close();
-		    gLogLogger.removeHandler(handler);
+		// Disable all further logging calls
+		gLevelThreshold = LEVEL_OFF;
+		
+		// Write all pending log records and stop the asynchronous writer
+		if (gAsyncWriter != null) {
+			gAsyncWriter.shutdown(ASYNC_TIMEOUT_MS);
+			gAsyncWriter = null;
+		}
+		
+		// Close all handlers (ignore any logging by the handlers)
+		boolean writeGuard = setWriteGuard(true);
+		
+		try {
+			for (Handler handler : gLogLogger.getParent().getHandlers()) {
+				handler.flush();
+			    handler.close();
+			    gLogLogger.removeHandler(handler);
+			}
+		} finally {
+			setWriteGuard(writeGuard);
 		}
 		
 		// Reset log handler
@@ -437,12 +605,146 @@ public class KLog {
 	public static void debug(boolean argExpression, String argMessage, Object... argObjects) {
 
 		// Check if anything to log
-		if ((!isActive()) || (!argExpression) || (K.isEmpty(argMessage))) {
+		if ((gLevelThreshold > LEVEL_DEBUG) || (!argExpression) || (K.isEmpty(argMessage))) {
+			return;
+		}
+		
+		// Check class or package level of caller
+		StackWalker.StackFrame caller = getCaller();
+		
+		if (!isLoggable(LEVEL_DEBUG, caller)) {
+			return;
+		}
+		
+		// Write log message
+		write(Level.FINEST, formatLogMessage(K.replaceParams(argMessage, argObjects), caller));
+	}
+	
+	/**
+	 * Write log message of level FINEST.
+	 * 
+	 * @param	argMessage		Message to be written
+	 * 
+	 * @since 2026.10.17
+	 */
+	public static void debug(String argMessage) {
+		log(LEVEL_DEBUG, Level.FINEST, argMessage, null, null, null, null, 0);
+	}
+	
+	/**
+	 * Write log message of level FINEST. This method does not allocate any memory if the debug level is not enabled
+	 * (autoboxing of primitive arguments at the call site still allocates).
+	 * 
+	 * @param	argMessage		Message to be written
+	 * @param	argObject1		Argument for the first {} parameter
+	 * 
+	 * @since 2026.10.17
+	 */
+	public static void debug(String argMessage, Object argObject1) {
+		log(LEVEL_DEBUG, Level.FINEST, argMessage, argObject1, null, null, null, 1);
+	}
+	
+	/**
+	 * Write log message of level FINEST. This method does not allocate any memory if the debug level is not enabled
+	 * (autoboxing of primitive arguments at the call site still allocates).
+	 * 
+	 * @param	argMessage		Message to be written
+	 * @param	argObject1		Argument for the first {} parameter
+	 * @param	argObject2		Argument for the second {} parameter
+	 * 
+	 * @since 2026.10.17
+	 */
+	public static void debug(String argMessage, Object argObject1, Object argObject2) {
+		log(LEVEL_DEBUG, Level.FINEST, argMessage, argObject1, argObject2, null, null, 2);
+	}
+	
+	/**
+	 * Write log message of level FINEST. This method does not allocate any memory if the debug level is not enabled
+	 * (autoboxing of primitive arguments at the call site still allocates).
+	 * 
+	 * @param	argMessage		Message to be written
+	 * @param	argObject1		Argument for the first {} parameter
+	 * @param	argObject2		Argument for the second {} parameter
+	 * @param	argObject3		Argument for the third {} parameter
+	 * 
+	 * @since 2026.10.17
+	 */
+	public static void debug(String argMessage, Object argObject1, Object argObject2, Object argObject3) {
+		log(LEVEL_DEBUG, Level.FINEST, argMessage, argObject1, argObject2, argObject3, null, 3);
+	}
+	
+	/**
+	 * Write log message of level FINEST. This method does not allocate any memory if the debug level is not enabled
+	 * (autoboxing of primitive arguments at the call site still allocates).
+	 * 
+	 * @param	argMessage		Message to be written
+	 * @param	argObject1		Argument for the first {} parameter
+	 * @param	argObject2		Argument for the second {} parameter
+	 * @param	argObject3		Argument for the third {} parameter
+	 * @param	argObject4		Argument for the fourth {} parameter
+	 * 
+	 * @since 2026.10.17
+	 */
+	public static void debug(String argMessage, Object argObject1, Object argObject2, Object argObject3, Object argObject4) {
+		log(LEVEL_DEBUG, Level.FINEST, argMessage, argObject1, argObject2, argObject3, argObject4, 4);
+	}
+	
+	/**
+	 * Write log message of level FINEST. The arguments are only evaluated if the debug level is enabled.
+	 * 
+	 * @param	argMessage		Message to be written
+	 * @param	argSupplier		Supplier of the arguments for {} parameters
+	 * 
+	 * @since 2026.10.17
+	 */
+	public static void debug(String argMessage, Supplier<Object[]> argSupplier) {
+
+		// Check if anything to log
+		if ((gLevelThreshold > LEVEL_DEBUG) || (K.isEmpty(argMessage)) || (argSupplier == null)) {
+			return;
+		}
+		
+		// Check class or package level of caller
+		StackWalker.StackFrame caller = getCaller();
+		
+		if (!isLoggable(LEVEL_DEBUG, caller)) {
 			return;
 		}
 		
 		// Write log message
-		write(Level.FINEST, formatLogMessage(K.replaceParams(argMessage, argObjects)));
+		write(Level.FINEST, formatLogMessage(replaceParams(argMessage, argSupplier.get()), caller));
+	}
+	
+	/**
+	 * Write log message of level FINEST. The message is only built if the debug level is enabled.
+	 * 
+	 * @param	argSupplier		Supplier of the message to be written
+	 * 
+	 * @since 2026.10.17
+	 */
+	public static void debug(Supplier<String> argSupplier) {
+
+		// Check if anything to log
+		if ((gLevelThreshold > LEVEL_DEBUG) || (argSupplier == null)) {
+			return;
+		}
+		
+		// Check class or package level of caller
+		StackWalker.StackFrame caller = getCaller();
+		
+		if (!isLoggable(LEVEL_DEBUG, caller)) {
+			return;
+		}
+		
+		// Build message
+		String message = argSupplier.get();
+		
+		if (K.isEmpty(message)) {
+			return;
+		}
+		
+		// Write log message
+		write(Level.FINEST, formatLogMessage(message, caller));
 	}
 	
 	/**
@@ -454,12 +756,19 @@ public class KLog {
 	public static void debug(String argMessage, Object... argObjects) {
 
 		// Check if anything to log
-		if ((!isActive()) || (K.isEmpty(argMessage))) {
+		if ((gLevelThreshold > LEVEL_DEBUG) || (K.isEmpty(argMessage))) {
+			return;
+		}
+		
+		// Check class or package level of caller
+		StackWalker.StackFrame caller = getCaller();
+		
+		if (!isLoggable(LEVEL_DEBUG, caller)) {
 			return;
 		}
 		
 		// Write log message
-		write(Level.FINEST, formatLogMessage(K.replaceParams(argMessage, argObjects)));
+		write(Level.FINEST, formatLogMessage(K.replaceParams(argMessage, argObjects), caller));
 	}
 	
 	/**
@@ -487,8 +796,15 @@ public class KLog {
 			return;
 		}
 		
+		// Check class or package level of caller
+		StackWalker.StackFrame caller = getCaller();
+		
+		if (!isLoggable(LEVEL_ERROR, caller)) {
+			return;
+		}
+		
 		// Write log message
-		write(Level.SEVERE, formatLogMessage(workString));
+		write(Level.SEVERE, formatLogMessage(workString, caller));
 	}
 	
 	/**
@@ -507,7 +823,7 @@ public class KLog {
 		K.saveError(argException.toString());
 		
 		// Check if logging is active
-		if (!isActive()) {
+		if ((!isActive()) || (!isLoggable(LEVEL_ERROR, getCaller()))) {
 			return;
 		}
 		
@@ -539,13 +855,55 @@ public class KLog {
 			return;
 		}
 		
+		// Check class or package level of caller
+		StackWalker.StackFrame caller = getCaller();
+		
+		if (!isLoggable(LEVEL_ERROR, caller)) {
+			return;
+		}
+		
 		// Write log message
-		write(Level.SEVERE, formatLogMessage(workString));
+		write(Level.SEVERE, formatLogMessage(workString, caller));
 	
 		// Format exception message and stack trace
 		logStackTrace(argException);
 	}
 
+	/**
+	 * Log error message. As the error message is always saved (see K.getLastError()), the supplier is called even if logging is not active.
+	 * 
+	 * @param	argMessage		Message to be written
+	 * @param	argSupplier		Supplier of the arguments for {} parameters
+	 * 
+	 * @since 2026.10.17
+	 */
+	public static void error(String argMessage, Supplier<Object[]> argSupplier) {
+
+		// Check if anything to log
+		if ((K.isEmpty(argMessage)) || (argSupplier == null)) {
+			return;
+		}
+		
+		error(replaceParams(argMessage, argSupplier.get()), new Object[0]);
+	}
+	
+	/**
+	 * Log error message. As the error message is always saved (see K.getLastError()), the supplier is called even if logging is not active.
+	 * 
+	 * @param	argSupplier		Supplier of the message to be written
+	 * 
+	 * @since 2026.10.17
+	 */
+	public static void error(Supplier<String> argSupplier) {
+
+		// Check if anything to log
+		if (argSupplier == null) {
+			return;
+		}
+		
+		error(argSupplier.get(), new Object[0]);
+	}
+	
 	/**
 	 * Log error message.
 	 * 
@@ -570,39 +928,92 @@ public class KLog {
 			return;
 		}
 		
+		// Check class or package level of caller
+		StackWalker.StackFrame caller = getCaller();
+		
+		if (!isLoggable(LEVEL_ERROR, caller)) {
+			return;
+		}
+		
 		// Write log message
-		write(Level.SEVERE, formatLogMessage(workString));
+		write(Level.SEVERE, formatLogMessage(workString, caller));
+	}
+	
+	/**
+	 * Write all pending log records (asynchronous mode) and flush all logging handlers.
+	 * 
+	 * @since 2026.10.17
+	 */
+	public static void flush() {
+		
+		// Check if logger active
+		Logger logger = gLogLogger;
+		
+		if (logger == null) {
+			return;
+		}
+		
+		// Wait for asynchronous writer to write all pending log records
+		KLogAsyncWriter asyncWriter = gAsyncWriter;
+		
+		if (asyncWriter != null) {
+			asyncWriter.flush(ASYNC_TIMEOUT_MS);
+		}
+		
+		// Flush all handlers (ignore any logging by the handlers)
+		boolean writeGuard = setWriteGuard(true);
+		
+		try {
+			for (Handler handler : logger.getParent().getHandlers()) {
+				handler.flush();
+			}
+		} finally {
+			setWriteGuard(writeGuard);
+		}
 	}
 	
 	/**
 	 * Prepend calling code location to log message, delimited by KLog.DELIMITER.
+	 * 
+	 * @param	argMessage	Log message
+	 * @param	argCaller	Stack frame of the caller (see getCaller()) or null
+	 * @return	Formatted log message
 	 */
 	@SuppressWarnings("deprecation")
-	private static String formatLogMessage(String argMessage) {
+	private static String formatLogMessage(String argMessage, StackWalker.StackFrame argCaller) {
 
 		// Check if argument valid and code location not already prepended
 		if ((!K.isEmpty(argMessage)) && (argMessage.indexOf(KLog.LOG_DELIMITER) != -1)) {
 			return (argMessage);
 		}
 
-		StackTraceElement[] stackTraceElements	= Thread.currentThread().getStackTrace();
-		StringBuilder		strBuilder			= new StringBuilder();
+		// Skip formatting if the message will be discarded by write() anyway
+		if (WRITE_GUARD.get()) {
+			return (argMessage);
+		}
+		
+		StringBuilder strBuilder = new StringBuilder();
 
 		// Format thread name
 		strBuilder.append(Thread.currentThread().getName())
 			.append('[')
 			.append((K.JVM_MAJOR_VERSION < 19) ? Thread.currentThread().getId() : Thread.currentThread().threadId())
-			.append("]:");
-
-		// Format calling class, method and line number (4th element is the user code location issuing the KLog method call)
-		if (stackTraceElements.length > 3) {
-			strBuilder.append(stackTraceElements[3].getClassName())
-				.append(':')
-				.append(stackTraceElements[3].getMethodName())
-				.append(':')
-				.append(stackTraceElements[3].getLineNumber());
-		} else {
-			strBuilder.append("N/A");
+			.append(']');
+
+		// Format calling class, method and line number
+		if (gLogLocation) {
+			
+			strBuilder.append(':');
+			
+			if (argCaller != null) {
+				strBuilder.append(argCaller.getClassName())
+					.append(':')
+					.append(argCaller.getMethodName())
+					.append(':')
+					.append(argCaller.getLineNumber());
+			} else {
+				strBuilder.append("N/A");
+			}
 		}
 		
 		// Return formatted string to caller
@@ -612,6 +1023,112 @@ public class KLog {
 	    return strBuilder.toString();
 	}
 
+	/**
+	 * Write log message with up to four arguments for {} parameters (used by the debug() and info() methods with a fixed number of
+	 * arguments, so no argument array is allocated if the level is not enabled).
+	 * 
+	 * @param	argLevel		Level value (LEVEL_DEBUG or LEVEL_INFO)
+	 * @param	argJulLevel		Logger level
+	 * @param	argMessage		Message to be written
+	 * @param	argObject1		Argument for the first {} parameter
+	 * @param	argObject2		Argument for the second {} parameter
+	 * @param	argObject3		Argument for the third {} parameter
+	 * @param	argObject4		Argument for the fourth {} parameter
+	 * @param	argCount		Number of arguments (0 to 4)
+	 * 
+	 * @since 2026.10.17
+	 */
+	private static void log(int argLevel, Level argJulLevel, String argMessage, Object argObject1, Object argObject2, Object argObject3, Object argObject4, int argCount) {
+
+		// Check if anything to log
+		if ((gLevelThreshold > argLevel) || (K.isEmpty(argMessage))) {
+			return;
+		}
+		
+		// Check class or package level of caller
+		StackWalker.StackFrame caller = getCaller();
+		
+		if (!isLoggable(argLevel, caller)) {
+			return;
+		}
+		
+		// Replace {} parameters
+		String message = argMessage;
+		
+		switch (argCount) {
+			case 1:
+				message = K.replaceParams(argMessage, argObject1);
+				break;
+			case 2:
+				message = K.replaceParams(argMessage, argObject1, argObject2);
+				break;
+			case 3:
+				message = K.replaceParams(argMessage, argObject1, argObject2, argObject3);
+				break;
+			case 4:
+				message = K.replaceParams(argMessage, argObject1, argObject2, argObject3, argObject4);
+				break;
+			default:
+				break;
+		}
+		
+		// Write log message
+		write(argJulLevel, formatLogMessage(message, caller));
+	}
+	
+	/**
+	 * Get the stack frame of the caller (first stack frame outside of KLog or the KLog static initializer). Only a limited number of frames
+	 * is inspected and only the frames up to the caller are materialized.
+	 * 
+	 * @return	Stack frame of the caller or null if not needed (code location, class levels and call site limits disabled) or not found
+	 * 
+	 * @since 2026.10.17
+	 */
+	private static StackWalker.StackFrame getCaller() {
+		
+		// Check if caller is needed at all
+		if ((!gLogLocation && CLASS_LEVELS.isEmpty() && !gSiteLimits) || WRITE_GUARD.get()) {
+			return null;
+		}
+		
+		return STACK_WALKER.walk(frames -> frames
+				.limit(MAX_STACK_FRAMES)
+				.filter(frame -> (frame.getDeclaringClass() != KLog.class) || frame.getMethodName().equals("<clinit>"))
+				.findFirst()
+				.orElse(null));
+	}
+	
+	/**
+	 * Get the configured level of the class or its nearest package (e.g. for "com.acme.api.Server$Worker" the entries
+	 * "com.acme.api.Server$Worker", "com.acme.api.Server", "com.acme.api", "com.acme" and "com" are checked).
+	 * 
+	 * @param	argClassName	Class name
+	 * @return	Level value or null if no class or package level is set
+	 * 
+	 * @since 2026.10.17
+	 */
+	private static Integer getClassLevel(String argClassName) {
+		
+		String name = argClassName;
+		
+		while (true) {
+			
+			Level level = CLASS_LEVELS.get(name);
+			
+			if (level != null) {
+				return level.intValue();
+			}
+			
+			int position = Math.max(name.lastIndexOf('.'), name.lastIndexOf('$'));
+			
+			if (position <= 0) {
+				return null;
+			}
+			
+			name = name.substring(0, position);
+		}
+	}
+	
 	/**
 	 * Get logger level.
 	 * 
@@ -626,7 +1143,7 @@ public class KLog {
 			return (Level.OFF);
 		}
 		
-		return (gLogLogger.getLevel());
+		return (gLogLevel);
 	}
 	
 	/**
@@ -641,12 +1158,146 @@ public class KLog {
 	public static void info(boolean argExpression, String argMessage, Object... argObjects) {
 
 		// Check if anything to log
-		if ((!isActive()) || (!argExpression) || (K.isEmpty(argMessage))) {
+		if ((gLevelThreshold > LEVEL_INFO) || (!argExpression) || (K.isEmpty(argMessage))) {
+			return;
+		}
+		
+		// Check class or package level of caller
+		StackWalker.StackFrame caller = getCaller();
+		
+		if (!isLoggable(LEVEL_INFO, caller)) {
+			return;
+		}
+		
+		// Write log message
+		write(Level.INFO, formatLogMessage(K.replaceParams(argMessage, argObjects), caller));
+	}
+	
+	/**
+	 * Write log message of level INFO.
+	 * 
+	 * @param	argMessage		Message to be written
+	 * 
+	 * @since 2026.10.17
+	 */
+	public static void info(String argMessage) {
+		log(LEVEL_INFO, Level.INFO, argMessage, null, null, null, null, 0);
+	}
+	
+	/**
+	 * Write log message of level INFO. This method does not allocate any memory if the info level is not enabled
+	 * (autoboxing of primitive arguments at the call site still allocates).
+	 * 
+	 * @param	argMessage		Message to be written
+	 * @param	argObject1		Argument for the first {} parameter
+	 * 
+	 * @since 2026.10.17
+	 */
+	public static void info(String argMessage, Object argObject1) {
+		log(LEVEL_INFO, Level.INFO, argMessage, argObject1, null, null, null, 1);
+	}
+	
+	/**
+	 * Write log message of level INFO. This method does not allocate any memory if the info level is not enabled
+	 * (autoboxing of primitive arguments at the call site still allocates).
+	 * 
+	 * @param	argMessage		Message to be written
+	 * @param	argObject1		Argument for the first {} parameter
+	 * @param	argObject2		Argument for the second {} parameter
+	 * 
+	 * @since 2026.10.17
+	 */
+	public static void info(String argMessage, Object argObject1, Object argObject2) {
+		log(LEVEL_INFO, Level.INFO, argMessage, argObject1, argObject2, null, null, 2);
+	}
+	
+	/**
+	 * Write log message of level INFO. This method does not allocate any memory if the info level is not enabled
+	 * (autoboxing of primitive arguments at the call site still allocates).
+	 * 
+	 * @param	argMessage		Message to be written
+	 * @param	argObject1		Argument for the first {} parameter
+	 * @param	argObject2		Argument for the second {} parameter
+	 * @param	argObject3		Argument for the third {} parameter
+	 * 
+	 * @since 2026.10.17
+	 */
+	public static void info(String argMessage, Object argObject1, Object argObject2, Object argObject3) {
+		log(LEVEL_INFO, Level.INFO, argMessage, argObject1, argObject2, argObject3, null, 3);
+	}
+	
+	/**
+	 * Write log message of level INFO. This method does not allocate any memory if the info level is not enabled
+	 * (autoboxing of primitive arguments at the call site still allocates).
+	 * 
+	 * @param	argMessage		Message to be written
+	 * @param	argObject1		Argument for the first {} parameter
+	 * @param	argObject2		Argument for the second {} parameter
+	 * @param	argObject3		Argument for the third {} parameter
+	 * @param	argObject4		Argument for the fourth {} parameter
+	 * 
+	 * @since 2026.10.17
+	 */
+	public static void info(String argMessage, Object argObject1, Object argObject2, Object argObject3, Object argObject4) {
+		log(LEVEL_INFO, Level.INFO, argMessage, argObject1, argObject2, argObject3, argObject4, 4);
+	}
+	
+	/**
+	 * Write log message of level INFO. The arguments are only evaluated if the info level is enabled.
+	 * 
+	 * @param	argMessage		Message to be written
+	 * @param	argSupplier		Supplier of the arguments for {} parameters
+	 * 
+	 * @since 2026.10.17
+	 */
+	public static void info(String argMessage, Supplier<Object[]> argSupplier) {
+
+		// Check if anything to log
+		if ((gLevelThreshold > LEVEL_INFO) || (K.isEmpty(argMessage)) || (argSupplier == null)) {
+			return;
+		}
+
+		// Check class or package level of caller
+		StackWalker.StackFrame caller = getCaller();
+		
+		if (!isLoggable(LEVEL_INFO, caller)) {
+			return;
+		}
+		
+		// Write log message
+		write(Level.INFO, formatLogMessage(replaceParams(argMessage, argSupplier.get()), caller));
+	}
+	
+	/**
+	 * Write log message of level INFO. The message is only built if the info level is enabled.
+	 * 
+	 * @param	argSupplier		Supplier of the message to be written
+	 * 
+	 * @since 2026.10.17
+	 */
+	public static void info(Supplier<String> argSupplier) {
+
+		// Check if anything to log
+		if ((gLevelThreshold > LEVEL_INFO) || (argSupplier == null)) {
+			return;
+		}
+
+		// Check class or package level of caller
+		StackWalker.StackFrame caller = getCaller();
+		
+		if (!isLoggable(LEVEL_INFO, caller)) {
+			return;
+		}
+		
+		// Build message
+		String message = argSupplier.get();
+		
+		if (K.isEmpty(message)) {
 			return;
 		}
 		
 		// Write log message
-		write(Level.INFO, formatLogMessage(K.replaceParams(argMessage, argObjects)));
+		write(Level.INFO, formatLogMessage(message, caller));
 	}
 	
 	/**
@@ -658,12 +1309,33 @@ public class KLog {
 	public static void info(String argMessage, Object... argObjects) {
 
 		// Check if anything to log
-		if ((!isActive()) || (K.isEmpty(argMessage))) {
+		if ((gLevelThreshold > LEVEL_INFO) || (K.isEmpty(argMessage))) {
 			return;
 		}
 
+		// Check class or package level of caller
+		StackWalker.StackFrame caller = getCaller();
+		
+		if (!isLoggable(LEVEL_INFO, caller)) {
+			return;
+		}
+		
 		// Write log message
-		write(Level.INFO, formatLogMessage(K.replaceParams(argMessage, argObjects)));
+		write(Level.INFO, formatLogMessage(K.replaceParams(argMessage, argObjects), caller));
+	}
+	
+	/**
+	 * Get logging property from KLog.properties (key is prefixed with the class name).
+	 * 
+	 * @param	argKey		Property key suffix (e.g. ".async")
+	 * @param	argDefault	Default value
+	 * @return	Trimmed property value or default value
+	 */
+	private static String getProperty(String argKey, String argDefault) {
+		
+		String value = LogManager.getLogManager().getProperty(KLog.class.getName() + argKey);
+		
+		return K.isEmpty(value) ? argDefault : value.trim();
 	}
 	
 	/**
@@ -672,7 +1344,47 @@ public class KLog {
 	 * @return	True if logging is active, false otherwise
 	 */
 	public static boolean isActive() {
-		return ((gLogLogger != null) && (gLogLogger.getLevel() != Level.OFF));
+		return (gLevelThreshold != LEVEL_OFF);
+	}
+	
+	/**
+	 * Check if the level is enabled for the class or package of the caller and if the message passes the sampling and rate limiting
+	 * of the call site. The class level is resolved once per class and then cached.
+	 * 
+	 * @param	argLevel	Level value to check
+	 * @param	argCaller	Stack frame of the caller or null
+	 * @return	True if enabled, false otherwise
+	 * 
+	 * @since 2026.10.17
+	 */
+	private static boolean isLoggable(int argLevel, StackWalker.StackFrame argCaller) {
+		
+		// Check class or package level if set, otherwise the KLog level
+		Integer classLevel = ((argCaller != null) && (!CLASS_LEVELS.isEmpty())) ? CLASS_LEVEL_CACHE.get(argCaller.getDeclaringClass()) : null;
+		
+		if (argLevel < ((classLevel != null) ? classLevel : gLogLevel.intValue())) {
+			return false;
+		}
+		
+		// Apply sampling and rate limiting of the call site (error messages are never suppressed)
+		if ((!gSiteLimits) || (argCaller == null) || (argLevel >= LEVEL_ERROR)) {
+			return true;
+		}
+		
+		KLogSite site = KLogSite.get(argCaller);
+		
+		if (!site.tryAcquire()) {
+			return false;
+		}
+		
+		// Report suppressed messages once per summary interval
+		String summary = site.pollSummary();
+		
+		if (summary != null) {
+			write(Level.INFO, formatLogMessage(summary, argCaller));
+		}
+		
+		return true;
 	}
 	
 	/**
@@ -681,7 +1393,7 @@ public class KLog {
 	 * @return True if level matches, false otherwise
 	 */
 	public static boolean isLevelDebug() {
-		return ((gLogLogger != null) && (gLogLogger.getLevel() == Level.FINEST));
+		return ((gLogLogger != null) && (gLogLevel == Level.FINEST));
 	}
 
 	/**
@@ -690,7 +1402,7 @@ public class KLog {
 	 * @return True if level matches, false otherwise
 	 */
 	public static boolean isLevelError() {
-		return ((gLogLogger != null) && (gLogLogger.getLevel() == Level.SEVERE));
+		return ((gLogLogger != null) && (gLogLevel == Level.SEVERE));
 	}
 	
 	/**
@@ -699,7 +1411,7 @@ public class KLog {
 	 * @return True if level matches, false otherwise
 	 */
 	public static boolean isLevelInfo() {
-		return ((gLogLogger != null) && (gLogLogger.getLevel() == Level.INFO));
+		return ((gLogLogger != null) && (gLogLevel == Level.INFO));
 	}
 	
 	/**
@@ -708,7 +1420,7 @@ public class KLog {
 	 * @return True if level matches, false otherwise
 	 */
 	public static boolean isLevelOff() {
-		return ((gLogLogger != null) && (gLogLogger.getLevel() == Level.OFF));
+		return ((gLogLogger != null) && (gLogLevel == Level.OFF));
 	}
 
 	/**
@@ -736,6 +1448,71 @@ public class KLog {
 		}
 	}
 
+	/**
+	 * Read the class and package levels from KLog.properties (keys "ch.k43.util.KLog.level.{package or class name}").
+	 * 
+	 * @since 2026.10.17
+	 */
+	private static void readClassLevels() {
+		
+		Properties logProps = KFile.readPropertiesFile(PROPERTY_FILE);
+		
+		if (logProps == null) {
+			return;
+		}
+		
+		String keyPrefix = KLog.class.getName() + ".level.";
+		
+		for (String key : logProps.stringPropertyNames()) {
+			
+			if (!key.startsWith(keyPrefix) || (key.length() == keyPrefix.length())) {
+				continue;
+			}
+			
+			Level	level		= null;
+			String	levelName	= logProps.getProperty(key).trim().toUpperCase();
+			
+			switch (levelName) {
+			
+				case "DEBUG": {
+					level = Level.FINEST;
+					break;
+				}
+				
+				case "ERROR": {
+					level = Level.SEVERE;
+					break;
+				}
+				
+				default: {
+					try {
+						level = Level.parse(levelName);
+					} catch (Exception e) {
+						throw new RuntimeException("Logging property " + key + " must be 'Debug', 'Info', 'Error' or 'Off'");
+					}
+				}
+			}
+			
+			CLASS_LEVELS.put(key.substring(keyPrefix.length()).trim(), level);
+			
+			// Save most verbose class level
+			if (level.intValue() < gClassLevelMin.intValue()) {
+				gClassLevelMin = level;
+			}
+		}
+	}
+	
+	/**
+	 * Replace {} parameters with the arguments returned by a supplier.
+	 * 
+	 * @param	argMessage	Message text
+	 * @param	argObjects	Arguments or null
+	 * @return	Formatted message
+	 */
+	private static String replaceParams(String argMessage, Object[] argObjects) {
+		return (argObjects == null) ? argMessage : K.replaceParams(argMessage, argObjects);
+	}
+	
 	/**
 	 * Reset logger level to the configured level in KLog.properties
 	 * 
@@ -789,7 +1566,7 @@ public class KLog {
 	}
 	
 	/**
-	 * Set logger off (OFF)
+	 * Set logger off (OFF). This overrides the class and package levels.
 	 * 
 	 * @since 2024.05.25
 	 */
@@ -797,6 +1574,24 @@ public class KLog {
 		setLoggerLevel(Level.OFF);
 	}
 	
+	/**
+	 * Set or reset the recursion guard of the current thread. While set, all log messages issued by this thread are ignored.
+	 * This is used by the KLog handlers and the asynchronous writer to prevent log write recursion (e.g. by KDB calls within KLogJDBCHandler).
+	 * 
+	 * @param	argActive	True to ignore log messages of the current thread, false otherwise
+	 * @return	Previous state of the recursion guard
+	 * 
+	 * @since 2026.10.17
+	 */
+	static boolean setWriteGuard(boolean argActive) {
+		
+		boolean previousState = WRITE_GUARD.get();
+		
+		WRITE_GUARD.set(argActive);
+		
+		return previousState;
+	}
+	
 	/**
 	 * Set logger level.<br>
 	 * 
@@ -811,7 +1606,41 @@ public class KLog {
 			return;
 		}
 		
-		gLogLogger.setLevel(argLevel);
+		updateLevelThreshold(argLevel);
+	}
+	
+	/**
+	 * Set the KLog level and cache the most verbose level of KLog and all class levels for the fast level check of the logging methods.
+	 * The Java logger is set to this most verbose level to pass the log records of all classes with a more verbose level.
+	 * 
+	 * @param argLevel	Logging level or null to use the level of the nearest parent logger
+	 * 
+	 * @since 2026.10.17
+	 */
+	private static void updateLevelThreshold(Level argLevel) {
+		
+		// Check if logging is active
+		if (gLogLogger == null) {
+			gLevelThreshold = LEVEL_OFF;
+			return;
+		}
+		
+		// Find effective level
+		Logger	logger	= gLogLogger;
+		Level	level	= argLevel;
+		
+		while ((level == null) && (logger.getParent() != null)) {
+			logger	= logger.getParent();
+			level	= logger.getLevel();
+		}
+		
+		gLogLevel = (level == null) ? Level.INFO : level;
+		
+		// Set Java logger to the most verbose level (OFF overrides the class levels)
+		Level loggerLevel = ((gLogLevel != Level.OFF) && (gClassLevelMin.intValue() < gLogLevel.intValue())) ? gClassLevelMin : gLogLevel;
+		
+		gLogLogger.setLevel(loggerLevel);
+		gLevelThreshold = loggerLevel.intValue();
 	}
 	
 	/**
@@ -826,6 +1655,11 @@ public class KLog {
 		if ((argLevel == null) || K.isEmpty(argData)) {
 			return;
 		}
+		
+		// Prohibit log write recursion (e.g. log messages issued by handlers while writing a log record)
+		if (WRITE_GUARD.get()) {
+			return;
+		}
 	
 		// Check if log string matches specified RegEx to be excluded from log 
 		if ((gExcludeRegEx != null) && (gExcludeRegEx.matcher(argData).find())) {
@@ -837,18 +1671,34 @@ public class KLog {
 			return;
 		}
 		
-		// Prohibit log write recursion by excluding some Java classes
-	    StackTraceElement[] stackTrace = Thread.currentThread().getStackTrace();
-	    for (StackTraceElement element : stackTrace) {
-	        for (String classExclude : EXCLUDE_CLASSES) {
-	            if (element.getClassName().equals(classExclude)) {
-	                return;
-	            }
-	        }
-	    }
-
+		// Read the logger once (close() may reset it concurrently)
+		Logger logger = gLogLogger;
+		
+		if (logger == null) {
+			return;
+		}
+		
+		// Queue log record for the asynchronous writer (the record keeps the time and thread of the caller)
+		KLogAsyncWriter asyncWriter = gAsyncWriter;
+		
+		if (asyncWriter != null) {
+			
+			LogRecord logRecord = new LogRecord(argLevel, argData);
+			logRecord.setLoggerName(logger.getName());
+			
+			if (asyncWriter.offer(logRecord)) {
+				return;
+			}
+		}
+		
 		// Write logger message
-		gLogLogger.log(argLevel, argData);
+		WRITE_GUARD.set(Boolean.TRUE);
+		
+		try {
+			logger.log(argLevel, argData);
+		} finally {
+			WRITE_GUARD.set(Boolean.FALSE);
+		}
 	}
 	
 	/**
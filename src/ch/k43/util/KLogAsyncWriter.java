@@ -0,0 +1,324 @@
+package ch.k43.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Background writer thread for the asynchronous logging mode of KLog.<p>
+ *
+ * Notes:<br>
+ * - The log records are created by the calling thread and placed into a bounded lock-free ring buffer (multi-producer, single-consumer).<br>
+ * - This thread is the only consumer and passes the records to the Java logger and thus to all configured handlers.<br>
+ * - If the ring buffer is full, the overflow policy decides if the caller waits (BLOCK), debug records are dropped (DROP_DEBUG)
+ *   or the new record is dropped (DROP_NEWEST).<br>
+ * - Records published while the writer thread terminates are written by shutdown() after the thread has ended, or by the
+ *   publishing thread itself if it comes later.<br>
+ *
+ * @see KLog
+ *
+ * @since 2026.10.17
+ */
+final class KLogAsyncWriter extends Thread {
+
+	// Overflow policies
+	static final			int									OVERFLOW_BLOCK			= 0x01;
+	static final			int									OVERFLOW_DROP_DEBUG		= 0x02;
+	static final			int									OVERFLOW_DROP_NEWEST	= 0x03;
+
+	static final			int									DEFAULT_BUFFER_SIZE		= 8_192;
+
+	// Declarations
+	private static final	int									MAX_BUFFER_SIZE			= 1 << 24;
+	private static final	long								IDLE_WAIT_NS			= 10_000_000L;	// Writer wait time if buffer empty
+	private static final	long								FULL_WAIT_NS			= 50_000L;		// Producer wait time if buffer full
+	private static final	long								FLUSH_WAIT_NS			= 1_000_000L;	// Wait time while flushing
+
+	private final			Logger								gLogger;
+	private final			AtomicReferenceArray<LogRecord>		gSlots;
+	private final			AtomicLongArray						gSequences;
+	private final			AtomicLong							gTail					= new AtomicLong(0);
+	private final			AtomicLong							gDropped				= new AtomicLong(0);
+	private final			Object								gDrainLock				= new Object();
+	private final			int									gMask;
+	private final			int									gOverflowPolicy;
+	private volatile		long								gHead					= 0;
+	private volatile		boolean								gWriterWaiting			= false;
+	private volatile		boolean								gMustTerminate			= false;
+
+	/**
+	 * Create and start the writer thread.
+	 *
+	 * @param argLogger			Java logger to receive the log records
+	 * @param argBufferSize		Number of ring buffer slots (rounded up to the next power of two)
+	 * @param argOverflowPolicy	OVERFLOW_BLOCK, OVERFLOW_DROP_DEBUG or OVERFLOW_DROP_NEWEST
+	 */
+	KLogAsyncWriter(Logger argLogger, int argBufferSize, int argOverflowPolicy) {
+
+		super("KLogAsyncWriter");
+
+		// Round buffer size up to the next power of two to allow index masking
+		int bufferSize = Math.max(2, Math.min(argBufferSize, MAX_BUFFER_SIZE));
+		bufferSize = Integer.highestOneBit(bufferSize - 1) << 1;
+
+		gLogger			= argLogger;
+		gOverflowPolicy	= argOverflowPolicy;
+		gMask			= bufferSize - 1;
+		gSlots			= new AtomicReferenceArray<>(bufferSize);
+		gSequences		= new AtomicLongArray(bufferSize);
+
+		// Each slot starts with the sequence number of the first producer position allowed to write it
+		for (int index = 0; index < bufferSize; index++) {
+			gSequences.set(index, index);
+		}
+
+		setDaemon(true);
+		start();
+	}
+
+	/**
+	 * Write the records remaining in the ring buffer after the writer thread has ended (called by shutdown() or by a producer).
+	 */
+	private void drain() {
+
+		synchronized (gDrainLock) {
+
+			boolean previousGuard = KLog.setWriteGuard(true);
+
+			try {
+				while (true) {
+
+					long	position	= gHead;
+					int		index		= (int) (position & gMask);
+
+					// Stop at the first slot not yet published (its producer drains it after publishing)
+					if (gSequences.get(index) != position + 1) {
+						break;
+					}
+
+					LogRecord record = gSlots.get(index);
+					gSlots.lazySet(index, null);
+					gSequences.set(index, position + gMask + 1);
+
+					write(record);
+
+					gHead = position + 1;
+				}
+			} finally {
+				KLog.setWriteGuard(previousGuard);
+			}
+		}
+	}
+
+	/**
+	 * Get the number of ring buffer slots.
+	 *
+	 * @return	Buffer size
+	 */
+	int getBufferSize() {
+		return gMask + 1;
+	}
+
+	/**
+	 * Wait until all records queued so far are written or the timeout expires.
+	 *
+	 * @param argTimeOutMs	Maximum wait time in milliseconds
+	 */
+	void flush(long argTimeOutMs) {
+
+		// Flush is a no-op if called by the writer thread itself (e.g. from a handler)
+		if (Thread.currentThread() == this) {
+			return;
+		}
+
+		long target		= gTail.get();
+		long deadline	= System.nanoTime() + argTimeOutMs * 1_000_000L;
+
+		while ((gHead < target) && isAlive() && (System.nanoTime() < deadline)) {
+			LockSupport.unpark(this);
+			LockSupport.parkNanos(FLUSH_WAIT_NS);
+		}
+	}
+
+	/**
+	 * Place the log record into the ring buffer.
+	 *
+	 * @param	argRecord	Log record
+	 * @return	True if the record was queued or dropped according to the overflow policy, false if the caller must write it synchronously
+	 */
+	boolean offer(LogRecord argRecord) {
+
+		// Records issued by the writer thread itself (e.g. from a handler) or after termination are written synchronously
+		if ((Thread.currentThread() == this) || gMustTerminate) {
+			return false;
+		}
+
+		while (!tryOffer(argRecord)) {
+
+			// Apply overflow policy
+			if ((gOverflowPolicy == OVERFLOW_DROP_NEWEST) ||
+				((gOverflowPolicy == OVERFLOW_DROP_DEBUG) && (argRecord.getLevel() == Level.FINEST))) {
+				gDropped.incrementAndGet();
+				return true;
+			}
+
+			if (gMustTerminate) {
+				return false;
+			}
+
+			// Wait for the writer to free some slots
+			LockSupport.unpark(this);
+			LockSupport.parkNanos(FULL_WAIT_NS);
+		}
+
+		// Writer thread has ended in the meantime: Write the record here
+		if (gMustTerminate && !isAlive()) {
+			drain();
+			return true;
+		}
+
+		// Wake up writer if it is waiting for data
+		if (gWriterWaiting) {
+			LockSupport.unpark(this);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Main entry point for the writer thread.
+	 */
+	@Override
+	public void run() {
+
+		// Ignore all log messages issued by this thread (e.g. by handlers)
+		KLog.setWriteGuard(true);
+		
+		while (true) {
+
+			long		position	= gHead;
+			int			index		= (int) (position & gMask);
+
+			// Check if the slot at the current position has been published
+			if (gSequences.get(index) != position + 1) {
+
+				// Report dropped records once the buffer has been emptied
+				long dropped = gDropped.getAndSet(0);
+
+				if (dropped > 0) {
+					write(new LogRecord(Level.INFO, getName() + ':' + getClass().getName() + KLog.LOG_DELIMITER
+							+ "Log buffer overflow - " + dropped + " log records dropped"));
+				}
+
+				if (gMustTerminate) {
+					break;
+				}
+
+				// Wait for the next record (producers unpark this thread)
+				gWriterWaiting = true;
+
+				if (gSequences.get(index) != position + 1) {
+					LockSupport.parkNanos(this, IDLE_WAIT_NS);
+				}
+
+				gWriterWaiting = false;
+				continue;
+			}
+
+			// Take record and release the slot for the producer one lap ahead
+			LogRecord record = gSlots.get(index);
+			gSlots.lazySet(index, null);
+			gSequences.set(index, position + gMask + 1);
+
+			write(record);
+
+			gHead = position + 1;
+		}
+	}
+
+	/**
+	 * Signal termination, wait for the writer thread to end and write the records published in the meantime.
+	 *
+	 * @param argTimeOutMs	Maximum wait time in milliseconds
+	 */
+	void shutdown(long argTimeOutMs) {
+
+		gMustTerminate = true;
+		LockSupport.unpark(this);
+
+		if (Thread.currentThread() == this) {
+			return;
+		}
+
+		try {
+			join(argTimeOutMs);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		// Write the records published after the last check of the writer thread (only one consumer at a time)
+		if (!isAlive()) {
+			drain();
+		}
+	}
+
+	/**
+	 * Try to claim the next free slot and publish the record.
+	 *
+	 * @param	argRecord	Log record
+	 * @return	True if published, false if the buffer is full
+	 */
+	private boolean tryOffer(LogRecord argRecord) {
+
+		long position = gTail.get();
+
+		while (true) {
+
+			int		index		= (int) (position & gMask);
+			long	difference	= gSequences.get(index) - position;
+
+			if (difference == 0) {
+				// Slot is free for this position - claim it
+				if (gTail.compareAndSet(position, position + 1)) {
+					gSlots.set(index, argRecord);
+					gSequences.set(index, position + 1);
+					return true;
+				}
+				position = gTail.get();
+			} else if (difference < 0) {
+				// Slot still holds the record of the previous lap (buffer full)
+				return false;
+			} else {
+				// Another producer claimed this position
+				position = gTail.get();
+			}
+		}
+	}
+
+	/**
+	 * Pass the record to the Java logger.
+	 *
+	 * @param argRecord	Log record
+	 */
+	private void write(LogRecord argRecord) {
+
+		try {
+			gLogger.log(argRecord);
+		} catch (Exception e) {
+			// Never let a failing handler terminate the writer thread
+		}
+	}
+
+	/**
+	 * String representation of object.
+	 */
+	@Override
+	public String toString() {
+		return "KLogAsyncWriter [gBufferSize=" + (gMask + 1) + ", gOverflowPolicy=" + gOverflowPolicy + ", gHead=" + gHead
+				+ ", gTail=" + gTail.get() + ", gDropped=" + gDropped.get() + ", gMustTerminate=" + gMustTerminate + "]";
+	}
+}
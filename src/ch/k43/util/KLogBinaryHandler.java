@@ -0,0 +1,426 @@
+package ch.k43.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Properties;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+
+/**
+ * Java logging handler to write compact binary log records to a file. Use KLogBinaryReader to convert the file to the line, JSON or
+ * CSV format of KLogLineFormatter, KLogJSONFormatter or KLogCSVFormatter.<p>
+ *
+ * File format:<br>
+ * - The file starts with the 4 byte signature "KLOG" followed by the format version (1 byte).<br>
+ * - Each entry is stored as varint length followed by the entry type (1 byte) and the entry data.<br>
+ * - RESET (type 0): Clears the location dictionary and the time base. Written each time the handler opens the file.<br>
+ * - LOCATION (type 1): Varint location number and the UTF-8 code location without the thread (e.g. "Test:main:21").<br>
+ * - RECORD (type 2): Zigzag varint milliseconds since the previous record, level character (D, I, E or ?), varint location number and the UTF-8 text.
+ *   Written by older versions with the thread included in the code location.<br>
+ * - THREAD_RECORD (type 3): Like RECORD, but the location number (and the inline location) is followed by the varint length and the UTF-8
+ *   thread (e.g. "main[1]"), so the dictionary does not grow with each new thread.<br>
+ * - Each distinct code location is written only once. The location number 0 is followed by the UTF-8 code location if the dictionary is full.<br>
+ *
+ * The following properties are supported:
+ * <pre>
+ * ch.k43.util.KLogBinaryHandler.filename = File name (default KLog.bin)
+ * ch.k43.util.KLogBinaryHandler.append = true/false (append to existing file, default true)
+ * ch.k43.util.KLogBinaryHandler.autoflush = true/false (write each record immediately, default false)
+ * ch.k43.util.KLogBinaryHandler.debug = true/false (Output sent to System.out/System.err, default false)
+ * </pre>
+ *
+ * @see KLogBinaryReader
+ *
+ * @since 2026.10.17
+ */
+public class KLogBinaryHandler extends Handler {
+
+	// File format
+	static final		byte[]					SIGNATURE			= {'K', 'L', 'O', 'G'};
+	static final		byte					VERSION				= 1;
+	static final		byte					TYPE_RESET			= 0;
+	static final		byte					TYPE_LOCATION		= 1;
+	static final		byte					TYPE_RECORD			= 2;
+	static final		byte					TYPE_THREAD_RECORD	= 3;
+	static final		int						MAX_ENTRY_SIZE		= 64 * 1_024;
+
+	// Class declarations
+	private static final int					BUFFER_SIZE			= 4 * MAX_ENTRY_SIZE;
+	private static final int					MAX_LOCATIONS		= 65_536;
+
+	private FileChannel							gChannel			= null;
+	private ByteBuffer							gBuffer				= null;
+	private HashMap<String, Integer>			gLocations			= new HashMap<>();
+	private String								gClassName			= this.getClass().getName();
+	private String								gFileName			= null;
+	private String								gLastTraceLocation	= "N/A";
+	private long								gLastTime			= 0;
+	private boolean								gAutoFlush			= false;
+	private boolean								gDebugLogActive		= false;								// Enable only during development and testing
+	private boolean								gIsActive			= false;
+
+	/**
+	 * Class constructor.
+	 */
+	public KLogBinaryHandler() {
+
+		// Read properties
+		Properties logProps = KFile.readPropertiesFile(KLog.PROPERTY_FILE);
+
+		if (logProps == null) {
+			return;
+		}
+
+		gFileName				= logProps.getProperty(gClassName + ".filename", "KLog.bin").trim();
+
+		String	logAppend		= logProps.getProperty(gClassName + ".append", "true").trim();
+		String	logAutoFlush	= logProps.getProperty(gClassName + ".autoflush", "false").trim();
+		String	logDebug		= logProps.getProperty(gClassName + ".debug", "false").trim();
+
+		if (logDebug.equalsIgnoreCase("true")) {
+			gDebugLogActive = true;
+		}
+
+		if (logAutoFlush.equalsIgnoreCase("true")) {
+			gAutoFlush = true;
+		}
+
+		logDebug("Logging handler initializing");
+		logDebug("File: " + gFileName);
+		logDebug("Append: " + logAppend);
+		logDebug("Autoflush: " + gAutoFlush);
+		logDebug("Debug: " + gDebugLogActive);
+
+		// Open file
+		try {
+			if (logAppend.equalsIgnoreCase("false")) {
+				gChannel = FileChannel.open(Paths.get(gFileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+			} else {
+				gChannel = FileChannel.open(Paths.get(gFileName), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+			}
+
+			gBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+			// Write signature to new file
+			if (gChannel.size() == 0) {
+				gBuffer.put(SIGNATURE).put(VERSION);
+			}
+
+			// Start new dictionary and time base
+			putVarInt(1);
+			gBuffer.put(TYPE_RESET);
+
+			writeBuffer();
+
+		} catch (IOException e) {
+			logError("Unable to open file " + gFileName + ": " + e.toString());
+			return;
+		}
+
+		// Enable driver
+		gIsActive = true;
+
+		logDebug("Logging handler initialized");
+	}
+
+	/**
+	 * Close the handler.
+	 */
+	public synchronized void close() {
+
+		// Check if driver is active
+		if (!gIsActive) {
+			return;
+		}
+
+		// Mark driver inactive
+		gIsActive = false;
+
+		// Write pending records and close file
+		try {
+			writeBuffer();
+			gChannel.close();
+		} catch (IOException e) {
+			logError("Unable to close file " + gFileName + ": " + e.toString());
+		}
+
+		gChannel	= null;
+		gBuffer		= null;
+
+		logDebug("Logging handler terminated");
+	}
+
+	/**
+	 * Write all buffered log records to the file.
+	 */
+	public synchronized void flush() {
+
+		// Check if driver is active
+		if (!gIsActive) {
+			return;
+		}
+
+		try {
+			writeBuffer();
+		} catch (IOException e) {
+			logError("Unable to write file " + gFileName + ": " + e.toString());
+		}
+	}
+
+	/**
+	 * Write debug log.
+	 *
+	 * @param argMessage	Message to be logged
+	 */
+	private void logDebug(String argMessage) {
+
+		if (gDebugLogActive) {
+			System.out.println(K.getTimeISO8601() + " D " + gClassName + ": " + argMessage);
+		}
+	}
+
+	/**
+	 * Write error log.
+	 *
+	 * @param argMessage	Message to be logged
+	 */
+	private void logError(String argMessage) {
+
+		if (gDebugLogActive) {
+			System.err.println(K.getTimeISO8601() + " E " + gClassName + ": " + argMessage);
+		}
+	}
+
+	/**
+	 * Write log record to the buffer (and the file if the buffer is full or autoflush is set).
+	 *
+	 * @param	argRecord Log record
+	 */
+	public synchronized void publish(LogRecord argRecord) {
+
+		// Check if driver is active
+		if (!gIsActive) {
+			return;
+		}
+
+		// Logging level
+		byte logLevel = '?';
+
+		switch (argRecord.getLevel().toString()) {
+
+		case "FINEST":
+			logLevel = 'D';
+			break;
+		case "INFO":
+			logLevel = 'I';
+			break;
+		case "SEVERE":
+			logLevel = 'E';
+			break;
+		default:
+			break;
+		}
+
+		// Get the passed message and split it into code location and text (delimited by KLOG.DELIMITER)
+		String	traceLocation	= null;
+		String	traceMessage	= argRecord.getMessage();
+		int		posDelimiter	= traceMessage.indexOf(KLog.LOG_DELIMITER);
+
+		if (posDelimiter != -1) {
+			traceLocation		= traceMessage.substring(0, posDelimiter);
+			traceMessage		= traceMessage.substring(posDelimiter + KLog.LOG_DELIMITER.length());
+			// Save last trace location in case the next entry has none
+			gLastTraceLocation	= traceLocation;
+		} else {
+			// Use last trace location if none was found
+			traceLocation		= gLastTraceLocation;
+		}
+
+		// Split the thread from the code location (e.g. "main[1]:Test:main:21")
+		String	traceThread		= "";
+		int		posThreadEnd	= traceLocation.lastIndexOf("]:");
+
+		if (posThreadEnd != -1) {
+			traceThread		= traceLocation.substring(0, posThreadEnd + 1);
+			traceLocation	= traceLocation.substring(posThreadEnd + 2);
+		} else if (traceLocation.endsWith("]")) {
+			traceThread		= traceLocation;
+			traceLocation	= "";
+		}
+
+		try {
+
+			// Get location number (write dictionary entry for new code locations)
+			byte[]	locationBytes	= null;
+			Integer	locationNumber	= gLocations.get(traceLocation);
+
+			if (locationNumber == null) {
+
+				byte[] newLocationBytes = encode(traceLocation);
+
+				if (gLocations.size() < MAX_LOCATIONS) {
+					locationNumber = gLocations.size() + 1;
+					gLocations.put(traceLocation, locationNumber);
+
+					ensureCapacity(10 + newLocationBytes.length);
+					putVarInt(1 + varIntSize(locationNumber) + newLocationBytes.length);
+					gBuffer.put(TYPE_LOCATION);
+					putVarInt(locationNumber);
+					gBuffer.put(newLocationBytes);
+				} else {
+					locationNumber	= 0;
+					locationBytes	= newLocationBytes;
+				}
+			}
+
+			// Write log record
+			long	logTime		= argRecord.getMillis();
+			long	timeDelta	= logTime - gLastTime;
+			byte[]	threadBytes	= encode(traceThread);
+			byte[]	textBytes	= encode(traceMessage);
+			int		entrySize	= 1 + varLongSize(zigZag(timeDelta)) + 1 + varIntSize(locationNumber)
+					+ ((locationBytes != null) ? varIntSize(locationBytes.length) + locationBytes.length : 0)
+					+ varIntSize(threadBytes.length) + threadBytes.length + textBytes.length;
+
+			gLastTime = logTime;
+
+			ensureCapacity(5 + entrySize);
+			putVarInt(entrySize);
+			gBuffer.put(TYPE_THREAD_RECORD);
+			putVarLong(zigZag(timeDelta));
+			gBuffer.put(logLevel);
+			putVarInt(locationNumber);
+
+			if (locationBytes != null) {
+				putVarInt(locationBytes.length);
+				gBuffer.put(locationBytes);
+			}
+
+			putVarInt(threadBytes.length);
+			gBuffer.put(threadBytes);
+			gBuffer.put(textBytes);
+
+			if (gAutoFlush) {
+				writeBuffer();
+			}
+
+		} catch (IOException e) {
+			logError("Unable to write file " + gFileName + ": " + e.toString());
+		}
+	}
+
+	/**
+	 * Encode string as UTF-8 (truncated to KLog.MAX_LOG_DATA characters).
+	 *
+	 * @param	argString	String
+	 * @return	UTF-8 bytes
+	 */
+	private static byte[] encode(String argString) {
+
+		if (K.isEmpty(argString)) {
+			return new byte[0];
+		}
+
+		return K.truncateMiddle(argString, KLog.MAX_LOG_DATA).getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Write the buffer to the file if the requested space is not available.
+	 *
+	 * @param	argSize	Number of bytes needed
+	 * @throws	IOException	If the file could not be written
+	 */
+	private void ensureCapacity(int argSize) throws IOException {
+
+		if (gBuffer.remaining() < argSize) {
+			writeBuffer();
+		}
+	}
+
+	/**
+	 * Write buffer to file.
+	 *
+	 * @throws	IOException	If the file could not be written
+	 */
+	private void writeBuffer() throws IOException {
+
+		gBuffer.flip();
+
+		while (gBuffer.hasRemaining()) {
+			gChannel.write(gBuffer);
+		}
+
+		gBuffer.clear();
+	}
+
+	/**
+	 * Append unsigned varint (7 bits per byte, high bit set if more bytes follow).
+	 *
+	 * @param	argValue	Value
+	 */
+	private void putVarInt(int argValue) {
+		putVarLong(argValue & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Append unsigned varint (7 bits per byte, high bit set if more bytes follow).
+	 *
+	 * @param	argValue	Value
+	 */
+	private void putVarLong(long argValue) {
+
+		long value = argValue;
+
+		while ((value & ~0x7FL) != 0) {
+			gBuffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+
+		gBuffer.put((byte) value);
+	}
+
+	/**
+	 * Get encoded size of unsigned varint.
+	 *
+	 * @param	argValue	Value
+	 * @return	Number of bytes
+	 */
+	private static int varIntSize(int argValue) {
+		return varLongSize(argValue & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Get encoded size of unsigned varint.
+	 *
+	 * @param	argValue	Value
+	 * @return	Number of bytes
+	 */
+	private static int varLongSize(long argValue) {
+		return Math.max(1, (64 - Long.numberOfLeadingZeros(argValue) + 6) / 7);
+	}
+
+	/**
+	 * Zigzag encoding to store small negative values in few bytes.
+	 *
+	 * @param	argValue	Value
+	 * @return	Encoded value
+	 */
+	private static long zigZag(long argValue) {
+		return (argValue << 1) ^ (argValue >> 63);
+	}
+
+	/**
+	 * String representation of object.
+	 */
+	@Override
+	public String toString() {
+		return "KLogBinaryHandler [gClassName=" + gClassName + ", gFileName=" + gFileName + ", gLocations=" + gLocations.size()
+				+ ", gLastTraceLocation=" + gLastTraceLocation + ", gAutoFlush=" + gAutoFlush + ", gDebugLogActive=" + gDebugLogActive
+				+ ", gIsActive=" + gIsActive + "]";
+	}
+}
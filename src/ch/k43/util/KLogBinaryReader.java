@@ -0,0 +1,458 @@
+package ch.k43.util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Read log files written by KLogBinaryHandler and convert them to the line, JSON or CSV format.
+ *
+ * <pre>
+ * Example:
+ * try (KLogBinaryReader reader = new KLogBinaryReader("KLog.bin")) {
+ *    LogRecord logRecord = null;
+ *    while ((logRecord = reader.read()) != null) {
+ *       System.out.println(new KLogLineFormatter().format(logRecord));
+ *    }
+ * }
+ *
+ * Command line:
+ * java -cp ch.k43.util.jar ch.k43.util.KLogBinaryReader KLog.bin [line|json|csv] [output file]
+ * </pre>
+ *
+ * @see KLogBinaryHandler
+ *
+ * @since 2026.10.17
+ */
+public final class KLogBinaryReader implements AutoCloseable {
+
+	// Class declarations
+	private DataInputStream		gInputStream	= null;
+	private ArrayList<String>	gLocations		= new ArrayList<>();
+	private String				gFileName		= null;
+	private String				gErrorMessage	= null;
+	private long				gLastTime		= 0;
+	private long				gRecordCount	= 0;
+
+	/**
+	 * Convert binary log file to the line, JSON or CSV format.
+	 *
+	 * @param args	Binary log file name, format (line, json or csv, default line) and output file name (default standard output)
+	 */
+	public static void main(String[] args) {
+
+		if ((args.length < 1) || (args.length > 3)) {
+			System.err.println("Usage: java ch.k43.util.KLogBinaryReader <binary log file> [line|json|csv] [output file]");
+			System.exit(1);
+		}
+
+		Formatter formatter = null;
+
+		switch ((args.length > 1) ? args[1].toLowerCase() : "line") {
+
+			case "line": {
+				formatter = new KLogLineFormatter();
+				break;
+			}
+
+			case "json": {
+				formatter = new KLogJSONFormatter();
+				break;
+			}
+
+			case "csv": {
+				formatter = new KLogCSVFormatter();
+				break;
+			}
+
+			default: {
+				System.err.println("Format must be 'line', 'json' or 'csv'");
+				System.exit(1);
+			}
+		}
+
+		// Convert file
+		try (KLogBinaryReader reader = new KLogBinaryReader(args[0])) {
+
+			boolean success;
+
+			if (args.length > 2) {
+				try (FileOutputStream outputStream = new FileOutputStream(args[2])) {
+					success = reader.convert(formatter, outputStream);
+				} catch (IOException e) {
+					System.err.println("Unable to write file " + args[2] + ": " + e.toString());
+					success = false;
+				}
+			} else {
+				success = reader.convert(formatter, new PrintStream(System.out, false, StandardCharsets.UTF_8));
+			}
+
+			if (!success) {
+				System.err.println(reader.getLastError());
+				System.exit(1);
+			}
+		}
+	}
+
+	/**
+	 * Open binary log file.
+	 *
+	 * @param argFileName	File name
+	 */
+	public KLogBinaryReader(String argFileName) {
+
+		// Check argument
+		KLog.argException(K.isEmpty(argFileName), "argFileName is required");
+
+		gFileName = argFileName;
+
+		try {
+			gInputStream = new DataInputStream(new BufferedInputStream(new FileInputStream(gFileName), K.FILE_IO_BUFFER_SIZE));
+
+			// Check file signature and version
+			byte[] signature = new byte[KLogBinaryHandler.SIGNATURE.length];
+			gInputStream.readFully(signature);
+
+			if (!Arrays.equals(signature, KLogBinaryHandler.SIGNATURE)) {
+				throw new IOException("Invalid file signature");
+			}
+
+			int version = gInputStream.readUnsignedByte();
+
+			if (version != KLogBinaryHandler.VERSION) {
+				throw new IOException("Unsupported file version " + version);
+			}
+
+		} catch (IOException e) {
+			gErrorMessage = "Unable to open file " + gFileName + ": " + e.toString();
+			KLog.error(gErrorMessage);
+			close();
+		}
+	}
+
+	/**
+	 * Close file.
+	 */
+	@Override
+	public void close() {
+
+		if (gInputStream == null) {
+			return;
+		}
+
+		try {
+			gInputStream.close();
+		} catch (IOException e) {
+			// Ignore errors
+		}
+
+		gInputStream = null;
+	}
+
+	/**
+	 * Write all remaining log records thru the given formatter (including head and tail).
+	 *
+	 * @param	argFormatter	Log formatter (e.g. KLogLineFormatter, KLogJSONFormatter or KLogCSVFormatter)
+	 * @param	argOutputStream	Output stream (not closed)
+	 * @return	True if successful, false otherwise
+	 */
+	public boolean convert(Formatter argFormatter, OutputStream argOutputStream) {
+
+		// Check arguments
+		KLog.argException(argFormatter == null, "argFormatter is required");
+		KLog.argException(argOutputStream == null, "argOutputStream is required");
+
+		try {
+			Writer writer = new OutputStreamWriter(argOutputStream, StandardCharsets.UTF_8);
+
+			writer.write(argFormatter.getHead(null));
+
+			LogRecord logRecord = null;
+
+			while ((logRecord = read()) != null) {
+				writer.write(argFormatter.format(logRecord));
+			}
+
+			writer.write(argFormatter.getTail(null));
+			writer.flush();
+
+		} catch (IOException e) {
+			gErrorMessage = "Unable to write log records: " + e.toString();
+			KLog.error(gErrorMessage);
+			return false;
+		}
+
+		return (gErrorMessage == null);
+	}
+
+	/**
+	 * Get last error message.
+	 *
+	 * @return	Error message or null
+	 */
+	public String getLastError() {
+		return gErrorMessage;
+	}
+
+	/**
+	 * Get the number of log records read.
+	 *
+	 * @return	Number of log records
+	 */
+	public long getRecordCount() {
+		return gRecordCount;
+	}
+
+	/**
+	 * Check if file is open.
+	 *
+	 * @return	True if open, false otherwise
+	 */
+	public boolean isOpen() {
+		return (gInputStream != null);
+	}
+
+	/**
+	 * Read next log record. The message contains the code location and the text delimited by KLog.LOG_DELIMITER as expected
+	 * by the KLogxxxFormatter classes.
+	 *
+	 * @return	Log record or null at end of file or for errors
+	 */
+	public LogRecord read() {
+
+		// Check if file is open
+		if (gInputStream == null) {
+			return null;
+		}
+
+		try {
+			while (true) {
+
+				// Read entry length (end of file is only valid at entry boundary)
+				int firstByte = gInputStream.read();
+
+				if (firstByte == -1) {
+					close();
+					return null;
+				}
+
+				int entrySize = (int) readVarLong(firstByte);
+
+				if ((entrySize < 1) || (entrySize > KLogBinaryHandler.MAX_ENTRY_SIZE)) {
+					throw new IOException("Invalid entry size " + entrySize);
+				}
+
+				byte[] entry = new byte[entrySize];
+				gInputStream.readFully(entry);
+
+				int[] position = {1};
+
+				switch (entry[0]) {
+
+					case KLogBinaryHandler.TYPE_RESET: {
+						gLocations.clear();
+						gLastTime = 0;
+						break;
+					}
+
+					case KLogBinaryHandler.TYPE_LOCATION: {
+						int locationNumber = (int) readVarLong(entry, position);
+
+						if (locationNumber != gLocations.size() + 1) {
+							throw new IOException("Invalid location number " + locationNumber);
+						}
+
+						gLocations.add(new String(entry, position[0], entrySize - position[0], StandardCharsets.UTF_8));
+						break;
+					}
+
+					case KLogBinaryHandler.TYPE_RECORD: {
+						return readRecord(entry, position, false);
+					}
+
+					case KLogBinaryHandler.TYPE_THREAD_RECORD: {
+						return readRecord(entry, position, true);
+					}
+
+					default: {
+						throw new IOException("Invalid entry type " + entry[0]);
+					}
+				}
+			}
+
+		} catch (EOFException e) {
+			gErrorMessage = "File " + gFileName + " truncated after " + gRecordCount + " log records";
+		} catch (IOException e) {
+			gErrorMessage = "Unable to read file " + gFileName + ": " + e.toString();
+		}
+
+		KLog.error(gErrorMessage);
+		close();
+		return null;
+	}
+
+	/**
+	 * Decode log record entry.
+	 *
+	 * @param	argEntry	Entry data
+	 * @param	argPosition	Current position within entry data
+	 * @param	argThread	True if the thread follows the code location (THREAD_RECORD), false if included in it (RECORD)
+	 * @return	Log record
+	 * @throws	IOException	If the entry is invalid
+	 */
+	private LogRecord readRecord(byte[] argEntry, int[] argPosition, boolean argThread) throws IOException {
+
+		// Time stamp (zigzag encoded difference to previous record)
+		long timeDelta	= readVarLong(argEntry, argPosition);
+		gLastTime		+= (timeDelta >>> 1) ^ -(timeDelta & 1);
+
+		// Logging level
+		if (argPosition[0] >= argEntry.length) {
+			throw new IOException("Invalid log record");
+		}
+
+		Level level = null;
+
+		switch (argEntry[argPosition[0]++]) {
+
+			case 'D':
+				level = Level.FINEST;
+				break;
+			case 'I':
+				level = Level.INFO;
+				break;
+			case 'E':
+				level = Level.SEVERE;
+				break;
+			default:
+				level = Level.ALL;
+				break;
+		}
+
+		// Code location (from dictionary or inline)
+		int		locationNumber	= (int) readVarLong(argEntry, argPosition);
+		String	location		= null;
+
+		if (locationNumber == 0) {
+			int locationSize = (int) readVarLong(argEntry, argPosition);
+
+			if ((locationSize < 0) || (argPosition[0] + locationSize > argEntry.length)) {
+				throw new IOException("Invalid location size " + locationSize);
+			}
+
+			location		= new String(argEntry, argPosition[0], locationSize, StandardCharsets.UTF_8);
+			argPosition[0]	+= locationSize;
+		} else if (locationNumber <= gLocations.size()) {
+			location = gLocations.get(locationNumber - 1);
+		} else {
+			throw new IOException("Unknown location number " + locationNumber);
+		}
+
+		// Thread (prepended to the code location as written by KLog)
+		if (argThread) {
+			int threadSize = (int) readVarLong(argEntry, argPosition);
+
+			if ((threadSize < 0) || (argPosition[0] + threadSize > argEntry.length)) {
+				throw new IOException("Invalid thread size " + threadSize);
+			}
+
+			String thread	= new String(argEntry, argPosition[0], threadSize, StandardCharsets.UTF_8);
+			argPosition[0]	+= threadSize;
+
+			if (location.isEmpty()) {
+				location = thread;
+			} else if (!thread.isEmpty()) {
+				location = thread + ":" + location;
+			}
+		}
+
+		// Text
+		String text = new String(argEntry, argPosition[0], argEntry.length - argPosition[0], StandardCharsets.UTF_8);
+
+		LogRecord logRecord = new LogRecord(level, location + KLog.LOG_DELIMITER + text);
+		logRecord.setInstant(Instant.ofEpochMilli(gLastTime));
+
+		gRecordCount++;
+
+		return logRecord;
+	}
+
+	/**
+	 * Read unsigned varint from input stream.
+	 *
+	 * @param	argFirstByte	First byte (already read)
+	 * @return	Value
+	 * @throws	IOException	If the varint is invalid or the stream ends
+	 */
+	private long readVarLong(int argFirstByte) throws IOException {
+
+		long	value	= argFirstByte & 0x7F;
+		int		current	= argFirstByte;
+		int		shift	= 7;
+
+		while ((current & 0x80) != 0) {
+
+			if (shift > 63) {
+				throw new IOException("Invalid varint");
+			}
+
+			current	= gInputStream.readUnsignedByte();
+			value	|= (long) (current & 0x7F) << shift;
+			shift	+= 7;
+		}
+
+		return value;
+	}
+
+	/**
+	 * Read unsigned varint from entry data.
+	 *
+	 * @param	argEntry	Entry data
+	 * @param	argPosition	Current position within entry data (updated)
+	 * @return	Value
+	 * @throws	IOException	If the varint is invalid
+	 */
+	private static long readVarLong(byte[] argEntry, int[] argPosition) throws IOException {
+
+		long	value	= 0;
+		int		shift	= 0;
+
+		while (true) {
+
+			if ((argPosition[0] >= argEntry.length) || (shift > 63)) {
+				throw new IOException("Invalid varint");
+			}
+
+			int current = argEntry[argPosition[0]++] & 0xFF;
+			value	|= (long) (current & 0x7F) << shift;
+			shift	+= 7;
+
+			if ((current & 0x80) == 0) {
+				return value;
+			}
+		}
+	}
+
+	/**
+	 * String representation of object.
+	 */
+	@Override
+	public String toString() {
+		return "KLogBinaryReader [gFileName=" + gFileName + ", gLocations=" + gLocations.size() + ", gRecordCount=" + gRecordCount
+				+ ", gErrorMessage=" + gErrorMessage + ", isOpen()=" + isOpen() + "]";
+	}
+}
@@ -49,7 +49,7 @@ public class KLogCSVFormatter extends Formatter {
 		logString.append(K.encodeCSV(K.getUniqueID()) + gDelimiter);
 
 		// Append time stamp
-		logString.append(K.encodeCSV(K.getTimeISO8601()) + gDelimiter);
+		logString.append(K.encodeCSV(K.getTimeISO8601(argRecord.getInstant())) + gDelimiter);
 		
 		// Append logging level
 		switch (argRecord.getLevel().toString()) {
@@ -0,0 +1,401 @@
+package ch.k43.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Formatter;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Java logging handler to write log records into rolling memory-mapped segment files.<p>
+ *
+ * Notes:<br>
+ * - Each log record is formatted by the calling thread and copied into the mapped file without any global lock (see KLogFileSegment).<br>
+ * - A new segment file is started if the current segment is full or the roll over interval has expired. The segment files are named
+ *   {file name}-yyyyMMdd-HHmmss-SSS{extension}, e.g. KLog-20261017-081818-477.log.<br>
+ * - Closed segments are truncated to the used size and optionally compressed to {segment name}.gz by a background thread.<br>
+ * - Only the newest closed segments are kept according to the retention count.<br>
+ * - The formatter may be called concurrently. KLogLineFormatter and KLogCSVFormatter are suited, the head and tail are written to each segment.<br>
+ *
+ * The following properties are supported:
+ * <pre>
+ * ch.k43.util.KLogFileHandler.filename = Base file name (default KLog.log)
+ * ch.k43.util.KLogFileHandler.formatter = Formatter class name (default ch.k43.util.KLogLineFormatter)
+ * ch.k43.util.KLogFileHandler.segmentsize = Maximum segment size in MiB (default 64)
+ * ch.k43.util.KLogFileHandler.rollover = Roll over interval in minutes (default 0 = only roll over if segment is full)
+ * ch.k43.util.KLogFileHandler.compress = true/false (GZIP compress closed segments, default false)
+ * ch.k43.util.KLogFileHandler.retention = Number of closed segments kept (default 10, 0 = keep all)
+ * ch.k43.util.KLogFileHandler.debug = true/false (Output sent to System.out/System.err, default false)
+ * </pre>
+ *
+ * @see KLogFileSegment
+ *
+ * @since 2026.10.17
+ */
+public final class KLogFileHandler extends Handler {
+
+	// Class declarations
+	private static final long					TERMINATION_TIMEOUT_MS	= 30_000;
+	private static final int					MAX_SEGMENT_SIZE_MIB	= 1_024;
+
+	private volatile KLogFileSegment			gSegment			= null;
+	private ExecutorService						gExecutor			= null;
+	private String								gClassName			= this.getClass().getName();
+	private String								gFilePrefix			= null;
+	private String								gFileExtension		= null;
+	private String								gDirectory			= null;
+	private int									gSegmentSize		= 0;
+	private int									gTailSize			= 0;
+	private long								gRollOverMs			= 0;
+	private int									gRetention			= 10;
+	private boolean								gCompress			= false;
+	private boolean								gDebugLogActive		= false;								// Enable only during development and testing
+	private volatile boolean					gIsActive			= false;
+
+	/**
+	 * Class constructor.
+	 */
+	public KLogFileHandler() {
+
+		// Read properties
+		Properties logProps = KFile.readPropertiesFile(KLog.PROPERTY_FILE);
+
+		if (logProps == null) {
+			return;
+		}
+
+		String	fileName		= logProps.getProperty(gClassName + ".filename", "KLog.log").trim();
+		String	formatterName	= logProps.getProperty(gClassName + ".formatter", KLogLineFormatter.class.getName()).trim();
+		String	segmentSize		= logProps.getProperty(gClassName + ".segmentsize", "64").trim();
+		String	rollOver		= logProps.getProperty(gClassName + ".rollover", "0").trim();
+		String	retention		= logProps.getProperty(gClassName + ".retention", "10").trim();
+		String	compress		= logProps.getProperty(gClassName + ".compress", "false").trim();
+		String	logDebug		= logProps.getProperty(gClassName + ".debug", "false").trim();
+
+		if (logDebug.equalsIgnoreCase("true")) {
+			gDebugLogActive = true;
+		}
+
+		logDebug("Logging handler initializing");
+		logDebug("File: " + fileName);
+		logDebug("Formatter: " + formatterName);
+		logDebug("Segment size: " + segmentSize + " MiB");
+		logDebug("Roll over: " + rollOver + " minutes");
+		logDebug("Retention: " + retention);
+		logDebug("Compress: " + compress);
+		logDebug("Debug: " + gDebugLogActive);
+
+		// Check properties
+		if (!K.isInteger(segmentSize, 1, MAX_SEGMENT_SIZE_MIB) || !K.isInteger(rollOver, 0, Integer.MAX_VALUE) || !K.isInteger(retention, 0, Integer.MAX_VALUE)) {
+			logError("Invalid segmentsize (1-" + MAX_SEGMENT_SIZE_MIB + "), rollover or retention property");
+			return;
+		}
+
+		gSegmentSize	= (int) Math.min(Integer.parseInt(segmentSize) * 1_024L * 1_024L, Integer.MAX_VALUE);
+		gRollOverMs		= Integer.parseInt(rollOver) * 60_000L;
+		gRetention		= Integer.parseInt(retention);
+		gCompress		= compress.equalsIgnoreCase("true");
+
+		// Split file name into directory, prefix and extension
+		File	file			= new File(fileName).getAbsoluteFile();
+		String	name			= file.getName();
+		int		posExtension	= name.lastIndexOf('.');
+
+		gDirectory		= file.getParent();
+		gFilePrefix		= (posExtension > 0) ? name.substring(0, posExtension) : name;
+		gFileExtension	= (posExtension > 0) ? name.substring(posExtension) : "";
+
+		// Create formatter
+		try {
+			setFormatter((Formatter) Class.forName(formatterName).getDeclaredConstructor().newInstance());
+		} catch (Exception e) {
+			logError("Unable to create formatter " + formatterName + ": " + e.toString());
+			return;
+		}
+
+		gTailSize = getFormatter().getTail(this).getBytes(StandardCharsets.UTF_8).length;
+
+		// Background thread to close, compress and delete segments (ignore any logging by this thread)
+		gExecutor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(() -> {
+				KLog.setWriteGuard(true);
+				runnable.run();
+			}, gClassName);
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		// Open first segment
+		try {
+			gSegment = createSegment();
+		} catch (IOException e) {
+			logError("Unable to create segment file: " + e.toString());
+			gExecutor.shutdown();
+			return;
+		}
+
+		// Enable driver
+		gIsActive = true;
+
+		logDebug("Logging handler initialized");
+	}
+
+	/**
+	 * Close the handler: Close the current segment and wait for the background thread to finish.
+	 */
+	public void close() {
+
+		synchronized (this) {
+
+			// Check if driver is active
+			if (!gIsActive) {
+				return;
+			}
+
+			// Mark driver inactive
+			gIsActive = false;
+		}
+
+		KLogFileSegment segment = gSegment;
+
+		gExecutor.execute(() -> closeSegment(segment));
+		gExecutor.shutdown();
+
+		try {
+			if (!gExecutor.awaitTermination(TERMINATION_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+				logError("Background thread not terminated");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		logDebug("Logging handler terminated");
+	}
+
+	/**
+	 * Close segment, compress it and delete old segments (called by the background thread).
+	 *
+	 * @param argSegment	Segment
+	 */
+	private void closeSegment(KLogFileSegment argSegment) {
+
+		String fileName = argSegment.getFileName();
+
+		try {
+			argSegment.close(getFormatter().getTail(this));
+			logDebug("Segment " + fileName + " closed");
+		} catch (IOException e) {
+			logError("Unable to close segment " + fileName + ": " + e.toString());
+			return;
+		}
+
+		// Compress segment
+		if (gCompress) {
+			compressSegment(fileName);
+		}
+
+		// Delete oldest closed segments (the names sort by creation time)
+		if (gRetention <= 0) {
+			return;
+		}
+
+		KLogFileSegment	currentSegment	= gSegment;
+		String			currentName		= (currentSegment != null) ? new File(currentSegment.getFileName()).getName() : "";
+		File[]			segmentFiles	= new File(gDirectory).listFiles((directory, name) ->
+			name.startsWith(gFilePrefix + '-') && (name.endsWith(gFileExtension) || name.endsWith(gFileExtension + ".gz")) && !name.equals(currentName));
+
+		if ((segmentFiles == null) || (segmentFiles.length <= gRetention)) {
+			return;
+		}
+
+		Arrays.sort(segmentFiles, (file1, file2) -> file1.getName().compareTo(file2.getName()));
+
+		for (int index = 0; index < segmentFiles.length - gRetention; index++) {
+			if (segmentFiles[index].delete()) {
+				logDebug("Segment " + segmentFiles[index].getName() + " deleted");
+			}
+		}
+	}
+
+	/**
+	 * Compress a closed segment to {file name}.gz by streaming and delete the segment (called by the background thread).
+	 *
+	 * @param argFileName	Segment file name
+	 */
+	private void compressSegment(String argFileName) {
+
+		String compressedFileName = argFileName + ".gz";
+
+		try (InputStream inputStream = new FileInputStream(argFileName);
+			 OutputStream outputStream = new GZIPOutputStream(new FileOutputStream(compressedFileName), K.FILE_IO_BUFFER_SIZE)) {
+
+			inputStream.transferTo(outputStream);
+
+		} catch (IOException e) {
+			logError("Unable to compress segment " + argFileName + ": " + e.toString());
+			new File(compressedFileName).delete();
+			return;
+		}
+
+		if (!new File(argFileName).delete()) {
+			logError("Unable to delete compressed segment " + argFileName);
+			return;
+		}
+
+		logDebug("Segment " + argFileName + " compressed");
+	}
+
+	/**
+	 * Create the next segment file.
+	 *
+	 * @return	Segment
+	 * @throws	IOException	If the file could not be created
+	 */
+	private KLogFileSegment createSegment() throws IOException {
+
+		long	now			= System.currentTimeMillis();
+		String	baseName	= gDirectory + File.separator + gFilePrefix + '-' + new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date(now));
+		String	fileName	= baseName + gFileExtension;
+
+		// Make name unique if more than one segment is created within the same millisecond
+		for (int index = 1; new File(fileName).exists() || new File(fileName + ".gz").exists(); index++) {
+			fileName = baseName + '-' + index + gFileExtension;
+		}
+
+		logDebug("Segment " + fileName + " created");
+
+		return new KLogFileSegment(fileName, gSegmentSize, getFormatter().getHead(this), gTailSize,
+				(gRollOverMs > 0) ? now + gRollOverMs : Long.MAX_VALUE);
+	}
+
+	/**
+	 * Force the current segment to disk.
+	 */
+	public void flush() {
+
+		KLogFileSegment segment = gSegment;
+
+		// Check if driver is active
+		if (!gIsActive || (segment == null)) {
+			return;
+		}
+
+		segment.force();
+	}
+
+	/**
+	 * Write debug log.
+	 *
+	 * @param argMessage	Message to be logged
+	 */
+	private void logDebug(String argMessage) {
+
+		if (gDebugLogActive) {
+			System.out.println(K.getTimeISO8601() + " D " + gClassName + ": " + argMessage);
+		}
+	}
+
+	/**
+	 * Write error log.
+	 *
+	 * @param argMessage	Message to be logged
+	 */
+	private void logError(String argMessage) {
+
+		if (gDebugLogActive) {
+			System.err.println(K.getTimeISO8601() + " E " + gClassName + ": " + argMessage);
+		}
+	}
+
+	/**
+	 * Write log record to the current segment.
+	 *
+	 * @param	argRecord Log record
+	 */
+	public void publish(LogRecord argRecord) {
+
+		// Check if driver is active and the record is loggable
+		if (!gIsActive || !isLoggable(argRecord)) {
+			return;
+		}
+
+		// Format record (outside of any lock)
+		byte[] data = getFormatter().format(argRecord).getBytes(StandardCharsets.UTF_8);
+
+		while (true) {
+
+			KLogFileSegment segment = gSegment;
+
+			// Roll over expired segment
+			if (segment.isExpired(argRecord.getMillis())) {
+				if (!rollOver(segment)) {
+					return;
+				}
+				continue;
+			}
+
+			if (segment.write(data)) {
+				return;
+			}
+
+			// Segment full or closed: Roll over and retry (unless the record never fits into an empty segment)
+			if ((data.length > gSegmentSize / 2) || !rollOver(segment)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Replace the passed segment by a new one and close it in the background. Only one thread creates the new segment.
+	 *
+	 * @param	argSegment	Segment to be replaced
+	 * @return	True if the current segment may be used, false if the handler is inactive or the new segment could not be created
+	 */
+	private synchronized boolean rollOver(KLogFileSegment argSegment) {
+
+		// Check if driver is active
+		if (!gIsActive) {
+			return false;
+		}
+
+		// Check if already rolled over by another thread
+		if (gSegment != argSegment) {
+			return true;
+		}
+
+		try {
+			gSegment = createSegment();
+		} catch (IOException e) {
+			logError("Unable to create segment file: " + e.toString());
+			return false;
+		}
+
+		gExecutor.execute(() -> closeSegment(argSegment));
+
+		return true;
+	}
+
+	/**
+	 * String representation of object.
+	 */
+	@Override
+	public String toString() {
+		return "KLogFileHandler [gSegment=" + gSegment + ", gClassName=" + gClassName + ", gFilePrefix=" + gFilePrefix
+				+ ", gFileExtension=" + gFileExtension + ", gDirectory=" + gDirectory + ", gSegmentSize=" + gSegmentSize
+				+ ", gRollOverMs=" + gRollOverMs + ", gRetention=" + gRetention + ", gCompress=" + gCompress
+				+ ", gDebugLogActive=" + gDebugLogActive + ", gIsActive=" + gIsActive + "]";
+	}
+}
@@ -0,0 +1,183 @@
+package ch.k43.util;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Memory-mapped log file segment used by KLogFileHandler.<p>
+ *
+ * Notes:<br>
+ * - The file is mapped with its maximum size. Each writer reserves its byte range with a single atomic add and copies the
+ *   data into the mapping without any lock.<br>
+ * - The first reservation which does not fit marks the end of the segment. The handler then switches to a new segment.<br>
+ * - Closing waits for all active writers, appends the tail, writes the mapping to disk, releases the mapping and truncates the file
+ *   to the used size (a mapped file cannot be truncated on Windows).<br>
+ *
+ * @see KLogFileHandler
+ *
+ * @since 2026.10.17
+ */
+final class KLogFileSegment {
+
+	// Declarations
+	private final			String				gFileName;
+	private final			FileChannel			gChannel;
+	private final			long				gRollTime;
+	private final			int					gCapacity;
+	private final			AtomicLong			gPosition		= new AtomicLong(0);
+	private final			AtomicLong			gEnd			= new AtomicLong(Long.MAX_VALUE);
+	private final			AtomicInteger		gWriters		= new AtomicInteger(0);
+	private					MappedByteBuffer	gBuffer;
+	private volatile		boolean				gClosed			= false;
+
+	/**
+	 * Create and map segment file and write the head.
+	 *
+	 * @param	argFileName		File name
+	 * @param	argSize			Maximum file size
+	 * @param	argHead			Head written at the start of the file (may be empty)
+	 * @param	argTailSize		Number of bytes reserved for the tail
+	 * @param	argRollTime		Time (milliseconds since epoch) to roll over to the next segment or Long.MAX_VALUE
+	 * @throws	IOException		If the file could not be created
+	 */
+	KLogFileSegment(String argFileName, int argSize, String argHead, int argTailSize, long argRollTime) throws IOException {
+
+		gFileName	= argFileName;
+		gRollTime	= argRollTime;
+		gCapacity	= argSize - argTailSize;
+		gChannel	= FileChannel.open(Paths.get(argFileName), StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+		try {
+			gBuffer = gChannel.map(FileChannel.MapMode.READ_WRITE, 0, argSize);
+		} catch (IOException e) {
+			gChannel.close();
+			throw e;
+		}
+
+		// Write head
+		byte[] head = argHead.getBytes(StandardCharsets.UTF_8);
+
+		if (head.length < gCapacity) {
+			gBuffer.put(0, head);
+			gPosition.set(head.length);
+		}
+	}
+
+	/**
+	 * Close the segment: Wait for active writers, write the tail, force the data to disk and truncate the file to the used size.
+	 * Must be called only once.
+	 *
+	 * @param	argTail		Tail written after the last record (may be empty)
+	 * @throws	IOException	If the file could not be written
+	 */
+	void close(String argTail) throws IOException {
+
+		gClosed = true;
+
+		// Wait for writers which reserved their space before the segment was closed
+		while (gWriters.get() != 0) {
+			Thread.onSpinWait();
+		}
+
+		// End of data is the first failed reservation (all successful reservations are below it)
+		int		end		= (int) Math.min(Math.min(gPosition.get(), gEnd.get()), gCapacity);
+		byte[]	tail	= argTail.getBytes(StandardCharsets.UTF_8);
+
+		if (tail.length > 0) {
+			gBuffer.put(end, tail, 0, Math.min(tail.length, gBuffer.capacity() - end));
+			end = Math.min(end + tail.length, gBuffer.capacity());
+		}
+
+		try {
+			gBuffer.force();
+			KFile.unmap(gBuffer);
+			gBuffer = null;
+			gChannel.truncate(end);
+		} finally {
+			gChannel.close();
+		}
+	}
+
+	/**
+	 * Get file name.
+	 *
+	 * @return	File name
+	 */
+	String getFileName() {
+		return gFileName;
+	}
+
+	/**
+	 * Check if the roll over time is reached.
+	 *
+	 * @param	argTime	Current time (milliseconds since epoch)
+	 * @return	True if expired, false otherwise
+	 */
+	boolean isExpired(long argTime) {
+		return (argTime >= gRollTime);
+	}
+
+	/**
+	 * Force the written data to disk.
+	 */
+	void force() {
+
+		// Only force an active segment (the mapping of a closing segment is forced by close())
+		gWriters.incrementAndGet();
+
+		try {
+			if (!gClosed) {
+				gBuffer.force();
+			}
+		} finally {
+			gWriters.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Copy data into the segment.
+	 *
+	 * @param	argData	Data
+	 * @return	True if written, false if the segment is full or closed
+	 */
+	boolean write(byte[] argData) {
+
+		// Register as active writer before the closed flag is checked, so close() waits for this write
+		gWriters.incrementAndGet();
+
+		try {
+			if (gClosed) {
+				return false;
+			}
+
+			// Reserve byte range
+			long offset = gPosition.getAndAdd(argData.length);
+
+			if (offset + argData.length > gCapacity) {
+				gEnd.accumulateAndGet(offset, Math::min);
+				return false;
+			}
+
+			gBuffer.put((int) offset, argData);
+			return true;
+
+		} finally {
+			gWriters.decrementAndGet();
+		}
+	}
+
+	/**
+	 * String representation of object.
+	 */
+	@Override
+	public String toString() {
+		return "KLogFileSegment [gFileName=" + gFileName + ", gCapacity=" + gCapacity + ", gPosition=" + gPosition.get()
+				+ ", gRollTime=" + gRollTime + ", gClosed=" + gClosed + "]";
+	}
+}
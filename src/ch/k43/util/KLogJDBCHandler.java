@@ -1,6 +1,12 @@
 package ch.k43.util;
 
+import java.sql.Timestamp;
 import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Handler;
 import java.util.logging.LogRecord;
 
@@ -13,6 +19,9 @@ import java.util.logging.LogRecord;
  * CREATE TABLE {TableName} (UUID CHAR(36), LOGTIME TIMESTAMP, LEVEL VARCHAR(20), LOCATION VARCHAR(80), TEXT VARCHAR(500))
  * </pre>
  * 
+ * The log rows are queued by publish() and inserted by a background thread thru a prepared statement in batches. A batch is
+ * written if it is full, if its oldest row has waited the maximum latency or on flush(). If the queue is full, new log rows are dropped.
+ * 
  * The following properties are supported:
  * <pre>
  * ch.k43.util.KLogJDBCHandler.jdbc.driver = Java class name
@@ -21,6 +30,9 @@ import java.util.logging.LogRecord;
  * ch.k43.util.KLogJDBCHandler.jdbc.password = Password
  * ch.k43.util.KLogJDBCHandler.tablename = SQL table name (default KLOGDATA)
  * ch.k43.util.KLogJDBCHandler.retensiondays = Number of days before log records are deleted (default 30)
+ * ch.k43.util.KLogJDBCHandler.batchsize = Maximum number of rows per batch (default 100)
+ * ch.k43.util.KLogJDBCHandler.maxlatency = Maximum milliseconds a row is queued before its batch is written (default 1000)
+ * ch.k43.util.KLogJDBCHandler.queuesize = Maximum number of queued rows (default 10000)
  * ch.k43.util.KLogJDBCHandler.debug = true/false (Output sent to System.out/System.err, default false)	
  * </pre>
  * 
@@ -29,7 +41,13 @@ import java.util.logging.LogRecord;
 public class KLogJDBCHandler extends Handler {
 
 	// Class declarations
-	private KDB			gJDBC				= null;
+	private static final int		MAX_LOCATION_SIZE	= 80;
+	private static final long		TIMEOUT_MS			= 10_000;
+	
+	private KDB						gJDBC				= null;
+	private KLogJDBCHandlerThread	gThread				= null;
+	private BlockingQueue<Object>	gQueue				= null;
+	private AtomicLong				gDroppedRows		= new AtomicLong(0);
 	private String		gClassName			= this.getClass().getName();
 	private String		gTableName			= null;
 	private String		gLastTraceLocation	= "N/A";
@@ -56,6 +74,9 @@ public class KLogJDBCHandler extends Handler {
 		String	jdbcPassword	= logProps.getProperty(gClassName + ".jdbc.password", "").trim();
 		String	logRetension	= logProps.getProperty(gClassName + ".retensiondays", "30").trim();
 		String	logDebug		= logProps.getProperty(gClassName + ".debug", "false").trim();
+		String	batchSize		= logProps.getProperty(gClassName + ".batchsize", "100").trim();
+		String	maxLatency		= logProps.getProperty(gClassName + ".maxlatency", "1000").trim();
+		String	queueSize		= logProps.getProperty(gClassName + ".queuesize", "10000").trim();
 		
 		if (logDebug.equalsIgnoreCase("true")) {
 			gDebugLogActive = true;
@@ -71,6 +92,14 @@ public class KLogJDBCHandler extends Handler {
 		logDebug("Retension: " + logRetension);
 		logDebug("Table: " + gTableName);
 		logDebug("Debug: " + gDebugLogActive);
+		logDebug("Batch size: " + batchSize);
+		logDebug("Maximum latency: " + maxLatency + " ms");
+		logDebug("Queue size: " + queueSize);
+		
+		if (!K.isInteger(batchSize, 1, Integer.MAX_VALUE) || !K.isInteger(maxLatency, 1, Integer.MAX_VALUE) || !K.isInteger(queueSize, 1, Integer.MAX_VALUE)) {
+			logError("Invalid batchsize, maxlatency or queuesize property");
+			return;
+		}
 		
 		gJDBC = new KDB(jdbcDriver, jdbcURL, jdbcUsername, jdbcPassword);
 
@@ -108,6 +137,18 @@ public class KLogJDBCHandler extends Handler {
 			logDebug("Number of expired rows deleted: " + gJDBC.getRowCount());
 		}
 		
+		// Prepare INSERT statement and commit each batch
+		if (!gJDBC.prepare("INSERT INTO " + gTableName + " (UUID, LOGTIME, LEVEL, LOCATION, TEXT) VALUES (?, ?, ?, ?, ?)")) {
+			logError(gJDBC.getErrorMessage());
+			return;
+		}
+		
+		gJDBC.setAutoCommit(false);
+		
+		// Start background thread (the only user of the JDBC connection from now on)
+		gQueue	= new ArrayBlockingQueue<>(Integer.parseInt(queueSize));
+		gThread	= new KLogJDBCHandlerThread(gJDBC, gQueue, Integer.parseInt(batchSize), Integer.parseInt(maxLatency), gDebugLogActive);
+		
 		// Enable driver
 		gIsActive = true;
 		
@@ -124,21 +165,24 @@ public class KLogJDBCHandler extends Handler {
 			return;
 		}
 		
-		// Close JDBC connection
-		if (gJDBC != null) {
-			gJDBC.close();
-			gJDBC = null;
-			logDebug("JDBC connection closed");
-		}
-		
 		// Mark driver inactive
 		gIsActive = false;
 		
+		// Write all queued rows and close JDBC connection
+		gThread.shutdown(TIMEOUT_MS);
+		gThread	= null;
+		gJDBC	= null;
+		logDebug("JDBC connection closed");
+		
+		if (gDroppedRows.get() > 0) {
+			logError("Number of log rows dropped (queue full): " + gDroppedRows.get());
+		}
+		
 		logDebug("Logging handler terminated");
 	}
 	
 	/**
-	 * Commit JDBC transaction.
+	 * Write and commit all queued log rows.
 	 */
 	public void flush() {
 
@@ -147,8 +191,19 @@ public class KLogJDBCHandler extends Handler {
 			return;
 		}
 
-		// Commit transaction
-		gJDBC.commit();
+		// Request flush from background thread and wait for it
+		CountDownLatch flushRequest = new CountDownLatch(1);
+		
+		try {
+			if (!gQueue.offer(flushRequest, TIMEOUT_MS, TimeUnit.MILLISECONDS) || !flushRequest.await(TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+				logError("Flush not completed within " + TIMEOUT_MS + " ms");
+				return;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		
 		logDebug("Transaction committed");
 	}
 
@@ -222,16 +277,16 @@ public class KLogJDBCHandler extends Handler {
 			traceLocation		= gLastTraceLocation;
 		}
 		
-		if (!gJDBC.exec("INSERT INTO KLOGDATA"+
-					" (UUID, LOGTIME, LEVEL, LOCATION, TEXT) VALUES(" +
-					"'" + K.getUniqueID() + "'," +
-					"'" + K.getTimeISO8601() + "'," +
-					"'" + logLevel.trim() + "'," +
-					"'" + String.format("%-80s", traceLocation).trim() + "'," +
-					"'" + String.format("%-s", K.truncateMiddle(traceMessage, KLog.MAX_LOG_DATA)).trim() + "')")) {
-			logError(gJDBC.getErrorMessage());
-		} else {
-			logDebug("Log data written to database");
+		// Queue log row for the background thread (never wait for the database)
+		Object[] logRow = {
+				K.getUniqueID(),
+				Timestamp.from(argRecord.getInstant()),
+				logLevel,
+				(traceLocation.length() > MAX_LOCATION_SIZE) ? K.truncateMiddle(traceLocation, MAX_LOCATION_SIZE) : traceLocation,
+				(traceMessage.length() > KLog.MAX_LOG_DATA) ? K.truncateMiddle(traceMessage, KLog.MAX_LOG_DATA) : traceMessage};
+		
+		if (!gQueue.offer(logRow)) {
+			gDroppedRows.incrementAndGet();
 		}
 	}
 
@@ -242,7 +297,7 @@ public class KLogJDBCHandler extends Handler {
 	 */
 	@Override
 	public String toString() {
-		return "KLogJDBCHandler [gJDBC=" + gJDBC + ", gClassName=" + gClassName + ", gTableName=" + gTableName
+		return "KLogJDBCHandler [gJDBC=" + gJDBC + ", gThread=" + gThread + ", gDroppedRows=" + gDroppedRows.get() + ", gClassName=" + gClassName + ", gTableName=" + gTableName
 				+ ", gLastTraceLocation=" + gLastTraceLocation + ", gDebugLogActive=" + gDebugLogActive + ", gIsActive="
 				+ gIsActive + "]";
 	}
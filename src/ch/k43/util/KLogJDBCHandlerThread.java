@@ -0,0 +1,191 @@
+package ch.k43.util;
+
+import java.util.ArrayList;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background thread of KLogJDBCHandler to insert the queued log rows thru a prepared statement in batches.<p>
+ *
+ * Notes:<br>
+ * - A batch is executed and committed if it is full, if the oldest queued row has waited the maximum latency or on request by flush().<br>
+ * - This thread is the only user of the database connection after the handler has been initialized.<br>
+ *
+ * @see KLogJDBCHandler
+ *
+ * @since 2026.10.17
+ */
+final class KLogJDBCHandlerThread extends Thread {
+
+	// Declarations
+	private final			KDB						gJDBC;
+	private final			BlockingQueue<Object>	gQueue;
+	private final			String					gClassName;
+	private final			int						gBatchSize;
+	private final			long					gMaxLatencyMs;
+	private final			boolean					gDebugLog;
+	private volatile		boolean					gMustTerminate		= false;
+
+	/**
+	 * Create and start the thread.
+	 *
+	 * @param argJDBC			Database connection with the INSERT statement prepared
+	 * @param argQueue			Queue with the log rows (Object[]) and flush requests (CountDownLatch)
+	 * @param argBatchSize		Maximum number of rows per batch
+	 * @param argMaxLatencyMs	Maximum time in milliseconds a row waits before its batch is executed
+	 * @param argDebug			True to send debug messages to console, false otherwise
+	 */
+	KLogJDBCHandlerThread(KDB argJDBC, BlockingQueue<Object> argQueue, int argBatchSize, long argMaxLatencyMs, boolean argDebug) {
+
+		super("KLogJDBCHandlerThread");
+
+		gJDBC			= argJDBC;
+		gQueue			= argQueue;
+		gClassName		= getName();
+		gBatchSize		= argBatchSize;
+		gMaxLatencyMs	= argMaxLatencyMs;
+		gDebugLog		= argDebug;
+
+		setDaemon(true);
+		start();
+	}
+
+	/**
+	 * Execute and commit the batch.
+	 *
+	 * @param	argRowCount	Number of rows in the batch
+	 */
+	private void executeBatch(int argRowCount) {
+
+		if (argRowCount == 0) {
+			return;
+		}
+
+		if (!gJDBC.execBatch()) {
+			logError("Batch of " + argRowCount + " log rows not written: " + gJDBC.getErrorMessage());
+			gJDBC.rollback();
+			return;
+		}
+
+		gJDBC.commit();
+		logDebug("Batch of " + argRowCount + " log rows written");
+	}
+
+	/**
+	 * Write debug log.
+	 *
+	 * @param argMessage	Message to be logged
+	 */
+	private void logDebug(String argMessage) {
+
+		if (gDebugLog) {
+			System.out.println(K.getTimeISO8601() + " D " + gClassName + ": " + argMessage);
+		}
+	}
+
+	/**
+	 * Write error log.
+	 *
+	 * @param argMessage	Message to be logged
+	 */
+	private void logError(String argMessage) {
+
+		if (gDebugLog) {
+			System.err.println(K.getTimeISO8601() + " E " + gClassName + ": " + argMessage);
+		}
+	}
+
+	/**
+	 * Main entry point: Collect queued rows into batches until terminated and the queue is empty.
+	 */
+	@Override
+	public void run() {
+
+		// Ignore all log messages issued by this thread (e.g. by KDB)
+		KLog.setWriteGuard(true);
+
+		ArrayList<CountDownLatch>	flushRequests	= new ArrayList<>();
+		int							rowCount		= 0;
+		long						deadline		= 0;
+
+		logDebug("Thread started");
+
+		try {
+			while (true) {
+
+				// Wait for the next element (at most until the current batch is due)
+				long	waitTimeMs	= (rowCount == 0) ? gMaxLatencyMs : Math.max(0, deadline - System.currentTimeMillis());
+				Object	element		= gQueue.poll(waitTimeMs, TimeUnit.MILLISECONDS);
+
+				if (element instanceof Object[]) {
+
+					if (rowCount == 0) {
+						deadline = System.currentTimeMillis() + gMaxLatencyMs;
+					}
+
+					if (gJDBC.addBatch((Object[]) element)) {
+						rowCount++;
+					} else {
+						logError("Log row not added: " + gJDBC.getErrorMessage());
+					}
+
+				} else if (element instanceof CountDownLatch) {
+					flushRequests.add((CountDownLatch) element);
+				}
+
+				// Execute batch if full, due, flush requested or no more rows expected
+				if ((rowCount >= gBatchSize) || ((rowCount > 0) && (System.currentTimeMillis() >= deadline))
+						|| !flushRequests.isEmpty() || (gMustTerminate && gQueue.isEmpty())) {
+
+					executeBatch(rowCount);
+					rowCount = 0;
+
+					for (CountDownLatch flushRequest : flushRequests) {
+						flushRequest.countDown();
+					}
+
+					flushRequests.clear();
+				}
+
+				if (gMustTerminate && gQueue.isEmpty()) {
+					break;
+				}
+			}
+
+		} catch (InterruptedException e) {
+			executeBatch(rowCount);
+		} finally {
+			gJDBC.close();
+			logDebug("Thread terminated");
+		}
+	}
+
+	/**
+	 * Signal termination and wait until all queued rows are written.
+	 *
+	 * @param argTimeOutMs	Maximum wait time in milliseconds
+	 */
+	void shutdown(long argTimeOutMs) {
+
+		gMustTerminate = true;
+
+		// Wake up thread if it is waiting for rows
+		gQueue.offer(new CountDownLatch(1));
+
+		try {
+			join(argTimeOutMs);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * String representation of object.
+	 */
+	@Override
+	public String toString() {
+		return "KLogJDBCHandlerThread [gClassName=" + gClassName + ", gBatchSize=" + gBatchSize + ", gMaxLatencyMs=" + gMaxLatencyMs
+				+ ", gQueue=" + gQueue.size() + ", gMustTerminate=" + gMustTerminate + "]";
+	}
+}
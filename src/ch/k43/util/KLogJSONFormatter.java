@@ -67,7 +67,7 @@ public class KLogJSONFormatter extends Formatter {
 		
 		// Append time stamp in ISO 8601 format (e.g. 2024-02-24T14:12:44.234)
 		logString.append(INDENT_LEVEL_3 + K.encodeJSON("Logtime") + ": ");
-		logString.append(K.encodeJSON(K.getTimeISO8601()));
+		logString.append(K.encodeJSON(K.getTimeISO8601(argRecord.getInstant())));
 		logString.append("," + K.LINE_SEPARATOR);
 				
 		// Append logging level
@@ -43,7 +43,7 @@ public class KLogLineFormatter extends Formatter {
 		boolean				logSevere				= false;
 
 		// Format time stamp in ISO 8601 format (e.g. 2024-02-24T14:12:44.234)
-		logString.append(K.getTimeISO8601()).append(' ');
+		logString.append(K.getTimeISO8601(argRecord.getInstant())).append(' ');
 		
 		// Format abbreviated logging level
 		switch (argRecord.getLevel().toString().toUpperCase()) {
@@ -1,12 +1,22 @@
 package ch.k43.util;
 
 import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Handler;
 import java.util.logging.LogRecord;
 
 /**
  * Java logging handler to send logging data to an SMTP host. To avoid a high number of emails sent to the server, 
- * only log data of type error SEVERE is sent. Additionally the number of emails per minutes is restricted.
+ * only log data of type error SEVERE is sent. Additionally the number of emails per minutes is restricted.<p>
+ * 
+ * Notes:<br>
+ * - The errors are queued and sent by a single background thread which keeps the SMTP connection open.<br>
+ * - All errors within the digest window after the first error are sent in one mail with the number of errors per code location.<br>
+ * - If the maximum number of emails per minute is reached, the errors are sent with the next digest instead of being discarded.<br>
  * 
  * The following properties are supported:
  * <pre>
@@ -19,6 +29,8 @@ import java.util.logging.LogRecord;
  * ch.k43.util.KLogSMTPHandler.smtp.password = user password for authentication (default none)
  * ch.k43.util.KLogSMTPHandler.smtp.tls = true/false (default true)
  * ch.k43.util.KLogSMTPHandler.threshold = nn (maximum number of emails per minute, 1 to 10, default 3)
+ * ch.k43.util.KLogSMTPHandler.window = nn (seconds to collect errors into one email, 0 to 3600, default 10)
+ * ch.k43.util.KLogSMTPHandler.queuesize = nn (maximum number of queued errors, 1 to 1000000, default 1000)
  * ch.k43.util.KLogSMTPHandler.debug = true/false (Output sent to System.out/System.err, default false)	
  * </pre>
  * 
@@ -28,21 +40,26 @@ import java.util.logging.LogRecord;
 public class KLogSMTPHandler extends Handler {
 
 	// Class variables
-	private String		gClassName			= this.getClass().getName();
-	private String		gSMTPHostName		= null;
-	private String		gSMTPUsername		= null;
-	private String		gSMTPPassword		= null;
-	private String		gMailFrom			= null;
-	private String		gMailTo				= null;
-	private String		gMailSubject		= null;
-	private String		gTimeCurrentMinute	= K.getTimeISO8601().substring(0, 16);
-	private String		gLastTraceLocation	= "N/A";
-	private int			gSMTPHostPort		= 25;
-	private int			gThreshold			= 3;
-	private int			gCurrentThreshold	= 0;
-	private boolean		gSMTPTLS			= true;
-	private boolean		gDebugLogActive		= false;								// Enable only during development and testing
-	private boolean		gIsActive			= false;
+	private static final	int						TIMEOUT_MS			= 10_000;
+
+	private String							gClassName			= this.getClass().getName();
+	private String							gSMTPHostName		= null;
+	private String							gSMTPUsername		= null;
+	private String							gSMTPPassword		= null;
+	private String							gMailFrom			= null;
+	private String							gMailTo				= null;
+	private String							gMailSubject		= null;
+	private String							gLastTraceLocation	= "N/A";
+	private int								gSMTPHostPort		= 25;
+	private int								gThreshold			= 3;
+	private int								gWindow				= 10;
+	private int								gQueueSize			= 1_000;
+	private boolean							gSMTPTLS			= true;
+	private boolean							gDebugLogActive		= false;								// Enable only during development and testing
+	private volatile boolean				gIsActive			= false;
+	private BlockingQueue<Object>			gQueue				= null;
+	private AtomicLong						gDroppedCount		= new AtomicLong(0);
+	private KLogSMTPHandlerThread			gWorker				= null;
 	
 	/**
 	 * Class constructor.
@@ -92,6 +109,24 @@ public class KLogSMTPHandler extends Handler {
 		}
 		gThreshold = Integer.parseInt(threadhold);
 
+		// ch.k43.util.KLogSMTPHandler.window
+		String window = logProps.getProperty(gClassName + ".window", "10").trim();
+
+		if (!K.isInteger(window, 0, 3600)) {
+			logError("Property " + gClassName + ".window must be between 0 and 3600");
+			return;
+		}
+		gWindow = Integer.parseInt(window);
+
+		// ch.k43.util.KLogSMTPHandler.queuesize
+		String queueSize = logProps.getProperty(gClassName + ".queuesize", "1000").trim();
+
+		if (!K.isInteger(queueSize, 1, 1_000_000)) {
+			logError("Property " + gClassName + ".queuesize must be between 1 and 1000000");
+			return;
+		}
+		gQueueSize = Integer.parseInt(queueSize);
+
 		// ch.k43.util.KLogSMTPHandler.smtp.hostname
 		gSMTPHostName = logProps.getProperty(gClassName + ".smtp.hostname", "").trim();
 		
@@ -117,6 +152,16 @@ public class KLogSMTPHandler extends Handler {
 			gSMTPTLS = false;
 		}
 
+		// Start SMTP worker thread with a mailer kept for all emails (ignore any logging by KSMTPMailer)
+		boolean writeGuard = KLog.setWriteGuard(true);
+		
+		try {
+			gQueue	= new ArrayBlockingQueue<>(gQueueSize);
+			gWorker	= new KLogSMTPHandlerThread(createMailer(), gMailSubject, gQueue, gDroppedCount, gWindow * 1_000L, gThreshold, gDebugLogActive);
+		} finally {
+			KLog.setWriteGuard(writeGuard);
+		}
+		
 		// Log objects data
 		logDebug(toString());
 		
@@ -129,15 +174,43 @@ public class KLogSMTPHandler extends Handler {
 	/**
 	 * Close the handler.
 	 */
-	public void close() {
+	public synchronized void close() {
+		
+		if (!gIsActive) {
+			return;
+		}
+		
+		gIsActive = false;
+		
+		// Send pending errors and terminate worker thread
+		gWorker.shutdown(TIMEOUT_MS);
+		
+		if (gDroppedCount.get() > 0) {
+			logError(gDroppedCount.get() + " errors discarded (queue full)");
+		}
+		
 		logDebug("Logging handler terminated");
 	}
 
 	/**
-	 * Flush the data.
+	 * Send all queued errors without waiting for the end of the digest window (unless the maximum number of emails per minute
+	 * is reached) and wait until the worker thread has processed them.
 	 */
 	public void flush() {
-		// Not implemented
+		
+		if (!gIsActive) {
+			return;
+		}
+		
+		CountDownLatch flushRequest = new CountDownLatch(1);
+		
+		try {
+			if (gQueue.offer(flushRequest, TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+				flushRequest.await(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
 	}
 	
 	/**
@@ -165,7 +238,7 @@ public class KLogSMTPHandler extends Handler {
 	}
 			
 	/**
-	 * Send log record a email to SMTP host.
+	 * Queue log record for the next error report email.
 	 * 
 	 * @param	argRecord Log record
 	 */
@@ -183,18 +256,8 @@ public class KLogSMTPHandler extends Handler {
 			return;
 		}
 
-		// Check if threshold reached (number of email per minute)
-		String timeCurrentMinute = K.getTimeISO8601().substring(0, 16);
-
-		if (gTimeCurrentMinute.equals(timeCurrentMinute)) {
-			if (++gCurrentThreshold > gThreshold) {
-				logError("Maximum number of log entries per minute excceded");
-				return;
-			}
-		} else {
-			gTimeCurrentMinute	= timeCurrentMinute;
-			gCurrentThreshold	= 0;
-		}
+		// Time stamp of the log record
+		String logTime = K.getTimeISO8601(argRecord.getInstant());
 		
 		// Get the passed message and split it into code location and text (delimited by KLOG.DELIMITER)
 		String	traceLocation	= null;
@@ -211,9 +274,25 @@ public class KLogSMTPHandler extends Handler {
 			traceLocation		= gLastTraceLocation;
 		}
 		
-		// Create mail message
+		// Queue error for the SMTP worker thread (count as discarded if the queue is full)
+		if (gQueue.offer(new String[] {logTime, traceLocation, traceMessage})) {
+			logDebug("Error queued for SMTP worker thread");
+		} else {
+			gDroppedCount.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Create the mailer used by the worker thread for all error reports.
+	 * 
+	 * @return	Mailer object with sender, recipients and SMTP settings
+	 */
+	private KSMTPMailer createMailer() {
+		
 		KSMTPMailer mailer = new KSMTPMailer();
 
+		mailer.setKeepConnection(true);
+
 		mailer.setFrom(gMailFrom);
 		mailer.setTo(gMailTo);
 		mailer.setSubject(gMailSubject);
@@ -230,21 +309,7 @@ public class KLogSMTPHandler extends Handler {
 			mailer.setAuthentication(gSMTPUsername, gSMTPPassword);
 		}
 		
-		mailer.addHTML("<h2>Error Report</h2>"
-				+ "The following error has occurred:<p>"
-				+ "<b>" + K.truncateMiddle(traceMessage, KLog.MAX_LOG_DATA) + "</b><p>"
-				+ "Time:<br>"
-				+ K.getTimeISO8601() + "<p>"
-				+ "Code Location:<br>"
-				+ traceLocation + "<p>"
-				+ "<i>This is an automated e-mail. Please do not reply to this message.</i><br>"
-				);
-		
-		//
-		// Start SMTP mailer thread to send email without blocking
-		//
-		new KLogSMTPHandlerThread(mailer, gDebugLogActive);
-		logDebug("Message sent to SMTP worker thread");
+		return mailer;
 	}
 
 	/**
@@ -254,9 +319,10 @@ public class KLogSMTPHandler extends Handler {
 	public String toString() {
 		return "KLogSMTPHandler [gClassName=" + gClassName + ", gSMTPHostName=" + gSMTPHostName + ", gSMTPUsername="
 				+ gSMTPUsername + ", gSMTPPassword=" + gSMTPPassword + ", gMailFrom=" + gMailFrom + ", gMailTo="
-				+ gMailTo + ", gMailSubject=" + gMailSubject + ", gTimeCurrentMinute=" + gTimeCurrentMinute
+				+ gMailTo + ", gMailSubject=" + gMailSubject
 				+ ", gLastTraceLocation=" + gLastTraceLocation + ", gSMTPHostPort=" + gSMTPHostPort + ", gThreshold="
-				+ gThreshold + ", gCurrentThreshold=" + gCurrentThreshold + ", gSMTPTLS=" + gSMTPTLS
+				+ gThreshold + ", gWindow=" + gWindow + ", gQueueSize=" + gQueueSize + ", gDroppedCount=" + gDroppedCount.get()
+				+ ", gSMTPTLS=" + gSMTPTLS
 				+ ", gDebugLogActive=" + gDebugLogActive + ", gIsActive=" + gIsActive + "]";
 	}
 }
@@ -1,51 +1,116 @@
 package ch.k43.util;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
- * This thread is started by the SMTP logging handler to send the SMTP mail.
- * 
+ * Background thread of KLogSMTPHandler to send the queued errors as digest mails.<p>
+ *
+ * Notes:<br>
+ * - All errors arriving within the digest window after the first error are sent in one mail with the number of errors per code location.<br>
+ * - If the maximum number of mails per minute is reached, the errors are kept and sent with the next possible digest.<br>
+ * - The same mailer object with its SMTP session and connection is used for all mails.<br>
+ *
+ * @see KLogSMTPHandler
+ *
  * @since 2024.08.26
  */
-public class KLogSMTPHandlerThread extends KThread {
-	
-	// Class variables
-	private KSMTPMailer gSMTPMail			= null;
-	private boolean		gDebugLog			= false;
-	private String		gClassName			= null;
-	
+final class KLogSMTPHandlerThread extends Thread {
+
+	// Declarations
+	static final			int						MAX_DETAILS			= 100;
+	private static final	long					ONE_MINUTE_MS		= 60_000L;
+
+	private final			KSMTPMailer				gSMTPMail;
+	private final			BlockingQueue<Object>	gQueue;
+	private final			AtomicLong				gDroppedCount;
+	private final			String					gClassName;
+	private final			String					gMailSubject;
+	private final			long					gWindowMs;
+	private final			int						gThreshold;
+	private final			boolean					gDebugLog;
+	private volatile		boolean					gMustTerminate		= false;
+
+	// Pending digest (only used by this thread)
+	private final			Map<String, int[]>		gLocationCounts		= new LinkedHashMap<>();
+	private final			ArrayList<String[]>		gDetails			= new ArrayList<>();
+	private final			ArrayDeque<Long>		gSentTimes			= new ArrayDeque<>();
+	private					String					gFirstTime			= null;
+	private					String					gLastTime			= null;
+	private					int						gErrorCount			= 0;
+
 	/**
-	 * Constructor: Initialize the SMTP mail worker thread.
-	 * 
-	 * @param argMail	Completed and ready to send SMTP mail object
-	 * @param argDebug	True to send debug messages to console, false otherwise
+	 * Create and start the thread.
+	 *
+	 * @param argMail			Mailer with sender, recipients and SMTP settings (connection kept open)
+	 * @param argMailSubject	Mail subject
+	 * @param argQueue			Queue with the errors (String[] with time, code location and message) and flush requests (CountDownLatch)
+	 * @param argDroppedCount	Number of errors not queued by the handler (reported and reset with each digest)
+	 * @param argWindowMs		Time in milliseconds to collect errors after the first one before the digest is sent
+	 * @param argThreshold		Maximum number of mails per minute
+	 * @param argDebug			True to send debug messages to console, false otherwise
 	 */
-	public KLogSMTPHandlerThread(KSMTPMailer argMail, boolean argDebug) {
-		
-		gClassName		= this.getName();
+	KLogSMTPHandlerThread(KSMTPMailer argMail, String argMailSubject, BlockingQueue<Object> argQueue, AtomicLong argDroppedCount,
+			long argWindowMs, int argThreshold, boolean argDebug) {
+
+		super("KLogSMTPHandlerThread");
+
 		gSMTPMail		= argMail;
+		gMailSubject	= argMailSubject;
+		gQueue			= argQueue;
+		gDroppedCount	= argDroppedCount;
+		gClassName		= getName();
+		gWindowMs		= argWindowMs;
+		gThreshold		= argThreshold;
 		gDebugLog		= argDebug;
+
+		setDaemon(true);
+		start();
 	}
-	
-	@Override
-	public void kStart() {
 
-		logDebug("SMTP worker: Thread started");
-		
-		try {
-			if (!gSMTPMail.send()) {
-				logError("SMTP worker: Mail send failed: " + gSMTPMail.getErrorMessage());
-			} else {
-				logDebug("SMTP worker: Mail successfully sent");
-			}
-		} catch (Exception e) {
-			logError("SMTP worker: " + e.toString());
+	/**
+	 * Add error to the pending digest.
+	 *
+	 * @param argError	Time, code location and message
+	 */
+	private void addError(String[] argError) {
+
+		if (gErrorCount++ == 0) {
+			gFirstTime = argError[0];
+		}
+
+		gLastTime = argError[0];
+		gLocationCounts.computeIfAbsent(argError[1], key -> new int[1])[0]++;
+
+		if (gDetails.size() < MAX_DETAILS) {
+			gDetails.add(argError);
+		}
+	}
+
+	/**
+	 * Get the time when the next mail may be sent without exceeding the maximum number of mails per minute.
+	 *
+	 * @param	argTime	Current time (milliseconds since epoch)
+	 * @return	Time (milliseconds since epoch)
+	 */
+	private long getNextSendTime(long argTime) {
+
+		while (!gSentTimes.isEmpty() && (gSentTimes.peekFirst() <= argTime - ONE_MINUTE_MS)) {
+			gSentTimes.pollFirst();
 		}
-		
-		logDebug("SMTP worker: Terminated");
+
+		return (gSentTimes.size() < gThreshold) ? argTime : gSentTimes.peekFirst() + ONE_MINUTE_MS;
 	}
-		
+
 	/**
 	 * Write debug log.
-	 * 
+	 *
 	 * @param argMessage	Message to be logged
 	 */
 	private void logDebug(String argMessage) {
@@ -57,7 +122,7 @@ public class KLogSMTPHandlerThread extends KThread {
 
 	/**
 	 * Write error log.
-	 * 
+	 *
 	 * @param argMessage	Message to be logged
 	 */
 	private void logError(String argMessage) {
@@ -68,11 +133,171 @@ public class KLogSMTPHandlerThread extends KThread {
 	}
 
 	/**
-	 * Output objects data.
+	 * Main entry point: Collect queued errors into digests until terminated and the queue is empty.
+	 */
+	@Override
+	public void run() {
+
+		// Ignore all log messages issued by this thread (e.g. by KSMTPMailer)
+		KLog.setWriteGuard(true);
+
+		ArrayList<CountDownLatch>	flushRequests	= new ArrayList<>();
+		long						deadline		= 0;
+
+		logDebug("Thread started");
+
+		try {
+			while (true) {
+
+				// Wait for the next element (at most until the pending digest is due)
+				long	waitTimeMs	= (gErrorCount == 0) ? ONE_MINUTE_MS : Math.max(0, deadline - System.currentTimeMillis());
+				Object	element		= gQueue.poll(waitTimeMs, TimeUnit.MILLISECONDS);
+
+				if (element instanceof String[]) {
+
+					if (gErrorCount == 0) {
+						deadline = System.currentTimeMillis() + gWindowMs;
+					}
+
+					addError((String[]) element);
+
+				} else if (element instanceof CountDownLatch) {
+					flushRequests.add((CountDownLatch) element);
+				}
+
+				// Send digest if due, flush requested or no more errors expected (deferred if the mail threshold is reached)
+				long	currentTime	= System.currentTimeMillis();
+				boolean	terminating	= gMustTerminate && gQueue.isEmpty();
+
+				if ((gErrorCount > 0) && ((currentTime >= deadline) || !flushRequests.isEmpty() || terminating)) {
+
+					long nextSendTime = getNextSendTime(currentTime);
+
+					if ((nextSendTime <= currentTime) || terminating) {
+						sendDigest();
+						gSentTimes.addLast(currentTime);
+					} else if (deadline < nextSendTime) {
+						logDebug("Maximum number of mails per minute reached, digest deferred");
+						deadline = nextSendTime;
+					}
+				}
+
+				// Release flush requests (also if the digest was deferred, so the caller is not blocked for up to a minute)
+				for (CountDownLatch flushRequest : flushRequests) {
+					flushRequest.countDown();
+				}
+
+				flushRequests.clear();
+
+				if (terminating) {
+					break;
+				}
+			}
+
+		} catch (InterruptedException e) {
+			// Terminate
+		} finally {
+
+			if (gErrorCount > 0) {
+				logError("Digest with " + gErrorCount + " errors not sent (thread interrupted)");
+			}
+
+			gSMTPMail.close();
+			logDebug("Thread terminated");
+		}
+	}
+
+	/**
+	 * Send the pending digest and reset it.
+	 */
+	private void sendDigest() {
+
+		long			droppedCount	= gDroppedCount.getAndSet(0);
+		StringBuilder	mailBody		= new StringBuilder();
+
+		// Summary
+		mailBody.append("<h2>Error Report</h2>");
+
+		if (gErrorCount == 1) {
+			mailBody.append("The following error has occurred:<p>");
+		} else {
+			mailBody.append(gErrorCount).append(" errors have occurred between ").append(gFirstTime).append(" and ").append(gLastTime).append(":<p>");
+		}
+
+		if (droppedCount > 0) {
+			mailBody.append("<b>").append(droppedCount).append(" further errors were discarded because the error queue was full.</b><p>");
+		}
+
+		// Number of errors per code location
+		mailBody.append("<table border=\"1\" cellpadding=\"4\" style=\"border-collapse:collapse\"><tr><th>Code Location</th><th>Errors</th></tr>");
+
+		for (Map.Entry<String, int[]> entry : gLocationCounts.entrySet()) {
+			mailBody.append("<tr><td>").append(K.encodeHTML(entry.getKey())).append("</td><td align=\"right\">").append(entry.getValue()[0]).append("</td></tr>");
+		}
+
+		mailBody.append("</table><p>");
+
+		// Error details
+		for (String[] error : gDetails) {
+			mailBody.append("<b>").append(K.encodeHTML(K.truncateMiddle(error[2], KLog.MAX_LOG_DATA))).append("</b><br>")
+				.append(error[0]).append(" - ").append(K.encodeHTML(error[1])).append("<p>");
+		}
+
+		if (gErrorCount > gDetails.size()) {
+			mailBody.append("<i>").append(gErrorCount - gDetails.size()).append(" further errors not listed.</i><p>");
+		}
+
+		mailBody.append("<i>This is an automated e-mail. Please do not reply to this message.</i><br>");
+
+		// Send mail thru the kept connection
+		gSMTPMail.clearBody();
+		gSMTPMail.setSubject((gErrorCount == 1) ? gMailSubject : gMailSubject + " (" + gErrorCount + " errors)");
+		gSMTPMail.addHTML(mailBody.toString());
+
+		try {
+			if (gSMTPMail.send()) {
+				logDebug("Digest with " + gErrorCount + " errors successfully sent");
+			} else {
+				logError("Digest with " + gErrorCount + " errors not sent: " + gSMTPMail.getErrorMessage());
+			}
+		} catch (Exception e) {
+			logError("Digest with " + gErrorCount + " errors not sent: " + e.toString());
+		}
+
+		// Reset digest
+		gLocationCounts.clear();
+		gDetails.clear();
+		gFirstTime	= null;
+		gLastTime	= null;
+		gErrorCount	= 0;
+	}
+
+	/**
+	 * Signal termination and wait until the pending digest is sent.
+	 *
+	 * @param argTimeOutMs	Maximum wait time in milliseconds
+	 */
+	void shutdown(long argTimeOutMs) {
+
+		gMustTerminate = true;
+
+		// Wake up thread if it is waiting for errors
+		gQueue.offer(new CountDownLatch(1));
+
+		try {
+			join(argTimeOutMs);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * String representation of object.
 	 */
 	@Override
 	public String toString() {
-		return "KLogSMTPHandlerThread [gSMTPMail=" + gSMTPMail + ", gDebugLog=" + gDebugLog + ", gClassName="
-				+ gClassName + "]";
+		return "KLogSMTPHandlerThread [gClassName=" + gClassName + ", gMailSubject=" + gMailSubject + ", gWindowMs=" + gWindowMs
+				+ ", gThreshold=" + gThreshold + ", gErrorCount=" + gErrorCount + ", gQueue=" + gQueue.size()
+				+ ", gDroppedCount=" + gDroppedCount.get() + ", gMustTerminate=" + gMustTerminate + "]";
 	}
 }
@@ -0,0 +1,203 @@
+package ch.k43.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sampling and rate limiting state of a single logging call site (class and line number) used by KLog.<p>
+ *
+ * Notes:<br>
+ * - Sampling passes the first of every N messages of a call site.<br>
+ * - Rate limiting passes at most M messages per second of a call site (token bucket with a capacity of M tokens, implemented
+ *   as a single atomic "theoretical arrival time").<br>
+ * - All counters are updated with atomic operations only, so a busy call site never blocks its callers.<br>
+ * - The number of suppressed messages is reported once per summary interval with the next message passed by the same call site
+ *   and for all call sites when KLog is closed.<br>
+ *
+ * @see KLog
+ *
+ * @since 2026.10.17
+ */
+final class KLogSite {
+
+	// Declarations
+	private static final	long													ONE_SECOND_NS	= 1_000_000_000L;
+	private static final	ConcurrentLinkedQueue<KLogSite>							SITE_REGISTRY	= new ConcurrentLinkedQueue<>();
+	private static final	ClassValue<ConcurrentHashMap<Integer, KLogSite>>		SITES			= new ClassValue<ConcurrentHashMap<Integer, KLogSite>>() {
+		@Override
+		protected ConcurrentHashMap<Integer, KLogSite> computeValue(Class<?> argClass) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	private static volatile	int														gSampleRate		= 1;		// Pass 1 of N messages
+	private static volatile	long													gIntervalNs		= 0;		// Time per token (0 = no rate limit)
+	private static volatile	long													gSummaryNs		= 60 * ONE_SECOND_NS;
+
+	private final			String													gSiteName;
+	private final			AtomicLong												gCount			= new AtomicLong(0);
+	private final			AtomicLong												gArrivalTimeNs	= new AtomicLong(System.nanoTime());
+	private final			AtomicLong												gLastSummaryNs	= new AtomicLong(System.nanoTime());
+	private final			LongAdder												gSuppressed		= new LongAdder();
+
+	/**
+	 * Create call site.
+	 *
+	 * @param argSiteName	Call site name (class:method:line)
+	 */
+	private KLogSite(String argSiteName) {
+		gSiteName = argSiteName;
+	}
+
+	/**
+	 * Set the sampling and rate limiting parameters for all call sites.
+	 *
+	 * @param argSampleRate		Pass 1 of N messages (1 = all)
+	 * @param argRateLimit		Maximum messages per second (0 = unlimited)
+	 * @param argSummarySecs	Minimum interval in seconds between two summary lines of a call site
+	 */
+	static void configure(int argSampleRate, int argRateLimit, int argSummarySecs) {
+		gSampleRate	= Math.max(1, argSampleRate);
+		gIntervalNs	= (argRateLimit > 0) ? Math.max(1, ONE_SECOND_NS / argRateLimit) : 0;
+		gSummaryNs	= Math.max(0, argSummarySecs) * ONE_SECOND_NS;
+	}
+
+	/**
+	 * Get the call site of the stack frame (created on first use).
+	 *
+	 * @param	argFrame	Stack frame of the caller
+	 * @return	Call site
+	 */
+	static KLogSite get(StackWalker.StackFrame argFrame) {
+
+		ConcurrentHashMap<Integer, KLogSite>	sites	= SITES.get(argFrame.getDeclaringClass());
+		Integer									line	= argFrame.getLineNumber();
+		KLogSite								site	= sites.get(line);
+
+		if (site != null) {
+			return site;
+		}
+
+		return sites.computeIfAbsent(line, key -> {
+			KLogSite newSite = new KLogSite(argFrame.getClassName() + ':' + argFrame.getMethodName() + ':' + key);
+			SITE_REGISTRY.add(newSite);
+			return newSite;
+		});
+	}
+
+	/**
+	 * Check if sampling or rate limiting is enabled.
+	 *
+	 * @return	True if enabled, false otherwise
+	 */
+	static boolean isEnabled() {
+		return (gSampleRate > 1) || (gIntervalNs > 0);
+	}
+
+	/**
+	 * Get the summary lines of all call sites with suppressed messages and reset their counters.
+	 *
+	 * @return	Summary lines (may be empty)
+	 */
+	static List<String> pollAllSummaries() {
+
+		List<String> summaries = new ArrayList<>();
+
+		for (KLogSite site : SITE_REGISTRY) {
+
+			long suppressed = site.gSuppressed.sumThenReset();
+
+			if (suppressed > 0) {
+				summaries.add(site.formatSummary(suppressed));
+			}
+		}
+
+		return summaries;
+	}
+
+	/**
+	 * Get the summary line if messages were suppressed and the summary interval of this call site has expired.
+	 *
+	 * @return	Summary line or null
+	 */
+	String pollSummary() {
+
+		// Check if anything to report
+		if (gSuppressed.sum() == 0) {
+			return null;
+		}
+
+		// Check if summary interval expired (only one thread may report)
+		long now			= System.nanoTime();
+		long lastSummary	= gLastSummaryNs.get();
+
+		if ((now - lastSummary < gSummaryNs) || (!gLastSummaryNs.compareAndSet(lastSummary, now))) {
+			return null;
+		}
+
+		long suppressed = gSuppressed.sumThenReset();
+
+		return (suppressed > 0) ? formatSummary(suppressed) : null;
+	}
+
+	/**
+	 * Check if the message passes sampling and rate limiting. Rejected messages are counted as suppressed.
+	 *
+	 * @return	True if the message may be logged, false otherwise
+	 */
+	boolean tryAcquire() {
+
+		// Sampling: pass the first of every N messages
+		int sampleRate = gSampleRate;
+
+		if ((sampleRate > 1) && ((gCount.getAndIncrement() % sampleRate) != 0)) {
+			gSuppressed.increment();
+			return false;
+		}
+
+		// Rate limiting: each message moves the theoretical arrival time by one interval, allowing a burst of up to one second
+		long intervalNs = gIntervalNs;
+
+		if (intervalNs > 0) {
+
+			while (true) {
+
+				long now			= System.nanoTime();
+				long arrivalTime	= gArrivalTimeNs.get();
+
+				if (arrivalTime - now > ONE_SECOND_NS - intervalNs) {
+					gSuppressed.increment();
+					return false;
+				}
+
+				if (gArrivalTimeNs.compareAndSet(arrivalTime, Math.max(arrivalTime, now) + intervalNs)) {
+					break;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Format summary line.
+	 *
+	 * @param	argSuppressed	Number of suppressed messages
+	 * @return	Summary line
+	 */
+	private String formatSummary(long argSuppressed) {
+		return "Suppressed " + argSuppressed + " messages from site " + gSiteName;
+	}
+
+	/**
+	 * String representation of object.
+	 */
+	@Override
+	public String toString() {
+		return "KLogSite [gSiteName=" + gSiteName + ", gCount=" + gCount.get() + ", gSuppressed=" + gSuppressed.sum() + "]";
+	}
+}
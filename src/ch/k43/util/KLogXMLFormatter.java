@@ -38,7 +38,7 @@ public class KLogXMLFormatter extends Formatter {
 		logString.append(INDENT_LEVEL_2 + "<UUID>" + K.encodeXML(K.getUniqueID()) + "</UUID>" + K.LINE_SEPARATOR);
 		
 		// Append log time
-		logString.append(INDENT_LEVEL_2 + "<LogTime>" + K.encodeXML(K.getTimeISO8601()) + "</LogTime>" + K.LINE_SEPARATOR);
+		logString.append(INDENT_LEVEL_2 + "<LogTime>" + K.encodeXML(K.getTimeISO8601(argRecord.getInstant())) + "</LogTime>" + K.LINE_SEPARATOR);
 
 		// Append log level
 		logString.append(INDENT_LEVEL_2 + "<Level>");
@@ -53,7 +53,7 @@ public class KLogYAMLFormatter extends Formatter {
 		logString.append("- " + "UUID: " + K.encodeYAML(K.getUniqueID()) + K.LINE_SEPARATOR);
 				
 		// Append time stamp in ISO 8601 format (e.g. 2024-02-24T14:12:44.234)
-		logString.append("  " + "Logtime: " + K.encodeYAML(K.getTimeISO8601())  + K.LINE_SEPARATOR);
+		logString.append("  " + "Logtime: " + K.encodeYAML(K.getTimeISO8601(argRecord.getInstant()))  + K.LINE_SEPARATOR);
 				
 		// Append logging level
 		logString.append("  " + "Level: ");
@@ -0,0 +1,492 @@
+package ch.k43.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Slot management of the bounded multi-producer/multi-consumer rings of KLongQueue and KIntQueue.<p>
+ *
+ * Notes:<br>
+ * - The subclasses store the values in a primitive array, this class claims and releases the slots with the same sequence
+ *   protocol as the LOCK_FREE option of KQueue: A producer claims a slot with a CAS on the tail, writes the value and publishes
+ *   the slot with its sequence number. A consumer claims a filled slot with a CAS on the head, reads the value and frees the
+ *   slot for the next lap. No objects are allocated while values flow.<br>
+ * - Waiting threads spin briefly and then park on a lock condition, which is only signaled if a waiter is registered.<br>
+ * - The queues share the registry of KQueue, so all queue names are unique and getAllMetrics() includes these queues.<br>
+ * - With the option KQueue.METRICS, the enqueue time of each slot is kept in a parallel array for the time in queue.<br>
+ * - close() sets a flag bit in the tail counter, so no producer can claim a slot afterwards. Consumers take the remaining
+ *   values (DRAINING) until the head has reached the tail (CLOSED, end of stream).<br>
+ *
+ * @see KLongQueue
+ * @see KIntQueue
+ *
+ * @since 2026.10.17
+ */
+abstract class KPrimitiveQueue implements AutoCloseable {
+
+	// Declarations
+	private static final	int					HEAD				= 8;					// Counter index (64 bytes from start)
+	private static final	int					TAIL				= 24;					// Counter index (128 bytes from head)
+	private static final	int					MAX_CAPACITY		= 1 << 30;
+	private static final	long				CLOSED_FLAG			= 1L << 62;				// Tail flag set by close()
+	private static final	int					OPEN				= 0;
+	private static final	int					DRAINING			= 1;
+	private static final	int					CLOSED				= 2;
+	private static final	int					MAX_SPINS			= (Runtime.getRuntime().availableProcessors() > 1) ? 128 : 0;
+	private static final	VarHandle			STATE;
+
+	private final			String				gQueueName;
+	private final			AtomicLongArray		gSequences;
+	private final			AtomicLongArray		gCounters			= new AtomicLongArray(32);
+	private final			long[]				gEnqueueTimes;
+	private final			KQueueMonitor		gMonitor;
+	private final			AtomicLong			gRejectedCount		= new AtomicLong(0);
+	private final			ReentrantLock		gLock				= new ReentrantLock();
+	private final			Condition			gNotEmpty			= gLock.newCondition();
+	private final			Condition			gNotFull			= gLock.newCondition();
+	private final			AtomicInteger		gConsumersWaiting	= new AtomicInteger(0);
+	private final			AtomicInteger		gProducersWaiting	= new AtomicInteger(0);
+	private volatile		int					gState				= OPEN;
+	final					int					gMask;
+
+	static {
+		try {
+			STATE = MethodHandles.lookup().findVarHandle(KPrimitiveQueue.class, "gState", int.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	/**
+	 * Create ring and register the queue.
+	 *
+	 * @param	argQueueName	The name of the queue
+	 * @param	argCapacity		Minimum number of values (rounded up to the next power of two)
+	 * @param	argOptions		0 or KQueue.METRICS
+	 */
+	KPrimitiveQueue(String argQueueName, int argCapacity, int argOptions) {
+
+		// Check arguments
+		KLog.argException(K.isEmpty(argQueueName), "Required queue name missing");
+		KLog.argException((argCapacity < 1) || (argCapacity > MAX_CAPACITY), "Queue capacity must be between 1 and {}", MAX_CAPACITY);
+		KLog.argException((argOptions & ~KQueue.METRICS) != 0, "Queue options must be 0 or METRICS");
+
+		int		capacity	= (argCapacity == 1) ? 1 : Integer.highestOneBit(argCapacity - 1) << 1;
+		boolean	metrics		= (argOptions & KQueue.METRICS) != 0;
+
+		gQueueName		= argQueueName;
+		gSequences		= new AtomicLongArray(capacity);
+		gEnqueueTimes	= metrics ? new long[capacity] : null;
+		gMonitor		= new KQueueMonitor(metrics, false);
+		gMask			= capacity - 1;
+
+		// Slot i is free for the producer with tail position i
+		for (int index = 0; index < capacity; index++) {
+			gSequences.set(index, index);
+		}
+	}
+
+	/**
+	 * Add the queue to the registry of all queues. Called at the end of the subclass constructor, so open() never returns a
+	 * queue without its value buffer.
+	 */
+	final void register() {
+
+		KQueue.register(gQueueName, this);
+
+		KLog.debug("{} {} created (capacity {})", getClass().getSimpleName(), gQueueName, gMask + 1);
+	}
+
+	/**
+	 * Claim a free slot for a producer, waiting up to the given time.
+	 *
+	 * @param	argTimeOutMs	Maximum wait time in milliseconds (0 for no wait)
+	 * @return	Tail position of the slot or -1 if the ring is still full or the queue is closed
+	 */
+	final long claimPut(long argTimeOutMs) {
+
+		if (gState != OPEN) {
+			return -1;
+		}
+
+		long position = tryClaimPut();
+
+		if (position >= 0) {
+			return position;
+		}
+
+		position = awaitSlot(argTimeOutMs, true);
+
+		if ((position < 0) && (gState == OPEN)) {
+			gRejectedCount.incrementAndGet();
+		}
+
+		return position;
+	}
+
+	/**
+	 * Claim a filled slot for a consumer, waiting up to the given time.
+	 *
+	 * @param	argTimeOutMs	Maximum wait time in milliseconds (0 for no wait)
+	 * @return	Head position of the slot or -1 if the ring is still empty or the queue is closed and drained
+	 */
+	final long claimGet(long argTimeOutMs) {
+
+		if (gState == CLOSED) {
+			return -1;
+		}
+
+		long position = tryClaimGet();
+
+		if ((position >= 0) || (argTimeOutMs <= 0)) {
+			return position;
+		}
+
+		long startTime = gMonitor.startWait();
+
+		try {
+			return awaitSlot(argTimeOutMs, false);
+		} finally {
+			gMonitor.recordWait(startTime);
+		}
+	}
+
+	/**
+	 * Wait for a slot: Spin first, then park on the lock condition.
+	 *
+	 * @param	argTimeOutMs	Maximum wait time in milliseconds
+	 * @param	argProducer		True to wait for a free slot, false for a filled slot
+	 * @return	Position of the claimed slot or -1 if timed out, interrupted or closed
+	 */
+	private long awaitSlot(long argTimeOutMs, boolean argProducer) {
+
+		long timeOutNs	= TimeUnit.MILLISECONDS.toNanos(argTimeOutMs);
+		long position	= -1;
+
+		if (timeOutNs <= 0) {
+			return -1;
+		}
+
+		// Spin before parking (the other side on another processor is usually quick)
+		for (int spins = 0; spins < MAX_SPINS; spins++) {
+			if ((position = argProducer ? tryClaimPut() : tryClaimGet()) >= 0) {
+				return position;
+			}
+			Thread.onSpinWait();
+		}
+
+		AtomicInteger	waiting		= argProducer ? gProducersWaiting : gConsumersWaiting;
+		Condition		condition	= argProducer ? gNotFull : gNotEmpty;
+
+		while (argProducer ? (gState == OPEN) : (gState != CLOSED)) {
+
+			// Registered before the ring is checked again, so no signal is lost
+			gLock.lock();
+			waiting.incrementAndGet();
+
+			try {
+				if ((position = argProducer ? tryClaimPut() : tryClaimGet()) >= 0) {
+					return position;
+				}
+
+				if ((timeOutNs <= 0) || (argProducer ? (gState != OPEN) : (gState == CLOSED))) {
+					return -1;
+				}
+
+				timeOutNs = condition.awaitNanos(timeOutNs);
+
+			} catch (InterruptedException e) {
+				KLog.error(e);
+				Thread.currentThread().interrupt();
+				return -1;
+			} finally {
+				waiting.decrementAndGet();
+				gLock.unlock();
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Clear (empty) the queue.
+	 */
+	public void clear() {
+
+		long position = 0;
+
+		// Free the slots without counting the values as taken
+		while ((position = tryClaimGet()) >= 0) {
+			gSequences.set((int) position & gMask, position + gMask + 1);
+			signal(gProducersWaiting, gNotFull);
+		}
+	}
+
+	/**
+	 * Close the queue. New values are rejected, waiting threads are woken up and the queue is removed from the registry.
+	 * Consumers take the remaining values, then get() returns EMPTY and isEndOfStream() returns true. Use clear() before
+	 * close() to discard the remaining values.
+	 */
+	@Override
+	public void close() {
+
+		// Check if queue closed (only one of concurrent callers closes the queue)
+		if (!STATE.compareAndSet(this, OPEN, DRAINING)) {
+			return;
+		}
+
+		// Stop producers (the CAS of a producer on the old tail fails)
+		long position = 0;
+
+		do {
+			position = gCounters.get(TAIL);
+		} while (!gCounters.compareAndSet(TAIL, position, position | CLOSED_FLAG));
+
+		// Nothing left to drain
+		if (isDrained(gCounters.get(HEAD))) {
+			gState = CLOSED;
+		}
+
+		// Wake up all waiting threads
+		gLock.lock();
+
+		try {
+			gNotEmpty.signalAll();
+			gNotFull.signalAll();
+		} finally {
+			gLock.unlock();
+		}
+
+		if (!KQueue.unregister(gQueueName, this)) {
+			KLog.error("Queue {} could not be removed from the active list of queues", gQueueName);
+		} else {
+			KLog.debug("Queue {} closed", gQueueName);
+		}
+	}
+
+	/**
+	 * Get the maximum number of values.
+	 *
+	 * @return	Capacity
+	 */
+	public int getCapacity() {
+		return gMask + 1;
+	}
+
+	/**
+	 * Get the metrics of the queue.
+	 *
+	 * @return	Metrics
+	 */
+	public KQueueMetrics getMetrics() {
+		return new KQueueMetrics(gQueueName, getSize(), getCapacity(), gRejectedCount.get(), gMonitor);
+	}
+
+	/**
+	 * Get the name of the queue.
+	 *
+	 * @return	Name of the queue
+	 */
+	public String getName() {
+		return gQueueName;
+	}
+
+	/**
+	 * Get the number of values rejected because the queue was full.
+	 *
+	 * @return	Number of values
+	 */
+	public long getRejectedCount() {
+		return gRejectedCount.get();
+	}
+
+	/**
+	 * Get number of values in queue.
+	 *
+	 * @return	Number of values
+	 */
+	public int getSize() {
+
+		// Read head first, so the difference is never too small
+		long head = gCounters.get(HEAD);
+		long tail = gCounters.get(TAIL) & ~CLOSED_FLAG;
+
+		return (int) Math.max(0, Math.min(tail - head, gMask + 1L));
+	}
+
+	/**
+	 * Check if queue is closed. Consumers may still take the remaining values until isEndOfStream() returns true.
+	 *
+	 * @return	True if queue is closed, false otherwise
+	 */
+	public boolean isClosed() {
+		return (gState != OPEN);
+	}
+
+	/**
+	 * Check if a closed ring has been drained (no slot claimed by a producer is left).
+	 *
+	 * @param	argHead	Current head position
+	 * @return	True if closed and drained, false otherwise
+	 */
+	private boolean isDrained(long argHead) {
+
+		long tail = gCounters.get(TAIL);
+
+		return ((tail & CLOSED_FLAG) != 0) && ((tail & ~CLOSED_FLAG) == argHead);
+	}
+
+	/**
+	 * Check if queue is empty.
+	 *
+	 * @return	True if queue is empty, false otherwise
+	 */
+	public boolean isEmpty() {
+		return (getSize() == 0);
+	}
+
+	/**
+	 * Check if the queue is closed and all values have been taken.
+	 *
+	 * @return	True if end of stream, false otherwise
+	 */
+	public boolean isEndOfStream() {
+		return (gState == CLOSED);
+	}
+
+	/**
+	 * Free the slot after the consumer has read the value.
+	 *
+	 * @param	argPosition	Head position returned by claimGet()
+	 */
+	final void releaseGet(long argPosition) {
+
+		int index = (int) argPosition & gMask;
+
+		if (gEnqueueTimes != null) {
+			gMonitor.recordTimeInQueue(gEnqueueTimes[index]);
+		}
+
+		gMonitor.gGetCount.increment();
+		gSequences.set(index, argPosition + gMask + 1);
+		signal(gProducersWaiting, gNotFull);
+	}
+
+	/**
+	 * Publish the slot after the producer has written the value.
+	 *
+	 * @param	argPosition	Tail position returned by claimPut()
+	 */
+	final void releasePut(long argPosition) {
+
+		int index = (int) argPosition & gMask;
+
+		if (gEnqueueTimes != null) {
+			gEnqueueTimes[index] = System.nanoTime();
+		}
+
+		gSequences.set(index, argPosition + 1);
+		gMonitor.recordPut(gMonitor.gDetailed ? getSize() : 0);
+		signal(gConsumersWaiting, gNotEmpty);
+	}
+
+	/**
+	 * Wake up a waiting thread if one is registered.
+	 *
+	 * @param	argWaiting		Number of waiting threads
+	 * @param	argCondition	Condition the threads are waiting on
+	 */
+	private void signal(AtomicInteger argWaiting, Condition argCondition) {
+
+		if (argWaiting.get() == 0) {
+			return;
+		}
+
+		gLock.lock();
+
+		try {
+			argCondition.signal();
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	/**
+	 * Claim a filled slot without waiting.
+	 *
+	 * @return	Head position or -1 if the ring is empty
+	 */
+	private long tryClaimGet() {
+
+		while (true) {
+
+			long	position	= gCounters.get(HEAD);
+			long	difference	= gSequences.get((int) position & gMask) - (position + 1);
+
+			if (difference == 0) {
+				if (gCounters.compareAndSet(HEAD, position, position + 1)) {
+					return position;
+				}
+			} else if (difference < 0) {
+
+				// Ring empty: A closed ring only when the claimed slots have been taken
+				if (gState == OPEN) {
+					return -1;
+				}
+
+				if (isDrained(position)) {
+					gState = CLOSED;
+					return -1;
+				}
+
+				Thread.onSpinWait();
+			}
+
+			// Otherwise another consumer has claimed the slot: Retry with the new head
+		}
+	}
+
+	/**
+	 * Claim a free slot without waiting.
+	 *
+	 * @return	Tail position or -1 if the ring is full
+	 */
+	private long tryClaimPut() {
+
+		while (true) {
+
+			long	position	= gCounters.get(TAIL);
+			long	difference	= gSequences.get((int) position & gMask) - position;
+
+			// Ring closed
+			if ((position & CLOSED_FLAG) != 0) {
+				return -1;
+			}
+
+			if (difference == 0) {
+				if (gCounters.compareAndSet(TAIL, position, position + 1)) {
+					return position;
+				}
+			} else if (difference < 0) {
+				return -1;
+			}
+
+			// Otherwise another producer has claimed the slot: Retry with the new tail
+		}
+	}
+
+	/**
+	 * String representation of object.
+	 */
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " [gQueueName=" + gQueueName + ", gCapacity=" + getCapacity() + ", gHead=" + gCounters.get(HEAD)
+				+ ", gTail=" + gCounters.get(TAIL) + ", gMonitor=" + gMonitor + ", gRejectedCount=" + gRejectedCount.get() + ", gState=" + gState + "]";
+	}
+}
@@ -1,12 +1,60 @@
 package ch.k43.util;
 
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.ObjectName;
 
 /**
- * Implements a fast, simple, thread-safe and named queue as FIFO (first-in-first-out) or LIFO (last-in-first-out).<p>
+ * Implements a fast, simple, thread-safe and named queue as FIFO (first-in-first-out), LIFO (last-in-first-out), PRIORITY or DELAYED queue.<p>
+ * 
+ * A PRIORITY queue returns the elements ordered by an optional comparator, then by the priority given to putPriority() (highest first)
+ * and then in insertion order. A DELAYED queue returns each element only after the delay given to putDelayed() has expired, consumers
+ * wait exactly until the next element is due. Both queues do not support the rejection policy DROP_OLDEST.<p>
+ * 
+ * The name of the queue may be used by other threads to open and access the queue.<p>
+ * 
+ * The queue may be bounded by a capacity. If a bounded queue is full, put() acts according to the rejection policy: BLOCK waits
+ * until space is available (default), FAIL returns false and DROP_OLDEST removes the oldest element to make room for the new one.<p>
+ * 
+ * A bounded FIFO queue may be created with the option LOCK_FREE (e.g. KQueue.FIFO | KQueue.LOCK_FREE). It uses an array ring
+ * instead of a linked deque, so producers and consumers do not allocate nodes or take a lock while elements flow. Its capacity
+ * is rounded up to the next power of two and the mode cannot be changed to LIFO.<p>
+ * 
+ * Bulk operations (putAll(), drainTo() and get(int, long)) move many elements with a single lock acquisition of the queue.<p>
+ * 
+ * The number of added, taken and rejected elements is always counted and returned by getMetrics() and getAllMetrics() for all open
+ * queues. With the option METRICS (e.g. KQueue.FIFO | KQueue.METRICS), the high-water mark, the wait time of consumers and the time
+ * in queue of each element are recorded as well. The metrics may also be published thru JMX with registerMBean().<p>
  * 
- * The name of the queue may be used by other threads to open and access the queue.
+ * A FIFO queue may be made durable by passing a journal directory. Its elements (byte arrays or serializable objects) are written
+ * to memory-mapped journal segments and survive a restart of the process. Consumers confirm processed elements with commit(), all
+ * elements taken after the last commit() are delivered again after a restart (at-least-once delivery). Closing a durable queue keeps
+ * its elements for the next start.<p>
+ * 
+ * A FIFO queue created with the option SHARED (e.g. KQueue.FIFO | KQueue.SHARED) exchanges byte arrays with other processes thru
+ * the memory-mapped file {directory}/{queue name}.kqs, which contains a ring of the given capacity in bytes. Any number of processes
+ * may put elements, but only one process may get them (a second consumer gets an IllegalStateException). Waiting producers and
+ * consumers spin briefly before they park, so elements are passed within microseconds. The file and its elements are kept when
+ * the queue is closed.
+ * 
+ * <pre>
+ *   // Both processes
+ *   KQueue q = new KQueue("Orders", KQueue.FIFO | KQueue.SHARED, 1024 * 1024, KQueue.BLOCK, "/dev/shm");
+ * </pre>
+ * 
+ * <p>close() stops producers (put() returns false) and wakes up all waiting threads. Consumers take the remaining elements
+ * (draining), then get() returns null and isEndOfStream() returns true. No exception is thrown and nothing is logged for
+ * operations on a closed queue. Durable and shared queues keep their remaining elements for the next start instead.
  * 
  * <p>Use try-with-resources or explicit close() to ensure queue resources are cleaned up:
  * <pre>
@@ -28,15 +76,95 @@ public final class KQueue implements AutoCloseable {
 	 *  Last-in-first out queue mode
 	 */
 	public static final int									LIFO				= 0x02;
+
+	/**
+	 *  Priority queue mode (highest priority first)
+	 *  
+	 *  @since 2026.10.17
+	 */
+	public static final int									PRIORITY			= 0x04;
+
+	/**
+	 *  Delayed queue mode (elements are returned after their delay has expired)
+	 *  
+	 *  @since 2026.10.17
+	 */
+	public static final int									DELAYED				= 0x08;
+
+	/**
+	 *  Queue option: Lock-free array ring (only for bounded FIFO queues, combined with FIFO)
+	 *  
+	 *  @since 2026.10.17
+	 */
+	public static final int									LOCK_FREE			= 0x10;
+
+	/**
+	 *  Queue option: Record detailed metrics (high-water mark, consumer wait time and time in queue, combined with the queue mode)
+	 *  
+	 *  @since 2026.10.17
+	 */
+	public static final int									METRICS				= 0x20;
+
+	/**
+	 *  Queue option: Inter-process ring of byte arrays in a memory-mapped file (only for FIFO queues, combined with FIFO)
+	 *  
+	 *  @since 2026.10.17
+	 */
+	public static final int									SHARED				= 0x40;
+
+	/**
+	 *  Capacity of an unbounded queue
+	 *  
+	 *  @since 2026.10.17
+	 */
+	public static final int									UNBOUNDED			= Integer.MAX_VALUE;
+
+	/**
+	 *  Rejection policy: Wait until space is available if the queue is full
+	 *  
+	 *  @since 2026.10.17
+	 */
+	public static final int									BLOCK				= 0x01;
+
+	/**
+	 *  Rejection policy: Reject the new element if the queue is full
+	 *  
+	 *  @since 2026.10.17
+	 */
+	public static final int									FAIL				= 0x02;
+
+	/**
+	 *  Rejection policy: Remove the oldest element if the queue is full
+	 *  
+	 *  @since 2026.10.17
+	 */
+	public static final int									DROP_OLDEST			= 0x03;
  	
 	// Declarations
-	private static final ConcurrentHashMap<String, KQueue>	QUEUE_REGISTRY		= new ConcurrentHashMap<>();
+	private static final ConcurrentHashMap<String, Object>	QUEUE_REGISTRY		= new ConcurrentHashMap<>();
 	private static final Object								SENTINEL			= new Object();
+	private static final int								OPEN				= 0;
+	private static final int								DRAINING			= 1;
+	private static final int								CLOSED				= 2;
+	private static final VarHandle							STATE;
 
-	private final LinkedBlockingDeque<Object>				gQueue				= new LinkedBlockingDeque<>();
+	private final KQueueStore								gQueue;
+	private final KQueueMonitor								gMonitor;
+	private volatile ObjectName								gMBeanName			= null;
+	private final AtomicLong								gRejectedCount		= new AtomicLong(0);
 	private String											gQueueName			= null;
 	private volatile int									gQueueMode			= 0x00;
-	private volatile boolean								gClosed				= false;
+	private final int										gCapacity;
+	private final int										gRejectPolicy;
+	private volatile int									gState				= OPEN;
+
+	static {
+		try {
+			STATE = MethodHandles.lookup().findVarHandle(KQueue.class, "gState", int.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
 
 	/**
 	 * Create a FIFO or LIFO queue. The generated name may be obtained thru getName(). 
@@ -47,6 +175,18 @@ public final class KQueue implements AutoCloseable {
 		this(K.getUniqueID(), argQueueMode);
 	}
 
+	/**
+	 * Create a bounded FIFO or LIFO queue which blocks producers if the queue is full. The generated name may be obtained thru getName(). 
+	 * 
+	 * @param argQueueMode	The type of the queue (LIFO or FIFO)
+	 * @param argCapacity	Maximum number of elements (or UNBOUNDED)
+	 * 
+	 * @since 2026.10.17
+	 */
+	public KQueue(int argQueueMode, int argCapacity) {
+		this(K.getUniqueID(), argQueueMode, argCapacity, BLOCK);
+	}
+
 	/**
 	 * Create a FIFO or LIFO named queue.
 	 * 
@@ -54,23 +194,143 @@ public final class KQueue implements AutoCloseable {
 	 * @param argQueueMode	The type of the queue (LIFO or FIFO)
 	 */
 	public KQueue(String argQueueName, int argQueueMode) {
+		this(argQueueName, argQueueMode, UNBOUNDED, BLOCK);
+	}
+
+	/**
+	 * Create a named PRIORITY queue ordered by the comparator.
+	 * 
+	 * @param argQueueName	The name of the queue
+	 * @param argComparator	Comparator for the elements or null (elements with equal order are returned by priority and insertion order)
+	 * 
+	 * @since 2026.10.17
+	 */
+	public KQueue(String argQueueName, Comparator<?> argComparator) {
+		this(argQueueName, argComparator, UNBOUNDED, BLOCK);
+	}
+
+	/**
+	 * Create a bounded named PRIORITY queue ordered by the comparator with the given rejection policy.
+	 * 
+	 * @param argQueueName		The name of the queue
+	 * @param argComparator		Comparator for the elements or null (elements with equal order are returned by priority and insertion order)
+	 * @param argCapacity		Maximum number of elements (or UNBOUNDED)
+	 * @param argRejectPolicy	Action of put() if the queue is full (BLOCK or FAIL)
+	 * 
+	 * @since 2026.10.17
+	 */
+	public KQueue(String argQueueName, Comparator<?> argComparator, int argCapacity, int argRejectPolicy) {
+		this(argQueueName, PRIORITY, argCapacity, argRejectPolicy, null, argComparator);
+	}
+
+	/**
+	 * Create a bounded FIFO or LIFO named queue which blocks producers if the queue is full.
+	 * 
+	 * @param argQueueName	The name of the queue
+	 * @param argQueueMode	The type of the queue (LIFO or FIFO)
+	 * @param argCapacity	Maximum number of elements (or UNBOUNDED)
+	 * 
+	 * @since 2026.10.17
+	 */
+	public KQueue(String argQueueName, int argQueueMode, int argCapacity) {
+		this(argQueueName, argQueueMode, argCapacity, BLOCK);
+	}
+
+	/**
+	 * Create a bounded named queue with the given rejection policy.
+	 * 
+	 * @param argQueueName		The name of the queue
+	 * @param argQueueMode		The type of the queue (FIFO, LIFO, PRIORITY or DELAYED, FIFO optionally combined with LOCK_FREE, all optionally with METRICS)
+	 * @param argCapacity		Maximum number of elements (or UNBOUNDED)
+	 * @param argRejectPolicy	Action of put() if the queue is full (BLOCK, FAIL or DROP_OLDEST)
+	 * 
+	 * @since 2026.10.17
+	 */
+	public KQueue(String argQueueName, int argQueueMode, int argCapacity, int argRejectPolicy) {
+		this(argQueueName, argQueueMode, argCapacity, argRejectPolicy, null);
+	}
+
+	/**
+	 * Create a bounded named queue with the given rejection policy, optionally durable or shared. A durable queue must be
+	 * a FIFO queue and requires its own journal directory. Existing elements in the journal are recovered. A shared queue
+	 * (option SHARED) maps the file {queue name}.kqs in the given directory, its capacity is the ring size in bytes.
+	 * 
+	 * @param argQueueName		The name of the queue
+	 * @param argQueueMode		The type of the queue (FIFO, LIFO, PRIORITY or DELAYED, FIFO optionally combined with LOCK_FREE or SHARED, all optionally with METRICS)
+	 * @param argCapacity		Maximum number of elements (or UNBOUNDED), ring size in bytes of a shared queue
+	 * @param argRejectPolicy	Action of put() if the queue is full (BLOCK, FAIL or DROP_OLDEST)
+	 * @param argDirectory		Journal directory of a durable queue, directory of the ring file of a shared queue or null for a queue in memory
+	 * 
+	 * @since 2026.10.17
+	 */
+	public KQueue(String argQueueName, int argQueueMode, int argCapacity, int argRejectPolicy, String argDirectory) {
+		this(argQueueName, argQueueMode, argCapacity, argRejectPolicy, argDirectory, null);
+	}
+
+	/**
+	 * Create a queue.
+	 * 
+	 * @param argQueueName		The name of the queue
+	 * @param argQueueMode		The type of the queue (FIFO, LIFO, PRIORITY or DELAYED, FIFO optionally combined with LOCK_FREE or SHARED, all optionally with METRICS)
+	 * @param argCapacity		Maximum number of elements (or UNBOUNDED), ring size in bytes of a shared queue
+	 * @param argRejectPolicy	Action of put() if the queue is full (BLOCK, FAIL or DROP_OLDEST)
+	 * @param argDirectory		Journal directory of a durable queue, directory of the ring file of a shared queue or null for a queue in memory
+	 * @param argComparator		Comparator of a PRIORITY queue or null to order only by priority
+	 */
+	@SuppressWarnings("unchecked")
+	private KQueue(String argQueueName, int argQueueMode, int argCapacity, int argRejectPolicy, String argDirectory, Comparator<?> argComparator) {
+		
+		boolean	lockFree	= (argQueueMode & LOCK_FREE) != 0;
+		boolean	metrics		= (argQueueMode & METRICS) != 0;
+		boolean	shared		= (argQueueMode & SHARED) != 0;
+		int		queueMode	= argQueueMode & ~(LOCK_FREE | METRICS | SHARED);
+		boolean	heap		= (queueMode == PRIORITY) || (queueMode == DELAYED);
 		
 		// Check arguments
 		KLog.argException(K.isEmpty(argQueueName), "Required queue name missing");
-		KLog.argException(argQueueMode != FIFO && argQueueMode != LIFO, "Queue mode must be FIFO or LIFO");
+		KLog.argException(queueMode != FIFO && queueMode != LIFO && !heap, "Queue mode must be FIFO, LIFO, PRIORITY or DELAYED");
+		KLog.argException(argCapacity < 1, "Queue capacity must be at least 1");
+		KLog.argException(argRejectPolicy != BLOCK && argRejectPolicy != FAIL && argRejectPolicy != DROP_OLDEST, "Rejection policy must be BLOCK, FAIL or DROP_OLDEST");
+		KLog.argException(heap && argRejectPolicy == DROP_OLDEST, "PRIORITY and DELAYED queues do not support DROP_OLDEST");
+		KLog.argException(lockFree && (queueMode != FIFO || argCapacity == UNBOUNDED), "Lock-free queue must be a bounded FIFO queue");
+		KLog.argException(argDirectory != null && (queueMode != FIFO || lockFree), "Durable queue must be a FIFO queue without LOCK_FREE");
+		KLog.argException(shared && (queueMode != FIFO || lockFree || argRejectPolicy == DROP_OLDEST), "Shared queue must be a FIFO queue without LOCK_FREE and DROP_OLDEST");
+		KLog.argException(shared && K.isEmpty(argDirectory), "Shared queue directory missing");
 
 		// Save queue name
 		gQueueName = argQueueName;
 		
-		// Save FIFO/LIFO queue type
-		gQueueMode = argQueueMode;
+		// Save queue type
+		gQueueMode = queueMode;
+		
+		// Create queue with the given capacity
+		if (shared) {
+			gQueue = openShared(argDirectory, argQueueName, argCapacity);
+		} else if (argDirectory != null) {
+			gQueue = openJournal(argDirectory, argCapacity);
+		} else if (heap) {
+			gQueue = new KQueueHeapStore(argCapacity, (Comparator<Object>) argComparator, queueMode == DELAYED);
+		} else {
+			gQueue = lockFree ? new KQueueRingStore(argCapacity) : new KQueueDequeStore(argCapacity);
+		}
+		
+		gCapacity		= gQueue.getCapacity();
+		gRejectPolicy	= argRejectPolicy;
+		
+		// Elements of durable and shared queues are stored as bytes, so their enqueue time is not recorded
+		gMonitor		= new KQueueMonitor(metrics, metrics && argDirectory == null && !shared);
 		
 		// Save KQueue object in HashMap for later retrieval thru static method open()
 		if (QUEUE_REGISTRY.putIfAbsent(gQueueName, this) != null) {
+			
+			// Release journal for the existing queue
+			gQueue.close(SENTINEL);
+			
 			KLog.argException("Queue name {} already exist", gQueueName);
 		}
 		
-		KLog.debug("{} queue {} created", gQueueMode == FIFO ? "FIFO" : "LIFO", gQueueName);
+		KLog.debug("{}{} queue {} created (capacity {})", getModeName(gQueueMode), lockFree ? " lock-free" : (shared ? " shared" : (argDirectory != null ? " durable" : "")),
+				gQueueName, gCapacity == UNBOUNDED ? "unbounded" : gCapacity);
 	}
 	
 	/**
@@ -82,6 +342,24 @@ public final class KQueue implements AutoCloseable {
 		return QUEUE_REGISTRY.keySet().toArray(new String[0]);
 	}
 	
+	/**
+	 * Return the metrics of all queues.
+	 * 
+	 * @return	Metrics snapshots
+	 * 
+	 * @since 2026.10.17
+	 */
+	public static KQueueMetrics[] getAllMetrics() {
+		
+		ArrayList<KQueueMetrics> metrics = new ArrayList<>();
+		
+		for (Object queue : QUEUE_REGISTRY.values()) {
+			metrics.add((queue instanceof KQueue) ? ((KQueue) queue).getMetrics() : ((KPrimitiveQueue) queue).getMetrics());
+		}
+		
+		return metrics.toArray(new KQueueMetrics[0]);
+	}
+	
 	/**
 	 * Return the queue if present.
 	 * 
@@ -94,24 +372,90 @@ public final class KQueue implements AutoCloseable {
 		KLog.argException(K.isEmpty(argQueueName), "Required queue name missing");
 
 		// Return KQueue object for given queue name
-		KQueue queue = QUEUE_REGISTRY.get(argQueueName);
+		Object queue = QUEUE_REGISTRY.get(argQueueName);
 
 		if (queue == null) {
 			KLog.error("Queue {} does not exist", argQueueName);
 			return null;
+		} else if (!(queue instanceof KQueue)) {
+			KLog.error("Queue {} is not an object queue", argQueueName);
+			return null;
 		} else {
-			KLog.debug("{} queue {} opened", queue.gQueueMode == FIFO ? "FIFO" : "LIFO", queue.getName());
-			return queue;
+			KLog.debug("{} queue {} opened", getModeName(((KQueue) queue).gQueueMode), argQueueName);
+			return (KQueue) queue;
 		}
 	}
+	
+	/**
+	 * Return the queue of primitive values if present.
+	 * 
+	 * @param	argQueueName	The name of the queue
+	 * @param	argClass		Class of the queue (KLongQueue or KIntQueue)
+	 * @return	Queue object or null
+	 */
+	static <T extends KPrimitiveQueue> T openPrimitive(String argQueueName, Class<T> argClass) {
+
+		// Check argument
+		KLog.argException(K.isEmpty(argQueueName), "Required queue name missing");
+
+		Object queue = QUEUE_REGISTRY.get(argQueueName);
+
+		if (!argClass.isInstance(queue)) {
+			KLog.error("Queue {} does not exist or is not a {}", argQueueName, argClass.getSimpleName());
+			return null;
+		}
+
+		KLog.debug("{} {} opened", argClass.getSimpleName(), argQueueName);
+		return argClass.cast(queue);
+	}
+	
+	/**
+	 * Add a queue of primitive values to the registry of all queues.
+	 * 
+	 * @param	argQueueName	The name of the queue
+	 * @param	argQueue		Queue
+	 */
+	static void register(String argQueueName, KPrimitiveQueue argQueue) {
+		KLog.argException(QUEUE_REGISTRY.putIfAbsent(argQueueName, argQueue) != null, "Queue name {} already exist", argQueueName);
+	}
+	
+	/**
+	 * Remove a queue of primitive values from the registry of all queues.
+	 * 
+	 * @param	argQueueName	The name of the queue
+	 * @param	argQueue		Queue
+	 * @return	True if removed, false if not registered
+	 */
+	static boolean unregister(String argQueueName, KPrimitiveQueue argQueue) {
+		return QUEUE_REGISTRY.remove(argQueueName, argQueue);
+	}
 
 	/**
-	 * Clear (empty) the queue.
+	 * Check if the element is the sentinel returned by a closed store after the last element. Other elements are counted
+	 * as taken.
+	 * 
+	 * @param	argElement	Element taken from the queue
+	 * @return	Element or null if it is the sentinel (end of stream)
+	 */
+	private Object checkSentinel(Object argElement) {
+		
+		if (argElement != SENTINEL) {
+			return gMonitor.recordGet(argElement);
+		}
+			
+		// All elements taken: The store keeps returning the sentinel to other consumers
+		gState = CLOSED;
+		return null;
+	}
+	
+	/**
+	 * Clear (empty) the queue. A closed queue with remaining elements is cleared as well, so consumers reach the end of stream
+	 * immediately. The elements of closed durable and shared queues are kept for the next start.
 	 */
 	public void clear() {
 		
 		// Check if queue closed
-		if (gClosed) {
+		if (gState == CLOSED) {
 			return;
 		}
 		
@@ -119,39 +463,113 @@ public final class KQueue implements AutoCloseable {
 	}
 	
     /**
-	 * Close the queue.
+	 * Close the queue. New elements are rejected and all waiting threads are woken up. Consumers take the remaining elements,
+	 * then get() returns null and isEndOfStream() returns true. Use clear() before close() to discard the remaining elements.
+	 * Durable and shared queues keep their elements for the next start and reach the end of stream immediately.
 	 */
 	public void close() {
 
-		// Check if queue closed
-		if (gClosed) {
+		// Check if queue closed (only one of concurrent callers closes the queue)
+		if (!STATE.compareAndSet(this, OPEN, gQueue.isPersistent() ? CLOSED : DRAINING)) {
 			return;
 		}
-		
-		// Mark the queue as closed, empty the queue and send sentinel to wake up any consumer(s)
-		gClosed = true;
 
-		gQueue.clear();
-		gQueue.offerLast(SENTINEL);
+		// Reject new elements and wake up all waiting threads (the sentinel is returned after the last element)
+		gQueue.close(SENTINEL);
 		
-		// Remove the queue from the active list
-		if (QUEUE_REGISTRY.remove(gQueueName) == null) {
+		// Nothing left to drain
+		if (gQueue.isEmpty()) {
+			gState = CLOSED;
+		}
+		
+		// Remove JMX bean
+		if (gMBeanName != null) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(gMBeanName);
+			} catch (Exception e) {
+				KLog.error("Unable to unregister JMX bean of queue {}: {}", gQueueName, e.toString());
+			}
+		}
+		
+		// Remove the queue from the active list (but not another queue registered under the same name in the meantime)
+		if (!QUEUE_REGISTRY.remove(gQueueName, this)) {
 			KLog.error("Queue {} could not be removed from the active list of queues", gQueueName);
 		} else {
 			KLog.debug("Queue {} closed", gQueueName);
 		}
 	}
 	
+	/**
+	 * Confirm that all elements taken from a durable queue so far have been processed. The journal is written to disk and
+	 * the elements are not delivered again after a restart. Has no effect for queues in memory.
+	 * 
+	 * @since 2026.10.17
+	 */
+	public void commit() {
+		
+		// The journal is written to disk by close()
+		if (gState != OPEN) {
+			return;
+		}
+		
+		if (gQueue instanceof KQueueJournalStore) {
+			((KQueueJournalStore) gQueue).commit();
+		}
+	}
+	
+	/**
+	 * Remove up to the given number of elements without waiting and add them to the collection.
+	 * 
+	 * @param	argCollection	Collection receiving the elements
+	 * @param	argMaxElements	Maximum number of elements
+	 * @return	Number of elements added to the collection
+	 * 
+	 * @since 2026.10.17
+	 */
+	public int drainTo(Collection<Object> argCollection, int argMaxElements) {
+		
+		// Check arguments
+		KLog.argException(argCollection == null, "Missing required collection");
+		KLog.argException(argMaxElements < 1, "Maximum number of elements must be at least 1");
+		
+		// Check if end of stream reached
+		if (gState == CLOSED) {
+			return 0;
+		}
+		
+		return drain(argCollection, argMaxElements);
+	}
+	
+	/**
+	 * Remove up to the given number of elements and add them to the collection. The sentinel returned by a closed store after
+	 * the last element ends the stream.
+	 * 
+	 * @param	argCollection	Collection receiving the elements
+	 * @param	argMaxElements	Maximum number of elements
+	 * @return	Number of elements added to the collection
+	 */
+	private int drain(Collection<Object> argCollection, int argMaxElements) {
+		
+		ArrayList<Object> elements = new ArrayList<>(Math.min(argMaxElements, 1_024));
+		
+		gQueue.drainTo(elements, argMaxElements, gQueueMode == LIFO);
+		
+		// Check if the end of stream has been reached
+		if ((gState != OPEN) && elements.remove(SENTINEL)) {
+			checkSentinel(SENTINEL);
+		}
+		
+		elements.replaceAll(gMonitor::recordGet);
+		argCollection.addAll(elements);
+		return elements.size();
+	}
+	
 	/**
      * Return the next queue element and wait if queue is empty.
      * 
-	 * @return	Queue element or null for errors
+	 * @return	Queue element or null if the queue is closed and empty (end of stream) or error
      */
 	public Object get() {
-		
-		// Check if queue closed
-		raiseExceptionIfClosed();
-		
 		return get(true);
 	}
 	
@@ -159,50 +577,179 @@ public final class KQueue implements AutoCloseable {
      * Return the next queue element and optionally wait if queue is empty.
      * 
 	 * @param	argWait If true, wait for next element, false otherwise
-	 * @return	Queue element or null if no element found or error
+	 * @return	Queue element or null if no element found, end of stream or error
 	 */
 	public Object get(boolean argWait) {
 
-		// Check if queue closed
-		raiseExceptionIfClosed();
+		// Check if end of stream reached
+		if (gState == CLOSED) {
+			return null;
+		}
 				
 		// Get next element in queue
 		Object queueElement = null;
 		
 		if (!argWait) {
 			// Get element without blocking
-			queueElement = (gQueueMode == FIFO) ? gQueue.pollFirst() : gQueue.pollLast();  
+			queueElement = gQueue.poll(gQueueMode == LIFO);  
 		} else {
 			// Get element with blocking if necessary 
+			long startTime = gMonitor.startWait();
+			
 			try {
-				queueElement = (gQueueMode == FIFO) ? gQueue.takeFirst() : gQueue.takeLast();  
+				queueElement = gQueue.take(gQueueMode == LIFO);  
 			} catch (InterruptedException e) {
 				KLog.error(e);
 				Thread.currentThread().interrupt();
+			} finally {
+				gMonitor.recordWait(startTime);
 			}
 		}
 
-		// Check if sentinel placed in queue by close() to wake up consumers
-		if (queueElement == SENTINEL) {
-			
-			// Place sentinel back in queue for other consumers
-			gQueue.offerLast(SENTINEL);
-			KLog.error("Queue {} has been closed", gQueueName);
+		return checkSentinel(queueElement);
+	}
+	
+	/**
+     * Return the next queue element and wait up to the given time if queue is empty.
+     * 
+	 * @param	argTimeOutMs	Maximum wait time in milliseconds
+	 * @return	Queue element or null if no element found within the wait time, end of stream or error
+	 * 
+	 * @since 2026.10.17
+	 */
+	public Object get(long argTimeOutMs) {
+
+		// Check argument
+		KLog.argException(argTimeOutMs < 0, "Wait time must not be negative");
+		
+		// Check if end of stream reached
+		if (gState == CLOSED) {
 			return null;
 		}
+				
+		// Get next element in queue with blocking up to the wait time
+		Object	queueElement	= null;
+		long	startTime		= gMonitor.startWait();
 		
-		return queueElement;
+		try {
+			queueElement = gQueue.poll(gQueueMode == LIFO, argTimeOutMs);  
+		} catch (InterruptedException e) {
+			KLog.error(e);
+			Thread.currentThread().interrupt();
+		} finally {
+			gMonitor.recordWait(startTime);
+		}
+
+		return checkSentinel(queueElement);
 	}
 	
 	/**
-	 * Get the mode of the queue (FIFO or LIFO).
+     * Return up to the given number of queue elements and wait up to the given time if queue is empty.
+     * 
+	 * @param	argMaxElements	Maximum number of elements
+	 * @param	argTimeOutMs	Maximum wait time in milliseconds for the first element
+	 * @return	List of elements (empty if no element found within the wait time or end of stream) or null for errors
 	 * 
-	 * @return	FIFO or LIFO mode
+	 * @since 2026.10.17
+	 */
+	public List<Object> get(int argMaxElements, long argTimeOutMs) {
+
+		// Check arguments
+		KLog.argException(argMaxElements < 1, "Maximum number of elements must be at least 1");
+		KLog.argException(argTimeOutMs < 0, "Wait time must not be negative");
+		
+		ArrayList<Object> elements = new ArrayList<>(Math.min(argMaxElements, 1_024));
+		
+		// Check if end of stream reached
+		if (gState == CLOSED) {
+			return elements;
+		}
+		
+		// Wait for the first element
+		Object	queueElement	= null;
+		long	startTime		= gMonitor.startWait();
+		
+		try {
+			queueElement = gQueue.poll(gQueueMode == LIFO, argTimeOutMs);
+		} catch (InterruptedException e) {
+			KLog.error(e);
+			Thread.currentThread().interrupt();
+			return null;
+		} finally {
+			gMonitor.recordWait(startTime);
+		}
+		
+		if (queueElement == null) {
+			return elements;
+		}
+		
+		queueElement = checkSentinel(queueElement);
+		
+		if (queueElement == null) {
+			return elements;
+		}
+		
+		elements.add(queueElement);
+		
+		// Take the remaining elements with a single operation
+		if (argMaxElements > 1) {
+			drain(elements, argMaxElements - 1);
+		}
+
+		return elements;
+	}
+	
+	/**
+	 * Get the maximum number of elements.
+	 * 
+	 * @return	Capacity or UNBOUNDED
+	 * 
+	 * @since 2026.10.17
+	 */
+	public int getCapacity() {
+		return gCapacity;
+	}
+	
+	/**
+	 * Get a snapshot of the queue metrics.
+	 * 
+	 * @return	Metrics
+	 * 
+	 * @since 2026.10.17
+	 */
+	public KQueueMetrics getMetrics() {
+
+		int size = (gState == CLOSED) ? 0 : gQueue.size();
+
+		gMonitor.recordSize(size);
+		return new KQueueMetrics(gQueueName, size, gCapacity, gRejectedCount.get(), gMonitor);
+	}
+	
+	/**
+	 * Get the mode of the queue.
+	 * 
+	 * @return	FIFO, LIFO, PRIORITY or DELAYED mode
 	 */
 	public int getMode() {
 		return gQueueMode;
 	}
 	
+	/**
+	 * Get the name of a queue mode.
+	 * 
+	 * @param	argQueueMode	Queue mode
+	 * @return	Name
+	 */
+	private static String getModeName(int argQueueMode) {
+		
+		switch (argQueueMode) {
+			case FIFO:		return "FIFO";
+			case LIFO:		return "LIFO";
+			case PRIORITY:	return "PRIORITY";
+			default:		return "DELAYED";
+		}
+	}
+	
 	/**
 	 * Get the name of the queue.
 	 * 
@@ -212,26 +759,56 @@ public final class KQueue implements AutoCloseable {
 		return gQueueName;
 	}
 	
+	/**
+	 * Get the number of elements rejected or removed because the queue was full.
+	 * 
+	 * @return	Number of elements
+	 * 
+	 * @since 2026.10.17
+	 */
+	public long getRejectedCount() {
+		return gRejectedCount.get();
+	}
+	
+	/**
+	 * Get the rejection policy applied by put() if the queue is full.
+	 * 
+	 * @return	BLOCK, FAIL or DROP_OLDEST
+	 * 
+	 * @since 2026.10.17
+	 */
+	public int getRejectPolicy() {
+		return gRejectPolicy;
+	}
+	
 	/**
 	 * Get number of elements in queue.
 	 * 
 	 * @return	Number of elements
 	 */
 	public int getSize() {
-
-		// Check if queue closed
-		raiseExceptionIfClosed();
-		
-		return gQueue.size();
+		return (gState == CLOSED) ? 0 : gQueue.size();
 	}
 	
 	/**
-	 * Check if queue is closed.
+	 * Check if queue is closed. Consumers may still take the remaining elements until isEndOfStream() returns true.
 	 * 
 	 * @return	True if queue is closed, false otherwise
 	 */
 	public boolean isClosed() {
-		return gClosed;
+		return (gState != OPEN);
+	}
+	
+	/**
+	 * Check if the queue is closed and all elements have been taken. Consumers should stop if get() returns null and
+	 * this method returns true.
+	 * 
+	 * @return	True if end of stream, false otherwise
+	 * 
+	 * @since 2026.10.17
+	 */
+	public boolean isEndOfStream() {
+		return (gState == CLOSED);
 	}
 	
 	/**
@@ -240,40 +817,118 @@ public final class KQueue implements AutoCloseable {
 	 * @return	True if queue is empty, false otherwise
 	 */
 	public boolean isEmpty() {
+		return (gState == CLOSED) || gQueue.isEmpty();
+	}
+	
+	/**
+	 * Add an element without waiting. If the queue is full, the element is rejected (FAIL) or the oldest elements
+	 * are removed until the element fits (DROP_OLDEST).
+	 * 
+	 * @param argObject	Element to add to the queue
+	 * @return	True if success, false if rejected
+	 */
+	private boolean offer(Object argObject) {
+		
+		while (!gQueue.offer(argObject)) {
+			
+			gRejectedCount.incrementAndGet();
+			
+			if (gRejectPolicy != DROP_OLDEST) {
+				return false;
+			}
 
-		// Check if queue closed
-		raiseExceptionIfClosed();
+			// The oldest element is always at the head (FIFO and LIFO add at the tail)
+			if ((gState != OPEN) || (gQueue.poll(false) == SENTINEL)) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Add an element and wait up to the given time if the queue is full. The wait ends early if the queue is closed, as
+	 * close() wakes up all producers blocked on a full queue.
+	 * 
+	 * @param argObject		Element to add to the queue
+	 * @param argTimeOutMs	Maximum wait time in milliseconds (Long.MAX_VALUE for no limit)
+	 * @return	True if success, false if the queue is still full after the wait time, closed or error
+	 */
+	private boolean offer(Object argObject, long argTimeOutMs) {
 		
-		return gQueue.isEmpty();
+		try {
+			return gQueue.offer(argObject, argTimeOutMs);
+		} catch (InterruptedException e) {
+			KLog.error(e);
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+	
+	/**
+	 * Open the journal of a durable queue.
+	 * 
+	 * @param argDirectory	Journal directory
+	 * @param argCapacity	Maximum number of elements
+	 * @return	Journal store
+	 */
+	private static KQueueStore openJournal(String argDirectory, int argCapacity) {
+		
+		// Check argument
+		KLog.argException(K.isEmpty(argDirectory), "Journal directory missing");
+		
+		try {
+			return new KQueueJournalStore(argDirectory, argCapacity);
+		} catch (IOException e) {
+			KLog.argException("Unable to open journal {}: {}", argDirectory, e.toString());
+			return null;
+		}
+	}
+	
+	/**
+	 * Open the ring file of a shared queue.
+	 * 
+	 * @param argDirectory	Directory of the ring file
+	 * @param argQueueName	Queue name
+	 * @param argCapacity	Ring size in bytes
+	 * @return	Shared store
+	 */
+	private static KQueueStore openShared(String argDirectory, String argQueueName, int argCapacity) {
+		
+		try {
+			return new KQueueSharedStore(argDirectory, argQueueName, argCapacity);
+		} catch (IOException e) {
+			KLog.argException("Unable to open shared queue {}: {}", argQueueName, e.toString());
+			return null;
+		}
 	}
 	
 	/**
      * Return the next queue element without removing it.
      * 
-	 * @return	Queue element or null if no element found or error
+	 * @return	Queue element or null if no element found, end of stream or error
 	 */
 	public Object peek() {
 
-		// Check if queue closed
-		raiseExceptionIfClosed();
+		// Check if end of stream reached
+		if (gState == CLOSED) {
+			return null;
+		}
 				
 		// Get next element in queue
-		Object queueElement = (gQueueMode == FIFO) ? gQueue.peekFirst() : gQueue.peekLast();  
+		Object queueElement = gQueue.peek(gQueueMode == LIFO);  
 
-		// Check if sentinel placed in queue by close() to wake up consumers
+		// Check if sentinel returned by a closed store after the last element
 		if (queueElement == SENTINEL) {
-			
-			// Place sentinel back in queue for other consumers
-			gQueue.offerLast(SENTINEL);
-			KLog.error("Queue {} has been closed", gQueueName);
+			gState = CLOSED;
 			return null;
 		}
 		
-		return queueElement;
+		return KQueueMonitor.unwrap(queueElement);
 	}
 	
 	/**
-	 * Add an element to the queue.
+	 * Add an element to the queue. If the queue is full, the rejection policy is applied.
 	 * 
 	 * @param argObject	Element to add to the queue
 	 * @return	True if success, false otherwise
@@ -283,28 +938,214 @@ public final class KQueue implements AutoCloseable {
 		// Check argument
 		KLog.argException(K.isEmpty(argObject), "Missing required element");
 		
-		// Check if queue closed
-		raiseExceptionIfClosed();
+		// Reject element if queue closed
+		if (gState != OPEN) {
+			return false;
+		}
 		
-		try {
-			gQueue.putLast(argObject);
-			return true;
-		} catch (InterruptedException e) {
-			KLog.error(e);
-			Thread.currentThread().interrupt();
+		return putElement(gMonitor.stamp(argObject));
+	}
+	
+	/**
+	 * Add an element to a DELAYED queue. The element is returned by get() after the delay has expired. If the queue is full,
+	 * the rejection policy is applied.
+	 * 
+	 * @param argObject		Element to add to the queue
+	 * @param argDelayMs	Delay in milliseconds (longer delays than 100 years are reduced to 100 years)
+	 * @return	True if success, false otherwise
+	 * 
+	 * @since 2026.10.17
+	 */
+	public boolean putDelayed(Object argObject, long argDelayMs) {
+		
+		// Check arguments
+		KLog.argException(K.isEmpty(argObject), "Missing required element");
+		KLog.argException(argDelayMs < 0, "Delay must not be negative");
+		KLog.argException(gQueueMode != DELAYED, "Delay requires a DELAYED queue");
+		
+		// Reject element if queue closed
+		if (gState != OPEN) {
 			return false;
 		}
+		
+		return putElement(new KQueueHeapStore.Entry(gMonitor.stamp(argObject), 0, argDelayMs));
 	}
 	
 	/**
-	 * Check if queue is closed. If so, this method raises an IllegalArgumentException.
+	 * Add an element with the given priority to a PRIORITY queue. If the queue is full, the rejection policy is applied.
+	 * 
+	 * @param argObject		Element to add to the queue
+	 * @param argPriority	Priority (elements with higher priority are returned first)
+	 * @return	True if success, false otherwise
+	 * 
+	 * @since 2026.10.17
 	 */
-    private void raiseExceptionIfClosed() {
-    	KLog.argException(gClosed, "Queue is in closed state");
-    }
+	public boolean putPriority(Object argObject, int argPriority) {
+		
+		// Check arguments
+		KLog.argException(K.isEmpty(argObject), "Missing required element");
+		KLog.argException(gQueueMode != PRIORITY, "Priority requires a PRIORITY queue");
+		
+		// Reject element if queue closed
+		if (gState != OPEN) {
+			return false;
+		}
+		
+		return putElement(new KQueueHeapStore.Entry(gMonitor.stamp(argObject), argPriority, 0));
+	}
+	
+	/**
+	 * Add an element and apply the rejection policy if the queue is full.
+	 * 
+	 * @param argObject	Element to add to the queue
+	 * @return	True if success, false otherwise
+	 */
+	private boolean putElement(Object argObject) {
+		
+		// Add element without waiting or with blocking if necessary
+		boolean success = (gRejectPolicy != BLOCK) ? offer(argObject) : offer(argObject, Long.MAX_VALUE);
+		
+		if (success) {
+			gMonitor.recordPut(1, gQueue);
+		}
+		
+		return success;
+	}
+	
+	/**
+	 * Add an element to the queue and wait up to the given time if the queue is full. With the rejection policy
+	 * DROP_OLDEST, the oldest element is removed instead of waiting.
+	 * 
+	 * @param argObject		Element to add to the queue
+	 * @param argTimeOutMs	Maximum wait time in milliseconds
+	 * @return	True if success, false if the queue is still full after the wait time, closed or error
+	 * 
+	 * @since 2026.10.17
+	 */
+	public boolean put(Object argObject, long argTimeOutMs) {
+	
+		// Check arguments
+		KLog.argException(K.isEmpty(argObject), "Missing required element");
+		KLog.argException(argTimeOutMs < 0, "Wait time must not be negative");
+		
+		// Reject element if queue closed
+		if (gState != OPEN) {
+			return false;
+		}
+		
+		Object element = gMonitor.stamp(argObject);
+		
+		if ((gRejectPolicy == DROP_OLDEST) ? offer(element) : offer(element, argTimeOutMs)) {
+			gMonitor.recordPut(1, gQueue);
+			return true;
+		}
+
+		if (gRejectPolicy != DROP_OLDEST) {
+			gRejectedCount.incrementAndGet();
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Add all elements to the queue. The elements which fit into the queue are added with a single operation. If the queue
+	 * is full, the rejection policy is applied to the next element: BLOCK waits for space, FAIL rejects all remaining
+	 * elements and DROP_OLDEST removes the oldest elements.
+	 * 
+	 * @param argElements	Elements to add to the queue
+	 * @return	Number of elements added
+	 * 
+	 * @since 2026.10.17
+	 */
+	public int putAll(Collection<?> argElements) {
+		
+		// Check arguments
+		KLog.argException(argElements == null, "Missing required elements");
+		
+		for (Object element : argElements) {
+			KLog.argException(K.isEmpty(element), "Missing required element");
+		}
+		
+		// Reject element if queue closed
+		if (gState != OPEN) {
+			return 0;
+		}
+		
+		List<?>	elements	= ((argElements instanceof List) && (argElements instanceof RandomAccess)) ? (List<?>) argElements : new ArrayList<>(argElements);
+		int		count		= 0;
+		
+		// Wrap elements with their enqueue time
+		if (gMonitor.gStamping) {
+			
+			ArrayList<Object> stampedElements = new ArrayList<>(elements.size());
+			
+			for (Object element : elements) {
+				stampedElements.add(gMonitor.stamp(element));
+			}
+			
+			elements = stampedElements;
+		}
+		
+		while (true) {
+			
+			// Add as many elements as fit
+			count += gQueue.offerAll(elements, count);
+			
+			if (count >= elements.size()) {
+				break;
+			}
+			
+			// Queue is full: Apply rejection policy to the next element
+			if (gRejectPolicy == FAIL) {
+				gRejectedCount.addAndGet(elements.size() - count);
+				break;
+			}
+			
+			if (!((gRejectPolicy == DROP_OLDEST) ? offer(elements.get(count)) : offer(elements.get(count), Long.MAX_VALUE))) {
+				break;
+			}
+			
+			count++;
+		}
+		
+		gMonitor.recordPut(count, gQueue);
+		return count;
+	}
+	
+	/**
+	 * Register a JMX bean (ch.k43.util:type=KQueue,name=queue name) with the queue metrics in the platform MBean server.
+	 * The bean is removed by close().
+	 * 
+	 * @return	True if success, false otherwise
+	 * 
+	 * @since 2026.10.17
+	 */
+	public boolean registerMBean() {
+		
+		// Check if queue closed
+		if (gState != OPEN) {
+			return false;
+		}
+		
+		if (gMBeanName != null) {
+			return true;
+		}
+		
+		try {
+			ObjectName mBeanName = new ObjectName("ch.k43.util:type=KQueue,name=" + ObjectName.quote(gQueueName));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(new KQueueMXBeanImpl(this), mBeanName);
+			gMBeanName = mBeanName;
+		} catch (Exception e) {
+			KLog.error("Unable to register JMX bean of queue {}: {}", gQueueName, e.toString());
+			return false;
+		}
+		
+		KLog.debug("JMX bean {} registered", gMBeanName);
+		return true;
+	}
 	
     /**
-     * Set queue mode (LIFO or FIFO).
+     * Set queue mode (LIFO or FIFO). The mode of lock-free, durable, shared, PRIORITY and DELAYED queues cannot be changed.
      * 
      * @param argQueueMode	LIFO or FIFO queue mode
      */
@@ -312,9 +1153,7 @@ public final class KQueue implements AutoCloseable {
     	
     	// Check argument
 		KLog.argException(argQueueMode != FIFO && argQueueMode != LIFO, "Queue mode must be FIFO or LIFO");
-		
-		// Check if queue closed
-		raiseExceptionIfClosed();
+		KLog.argException(argQueueMode != gQueueMode && !(gQueue instanceof KQueueDequeStore), "Queue mode cannot be changed");
 		
 		gQueueMode = argQueueMode;
     }
@@ -326,7 +1165,7 @@ public final class KQueue implements AutoCloseable {
 	 */
 	@Override
 	public String toString() {
-		return "KQueue [gQueue=" + gQueue + ", gQueueName=" + gQueueName + ", gQueueMode=" + gQueueMode + ", gClosed="
-				+ gClosed + "]";
+		return "KQueue [gQueue=" + gQueue + ", gMonitor=" + gMonitor + ", gQueueName=" + gQueueName + ", gQueueMode=" + gQueueMode + ", gCapacity=" + gCapacity
+				+ ", gRejectPolicy=" + gRejectPolicy + ", gRejectedCount=" + gRejectedCount.get() + ", gState=" + gState + "]";
 	}
 }
\ No newline at end of file
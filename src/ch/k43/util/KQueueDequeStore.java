@@ -0,0 +1,300 @@
+package ch.k43.util;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Default KQueue storage based on an array deque guarded by one lock. Supports the FIFO and the LIFO order.<p>
+ *
+ * Notes:<br>
+ * - Bulk operations (offerAll() and drainTo()) move all elements with a single lock acquisition.<br>
+ * - The array deque grows on demand and does not allocate a node per element.<br>
+ * - After close(), the remaining elements are returned to the consumers, followed by the sentinel.<br>
+ *
+ * @see KQueue
+ *
+ * @since 2026.10.17
+ */
+final class KQueueDequeStore implements KQueueStore {
+
+	// Declarations
+	private final			ArrayDeque<Object>	gDeque				= new ArrayDeque<>();
+	private final			int					gCapacity;
+	private final			ReentrantLock		gLock				= new ReentrantLock();
+	private final			Condition			gNotEmpty			= gLock.newCondition();
+	private final			Condition			gNotFull			= gLock.newCondition();
+	private					Object				gSentinel			= null;
+
+	/**
+	 * Create store.
+	 *
+	 * @param	argCapacity	Maximum number of elements
+	 */
+	KQueueDequeStore(int argCapacity) {
+		gCapacity = argCapacity;
+	}
+
+	@Override
+	public void clear() {
+
+		gLock.lock();
+
+		try {
+			gDeque.clear();
+			gNotFull.signalAll();
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public void close(Object argSentinel) {
+
+		gLock.lock();
+
+		try {
+			gSentinel = argSentinel;
+
+			// Wake up all waiting threads
+			gNotEmpty.signalAll();
+			gNotFull.signalAll();
+
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public int drainTo(Collection<Object> argCollection, int argMaxElements, boolean argLIFO) {
+
+		gLock.lock();
+
+		try {
+			int count = 0;
+
+			while ((count < argMaxElements) && !gDeque.isEmpty()) {
+				argCollection.add(argLIFO ? gDeque.pollLast() : gDeque.pollFirst());
+				count++;
+			}
+
+			// Signal the end of the elements of a closed store
+			if ((count < argMaxElements) && (gSentinel != null)) {
+				argCollection.add(gSentinel);
+				return count + 1;
+			}
+
+			if (count > 0) {
+				gNotFull.signalAll();
+			}
+
+			return count;
+
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public int getCapacity() {
+		return gCapacity;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return (size() == 0);
+	}
+
+	@Override
+	public boolean isPersistent() {
+		return false;
+	}
+
+	@Override
+	public boolean offer(Object argElement) {
+
+		gLock.lock();
+
+		try {
+			return add(argElement);
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public boolean offer(Object argElement, long argTimeOutMs) throws InterruptedException {
+
+		long timeOutNs = TimeUnit.MILLISECONDS.toNanos(argTimeOutMs);
+
+		gLock.lockInterruptibly();
+
+		try {
+			while (!add(argElement)) {
+
+				if ((timeOutNs <= 0) || (gSentinel != null)) {
+					return false;
+				}
+
+				timeOutNs = gNotFull.awaitNanos(timeOutNs);
+			}
+
+			return true;
+
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public int offerAll(List<?> argElements, int argStart) {
+
+		gLock.lock();
+
+		try {
+			int count = (gSentinel != null) ? 0 : Math.min(argElements.size() - argStart, gCapacity - gDeque.size());
+
+			for (int index = 0; index < count; index++) {
+				gDeque.addLast(argElements.get(argStart + index));
+			}
+
+			if (count > 0) {
+				gNotEmpty.signalAll();
+			}
+
+			return count;
+
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public Object peek(boolean argLIFO) {
+
+		gLock.lock();
+
+		try {
+			Object element = argLIFO ? gDeque.peekLast() : gDeque.peekFirst();
+
+			return (element != null) ? element : gSentinel;
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public Object poll(boolean argLIFO) {
+
+		gLock.lock();
+
+		try {
+			return remove(argLIFO);
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public Object poll(boolean argLIFO, long argTimeOutMs) throws InterruptedException {
+
+		long timeOutNs = TimeUnit.MILLISECONDS.toNanos(argTimeOutMs);
+
+		gLock.lockInterruptibly();
+
+		try {
+			Object element = null;
+
+			while ((element = remove(argLIFO)) == null) {
+
+				if (timeOutNs <= 0) {
+					return null;
+				}
+
+				timeOutNs = gNotEmpty.awaitNanos(timeOutNs);
+			}
+
+			return element;
+
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public int size() {
+
+		gLock.lock();
+
+		try {
+			return gDeque.size();
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public Object take(boolean argLIFO) throws InterruptedException {
+
+		gLock.lockInterruptibly();
+
+		try {
+			Object element = null;
+
+			while ((element = remove(argLIFO)) == null) {
+				gNotEmpty.await();
+			}
+
+			return element;
+
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	/**
+	 * Add element at the tail if there is space (lock must be held).
+	 *
+	 * @param	argElement	Element
+	 * @return	True if added, false if full or closed
+	 */
+	private boolean add(Object argElement) {
+
+		if ((gDeque.size() >= gCapacity) || (gSentinel != null)) {
+			return false;
+		}
+
+		gDeque.addLast(argElement);
+		gNotEmpty.signal();
+		return true;
+	}
+
+	/**
+	 * Remove the next element (lock must be held).
+	 *
+	 * @param	argLIFO	True for the tail (LIFO), false for the head (FIFO)
+	 * @return	Element, null if empty or the sentinel if closed and empty
+	 */
+	private Object remove(boolean argLIFO) {
+
+		Object element = argLIFO ? gDeque.pollLast() : gDeque.pollFirst();
+
+		if (element == null) {
+			return gSentinel;
+		}
+
+		gNotFull.signal();
+		return element;
+	}
+
+	/**
+	 * String representation of object.
+	 */
+	@Override
+	public String toString() {
+		return "KQueueDequeStore [gCapacity=" + gCapacity + ", size()=" + size() + "]";
+	}
+}
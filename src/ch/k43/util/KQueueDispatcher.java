@@ -0,0 +1,578 @@
+package ch.k43.util;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Dispatcher which takes the elements of a KQueue and passes them to a handler running in a pool of worker threads.<p>
+ *
+ * Notes:<br>
+ * - A feeder thread takes the elements in batches from the queue and distributes them round-robin to the local deques of the workers.
+ *   Each worker processes its own deque from the head. Idle workers steal elements from the tail of the other deques (work stealing),
+ *   so a slow element does not hold up the elements queued behind it.<br>
+ * - With a key function, elements with the same key are processed sequentially in queue order. The elements of a key are collected
+ *   in a mailbox which is scheduled (and may be stolen) as one unit, so different keys are still processed in parallel.<br>
+ * - At most 256 elements per worker are taken from the queue and not yet processed. The queue therefore still applies its capacity
+ *   and rejection policy to the producers.<br>
+ * - The workers may be platform threads or virtual threads (Java 21+, platform threads on older JVMs).<br>
+ * - Exceptions thrown by the handler or the key function are logged, counted and passed with the element to the optional error
+ *   handler. The worker (or the feeder) continues with the next element.<br>
+ * - The dispatcher ends if it is closed or if the queue is closed and drained (end of stream). All elements already taken from the
+ *   queue are processed.<br>
+ *
+ * <pre>
+ * Example:
+ *
+ * KQueue queue = new KQueue("Orders", KQueue.FIFO);
+ *
+ * try (KQueueDispatcher dispatcher = new KQueueDispatcher(queue, 8, true, order -> ((Order) order).getCustomerId(), order -> process(order))) {
+ *    ...
+ *    queue.put(order);
+ *    ...
+ * }
+ * </pre>
+ *
+ * @see KQueue
+ *
+ * @since 2026.10.17
+ */
+public final class KQueueDispatcher implements AutoCloseable {
+
+	/**
+	 * Elements of one key waiting to be processed in order.
+	 */
+	private static final class KeyTask {
+
+		private final	Object				gKey;
+		private final	ArrayDeque<Object>	gElements		= new ArrayDeque<>();
+		private			boolean				gScheduled		= false;
+		private			boolean				gRemoved		= false;
+
+		/**
+		 * Create mailbox.
+		 *
+		 * @param	argKey	Key
+		 */
+		KeyTask(Object argKey) {
+			gKey = argKey;
+		}
+
+		/**
+		 * String representation of object.
+		 */
+		@Override
+		public String toString() {
+			return "KeyTask [gKey=" + gKey + ", gElements=" + gElements.size() + ", gScheduled=" + gScheduled + "]";
+		}
+	}
+
+	/**
+	 * Worker thread with its local deque.
+	 */
+	private final class Worker implements Runnable {
+
+		private final	int								gIndex;
+		private final	ConcurrentLinkedDeque<Object>	gTasks			= new ConcurrentLinkedDeque<>();
+		private final	AtomicBoolean					gIdle			= new AtomicBoolean(false);
+		private final	Thread							gThread;
+
+		/**
+		 * Create worker thread.
+		 *
+		 * @param	argIndex	Index of the worker
+		 */
+		Worker(int argIndex) {
+			gIndex	= argIndex;
+			gThread	= gThreadFactory.newThread(this);
+		}
+
+		/**
+		 * Get the next task from the own deque or steal one from another worker.
+		 *
+		 * @return	Task or null if none found
+		 */
+		private Object nextTask() {
+
+			Object task = gTasks.pollFirst();
+
+			if (task != null) {
+				return task;
+			}
+
+			// Steal from the tail of the other deques, starting with the next worker
+			for (int offset = 1; offset < gWorkers.length; offset++) {
+
+				task = gWorkers[(gIndex + offset) % gWorkers.length].gTasks.pollLast();
+
+				if (task != null) {
+					gStolenCount.increment();
+					return task;
+				}
+			}
+
+			return null;
+		}
+
+		/**
+		 * Main entry point: Process tasks until the feeder has ended and all deques are empty.
+		 */
+		@Override
+		public void run() {
+
+			while (true) {
+
+				Object task = nextTask();
+
+				if (task == null) {
+
+					// Register as idle before checking again, so the feeder wakes up this worker for new tasks
+					gIdle.set(true);
+
+					task = nextTask();
+
+					if ((task == null) && gFeederEnded) {
+						break;
+					}
+
+					if (task == null) {
+						LockSupport.parkNanos(PARK_TIMEOUT_NS);
+						gIdle.set(false);
+						continue;
+					}
+
+					gIdle.set(false);
+				}
+
+				if (task instanceof KeyTask) {
+					runKeyTask((KeyTask) task);
+				} else {
+					handle(task);
+				}
+			}
+		}
+
+		/**
+		 * Process the elements of a key mailbox. After a batch of elements, the mailbox is queued again to let other tasks run.
+		 *
+		 * @param	argKeyTask	Key mailbox
+		 */
+		private void runKeyTask(KeyTask argKeyTask) {
+
+			boolean completed = false;
+
+			try {
+				for (int count = 0; count < KEY_BATCH_SIZE; count++) {
+
+					Object element = null;
+
+					synchronized (argKeyTask) {
+
+						element = argKeyTask.gElements.pollFirst();
+
+						// Mailbox empty: Remove it, so it is not used by the feeder anymore
+						if (element == null) {
+							argKeyTask.gScheduled	= false;
+							argKeyTask.gRemoved		= true;
+							gKeyTasks.remove(argKeyTask.gKey, argKeyTask);
+							completed = true;
+							return;
+						}
+					}
+
+					handle(element);
+				}
+
+				completed = true;
+				gTasks.addLast(argKeyTask);
+
+			} finally {
+
+				// Handler has thrown an error: Reset the mailbox and pass the remaining elements to the other workers
+				if (!completed) {
+
+					boolean scheduled = false;
+
+					synchronized (argKeyTask) {
+						argKeyTask.gScheduled	= !argKeyTask.gElements.isEmpty();
+						scheduled				= argKeyTask.gScheduled;
+					}
+
+					if (scheduled) {
+						gTasks.addLast(argKeyTask);
+					}
+				}
+			}
+		}
+
+		/**
+		 * String representation of object.
+		 */
+		@Override
+		public String toString() {
+			return "Worker [gIndex=" + gIndex + ", gTasks=" + gTasks.size() + ", gIdle=" + gIdle.get() + ", gThread=" + gThread.getName() + "]";
+		}
+	}
+
+	// Declarations
+	private static final	int									BATCH_SIZE				= 64;
+	private static final	int									KEY_BATCH_SIZE			= 64;
+	private static final	int									MAX_PENDING_PER_WORKER	= 256;
+	private static final	long								POLL_TIMEOUT_MS			= 100;
+	private static final	long								PARK_TIMEOUT_NS			= TimeUnit.MILLISECONDS.toNanos(100);
+	private static final	long								TERMINATION_TIMEOUT_MS	= 30_000;
+
+	private final			KQueue								gQueue;
+	private final			Consumer<Object>					gHandler;
+	private final			BiConsumer<Object, Exception>		gErrorHandler;
+	private final			Function<Object, ?>					gKeyFunction;
+	private final			KThreadFactory						gThreadFactory;
+	private final			Worker[]							gWorkers;
+	private final			Thread								gFeeder;
+	private final			Semaphore							gPendingPermits;
+	private final			ConcurrentHashMap<Object, KeyTask>	gKeyTasks				= new ConcurrentHashMap<>();
+	private final			LongAdder							gProcessedCount			= new LongAdder();
+	private final			LongAdder							gStolenCount			= new LongAdder();
+	private final			LongAdder							gErrorCount				= new LongAdder();
+	private volatile		boolean								gClosed					= false;
+	private volatile		boolean								gFeederEnded			= false;
+	private					int									gNextWorker				= 0;		// Only used by the feeder
+
+	/**
+	 * Start a dispatcher with platform worker threads and without key ordering.
+	 *
+	 * @param	argQueue		Queue
+	 * @param	argWorkers		Number of worker threads
+	 * @param	argHandler		Handler called for each element
+	 */
+	public KQueueDispatcher(KQueue argQueue, int argWorkers, Consumer<Object> argHandler) {
+		this(argQueue, argWorkers, false, null, argHandler);
+	}
+
+	/**
+	 * Start a dispatcher.
+	 *
+	 * @param	argQueue		Queue
+	 * @param	argWorkers		Number of worker threads
+	 * @param	argVirtual		True for virtual threads (Java 21+, platform threads on older JVMs), false for platform threads
+	 * @param	argKeyFunction	Function returning the key of an element (elements with the same key are processed sequentially) or null
+	 * @param	argHandler		Handler called for each element
+	 */
+	public KQueueDispatcher(KQueue argQueue, int argWorkers, boolean argVirtual, Function<Object, ?> argKeyFunction, Consumer<Object> argHandler) {
+		this(argQueue, argWorkers, argVirtual, argKeyFunction, argHandler, null);
+	}
+
+	/**
+	 * Start a dispatcher with an error handler.
+	 *
+	 * @param	argQueue		Queue
+	 * @param	argWorkers		Number of worker threads
+	 * @param	argVirtual		True for virtual threads (Java 21+, platform threads on older JVMs), false for platform threads
+	 * @param	argKeyFunction	Function returning the key of an element (elements with the same key are processed sequentially) or null
+	 * @param	argHandler		Handler called for each element
+	 * @param	argErrorHandler	Handler called with the element and the exception if the handler or the key function failed, or null
+	 */
+	public KQueueDispatcher(KQueue argQueue, int argWorkers, boolean argVirtual, Function<Object, ?> argKeyFunction, Consumer<Object> argHandler, BiConsumer<Object, Exception> argErrorHandler) {
+
+		// Check arguments
+		KLog.argException(argQueue == null, "Missing required queue");
+		KLog.argException(argQueue.isClosed(), "Queue is in closed state");
+		KLog.argException((argWorkers < 1) || (argWorkers > 10_000), "Number of workers must be between 1 and 10000");
+		KLog.argException(argHandler == null, "Missing required handler");
+
+		gQueue			= argQueue;
+		gHandler		= argHandler;
+		gErrorHandler	= argErrorHandler;
+		gKeyFunction	= argKeyFunction;
+		gThreadFactory	= new KThreadFactory("KQueueDispatcher-" + argQueue.getName(), argVirtual);
+		gPendingPermits	= new Semaphore(argWorkers * MAX_PENDING_PER_WORKER);
+		gWorkers		= new Worker[argWorkers];
+
+		for (int index = 0; index < argWorkers; index++) {
+			gWorkers[index] = new Worker(index);
+		}
+
+		gFeeder = gThreadFactory.newThread(this::feed);
+
+		// Start threads
+		for (Worker worker : gWorkers) {
+			worker.gThread.start();
+		}
+
+		gFeeder.start();
+
+		KLog.debug("Dispatcher for queue {} started with {} {} workers", argQueue.getName(), argWorkers, gThreadFactory.isVirtual() ? "virtual" : "platform");
+	}
+
+	/**
+	 * Stop taking elements from the queue and wait until all taken elements are processed.
+	 */
+	@Override
+	public void close() {
+
+		if (gClosed) {
+			return;
+		}
+
+		gClosed = true;
+
+		long deadline = System.currentTimeMillis() + TERMINATION_TIMEOUT_MS;
+
+		try {
+			gFeeder.join(TERMINATION_TIMEOUT_MS);
+
+			for (Worker worker : gWorkers) {
+				worker.gThread.join(Math.max(1, deadline - System.currentTimeMillis()));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		KLog.debug("Dispatcher for queue {} closed ({} elements processed)", gQueue.getName(), gProcessedCount.sum());
+	}
+
+	/**
+	 * Pass an element to a worker: Elements without key are queued directly, elements with a key are added to the mailbox of the key
+	 * which is queued if it is not already queued or running.
+	 *
+	 * @param	argElement	Element
+	 * @return	Number of tasks queued (0 or 1)
+	 */
+	private int dispatch(Object argElement) {
+
+		Object key = null;
+
+		// Get the key (the element is not processed if the key function fails)
+		if (gKeyFunction != null) {
+			try {
+				key = gKeyFunction.apply(argElement);
+			} catch (Exception e) {
+				failed(argElement, e);
+				gProcessedCount.increment();
+				gPendingPermits.release();
+				return 0;
+			}
+		}
+
+		if (key == null) {
+			schedule(argElement);
+			return 1;
+		}
+
+		while (true) {
+
+			KeyTask keyTask = gKeyTasks.computeIfAbsent(key, KeyTask::new);
+
+			synchronized (keyTask) {
+
+				// Mailbox removed by a worker in the meantime: Get a new one
+				if (keyTask.gRemoved) {
+					continue;
+				}
+
+				keyTask.gElements.addLast(argElement);
+
+				if (keyTask.gScheduled) {
+					return 0;
+				}
+
+				keyTask.gScheduled = true;
+			}
+
+			schedule(keyTask);
+			return 1;
+		}
+	}
+
+	/**
+	 * Count and log a failed element and pass it to the error handler.
+	 *
+	 * @param	argElement		Element
+	 * @param	argException	Exception thrown by the handler or the key function
+	 */
+	private void failed(Object argElement, Exception argException) {
+
+		gErrorCount.increment();
+		KLog.error(argException);
+
+		if (gErrorHandler == null) {
+			return;
+		}
+
+		try {
+			gErrorHandler.accept(argElement, argException);
+		} catch (Exception e) {
+			KLog.error(e);
+		}
+	}
+
+	/**
+	 * Main entry point of the feeder thread: Take elements from the queue and pass them to the workers.
+	 */
+	private void feed() {
+
+		try {
+			while (!gClosed && !gQueue.isEndOfStream()) {
+
+				// Wait until the workers have room for more elements
+				if (!gPendingPermits.tryAcquire(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+					continue;
+				}
+
+				int permits = 1 + gPendingPermits.drainPermits();
+				int batchSize = Math.min(permits, BATCH_SIZE);
+
+				gPendingPermits.release(permits - batchSize);
+
+				// Take the next batch (empty at the end of stream)
+				List<Object> elements = gQueue.get(batchSize, POLL_TIMEOUT_MS);
+
+				if (elements == null) {
+					gPendingPermits.release(batchSize);
+					break;
+				}
+
+				gPendingPermits.release(batchSize - elements.size());
+
+				int tasks = 0;
+
+				for (Object element : elements) {
+					tasks += dispatch(element);
+				}
+
+				wakeUpIdleWorkers(tasks);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+
+			// Let the workers end after the remaining tasks
+			gFeederEnded = true;
+
+			for (Worker worker : gWorkers) {
+				LockSupport.unpark(worker.gThread);
+			}
+		}
+	}
+
+	/**
+	 * Get the number of elements for which the handler or the key function has thrown an exception.
+	 *
+	 * @return	Number of errors
+	 */
+	public long getErrorCount() {
+		return gErrorCount.sum();
+	}
+
+	/**
+	 * Get the number of processed elements.
+	 *
+	 * @return	Number of elements
+	 */
+	public long getProcessedCount() {
+		return gProcessedCount.sum();
+	}
+
+	/**
+	 * Get the number of tasks taken from another worker.
+	 *
+	 * @return	Number of tasks
+	 */
+	public long getStolenCount() {
+		return gStolenCount.sum();
+	}
+
+	/**
+	 * Get the number of worker threads.
+	 *
+	 * @return	Number of workers
+	 */
+	public int getWorkerCount() {
+		return gWorkers.length;
+	}
+
+	/**
+	 * Call the handler for an element.
+	 *
+	 * @param	argElement	Element
+	 */
+	private void handle(Object argElement) {
+
+		try {
+			gHandler.accept(argElement);
+		} catch (Exception e) {
+			failed(argElement, e);
+		} finally {
+			gProcessedCount.increment();
+			gPendingPermits.release();
+		}
+	}
+
+	/**
+	 * Check if the dispatcher is closed.
+	 *
+	 * @return	True if closed, false otherwise
+	 */
+	public boolean isClosed() {
+		return gClosed;
+	}
+
+	/**
+	 * Check if the workers are virtual threads.
+	 *
+	 * @return	True if virtual threads, false otherwise
+	 */
+	public boolean isVirtual() {
+		return gThreadFactory.isVirtual();
+	}
+
+	/**
+	 * Queue a task at the tail of the next worker (round-robin).
+	 *
+	 * @param	argTask	Element or key mailbox
+	 */
+	private void schedule(Object argTask) {
+
+		gWorkers[gNextWorker].gTasks.addLast(argTask);
+		gNextWorker = (gNextWorker + 1) % gWorkers.length;
+	}
+
+	/**
+	 * Wake up idle workers after new tasks were queued. Woken workers take their own tasks or steal from the others.
+	 *
+	 * @param	argTasks	Number of new tasks
+	 */
+	private void wakeUpIdleWorkers(int argTasks) {
+
+		int remaining = argTasks;
+
+		for (int index = 0; (index < gWorkers.length) && (remaining > 0); index++) {
+
+			if (gWorkers[index].gIdle.compareAndSet(true, false)) {
+				LockSupport.unpark(gWorkers[index].gThread);
+				remaining--;
+			}
+		}
+	}
+
+	/**
+	 * String representation of object.
+	 *
+	 * @return	Object representation
+	 */
+	@Override
+	public String toString() {
+		return "KQueueDispatcher [gQueue=" + gQueue.getName() + ", gWorkers=" + gWorkers.length + ", gVirtual=" + gThreadFactory.isVirtual()
+				+ ", gKeys=" + gKeyTasks.size() + ", gProcessedCount=" + gProcessedCount.sum() + ", gStolenCount=" + gStolenCount.sum()
+				+ ", gErrorCount=" + gErrorCount.sum() + ", gClosed=" + gClosed + "]";
+	}
+}
@@ -0,0 +1,390 @@
+package ch.k43.util;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * KQueue storage based on a binary heap for the PRIORITY and DELAYED modes.<p>
+ *
+ * Notes:<br>
+ * - PRIORITY: Elements are ordered by the comparator (if any), then by their priority (highest first) and then by their insertion order.<br>
+ * - DELAYED: Elements are ordered by their due time and may only be taken when it has passed. Elements with the same due time keep
+ *   their insertion order.<br>
+ * - Elements are passed as Entry objects to set the priority or due time. Other objects get the priority 0 and are due immediately.<br>
+ * - Only one waiting consumer (the leader) waits for the due time of the head element, all others wait without time limit until
+ *   the leader has taken it or an earlier element arrives. Consumers never poll for due elements.<br>
+ * - The size includes the elements which are not yet due.<br>
+ * - After close(), the remaining elements are returned to the consumers (DELAYED: when due), followed by the sentinel.<br>
+ *
+ * @see KQueue
+ *
+ * @since 2026.10.17
+ */
+final class KQueueHeapStore implements KQueueStore {
+
+	/**
+	 * Element with its priority or due time.
+	 */
+	static final class Entry {
+
+		private final	Object	gElement;
+		private final	int		gPriority;
+		private final	long	gDueTimeNs;
+		private			long	gSequence;
+
+		/**
+		 * Create entry.
+		 *
+		 * @param	argElement		Element
+		 * @param	argPriority		Priority (PRIORITY mode, higher values first)
+		 * @param	argDelayMs		Delay in milliseconds until the element may be taken (DELAYED mode, at most 100 years)
+		 */
+		Entry(Object argElement, int argPriority, long argDelayMs) {
+			gElement	= argElement;
+			gPriority	= argPriority;
+			gDueTimeNs	= System.nanoTime() + Math.min(TimeUnit.MILLISECONDS.toNanos(argDelayMs), MAX_DELAY_NS);
+		}
+
+		/**
+		 * String representation of object.
+		 */
+		@Override
+		public String toString() {
+			return "Entry [gElement=" + gElement + ", gPriority=" + gPriority + ", gDueTimeNs=" + gDueTimeNs + ", gSequence=" + gSequence + "]";
+		}
+	}
+
+	// Declarations
+	private static final	long					MAX_DELAY_NS		= TimeUnit.DAYS.toNanos(36_500);	// Due times differ by less than Long.MAX_VALUE / 2
+
+	private final			PriorityQueue<Entry>	gHeap;
+	private final			int						gCapacity;
+	private final			boolean					gDelayed;
+	private final			ReentrantLock			gLock				= new ReentrantLock();
+	private final			Condition				gNotEmpty			= gLock.newCondition();
+	private final			Condition				gNotFull			= gLock.newCondition();
+	private					Thread					gLeader				= null;
+	private					long					gSequence			= 0;
+	private					Object					gSentinel			= null;
+
+	/**
+	 * Create store.
+	 *
+	 * @param	argCapacity		Maximum number of elements
+	 * @param	argComparator	Element order of the PRIORITY mode (null to order only by priority)
+	 * @param	argDelayed		True for the DELAYED mode, false for the PRIORITY mode
+	 */
+	KQueueHeapStore(int argCapacity, Comparator<Object> argComparator, boolean argDelayed) {
+
+		Comparator<Entry> order = null;
+
+		if (argDelayed) {
+			// Compare the difference, as System.nanoTime() values may overflow
+			order = (entry1, entry2) -> Long.compare(entry1.gDueTimeNs - entry2.gDueTimeNs, 0);
+		} else {
+			order = (entry1, entry2) -> Integer.compare(entry2.gPriority, entry1.gPriority);
+
+			if (argComparator != null) {
+				order = Comparator.<Entry, Object>comparing(entry -> KQueueMonitor.unwrap(entry.gElement), argComparator).thenComparing(order);
+			}
+		}
+
+		gHeap		= new PriorityQueue<>(order.thenComparingLong(entry -> entry.gSequence));
+		gCapacity	= argCapacity;
+		gDelayed	= argDelayed;
+	}
+
+	@Override
+	public void clear() {
+
+		gLock.lock();
+
+		try {
+			gHeap.clear();
+			gNotFull.signalAll();
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public void close(Object argSentinel) {
+
+		gLock.lock();
+
+		try {
+			gSentinel = argSentinel;
+
+			// Wake up all waiting threads
+			gNotEmpty.signalAll();
+			gNotFull.signalAll();
+
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public int drainTo(Collection<Object> argCollection, int argMaxElements, boolean argLIFO) {
+
+		gLock.lock();
+
+		try {
+			int		count	= 0;
+			Object	element	= null;
+
+			while ((count < argMaxElements) && ((element = remove()) != null)) {
+				argCollection.add(element);
+				count++;
+
+				// Sentinel is the last object of a closed store
+				if (element == gSentinel) {
+					break;
+				}
+			}
+
+			return count;
+
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public int getCapacity() {
+		return gCapacity;
+	}
+
+	/**
+	 * Get the time until the head element is due (lock must be held).
+	 *
+	 * @return	Nanoseconds (0 or less if due)
+	 */
+	private long getHeadDelay() {
+		return gDelayed ? gHeap.peek().gDueTimeNs - System.nanoTime() : 0;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return (size() == 0);
+	}
+
+	@Override
+	public boolean isPersistent() {
+		return false;
+	}
+
+	@Override
+	public boolean offer(Object argElement) {
+
+		gLock.lock();
+
+		try {
+			return add(argElement);
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public boolean offer(Object argElement, long argTimeOutMs) throws InterruptedException {
+
+		long timeOutNs = TimeUnit.MILLISECONDS.toNanos(argTimeOutMs);
+
+		gLock.lockInterruptibly();
+
+		try {
+			while (!add(argElement)) {
+
+				if ((timeOutNs <= 0) || (gSentinel != null)) {
+					return false;
+				}
+
+				timeOutNs = gNotFull.awaitNanos(timeOutNs);
+			}
+
+			return true;
+
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public int offerAll(List<?> argElements, int argStart) {
+
+		gLock.lock();
+
+		try {
+			int count = 0;
+
+			while ((argStart + count < argElements.size()) && add(argElements.get(argStart + count))) {
+				count++;
+			}
+
+			return count;
+
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public Object peek(boolean argLIFO) {
+
+		gLock.lock();
+
+		try {
+			if (gHeap.isEmpty()) {
+				return gSentinel;
+			}
+
+			return (getHeadDelay() > 0) ? null : gHeap.peek().gElement;
+
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public Object poll(boolean argLIFO) {
+
+		gLock.lock();
+
+		try {
+			return remove();
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public Object poll(boolean argLIFO, long argTimeOutMs) throws InterruptedException {
+
+		long timeOutNs = TimeUnit.MILLISECONDS.toNanos(argTimeOutMs);
+
+		gLock.lockInterruptibly();
+
+		try {
+			while (true) {
+
+				Object element = remove();
+
+				if (element != null) {
+					return element;
+				}
+
+				if (timeOutNs <= 0) {
+					return null;
+				}
+
+				long delayNs = gHeap.isEmpty() ? Long.MAX_VALUE : getHeadDelay();
+
+				if ((delayNs > timeOutNs) || (gLeader != null)) {
+
+					// Wait for a new element, an earlier head or the leader
+					timeOutNs = gNotEmpty.awaitNanos(timeOutNs);
+
+				} else {
+
+					// Become leader and wait until the head element is due
+					Thread thread = Thread.currentThread();
+					gLeader = thread;
+
+					try {
+						timeOutNs -= delayNs - gNotEmpty.awaitNanos(delayNs);
+					} finally {
+						if (gLeader == thread) {
+							gLeader = null;
+						}
+					}
+				}
+			}
+		} finally {
+
+			// Hand over the waiting for the next head element to another consumer
+			if ((gLeader == null) && !gHeap.isEmpty()) {
+				gNotEmpty.signal();
+			}
+
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public int size() {
+
+		gLock.lock();
+
+		try {
+			return gHeap.size();
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public Object take(boolean argLIFO) throws InterruptedException {
+		return poll(argLIFO, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Add element if there is space (lock must be held).
+	 *
+	 * @param	argElement	Element or Entry with priority or due time
+	 * @return	True if added, false if full or closed
+	 */
+	private boolean add(Object argElement) {
+
+		if ((gHeap.size() >= gCapacity) || (gSentinel != null)) {
+			return false;
+		}
+
+		Entry entry		= (argElement instanceof Entry) ? (Entry) argElement : new Entry(argElement, 0, 0);
+		entry.gSequence	= gSequence++;
+
+		gHeap.add(entry);
+
+		// Wake up a consumer (with a new leader if the element is the new head of the DELAYED mode)
+		if (!gDelayed) {
+			gNotEmpty.signal();
+		} else if (gHeap.peek() == entry) {
+			gLeader = null;
+			gNotEmpty.signal();
+		}
+
+		return true;
+	}
+
+	/**
+	 * Remove the head element if it is due (lock must be held).
+	 *
+	 * @return	Element, null if empty or not yet due or the sentinel if closed and empty
+	 */
+	private Object remove() {
+
+		if (gHeap.isEmpty()) {
+			return gSentinel;
+		}
+
+		if (getHeadDelay() > 0) {
+			return null;
+		}
+
+		gNotFull.signal();
+		return gHeap.poll().gElement;
+	}
+
+	/**
+	 * String representation of object.
+	 */
+	@Override
+	public String toString() {
+		return "KQueueHeapStore [gCapacity=" + gCapacity + ", gDelayed=" + gDelayed + ", size()=" + size() + "]";
+	}
+}
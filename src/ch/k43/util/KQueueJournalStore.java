@@ -0,0 +1,789 @@
+package ch.k43.util;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable KQueue storage based on a segmented journal of memory-mapped files. Supports only the FIFO order.<p>
+ *
+ * Notes:<br>
+ * - Each element (byte[] or Serializable) is appended as a record to the current segment file ({index}.kqj) of the journal directory.
+ *   Records contain their size, a CRC32C checksum, the element type and the element data (byte arrays as is, other objects in
+ *   the binary serialized form of K.serializeToBytes()).<br>
+ * - The journal position is a single long (segment index * SEGMENT_SIZE + offset). The consumer position confirmed by commit()
+ *   is saved in the checkpoint file (checkpoint.kqc).<br>
+ * - After a restart, all elements after the checkpoint are delivered again (at-least-once delivery). The journal is scanned up to
+ *   the first incomplete record, which is overwritten by the next element.<br>
+ * - commit() writes the journal and the checkpoint to disk and deletes all segments before the checkpoint (compaction).<br>
+ * - Records which cannot be deserialized (e.g. the class has changed since the element was written) are logged and skipped.<br>
+ * - The checkpoint file is locked, so a journal directory is used by only one queue at the same time.<br>
+ *
+ * @see KQueue
+ *
+ * @since 2026.10.17
+ */
+final class KQueueJournalStore implements KQueueStore {
+
+	// Declarations
+	static final			int									SEGMENT_SIZE		= 16 * 1_024 * 1_024;
+	private static final	int									HEADER_SIZE			= 9;					// Record size, CRC32C and type
+	private static final	int									END_OF_SEGMENT		= -1;
+	private static final	byte								TYPE_OBJECT			= 0;
+	private static final	byte								TYPE_BYTES			= 1;
+	private static final	String								SEGMENT_EXTENSION	= ".kqj";
+	private static final	String								CHECKPOINT_FILE		= "checkpoint.kqc";
+
+	private final			Path								gDirectory;
+	private final			int									gCapacity;
+	private final			TreeMap<Long, MappedByteBuffer>		gSegments			= new TreeMap<>();
+	private final			FileChannel							gCheckpointChannel;
+	private final			FileLock							gCheckpointLock;
+	private final			MappedByteBuffer					gCheckpoint;
+	private final			ReentrantLock						gLock				= new ReentrantLock();
+	private final			Condition							gNotEmpty			= gLock.newCondition();
+	private final			Condition							gNotFull			= gLock.newCondition();
+	private					long								gFirstSegment		= 0;
+	private					long								gReadPosition		= 0;
+	private					long								gWritePosition		= 0;
+	private					long								gCommitPosition		= 0;
+	private					int									gSize				= 0;
+	private volatile		Object								gSentinel			= null;
+
+	/**
+	 * Open or create the journal and recover the elements not yet committed.
+	 *
+	 * @param	argDirectory	Journal directory (created if missing)
+	 * @param	argCapacity		Maximum number of elements
+	 * @throws	IOException		If the journal could not be opened or is used by another queue
+	 */
+	KQueueJournalStore(String argDirectory, int argCapacity) throws IOException {
+
+		gDirectory	= Paths.get(argDirectory).toAbsolutePath();
+		gCapacity	= argCapacity;
+
+		Files.createDirectories(gDirectory);
+
+		// Open and lock checkpoint file
+		gCheckpointChannel = FileChannel.open(gDirectory.resolve(CHECKPOINT_FILE), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+		try {
+			FileLock lock = null;
+
+			try {
+				lock = gCheckpointChannel.tryLock();
+			} catch (OverlappingFileLockException e) {
+				// Locked by another queue of this process
+			}
+
+			if (lock == null) {
+				throw new IOException("Journal " + gDirectory + " is used by another queue");
+			}
+
+			gCheckpointLock = lock;
+
+			gCheckpoint = gCheckpointChannel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+			recover();
+
+		} catch (IOException | RuntimeException e) {
+			gCheckpointChannel.close();
+			throw e;
+		}
+	}
+
+	@Override
+	public void clear() {
+
+		gLock.lock();
+
+		try {
+			if (gSentinel != null) {
+				return;
+			}
+
+			// Skip all elements and commit
+			gReadPosition	= gWritePosition;
+			gSize			= 0;
+
+			commitPosition();
+			gNotFull.signalAll();
+
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	/**
+	 * Close the journal. All waiting and later calls get the sentinel instead of an element. The elements not committed
+	 * remain in the journal.
+	 *
+	 * @param	argSentinel	Object returned by poll(), peek() and take() after close
+	 */
+	@Override
+	public void close(Object argSentinel) {
+
+		gLock.lock();
+
+		try {
+			if (gSentinel != null) {
+				return;
+			}
+
+			gSentinel = argSentinel;
+
+			// Write journal and checkpoint to disk
+			for (MappedByteBuffer segment : gSegments.values()) {
+				segment.force();
+			}
+
+			gCheckpoint.force();
+
+			for (MappedByteBuffer segment : gSegments.values()) {
+				KFile.unmap(segment);
+			}
+
+			gSegments.clear();
+
+			try {
+				gCheckpointLock.release();
+				gCheckpointChannel.close();
+			} catch (IOException e) {
+				KLog.error("Unable to close journal {}: {}", gDirectory, e.toString());
+			}
+
+			// Wake up all waiting threads
+			gNotEmpty.signalAll();
+			gNotFull.signalAll();
+
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	/**
+	 * Confirm that all elements taken so far have been processed. The elements are not delivered again after a restart.
+	 */
+	void commit() {
+
+		gLock.lock();
+
+		try {
+			if (gSentinel == null) {
+				commitPosition();
+			}
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	/**
+	 * Save the read position as checkpoint, write it to disk and delete all segments before it (lock must be held).
+	 */
+	private void commitPosition() {
+
+		// Write journal first, so the checkpoint never points behind the data on disk
+		for (MappedByteBuffer segment : gSegments.tailMap(gCommitPosition / SEGMENT_SIZE).values()) {
+			segment.force();
+		}
+
+		gCommitPosition = gReadPosition;
+		gCheckpoint.putLong(0, gCommitPosition);
+		gCheckpoint.force();
+
+		// Delete segments which are completely committed (unmapped first, a mapped file cannot be deleted on Windows)
+		while (gFirstSegment < gCommitPosition / SEGMENT_SIZE) {
+
+			KFile.unmap(gSegments.remove(gFirstSegment));
+
+			try {
+				Files.deleteIfExists(getSegmentPath(gFirstSegment));
+			} catch (IOException e) {
+				// Retried with the next commit
+				KLog.error("Unable to delete journal segment {}: {}", getSegmentPath(gFirstSegment), e.toString());
+				break;
+			}
+
+			gFirstSegment++;
+		}
+	}
+
+	/**
+	 * Decode the record data. Records which cannot be deserialized are logged and must be skipped by the caller.
+	 *
+	 * @param	argRecord	Element type and element data
+	 * @return	Element or null for errors
+	 */
+	private Object decode(byte[] argRecord) {
+
+		byte[] data = Arrays.copyOfRange(argRecord, 1, argRecord.length);
+
+		if (argRecord[0] == TYPE_BYTES) {
+			return data;
+		}
+
+		Object element = K.deserializeFromBytes(data);
+
+		if (element == null) {
+			KLog.error("Journal {} record with {} bytes could not be deserialized and is skipped", gDirectory, data.length);
+		}
+
+		return element;
+	}
+
+	@Override
+	public int drainTo(Collection<Object> argCollection, int argMaxElements, boolean argLIFO) {
+
+		// Check argument
+		KLog.argException(argLIFO, "Durable queue supports only FIFO order");
+
+		ArrayList<byte[]> records = new ArrayList<>(Math.min(argMaxElements, gSize + 1));
+
+		gLock.lock();
+
+		try {
+			if (gSentinel != null) {
+				argCollection.add(gSentinel);
+				return 1;
+			}
+
+			while ((records.size() < argMaxElements) && (gSize > 0)) {
+				records.add(read(true));
+			}
+
+			if (!records.isEmpty()) {
+				gNotFull.signalAll();
+			}
+
+		} finally {
+			gLock.unlock();
+		}
+
+		// Decode without holding the lock (records which cannot be decoded are skipped)
+		int count = 0;
+
+		for (byte[] record : records) {
+
+			Object element = decode(record);
+
+			if (element != null) {
+				argCollection.add(element);
+				count++;
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * Encode the element as a complete record.
+	 *
+	 * @param	argElement	Element (byte[] or Serializable)
+	 * @return	Record
+	 */
+	private static byte[] encode(Object argElement) {
+
+		// Check argument
+		KLog.argException(!(argElement instanceof Serializable), "Durable queue element must be a byte array or serializable");
+
+		byte	type	= (argElement instanceof byte[]) ? TYPE_BYTES : TYPE_OBJECT;
+		byte[]	data	= (type == TYPE_BYTES) ? (byte[]) argElement : K.serializeToBytes((Serializable) argElement);
+
+		// An empty byte array is stored as record without data
+		KLog.argException((type == TYPE_OBJECT) && (data.length == 0), "Durable queue element could not be serialized");
+		KLog.argException(data.length > SEGMENT_SIZE - HEADER_SIZE, "Durable queue element must not exceed {} bytes", SEGMENT_SIZE - HEADER_SIZE);
+
+		byte[] record = new byte[HEADER_SIZE + data.length];
+
+		record[8] = type;
+		System.arraycopy(data, 0, record, HEADER_SIZE, data.length);
+
+		// Checksum of type and data
+		CRC32C checksum = new CRC32C();
+
+		checksum.update(record, 8, record.length - 8);
+		putInt(record, 0, record.length);
+		putInt(record, 4, (int) checksum.getValue());
+
+		return record;
+	}
+
+	@Override
+	public int getCapacity() {
+		return gCapacity;
+	}
+
+	/**
+	 * Get the mapped segment and create the segment file if necessary (lock must be held).
+	 *
+	 * @param	argIndex	Segment index
+	 * @return	Mapped segment
+	 * @throws	IOException	If the segment file could not be created or mapped
+	 */
+	private MappedByteBuffer getSegment(long argIndex) throws IOException {
+
+		MappedByteBuffer segment = gSegments.get(argIndex);
+
+		if (segment == null) {
+
+			// The mapping remains valid after the channel is closed
+			try (FileChannel channel = FileChannel.open(getSegmentPath(argIndex), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_SIZE);
+			}
+
+			gSegments.put(argIndex, segment);
+		}
+
+		return segment;
+	}
+
+	/**
+	 * Get the file name of a segment.
+	 *
+	 * @param	argIndex	Segment index
+	 * @return	Path
+	 */
+	private Path getSegmentPath(long argIndex) {
+		return gDirectory.resolve(String.format("%012d%s", argIndex, SEGMENT_EXTENSION));
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return (size() == 0);
+	}
+
+	@Override
+	public boolean isPersistent() {
+		return true;
+	}
+
+	@Override
+	public boolean offer(Object argElement) {
+
+		// Reject without encoding if closed (e.g. the sentinel placed back by KQueue)
+		if (gSentinel != null) {
+			return false;
+		}
+
+		byte[] record = encode(argElement);
+
+		gLock.lock();
+
+		try {
+			return write(record);
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public boolean offer(Object argElement, long argTimeOutMs) throws InterruptedException {
+
+		if (gSentinel != null) {
+			return false;
+		}
+
+		byte[]	record		= encode(argElement);
+		long	timeOutNs	= TimeUnit.MILLISECONDS.toNanos(argTimeOutMs);
+
+		gLock.lockInterruptibly();
+
+		try {
+			while (!write(record)) {
+
+				if ((timeOutNs <= 0) || (gSentinel != null)) {
+					return false;
+				}
+
+				timeOutNs = gNotFull.awaitNanos(timeOutNs);
+			}
+
+			return true;
+
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public int offerAll(List<?> argElements, int argStart) {
+
+		if (gSentinel != null) {
+			return 0;
+		}
+
+		// Encode without holding the lock
+		ArrayList<byte[]> records = new ArrayList<>(argElements.size() - argStart);
+
+		for (int index = argStart; index < argElements.size(); index++) {
+			records.add(encode(argElements.get(index)));
+		}
+
+		gLock.lock();
+
+		try {
+			int count = 0;
+
+			while ((count < records.size()) && write(records.get(count))) {
+				count++;
+			}
+
+			return count;
+
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public Object peek(boolean argLIFO) {
+
+		// Check argument
+		KLog.argException(argLIFO, "Durable queue supports only FIFO order");
+
+		while (true) {
+
+			long	position	= 0;
+			byte[]	record		= null;
+
+			gLock.lock();
+
+			try {
+				if (gSentinel != null) {
+					return gSentinel;
+				}
+
+				if (gSize == 0) {
+					return null;
+				}
+
+				position	= gReadPosition;
+				record		= read(false);
+
+			} finally {
+				gLock.unlock();
+			}
+
+			Object element = decode(record);
+
+			if (element != null) {
+				return element;
+			}
+
+			// Skip the record if it was not taken by another thread in the meantime
+			gLock.lock();
+
+			try {
+				if ((gSentinel == null) && (gSize > 0) && (gReadPosition == position)) {
+					read(true);
+					gNotFull.signal();
+				}
+			} finally {
+				gLock.unlock();
+			}
+		}
+	}
+
+	@Override
+	public Object poll(boolean argLIFO) {
+
+		// Check argument
+		KLog.argException(argLIFO, "Durable queue supports only FIFO order");
+
+		while (true) {
+
+			byte[] record = null;
+
+			gLock.lock();
+
+			try {
+				if (gSentinel != null) {
+					return gSentinel;
+				}
+
+				if (gSize == 0) {
+					return null;
+				}
+
+				record = read(true);
+				gNotFull.signal();
+
+			} finally {
+				gLock.unlock();
+			}
+
+			// Skip records which cannot be decoded
+			Object element = decode(record);
+
+			if (element != null) {
+				return element;
+			}
+		}
+	}
+
+	@Override
+	public Object poll(boolean argLIFO, long argTimeOutMs) throws InterruptedException {
+
+		// Check argument
+		KLog.argException(argLIFO, "Durable queue supports only FIFO order");
+
+		long timeOutNs = TimeUnit.MILLISECONDS.toNanos(argTimeOutMs);
+
+		while (true) {
+
+			byte[] record = null;
+
+			gLock.lockInterruptibly();
+
+			try {
+				while ((gSize == 0) && (gSentinel == null)) {
+
+					if (timeOutNs <= 0) {
+						return null;
+					}
+
+					timeOutNs = gNotEmpty.awaitNanos(timeOutNs);
+				}
+
+				if (gSentinel != null) {
+					return gSentinel;
+				}
+
+				record = read(true);
+				gNotFull.signal();
+
+			} finally {
+				gLock.unlock();
+			}
+
+			// Skip records which cannot be decoded (waiting at most for the remaining time)
+			Object element = decode(record);
+
+			if (element != null) {
+				return element;
+			}
+		}
+	}
+
+	/**
+	 * Store an int in big-endian byte order (as ByteBuffer.getInt() reads it).
+	 *
+	 * @param	argBuffer	Buffer
+	 * @param	argOffset	Offset
+	 * @param	argValue	Value
+	 */
+	private static void putInt(byte[] argBuffer, int argOffset, int argValue) {
+		argBuffer[argOffset]		= (byte) (argValue >>> 24);
+		argBuffer[argOffset + 1]	= (byte) (argValue >>> 16);
+		argBuffer[argOffset + 2]	= (byte) (argValue >>> 8);
+		argBuffer[argOffset + 3]	= (byte) argValue;
+	}
+
+	/**
+	 * Read the next record at the read position (lock must be held and the store must not be empty).
+	 *
+	 * @param	argRemove	True to advance the read position, false to leave the record in the store
+	 * @return	Element type and element data
+	 */
+	private byte[] read(boolean argRemove) {
+
+		long position = gReadPosition;
+
+		try {
+			while (true) {
+
+				MappedByteBuffer	segment	= getSegment(position / SEGMENT_SIZE);
+				int					offset	= (int) (position % SEGMENT_SIZE);
+
+				// Skip to the next segment if no record fits or the end is marked
+				if ((offset + HEADER_SIZE > SEGMENT_SIZE) || (segment.getInt(offset) == END_OF_SEGMENT)) {
+					position = (position / SEGMENT_SIZE + 1) * SEGMENT_SIZE;
+					continue;
+				}
+
+				int		recordSize	= segment.getInt(offset);
+				byte[]	record		= new byte[recordSize - 8];
+
+				segment.get(offset + 8, record);
+
+				if (argRemove) {
+					gReadPosition = position + recordSize;
+					gSize--;
+				}
+
+				return record;
+			}
+		} catch (IOException e) {
+			// Segment was mapped during recovery or by write()
+			throw new IllegalStateException("Journal segment " + getSegmentPath(position / SEGMENT_SIZE) + " not readable", e);
+		}
+	}
+
+	/**
+	 * Find the segments, read the checkpoint and scan the journal up to the last complete record.
+	 *
+	 * @throws	IOException	If a segment file could not be read
+	 */
+	private void recover() throws IOException {
+
+		long firstSegment	= Long.MAX_VALUE;
+		long lastSegment	= -1;
+
+		// Find segment files
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(gDirectory, "*" + SEGMENT_EXTENSION)) {
+
+			for (Path path : stream) {
+
+				String name = path.getFileName().toString();
+
+				try {
+					long index		= Long.parseLong(name.substring(0, name.length() - SEGMENT_EXTENSION.length()));
+					firstSegment	= Math.min(firstSegment, index);
+					lastSegment		= Math.max(lastSegment, index);
+				} catch (NumberFormatException e) {
+					KLog.error("Journal file {} ignored", path);
+				}
+			}
+		}
+
+		long position = gCheckpoint.getLong(0);
+
+		if ((lastSegment >= 0) && (position < firstSegment * SEGMENT_SIZE)) {
+			position = firstSegment * SEGMENT_SIZE;
+		}
+
+		gFirstSegment	= position / SEGMENT_SIZE;
+		gCommitPosition	= position;
+		gReadPosition	= position;
+
+		// Count the complete records after the checkpoint
+		CRC32C checksum = new CRC32C();
+
+		while (position / SEGMENT_SIZE <= lastSegment) {
+
+			MappedByteBuffer	segment		= getSegment(position / SEGMENT_SIZE);
+			int					offset		= (int) (position % SEGMENT_SIZE);
+
+			if ((offset + HEADER_SIZE > SEGMENT_SIZE) || (segment.getInt(offset) == END_OF_SEGMENT)) {
+				position = (position / SEGMENT_SIZE + 1) * SEGMENT_SIZE;
+				continue;
+			}
+
+			int recordSize = segment.getInt(offset);
+
+			if (recordSize == 0) {
+				break;
+			}
+
+			// Check record size (an empty byte array has no data) and checksum
+			boolean valid = (recordSize >= HEADER_SIZE) && (recordSize <= SEGMENT_SIZE - offset);
+
+			if (valid) {
+				checksum.reset();
+				checksum.update(segment.slice(offset + 8, recordSize - 8));
+				valid = ((int) checksum.getValue() == segment.getInt(offset + 4));
+			}
+
+			// Incomplete record written before a crash: Clear the rest of the segment
+			if (!valid) {
+				KLog.error("Incomplete record in journal segment {} at offset {} removed", getSegmentPath(position / SEGMENT_SIZE), offset);
+				segment.put(offset, new byte[SEGMENT_SIZE - offset]);
+				break;
+			}
+
+			position += recordSize;
+			gSize++;
+		}
+
+		gWritePosition = position;
+
+		KLog.debug("Journal {} opened with {} elements", gDirectory, gSize);
+	}
+
+	@Override
+	public int size() {
+
+		gLock.lock();
+
+		try {
+			return gSize;
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public Object take(boolean argLIFO) throws InterruptedException {
+		return poll(argLIFO, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Append the record at the write position if there is space (lock must be held).
+	 *
+	 * @param	argRecord	Complete record
+	 * @return	True if written, false if full or closed
+	 */
+	private boolean write(byte[] argRecord) {
+
+		if ((gSize >= gCapacity) || (gSentinel != null)) {
+			return false;
+		}
+
+		long	position	= gWritePosition;
+		int		offset		= (int) (position % SEGMENT_SIZE);
+
+		try {
+			// Mark the end of the segment and continue with the next one if the record does not fit
+			if (offset + argRecord.length > SEGMENT_SIZE) {
+
+				if (offset + Integer.BYTES <= SEGMENT_SIZE) {
+					getSegment(position / SEGMENT_SIZE).putInt(offset, END_OF_SEGMENT);
+				}
+
+				position	= (position / SEGMENT_SIZE + 1) * SEGMENT_SIZE;
+				offset		= 0;
+			}
+
+			MappedByteBuffer segment = getSegment(position / SEGMENT_SIZE);
+
+			// Write record size last, so readers after a crash never see a size without data
+			segment.put(offset + 4, argRecord, 4, argRecord.length - 4);
+			segment.putInt(offset, argRecord.length);
+
+		} catch (IOException e) {
+			KLog.error("Unable to write journal segment {}: {}", getSegmentPath(position / SEGMENT_SIZE), e.toString());
+			return false;
+		}
+
+		gWritePosition = position + argRecord.length;
+		gSize++;
+		gNotEmpty.signal();
+		return true;
+	}
+
+	/**
+	 * String representation of object.
+	 */
+	@Override
+	public String toString() {
+		return "KQueueJournalStore [gDirectory=" + gDirectory + ", gCapacity=" + gCapacity + ", gFirstSegment=" + gFirstSegment
+				+ ", gReadPosition=" + gReadPosition + ", gWritePosition=" + gWritePosition + ", gCommitPosition=" + gCommitPosition
+				+ ", size()=" + size() + "]";
+	}
+}
@@ -0,0 +1,90 @@
+package ch.k43.util;
+
+/**
+ * JMX interface of a KQueue registered with KQueue.registerMBean(). The values are taken from a new KQueueMetrics snapshot for each call.
+ *
+ * @see KQueue
+ * @see KQueueMetrics
+ *
+ * @since 2026.10.17
+ */
+public interface KQueueMXBean {
+
+	/**
+	 * Get the average time in queue of the taken elements.
+	 *
+	 * @return	Nanoseconds (0 if not recorded)
+	 */
+	long getAverageTimeInQueueNs();
+
+	/**
+	 * Get the average wait time of consumers.
+	 *
+	 * @return	Nanoseconds (0 if not recorded)
+	 */
+	long getAverageWaitTimeNs();
+
+	/**
+	 * Get the maximum number of elements.
+	 *
+	 * @return	Capacity
+	 */
+	int getCapacity();
+
+	/**
+	 * Get the number of taken elements.
+	 *
+	 * @return	Number of elements
+	 */
+	long getGetCount();
+
+	/**
+	 * Get the highest number of elements after an element was added. KQueue samples the size on 1 of 64 added elements on
+	 * average and whenever the metrics are taken.
+	 *
+	 * @return	Number of elements (0 if not recorded)
+	 */
+	long getHighWaterMark();
+
+	/**
+	 * Get the maximum time in queue of the taken elements.
+	 *
+	 * @return	Nanoseconds (0 if not recorded)
+	 */
+	long getMaxTimeInQueueNs();
+
+	/**
+	 * Get the number of added elements.
+	 *
+	 * @return	Number of elements
+	 */
+	long getPutCount();
+
+	/**
+	 * Get the queue name.
+	 *
+	 * @return	Queue name
+	 */
+	String getQueueName();
+
+	/**
+	 * Get the number of elements rejected or removed because the queue was full.
+	 *
+	 * @return	Number of elements
+	 */
+	long getRejectedCount();
+
+	/**
+	 * Get the number of elements in the queue.
+	 *
+	 * @return	Number of elements
+	 */
+	int getSize();
+
+	/**
+	 * Get the time in queue histogram (see KQueueMetrics.getHistogramLimitsNs()).
+	 *
+	 * @return	Number of elements per bucket
+	 */
+	long[] getTimeInQueueHistogram();
+}
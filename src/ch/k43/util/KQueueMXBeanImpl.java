@@ -0,0 +1,86 @@
+package ch.k43.util;
+
+/**
+ * JMX bean of a KQueue.
+ *
+ * @see KQueueMXBean
+ *
+ * @since 2026.10.17
+ */
+final class KQueueMXBeanImpl implements KQueueMXBean {
+
+	// Declarations
+	private final	KQueue	gQueue;
+
+	/**
+	 * Create bean.
+	 *
+	 * @param	argQueue	Queue
+	 */
+	KQueueMXBeanImpl(KQueue argQueue) {
+		gQueue = argQueue;
+	}
+
+	@Override
+	public long getAverageTimeInQueueNs() {
+		return gQueue.getMetrics().getAverageTimeInQueueNs();
+	}
+
+	@Override
+	public long getAverageWaitTimeNs() {
+		return gQueue.getMetrics().getAverageWaitTimeNs();
+	}
+
+	@Override
+	public int getCapacity() {
+		return gQueue.getCapacity();
+	}
+
+	@Override
+	public long getGetCount() {
+		return gQueue.getMetrics().getGetCount();
+	}
+
+	@Override
+	public long getHighWaterMark() {
+		return gQueue.getMetrics().getHighWaterMark();
+	}
+
+	@Override
+	public long getMaxTimeInQueueNs() {
+		return gQueue.getMetrics().getMaxTimeInQueueNs();
+	}
+
+	@Override
+	public long getPutCount() {
+		return gQueue.getMetrics().getPutCount();
+	}
+
+	@Override
+	public String getQueueName() {
+		return gQueue.getName();
+	}
+
+	@Override
+	public long getRejectedCount() {
+		return gQueue.getRejectedCount();
+	}
+
+	@Override
+	public int getSize() {
+		return gQueue.getMetrics().getSize();
+	}
+
+	@Override
+	public long[] getTimeInQueueHistogram() {
+		return gQueue.getMetrics().getTimeInQueueHistogram();
+	}
+
+	/**
+	 * String representation of object.
+	 */
+	@Override
+	public String toString() {
+		return "KQueueMXBeanImpl [gQueue=" + gQueue.getName() + "]";
+	}
+}
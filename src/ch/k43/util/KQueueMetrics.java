@@ -0,0 +1,252 @@
+package ch.k43.util;
+
+import java.util.Arrays;
+
+/**
+ * Snapshot of the metrics of a KQueue returned by KQueue.getMetrics() and KQueue.getAllMetrics().<p>
+ *
+ * The number of added, taken and rejected elements is always available. The high-water mark, the consumer wait time and the
+ * time in queue are only recorded if the queue was created with the option METRICS (the time in queue not for durable queues).<p>
+ *
+ * <pre>
+ * Example:
+ *
+ * KQueue queue = new KQueue("Orders", KQueue.FIFO | KQueue.METRICS);
+ * ...
+ * for (KQueueMetrics metrics : KQueue.getAllMetrics()) {
+ *    System.out.println(metrics.getQueueName() + ": " + metrics.getSize() + " elements, " + metrics.getAverageTimeInQueueNs() + " ns");
+ * }
+ * </pre>
+ *
+ * @see KQueue
+ *
+ * @since 2026.10.17
+ */
+public final class KQueueMetrics {
+
+	// Declarations
+	private final	String	gQueueName;
+	private final	long	gTime;
+	private final	boolean	gDetailed;
+	private final	int		gSize;
+	private final	int		gCapacity;
+	private final	long	gPutCount;
+	private final	long	gGetCount;
+	private final	long	gRejectedCount;
+	private final	long	gHighWaterMark;
+	private final	long	gWaitCount;
+	private final	long	gWaitTimeNs;
+	private final	long	gTimeInQueueNs;
+	private final	long	gMaxTimeInQueueNs;
+	private final	long[]	gHistogram;
+
+	/**
+	 * Create snapshot.
+	 *
+	 * @param	argQueueName		Queue name
+	 * @param	argSize				Number of elements
+	 * @param	argCapacity			Capacity
+	 * @param	argRejectedCount	Number of rejected elements
+	 * @param	argMonitor			Metric counters of the queue
+	 */
+	KQueueMetrics(String argQueueName, int argSize, int argCapacity, long argRejectedCount, KQueueMonitor argMonitor) {
+
+		gQueueName			= argQueueName;
+		gTime				= System.currentTimeMillis();
+		gDetailed			= argMonitor.gDetailed;
+		gSize				= argSize;
+		gCapacity			= argCapacity;
+		gPutCount			= argMonitor.gPutCount.sum();
+		gGetCount			= argMonitor.gGetCount.sum();
+		gRejectedCount		= argRejectedCount;
+		gHighWaterMark		= argMonitor.gHighWaterMark.get();
+		gWaitCount			= argMonitor.gWaitCount.sum();
+		gWaitTimeNs			= argMonitor.gWaitTimeNs.sum();
+		gTimeInQueueNs		= argMonitor.gTimeInQueueNs.sum();
+		gMaxTimeInQueueNs	= argMonitor.gMaxTimeInQueueNs.get();
+		gHistogram			= new long[argMonitor.gHistogram.length];
+
+		for (int index = 0; index < gHistogram.length; index++) {
+			gHistogram[index] = argMonitor.gHistogram[index].sum();
+		}
+	}
+
+	/**
+	 * Get the average time in queue of the taken elements.
+	 *
+	 * @return	Nanoseconds (0 if not recorded)
+	 */
+	public long getAverageTimeInQueueNs() {
+
+		long count = getTimeInQueueCount();
+
+		return (count == 0) ? 0 : gTimeInQueueNs / count;
+	}
+
+	/**
+	 * Get the average wait time of consumers.
+	 *
+	 * @return	Nanoseconds (0 if not recorded)
+	 */
+	public long getAverageWaitTimeNs() {
+		return (gWaitCount == 0) ? 0 : gWaitTimeNs / gWaitCount;
+	}
+
+	/**
+	 * Get the maximum number of elements.
+	 *
+	 * @return	Capacity or KQueue.UNBOUNDED
+	 */
+	public int getCapacity() {
+		return gCapacity;
+	}
+
+	/**
+	 * Get the number of taken elements.
+	 *
+	 * @return	Number of elements
+	 */
+	public long getGetCount() {
+		return gGetCount;
+	}
+
+	/**
+	 * Get the highest number of elements after an element was added. KQueue samples the size on 1 of 64 added elements on
+	 * average and whenever the metrics are taken.
+	 *
+	 * @return	Number of elements (0 if not recorded)
+	 */
+	public long getHighWaterMark() {
+		return gHighWaterMark;
+	}
+
+	/**
+	 * Get the upper limits of the time in queue histogram buckets. The last bucket of the histogram has no upper limit.
+	 *
+	 * @return	Limits in nanoseconds
+	 */
+	public static long[] getHistogramLimitsNs() {
+		return KQueueMonitor.HISTOGRAM_LIMITS_NS.clone();
+	}
+
+	/**
+	 * Get the maximum time in queue of the taken elements.
+	 *
+	 * @return	Nanoseconds (0 if not recorded)
+	 */
+	public long getMaxTimeInQueueNs() {
+		return gMaxTimeInQueueNs;
+	}
+
+	/**
+	 * Get the number of added elements.
+	 *
+	 * @return	Number of elements
+	 */
+	public long getPutCount() {
+		return gPutCount;
+	}
+
+	/**
+	 * Get the queue name.
+	 *
+	 * @return	Queue name
+	 */
+	public String getQueueName() {
+		return gQueueName;
+	}
+
+	/**
+	 * Get the number of elements rejected or removed because the queue was full.
+	 *
+	 * @return	Number of elements
+	 */
+	public long getRejectedCount() {
+		return gRejectedCount;
+	}
+
+	/**
+	 * Get the number of elements in the queue.
+	 *
+	 * @return	Number of elements
+	 */
+	public int getSize() {
+		return gSize;
+	}
+
+	/**
+	 * Get the time of the snapshot.
+	 *
+	 * @return	Milliseconds since epoch
+	 */
+	public long getTime() {
+		return gTime;
+	}
+
+	/**
+	 * Get the number of taken elements with recorded time in queue.
+	 *
+	 * @return	Number of elements
+	 */
+	public long getTimeInQueueCount() {
+
+		long count = 0;
+
+		for (long bucketCount : gHistogram) {
+			count += bucketCount;
+		}
+
+		return count;
+	}
+
+	/**
+	 * Get the time in queue histogram. Bucket i counts the elements with a time in queue up to getHistogramLimitsNs()[i]
+	 * (and above the limit of bucket i - 1).
+	 *
+	 * @return	Number of elements per bucket
+	 */
+	public long[] getTimeInQueueHistogram() {
+		return gHistogram.clone();
+	}
+
+	/**
+	 * Get the number of waits of consumers for an element.
+	 *
+	 * @return	Number of waits
+	 */
+	public long getWaitCount() {
+		return gWaitCount;
+	}
+
+	/**
+	 * Get the total wait time of consumers.
+	 *
+	 * @return	Nanoseconds
+	 */
+	public long getWaitTimeNs() {
+		return gWaitTimeNs;
+	}
+
+	/**
+	 * Check if the detailed metrics (high-water mark, wait time and time in queue) are recorded.
+	 *
+	 * @return	True if recorded, false otherwise
+	 */
+	public boolean isDetailed() {
+		return gDetailed;
+	}
+
+	/**
+	 * String representation of object.
+	 *
+	 * @return	Object representation
+	 */
+	@Override
+	public String toString() {
+		return "KQueueMetrics [gQueueName=" + gQueueName + ", gTime=" + gTime + ", gDetailed=" + gDetailed + ", gSize=" + gSize
+				+ ", gCapacity=" + gCapacity + ", gPutCount=" + gPutCount + ", gGetCount=" + gGetCount + ", gRejectedCount=" + gRejectedCount
+				+ ", gHighWaterMark=" + gHighWaterMark + ", gWaitCount=" + gWaitCount + ", gWaitTimeNs=" + gWaitTimeNs
+				+ ", gTimeInQueueNs=" + gTimeInQueueNs + ", gMaxTimeInQueueNs=" + gMaxTimeInQueueNs
+				+ ", gHistogram=" + Arrays.toString(gHistogram) + "]";
+	}
+}
@@ -0,0 +1,221 @@
+package ch.k43.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metric counters of a KQueue.<p>
+ *
+ * Notes:<br>
+ * - The number of added and taken elements is always counted. All counters are LongAdder objects, so concurrent producers and
+ *   consumers do not contend on a single counter.<br>
+ * - Detailed metrics (KQueue option METRICS) additionally record the high-water mark, the wait time of consumers and the time
+ *   in queue of each element. For the time in queue, elements are wrapped with their enqueue time while they are stored.<br>
+ * - The size of a KQueue store may require a lock or counting the elements, so the high-water mark samples it on 1 of 64 added
+ *   elements on average and whenever the metrics are taken.<br>
+ *
+ * @see KQueue
+ * @see KQueueMetrics
+ *
+ * @since 2026.10.17
+ */
+final class KQueueMonitor {
+
+	/**
+	 * Element with its enqueue time.
+	 */
+	static final class Stamp {
+
+		private final	Object	gElement;
+		private final	long	gTimeNs		= System.nanoTime();
+
+		/**
+		 * Create stamp.
+		 *
+		 * @param	argElement	Element
+		 */
+		Stamp(Object argElement) {
+			gElement = argElement;
+		}
+
+		/**
+		 * String representation of object.
+		 */
+		@Override
+		public String toString() {
+			return "Stamp [gElement=" + gElement + ", gTimeNs=" + gTimeNs + "]";
+		}
+	}
+
+	// Upper limits of the time in queue histogram buckets (the last bucket has no limit)
+	static final			long[]			HISTOGRAM_LIMITS_NS	= {10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L, 10_000_000_000L};
+	static final			int				SIZE_SAMPLE_RATE	= 64;
+
+	// Declarations (read by KQueueMetrics)
+	final					boolean			gDetailed;
+	final					boolean			gStamping;
+	final					LongAdder		gPutCount			= new LongAdder();
+	final					LongAdder		gGetCount			= new LongAdder();
+	final					LongAdder		gWaitCount			= new LongAdder();
+	final					LongAdder		gWaitTimeNs			= new LongAdder();
+	final					LongAdder		gTimeInQueueNs		= new LongAdder();
+	final					LongAccumulator	gMaxTimeInQueueNs	= new LongAccumulator(Math::max, 0);
+	final					LongAccumulator	gHighWaterMark		= new LongAccumulator(Math::max, 0);
+	final					LongAdder[]		gHistogram			= new LongAdder[HISTOGRAM_LIMITS_NS.length + 1];
+
+	/**
+	 * Create monitor.
+	 *
+	 * @param	argDetailed	True to record the detailed metrics
+	 * @param	argStamping	True to wrap the elements with their enqueue time (detailed metrics of queues in memory)
+	 */
+	KQueueMonitor(boolean argDetailed, boolean argStamping) {
+
+		gDetailed	= argDetailed;
+		gStamping	= argStamping;
+
+		for (int index = 0; index < gHistogram.length; index++) {
+			gHistogram[index] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Count added elements and sample the size of the store for the high-water mark.
+	 *
+	 * @param	argCount	Number of elements added
+	 * @param	argStore	Store of the queue
+	 */
+	void recordPut(int argCount, KQueueStore argStore) {
+
+		if (argCount <= 0) {
+			return;
+		}
+
+		gPutCount.add(argCount);
+
+		if (gDetailed && (ThreadLocalRandom.current().nextInt(SIZE_SAMPLE_RATE) < argCount)) {
+			gHighWaterMark.accumulate(argStore.size());
+		}
+	}
+
+	/**
+	 * Count an added element and update the high-water mark (queues of primitive values).
+	 *
+	 * @param	argSize	Number of elements after the element was added
+	 */
+	void recordPut(int argSize) {
+
+		gPutCount.increment();
+
+		if (gDetailed) {
+			gHighWaterMark.accumulate(argSize);
+		}
+	}
+
+	/**
+	 * Update the high-water mark with the current size (e.g. when the metrics are taken).
+	 *
+	 * @param	argSize	Number of elements
+	 */
+	void recordSize(int argSize) {
+
+		if (gDetailed) {
+			gHighWaterMark.accumulate(argSize);
+		}
+	}
+
+	/**
+	 * Count a taken element and record its time in queue.
+	 *
+	 * @param	argElement	Element taken from the store (may be null)
+	 * @return	Element without stamp
+	 */
+	Object recordGet(Object argElement) {
+
+		if (argElement == null) {
+			return null;
+		}
+
+		gGetCount.increment();
+
+		if (!(argElement instanceof Stamp)) {
+			return argElement;
+		}
+
+		Stamp stamp = (Stamp) argElement;
+
+		recordTimeInQueue(stamp.gTimeNs);
+		return stamp.gElement;
+	}
+
+	/**
+	 * Record the time in queue of a taken element.
+	 *
+	 * @param	argEnqueueTimeNs	Enqueue time (System.nanoTime())
+	 */
+	void recordTimeInQueue(long argEnqueueTimeNs) {
+
+		long	timeNs	= System.nanoTime() - argEnqueueTimeNs;
+		int		bucket	= 0;
+
+		while ((bucket < HISTOGRAM_LIMITS_NS.length) && (timeNs > HISTOGRAM_LIMITS_NS[bucket])) {
+			bucket++;
+		}
+
+		gHistogram[bucket].increment();
+		gTimeInQueueNs.add(timeNs);
+		gMaxTimeInQueueNs.accumulate(timeNs);
+	}
+
+	/**
+	 * Record the wait time of a consumer.
+	 *
+	 * @param	argStartTimeNs	Value of startWait() before the wait
+	 */
+	void recordWait(long argStartTimeNs) {
+
+		if (gDetailed) {
+			gWaitCount.increment();
+			gWaitTimeNs.add(System.nanoTime() - argStartTimeNs);
+		}
+	}
+
+	/**
+	 * Wrap the element with its enqueue time if required.
+	 *
+	 * @param	argElement	Element
+	 * @return	Element or Stamp
+	 */
+	Object stamp(Object argElement) {
+		return gStamping ? new Stamp(argElement) : argElement;
+	}
+
+	/**
+	 * Get the start time of a consumer wait.
+	 *
+	 * @return	Time in nanoseconds or 0 if not recorded
+	 */
+	long startWait() {
+		return gDetailed ? System.nanoTime() : 0;
+	}
+
+	/**
+	 * Get the element without stamp (e.g. for peek() or comparators).
+	 *
+	 * @param	argElement	Element or Stamp
+	 * @return	Element
+	 */
+	static Object unwrap(Object argElement) {
+		return (argElement instanceof Stamp) ? ((Stamp) argElement).gElement : argElement;
+	}
+
+	/**
+	 * String representation of object.
+	 */
+	@Override
+	public String toString() {
+		return "KQueueMonitor [gDetailed=" + gDetailed + ", gStamping=" + gStamping + ", gPutCount=" + gPutCount.sum()
+				+ ", gGetCount=" + gGetCount.sum() + ", gHighWaterMark=" + gHighWaterMark.get() + "]";
+	}
+}
@@ -0,0 +1,392 @@
+package ch.k43.util;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lock-free KQueue storage based on a bounded multi-producer/multi-consumer array ring. Supports only the FIFO order.<p>
+ *
+ * Notes:<br>
+ * - Each slot has a sequence number which tells producers and consumers if the slot is free or filled for the current lap.
+ *   Producers and consumers claim a slot with a single CAS on the tail or head counter, so no lock is taken while elements flow.<br>
+ * - The head and tail counters are stored far apart in one array to keep them on different cache lines.<br>
+ * - The capacity is rounded up to the next power of two.<br>
+ * - Threads which must wait (store empty or full) spin briefly on multi-processor systems and then park on a lock condition.
+ *   The lock is only touched by the other side if a waiter is registered.<br>
+ * - close() sets a flag bit in the tail counter, so no producer can claim a slot afterwards. Consumers return the sentinel
+ *   once the head has reached the tail, after the slots claimed before close() have been filled and taken.<br>
+ *
+ * @see KQueue
+ *
+ * @since 2026.10.17
+ */
+final class KQueueRingStore implements KQueueStore {
+
+	// Declarations
+	private static final	int					HEAD				= 8;					// Counter index (64 bytes from start)
+	private static final	int					TAIL				= 24;					// Counter index (128 bytes from head)
+	private static final	int					MAX_CAPACITY		= 1 << 30;
+	private static final	long				CLOSED				= 1L << 62;				// Tail flag set by close()
+	private static final	int					MAX_SPINS			= (Runtime.getRuntime().availableProcessors() > 1) ? 128 : 0;
+
+	private final			Object[]			gBuffer;
+	private final			AtomicLongArray		gSequences;
+	private final			AtomicLongArray		gCounters			= new AtomicLongArray(32);
+	private final			int					gMask;
+	private final			ReentrantLock		gLock				= new ReentrantLock();
+	private final			Condition			gNotEmpty			= gLock.newCondition();
+	private final			Condition			gNotFull			= gLock.newCondition();
+	private final			AtomicInteger		gConsumersWaiting	= new AtomicInteger(0);
+	private final			AtomicInteger		gProducersWaiting	= new AtomicInteger(0);
+	private volatile		Object				gSentinel			= null;
+
+	/**
+	 * Create store.
+	 *
+	 * @param	argCapacity	Minimum number of elements (rounded up to the next power of two)
+	 */
+	KQueueRingStore(int argCapacity) {
+
+		// Check argument
+		KLog.argException((argCapacity < 1) || (argCapacity > MAX_CAPACITY), "Lock-free queue capacity must be between 1 and " + MAX_CAPACITY);
+
+		int capacity = (argCapacity == 1) ? 1 : Integer.highestOneBit(argCapacity - 1) << 1;
+
+		gBuffer		= new Object[capacity];
+		gSequences	= new AtomicLongArray(capacity);
+		gMask		= capacity - 1;
+
+		// Slot i is free for the producer with tail position i
+		for (int index = 0; index < capacity; index++) {
+			gSequences.set(index, index);
+		}
+	}
+
+	@Override
+	public void clear() {
+
+		Object element = null;
+
+		// Stop at the sentinel, which a closed store returns once it is empty
+		while (((element = poll(false)) != null) && (element != gSentinel)) {
+			// Remove next element
+		}
+	}
+
+	@Override
+	public void close(Object argSentinel) {
+
+		gSentinel = argSentinel;
+
+		// Stop producers (the CAS of a producer on the old tail fails)
+		long position = 0;
+
+		do {
+			position = gCounters.get(TAIL);
+		} while (((position & CLOSED) == 0) && !gCounters.compareAndSet(TAIL, position, position | CLOSED));
+
+		// Wake up all waiting threads
+		gLock.lock();
+
+		try {
+			gNotEmpty.signalAll();
+			gNotFull.signalAll();
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public int drainTo(Collection<Object> argCollection, int argMaxElements, boolean argLIFO) {
+
+		int		count	= 0;
+		Object	element	= null;
+
+		while ((count < argMaxElements) && ((element = poll(argLIFO)) != null)) {
+			argCollection.add(element);
+			count++;
+
+			// Sentinel is the last object of a closed store
+			if (element == gSentinel) {
+				break;
+			}
+		}
+
+		return count;
+	}
+
+	@Override
+	public int getCapacity() {
+		return gBuffer.length;
+	}
+
+	/**
+	 * Check if a closed store has been drained (no slot claimed by a producer is left).
+	 *
+	 * @param	argHead	Current head position
+	 * @return	True if closed and drained, false otherwise
+	 */
+	private boolean isDrained(long argHead) {
+
+		long tail = gCounters.get(TAIL);
+
+		return ((tail & CLOSED) != 0) && ((tail & ~CLOSED) == argHead);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return (size() == 0);
+	}
+
+	@Override
+	public boolean isPersistent() {
+		return false;
+	}
+
+	@Override
+	public boolean offer(Object argElement) {
+
+		while (true) {
+
+			long	position	= gCounters.get(TAIL);
+			int		index		= (int) position & gMask;
+			long	difference	= gSequences.get(index) - position;
+
+			// Store closed
+			if ((position & CLOSED) != 0) {
+				return false;
+			}
+
+			if (difference == 0) {
+
+				// Slot free: Claim it and publish the element with the new sequence number
+				if (gCounters.compareAndSet(TAIL, position, position + 1)) {
+					gBuffer[index] = argElement;
+					gSequences.set(index, position + 1);
+					signal(gConsumersWaiting, gNotEmpty);
+					return true;
+				}
+
+			} else if (difference < 0) {
+
+				// Slot still filled from the previous lap: Store is full
+				return false;
+			}
+
+			// Otherwise another producer has claimed the slot: Retry with the new tail
+		}
+	}
+
+	@Override
+	public boolean offer(Object argElement, long argTimeOutMs) throws InterruptedException {
+
+		long timeOutNs = TimeUnit.MILLISECONDS.toNanos(argTimeOutMs);
+
+		// Spin before parking (a consumer on another processor frees a slot quickly)
+		for (int spins = 0; spins < MAX_SPINS; spins++) {
+			if (offer(argElement)) {
+				return true;
+			}
+			Thread.onSpinWait();
+		}
+
+		while (!offer(argElement)) {
+
+			if ((timeOutNs <= 0) || (gSentinel != null)) {
+				return false;
+			}
+
+			// Wait for a consumer (registered before the store is checked again, so no signal is lost)
+			gLock.lockInterruptibly();
+			gProducersWaiting.incrementAndGet();
+
+			try {
+				if (offer(argElement)) {
+					return true;
+				}
+
+				if (gSentinel != null) {
+					return false;
+				}
+
+				timeOutNs = gNotFull.awaitNanos(timeOutNs);
+
+			} finally {
+				gProducersWaiting.decrementAndGet();
+				gLock.unlock();
+			}
+		}
+
+		return true;
+	}
+
+	@Override
+	public int offerAll(List<?> argElements, int argStart) {
+
+		int index = argStart;
+
+		while ((index < argElements.size()) && offer(argElements.get(index))) {
+			index++;
+		}
+
+		return index - argStart;
+	}
+
+	@Override
+	public Object peek(boolean argLIFO) {
+
+		// Check argument
+		KLog.argException(argLIFO, "Lock-free queue supports only FIFO order");
+
+		while (true) {
+
+			long	position	= gCounters.get(HEAD);
+			int		index		= (int) position & gMask;
+
+			if (gSequences.get(index) != position + 1) {
+				return isDrained(position) ? gSentinel : null;
+			}
+
+			Object element = gBuffer[index];
+
+			// Element is only valid if no consumer has taken it in the meantime
+			if ((element != null) && (gCounters.get(HEAD) == position)) {
+				return element;
+			}
+		}
+	}
+
+	@Override
+	public Object poll(boolean argLIFO) {
+
+		// Check argument
+		KLog.argException(argLIFO, "Lock-free queue supports only FIFO order");
+
+		while (true) {
+
+			long	position	= gCounters.get(HEAD);
+			int		index		= (int) position & gMask;
+			long	difference	= gSequences.get(index) - (position + 1);
+
+			if (difference == 0) {
+
+				// Slot filled: Claim it, take the element and free the slot for the next lap
+				if (gCounters.compareAndSet(HEAD, position, position + 1)) {
+					Object element = gBuffer[index];
+					gBuffer[index] = null;
+					gSequences.set(index, position + gMask + 1);
+					signal(gProducersWaiting, gNotFull);
+					return element;
+				}
+
+			} else if (difference < 0) {
+
+				// Slot not yet filled: Store is empty (a closed store only when the claimed slots have been taken)
+				if ((gSentinel == null) || isDrained(position)) {
+					return gSentinel;
+				}
+
+				Thread.onSpinWait();
+			}
+
+			// Otherwise another consumer has claimed the slot: Retry with the new head
+		}
+	}
+
+	@Override
+	public Object poll(boolean argLIFO, long argTimeOutMs) throws InterruptedException {
+
+		long	timeOutNs	= TimeUnit.MILLISECONDS.toNanos(argTimeOutMs);
+		Object	element		= null;
+
+		// Spin before parking (a producer on another processor fills a slot quickly)
+		for (int spins = 0; spins < MAX_SPINS; spins++) {
+			if ((element = poll(argLIFO)) != null) {
+				return element;
+			}
+			Thread.onSpinWait();
+		}
+
+		while ((element = poll(argLIFO)) == null) {
+
+			if (timeOutNs <= 0) {
+				return null;
+			}
+
+			// Wait for a producer (registered before the store is checked again, so no signal is lost)
+			gLock.lockInterruptibly();
+			gConsumersWaiting.incrementAndGet();
+
+			try {
+				if ((element = poll(argLIFO)) != null) {
+					return element;
+				}
+
+				timeOutNs = gNotEmpty.awaitNanos(timeOutNs);
+
+			} finally {
+				gConsumersWaiting.decrementAndGet();
+				gLock.unlock();
+			}
+		}
+
+		return element;
+	}
+
+	/**
+	 * Wake up a waiting thread if one is registered.
+	 *
+	 * @param	argWaiting		Number of waiting threads
+	 * @param	argCondition	Condition the threads are waiting on
+	 */
+	private void signal(AtomicInteger argWaiting, Condition argCondition) {
+
+		if (argWaiting.get() == 0) {
+			return;
+		}
+
+		gLock.lock();
+
+		try {
+			argCondition.signal();
+		} finally {
+			gLock.unlock();
+		}
+	}
+
+	@Override
+	public int size() {
+
+		// Read head first, so the difference is never too small
+		long head = gCounters.get(HEAD);
+		long tail = gCounters.get(TAIL) & ~CLOSED;
+
+		return (int) Math.max(0, Math.min(tail - head, gBuffer.length));
+	}
+
+	@Override
+	public Object take(boolean argLIFO) throws InterruptedException {
+
+		Object element = null;
+
+		while ((element = poll(argLIFO, Long.MAX_VALUE)) == null) {
+			// Wait again
+		}
+
+		return element;
+	}
+
+	/**
+	 * String representation of object.
+	 */
+	@Override
+	public String toString() {
+		return "KQueueRingStore [gCapacity=" + gBuffer.length + ", gHead=" + gCounters.get(HEAD) + ", gTail=" + gCounters.get(TAIL)
+				+ ", gConsumersWaiting=" + gConsumersWaiting.get() + ", gProducersWaiting=" + gProducersWaiting.get() + "]";
+	}
+}
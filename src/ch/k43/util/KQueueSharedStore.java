@@ -0,0 +1,534 @@
+package ch.k43.util;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Inter-process KQueue storage based on a ring buffer in a memory-mapped file. Supports only the FIFO order and byte array elements.<p>
+ *
+ * Notes:<br>
+ * - The file ({queue name}.kqs) contains a header page and the ring data. The header holds the tail (producer position), the head
+ *   (consumer position) and the element counters on separate cache lines.<br>
+ * - Producers of any number of processes claim their record with a single CAS on the tail, copy the data and publish the record
+ *   by writing its length plus one with release semantics (zero marks an unpublished record, so empty elements are supported).
+ *   Records which do not fit at the end of the ring are preceded by a padding record.<br>
+ * - There must be only one consuming process: The first read takes an exclusive file lock on the consumer byte of the header, and
+ *   reads of a second consumer (another process or another store of the same file) fail with an IllegalStateException. Consumer
+ *   threads of this process are serialized by a local lock. Consumed records are cleared before the head is advanced, so a new
+ *   record is never published over old data.<br>
+ * - Waiting producers and consumers spin briefly and then park for increasing times (up to 1 ms), as there is no inter-process
+ *   signal.<br>
+ * - The first process creates and initializes the file under a file lock. The file is kept when the queues are closed, so
+ *   remaining elements are taken by the next consumer. Delete the file to reset the queue.<br>
+ * - Producers and size queries of this process are counted, so close() unmaps the file only after all of them have left.<br>
+ *
+ * @see KQueue
+ *
+ * @since 2026.10.17
+ */
+final class KQueueSharedStore implements KQueueStore {
+
+	// Declarations
+	static final			String				FILE_EXTENSION		= ".kqs";
+	static final			int					MIN_CAPACITY		= 4_096;
+	static final			int					MAX_CAPACITY		= 1 << 30;
+	private static final	int					MAGIC				= 0x4B515331;			// "KQS1"
+	private static final	int					MAGIC_OFFSET		= 0;
+	private static final	int					CAPACITY_OFFSET		= 4;
+	private static final	int					TAIL_OFFSET			= 128;
+	private static final	int					HEAD_OFFSET			= 256;
+	private static final	int					PUT_COUNT_OFFSET	= 384;
+	private static final	int					GET_COUNT_OFFSET	= 512;
+	private static final	int					INIT_LOCK_OFFSET	= 0;					// File lock byte of the initialization
+	private static final	int					CONSUMER_LOCK_OFFSET	= 640;				// File lock byte of the consumer
+	private static final	int					HEADER_SIZE			= 4_096;
+	private static final	int					RECORD_ALIGNMENT	= 8;
+	private static final	int					MAX_SPINS			= (Runtime.getRuntime().availableProcessors() > 1) ? 256 : 0;
+	private static final	long				MAX_PARK_NS			= TimeUnit.MILLISECONDS.toNanos(1);
+	private static final	byte[]				ZEROS				= new byte[4_096];
+	private static final	VarHandle			INT					= MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+	private static final	VarHandle			LONG				= MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+	private final			Path				gFile;
+	private final			FileChannel			gChannel;
+	private final			MappedByteBuffer	gBuffer;
+	private final			int					gCapacity;
+	private final			int					gMask;
+	private final			int					gMaxElementSize;
+	private final			ReentrantLock		gConsumerLock		= new ReentrantLock();
+	private final			AtomicInteger		gActiveUsers		= new AtomicInteger(0);
+	private volatile		Object				gSentinel			= null;
+	private					FileLock			gConsumerFileLock	= null;
+
+	/**
+	 * Open or create the shared ring file.
+	 *
+	 * @param	argDirectory	Directory of the file
+	 * @param	argQueueName	Queue name (file name without extension)
+	 * @param	argCapacity		Size of the ring data in bytes (rounded up to the next power of two)
+	 * @throws	IOException		If the file could not be opened or has another capacity
+	 */
+	KQueueSharedStore(String argDirectory, String argQueueName, int argCapacity) throws IOException {
+
+		// Check argument
+		KLog.argException((argCapacity < MIN_CAPACITY) || (argCapacity > MAX_CAPACITY), "Shared queue capacity must be between {} and {} bytes", MIN_CAPACITY, MAX_CAPACITY);
+
+		gFile		= Paths.get(argDirectory, argQueueName + FILE_EXTENSION).toAbsolutePath();
+		gCapacity	= Integer.highestOneBit(argCapacity - 1) << 1;
+		gMask		= gCapacity - 1;
+
+		// Largest record must fit into the ring together with a padding record
+		gMaxElementSize = gCapacity / 8 - Integer.BYTES;
+
+		Files.createDirectories(gFile.getParent());
+
+		// The channel is kept open for the consumer lock
+		gChannel = FileChannel.open(gFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+		FileLock initLock = null;
+
+		try {
+			// Initialize the file in only one process
+			initLock = gChannel.lock(INIT_LOCK_OFFSET, 1, false);
+
+			boolean initialize = (gChannel.size() == 0);
+
+			gBuffer = gChannel.map(FileChannel.MapMode.READ_WRITE, 0, (long) HEADER_SIZE + gCapacity);
+
+			if (initialize) {
+				gBuffer.putInt(CAPACITY_OFFSET, gCapacity);
+				INT.setRelease(gBuffer, MAGIC_OFFSET, MAGIC);
+			} else if (((int) INT.getAcquire(gBuffer, MAGIC_OFFSET) != MAGIC) || (gBuffer.getInt(CAPACITY_OFFSET) != gCapacity)) {
+				throw new IOException("Shared queue file " + gFile + " is invalid or has a capacity other than " + gCapacity + " bytes");
+			}
+
+		} catch (IOException | RuntimeException e) {
+			gChannel.close();
+			throw e;
+		} finally {
+			if ((initLock != null) && initLock.isValid()) {
+				initLock.release();
+			}
+		}
+	}
+
+	/**
+	 * Take the exclusive consumer lock of the file on the first read (consumer lock held).
+	 *
+	 * @throws	IllegalStateException	If another process or another store of this file is the consumer
+	 */
+	private void acquireConsumerLock() {
+
+		// Check if lock taken or store closed (the channel is closed)
+		if ((gConsumerFileLock != null) || (gSentinel != null)) {
+			return;
+		}
+
+		try {
+			gConsumerFileLock = gChannel.tryLock(CONSUMER_LOCK_OFFSET, 1, false);
+		} catch (IOException | OverlappingFileLockException e) {
+			gConsumerFileLock = null;
+		}
+
+		if (gConsumerFileLock == null) {
+			throw new IllegalStateException("Shared queue file " + gFile + " is already consumed by another queue");
+		}
+	}
+
+	/**
+	 * Round up the record size (length field and data) to the record alignment.
+	 *
+	 * @param	argLength	Data length
+	 * @return	Record size
+	 */
+	private static int align(int argLength) {
+		return (Integer.BYTES + argLength + RECORD_ALIGNMENT - 1) & -RECORD_ALIGNMENT;
+	}
+
+	/**
+	 * Register a producer or size query, so the file is not unmapped while it is accessed.
+	 *
+	 * @return	True if registered, false if the store is closed
+	 */
+	private boolean enter() {
+
+		// The counter is incremented before the check, so close() either sees the user or the user sees the sentinel
+		gActiveUsers.incrementAndGet();
+
+		if (gSentinel != null) {
+			gActiveUsers.decrementAndGet();
+			return false;
+		}
+
+		return true;
+	}
+
+	@Override
+	public void clear() {
+
+		// The elements of a closed store are kept for the next consumer
+		if (gSentinel != null) {
+			return;
+		}
+
+		gConsumerLock.lock();
+
+		try {
+			while (read(true) != null) {
+				// Remove next element
+			}
+		} finally {
+			gConsumerLock.unlock();
+		}
+	}
+
+	@Override
+	public void close(Object argSentinel) {
+
+		// The file and its elements are kept for the other processes
+		if (gSentinel != null) {
+			return;
+		}
+
+		gSentinel = argSentinel;
+
+		// Wait for the producers and size queries of this process which are still accessing the file
+		while (gActiveUsers.get() > 0) {
+			Thread.onSpinWait();
+		}
+
+		// Unmap the file and release the consumer lock for the next consumer
+		gConsumerLock.lock();
+
+		try {
+			KFile.unmap(gBuffer);
+			gChannel.close();
+		} catch (IOException e) {
+			KLog.error(e.toString());
+		} finally {
+			gConsumerFileLock = null;
+			gConsumerLock.unlock();
+		}
+	}
+
+	@Override
+	public int drainTo(Collection<Object> argCollection, int argMaxElements, boolean argLIFO) {
+
+		// Check argument
+		KLog.argException(argLIFO, "Shared queue supports only FIFO order");
+
+		if (gSentinel != null) {
+			argCollection.add(gSentinel);
+			return 1;
+		}
+
+		gConsumerLock.lock();
+
+		try {
+			int		count	= 0;
+			byte[]	element	= null;
+
+			while ((count < argMaxElements) && ((element = read(true)) != null)) {
+				argCollection.add(element);
+				count++;
+			}
+
+			return count;
+
+		} finally {
+			gConsumerLock.unlock();
+		}
+	}
+
+	@Override
+	public int getCapacity() {
+		return gCapacity;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return (size() == 0);
+	}
+
+	@Override
+	public boolean isPersistent() {
+		return true;
+	}
+
+	@Override
+	public boolean offer(Object argElement) {
+
+		// Reject if closed (e.g. the sentinel placed back by KQueue)
+		if (!enter()) {
+			return false;
+		}
+
+		try {
+			// Check argument
+			KLog.argException(!(argElement instanceof byte[]), "Shared queue element must be a byte array");
+			KLog.argException(((byte[]) argElement).length > gMaxElementSize, "Shared queue element must not exceed {} bytes", gMaxElementSize);
+
+			return write((byte[]) argElement);
+		} finally {
+			gActiveUsers.decrementAndGet();
+		}
+	}
+
+	@Override
+	public boolean offer(Object argElement, long argTimeOutMs) throws InterruptedException {
+
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.min(argTimeOutMs, Long.MAX_VALUE / 2_000_000));
+
+		for (int attempt = 0; ; attempt++) {
+
+			if (offer(argElement)) {
+				return true;
+			}
+
+			if ((gSentinel != null) || !pause(attempt, deadline)) {
+				return false;
+			}
+		}
+	}
+
+	@Override
+	public int offerAll(List<?> argElements, int argStart) {
+
+		int index = argStart;
+
+		while ((index < argElements.size()) && offer(argElements.get(index))) {
+			index++;
+		}
+
+		return index - argStart;
+	}
+
+	/**
+	 * Wait before the next attempt: Spin first, then park for increasing times.
+	 *
+	 * @param	argAttempt	Number of failed attempts so far
+	 * @param	argDeadline	Wait deadline (System.nanoTime())
+	 * @return	True to try again, false if the deadline has passed
+	 * @throws	InterruptedException	If the thread was interrupted
+	 */
+	private static boolean pause(int argAttempt, long argDeadline) throws InterruptedException {
+
+		long remainingNs = argDeadline - System.nanoTime();
+
+		if (remainingNs <= 0) {
+			return false;
+		}
+
+		if (Thread.interrupted()) {
+			throw new InterruptedException();
+		}
+
+		if (argAttempt < MAX_SPINS) {
+			Thread.onSpinWait();
+		} else {
+			LockSupport.parkNanos(Math.min(remainingNs, Math.min(MAX_PARK_NS, 1_000L << Math.min(argAttempt - MAX_SPINS, 10))));
+		}
+
+		return true;
+	}
+
+	@Override
+	public Object peek(boolean argLIFO) {
+
+		// Check argument
+		KLog.argException(argLIFO, "Shared queue supports only FIFO order");
+
+		if (gSentinel != null) {
+			return gSentinel;
+		}
+
+		gConsumerLock.lock();
+
+		try {
+			return read(false);
+		} finally {
+			gConsumerLock.unlock();
+		}
+	}
+
+	@Override
+	public Object poll(boolean argLIFO) {
+
+		// Check argument
+		KLog.argException(argLIFO, "Shared queue supports only FIFO order");
+
+		if (gSentinel != null) {
+			return gSentinel;
+		}
+
+		gConsumerLock.lock();
+
+		try {
+			return read(true);
+		} finally {
+			gConsumerLock.unlock();
+		}
+	}
+
+	@Override
+	public Object poll(boolean argLIFO, long argTimeOutMs) throws InterruptedException {
+
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.min(argTimeOutMs, Long.MAX_VALUE / 2_000_000));
+
+		for (int attempt = 0; ; attempt++) {
+
+			Object element = poll(argLIFO);
+
+			if ((element != null) || !pause(attempt, deadline)) {
+				return element;
+			}
+		}
+	}
+
+	/**
+	 * Read the record at the head (consumer lock must be held).
+	 *
+	 * @param	argRemove	True to remove the record, false to leave it in the ring
+	 * @return	Element or null if empty or closed
+	 * @throws	IllegalStateException	If another process or another store of this file is the consumer
+	 */
+	private byte[] read(boolean argRemove) {
+
+		// The file is unmapped if the store was closed while waiting for the consumer lock
+		if (gSentinel != null) {
+			return null;
+		}
+
+		acquireConsumerLock();
+
+		long	head	= (long) LONG.getVolatile(gBuffer, HEAD_OFFSET);
+		int		index	= (int) (head & gMask);
+		int		length	= (int) INT.getAcquire(gBuffer, HEADER_SIZE + index);
+
+		// Skip padding record at the end of the ring
+		if (length < 0) {
+			head += release(index, -length, head);
+			index	= 0;
+			length	= (int) INT.getAcquire(gBuffer, HEADER_SIZE);
+		}
+
+		// No published record (the length is stored plus one)
+		if (length == 0) {
+			return null;
+		}
+
+		byte[] element = new byte[--length];
+
+		gBuffer.get(HEADER_SIZE + index + Integer.BYTES, element);
+
+		if (argRemove) {
+			release(index, align(length), head);
+			LONG.getAndAdd(gBuffer, GET_COUNT_OFFSET, 1L);
+		}
+
+		return element;
+	}
+
+	/**
+	 * Clear a consumed record and advance the head behind it.
+	 *
+	 * @param	argIndex	Ring index of the record
+	 * @param	argSize		Record size
+	 * @param	argHead		Current head
+	 * @return	Record size
+	 */
+	private int release(int argIndex, int argSize, long argHead) {
+
+		for (int offset = 0; offset < argSize; offset += ZEROS.length) {
+			gBuffer.put(HEADER_SIZE + argIndex + offset, ZEROS, 0, Math.min(ZEROS.length, argSize - offset));
+		}
+
+		LONG.setRelease(gBuffer, HEAD_OFFSET, argHead + argSize);
+		return argSize;
+	}
+
+	@Override
+	public int size() {
+
+		// The file is unmapped if closed
+		if (!enter()) {
+			return 0;
+		}
+
+		try {
+			long size = (long) LONG.getVolatile(gBuffer, PUT_COUNT_OFFSET) - (long) LONG.getVolatile(gBuffer, GET_COUNT_OFFSET);
+
+			return (int) Math.max(0, Math.min(size, Integer.MAX_VALUE));
+		} finally {
+			gActiveUsers.decrementAndGet();
+		}
+	}
+
+	@Override
+	public Object take(boolean argLIFO) throws InterruptedException {
+		return poll(argLIFO, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Claim space at the tail and publish the record.
+	 *
+	 * @param	argElement	Element
+	 * @return	True if written, false if the ring is full
+	 */
+	private boolean write(byte[] argElement) {
+
+		int recordSize = align(argElement.length);
+
+		while (true) {
+
+			long	head		= (long) LONG.getAcquire(gBuffer, HEAD_OFFSET);
+			long	tail		= (long) LONG.getVolatile(gBuffer, TAIL_OFFSET);
+			int		index		= (int) (tail & gMask);
+			int		padding		= (recordSize > gCapacity - index) ? gCapacity - index : 0;
+
+			if (tail + padding + recordSize - head > gCapacity) {
+				return false;
+			}
+
+			// Claim record (and padding) with a single CAS
+			if (LONG.compareAndSet(gBuffer, TAIL_OFFSET, tail, tail + padding + recordSize)) {
+
+				if (padding > 0) {
+					INT.setRelease(gBuffer, HEADER_SIZE + index, -padding);
+					index = 0;
+				}
+
+				gBuffer.put(HEADER_SIZE + index + Integer.BYTES, argElement);
+				LONG.getAndAdd(gBuffer, PUT_COUNT_OFFSET, 1L);
+
+				// Publish record (length plus one, so an empty element is distinguished from an unpublished record)
+				INT.setRelease(gBuffer, HEADER_SIZE + index, argElement.length + 1);
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * String representation of object.
+	 */
+	@Override
+	public String toString() {
+		return "KQueueSharedStore [gFile=" + gFile + ", gCapacity=" + gCapacity + ", gClosed=" + (gSentinel != null) + ", size()=" + size() + "]";
+	}
+}
@@ -0,0 +1,133 @@
+package ch.k43.util;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Element storage of KQueue. Elements are always added at the tail and removed at the head (FIFO) or the tail (LIFO).<p>
+ *
+ * Notes:<br>
+ * - All methods must be thread-safe. The blocking methods must return as soon as an element or free space is available.<br>
+ * - Stores which support only one order reject the other one with an IllegalArgumentException.<br>
+ *
+ * @see KQueue
+ *
+ * @since 2026.10.17
+ */
+interface KQueueStore {
+
+	/**
+	 * Remove all elements.
+	 */
+	void clear();
+
+	/**
+	 * Close the store: New elements are rejected and all waiting threads are woken up at once. Stores in memory keep their
+	 * elements for the consumers and return the sentinel when they are empty. Persistent stores keep their elements for the
+	 * next start and return the sentinel immediately.
+	 *
+	 * @param	argSentinel	Sentinel object
+	 */
+	void close(Object argSentinel);
+
+	/**
+	 * Remove up to the given number of elements without waiting and add them to the collection. If the store is closed and
+	 * becomes empty, the sentinel is added as last object.
+	 *
+	 * @param	argCollection	Collection receiving the elements
+	 * @param	argMaxElements	Maximum number of elements
+	 * @param	argLIFO			True to remove from the tail (LIFO), false from the head (FIFO)
+	 * @return	Number of elements removed
+	 */
+	int drainTo(Collection<Object> argCollection, int argMaxElements, boolean argLIFO);
+
+	/**
+	 * Get the maximum number of elements.
+	 *
+	 * @return	Capacity
+	 */
+	int getCapacity();
+
+	/**
+	 * Check if the store is empty.
+	 *
+	 * @return	True if empty, false otherwise
+	 */
+	boolean isEmpty();
+
+	/**
+	 * Check if the elements are kept outside the process (journal or shared file).
+	 *
+	 * @return	True if persistent, false if in memory
+	 */
+	boolean isPersistent();
+
+	/**
+	 * Add element at the tail without waiting.
+	 *
+	 * @param	argElement	Element
+	 * @return	True if added, false if the store is full or closed
+	 */
+	boolean offer(Object argElement);
+
+	/**
+	 * Add element at the tail and wait up to the given time if the store is full.
+	 *
+	 * @param	argElement		Element
+	 * @param	argTimeOutMs	Maximum wait time in milliseconds
+	 * @return	True if added, false if the store is still full or closed
+	 * @throws	InterruptedException	If the thread was interrupted while waiting
+	 */
+	boolean offer(Object argElement, long argTimeOutMs) throws InterruptedException;
+
+	/**
+	 * Add elements at the tail without waiting as long as there is space.
+	 *
+	 * @param	argElements	Elements
+	 * @param	argStart	Index of the first element to add
+	 * @return	Number of elements added
+	 */
+	int offerAll(List<?> argElements, int argStart);
+
+	/**
+	 * Return the next element without removing it.
+	 *
+	 * @param	argLIFO	True for the tail (LIFO), false for the head (FIFO)
+	 * @return	Element, null if empty or the sentinel if closed and empty
+	 */
+	Object peek(boolean argLIFO);
+
+	/**
+	 * Remove and return the next element without waiting.
+	 *
+	 * @param	argLIFO	True for the tail (LIFO), false for the head (FIFO)
+	 * @return	Element, null if empty or the sentinel if closed and empty
+	 */
+	Object poll(boolean argLIFO);
+
+	/**
+	 * Remove and return the next element and wait up to the given time if the store is empty.
+	 *
+	 * @param	argLIFO			True for the tail (LIFO), false for the head (FIFO)
+	 * @param	argTimeOutMs	Maximum wait time in milliseconds
+	 * @return	Element, null if still empty or the sentinel if closed and empty
+	 * @throws	InterruptedException	If the thread was interrupted while waiting
+	 */
+	Object poll(boolean argLIFO, long argTimeOutMs) throws InterruptedException;
+
+	/**
+	 * Get the number of elements.
+	 *
+	 * @return	Number of elements
+	 */
+	int size();
+
+	/**
+	 * Remove and return the next element and wait if the store is empty.
+	 *
+	 * @param	argLIFO	True for the tail (LIFO), false for the head (FIFO)
+	 * @return	Element or the sentinel if closed and empty
+	 * @throws	InterruptedException	If the thread was interrupted while waiting
+	 */
+	Object take(boolean argLIFO) throws InterruptedException;
+}
@@ -13,6 +13,7 @@ import jakarta.mail.Session;
 import jakarta.mail.Transport;
 import jakarta.mail.Authenticator;
 import jakarta.mail.Header;
+import jakarta.mail.MessagingException;
 import jakarta.mail.PasswordAuthentication;
 import jakarta.mail.internet.InternetAddress;
 import jakarta.mail.internet.MimeBodyPart;
@@ -27,6 +28,8 @@ import jakarta.mail.internet.MimeMultipart;
  * - The default transmission is secured (STARTTLS/TLS) which can be disabled with setSecuredConnection(false)<br>
  * - If no host name is specified, the highest priority MX DNS record of the first recipient will be used
  * 	 to connect to the SMTP server on port 25<br>
+ * - With setKeepConnection(true) the SMTP session and connection are kept open for further messages sent with the same object
+ *   (use clearBody() to compose the next message and close() to terminate the connection)<br>
  * 
  * <pre>
  * Example:
@@ -67,6 +70,9 @@ public class KSMTPMailer {
 	private boolean					gSecureConnection		= true;
 	private boolean					gMultiPartAdded			= false;
 	private boolean					gOAuth2Authentication	= false;
+	private boolean					gKeepConnection			= false;
+	private Session					gSession				= null;
+	private Transport				gTransport				= null;
 		
 	/**
 	 * Class constructor
@@ -175,40 +181,44 @@ public class KSMTPMailer {
 	}
 
 	/**
-	 * Get last error message.<br>
+	 * Remove all multipart items to compose the next message with the same sender, recipients and SMTP settings.
 	 * 
-	 * @return	Last error message
+	 * @since 2026.10.17
 	 */
-	public String getErrorMessage() {
-		return (gLastErrorMessage);
+	public void clearBody() {
+		gMimeMultipart	= new MimeMultipart();
+		gMultiPartAdded	= false;
 	}
-
+	
 	/**
-	 * Get size of last message sent.<br>
+	 * Close the SMTP connection kept open by setKeepConnection(true).
 	 * 
-	 * @return	Size of last message sent
-	 * 
-	 * @since 2024.05.27
+	 * @since 2026.10.17
 	 */
-	public int getMessageSize() {
-		return (gMimeMessageSize);
+	public void close() {
+
+		if (gTransport == null) {
+			return;
+		}
+		
+		try {
+			gTransport.close();
+		} catch (Exception e) {
+			// Ignore errors
+		}
+		
+		gTransport = null;
 	}
 	
 	/**
-	 * Compose and send the email multi part message.<P>
+	 * Create the SMTP session with the current settings.
 	 * 
-	 * If no SMTP server was previously set with setSMTPHost(), the message will be sent to the highest priority MX domain from
-	 * the first recipient found.
+	 * @return	Session or null for errors
 	 * 
-	 * @return	True if success, false otherwise
+	 * @since 2026.10.17
 	 */
-	public boolean send() {
+	private Session createSession() {
 
-		// Check if required data is present
-		KLog.argException(K.isEmpty(gFromAddress), "Sender is required");
-		KLog.argException(K.isEmpty(gToAddresses) && K.isEmpty(gCCAddresses) && K.isEmpty(gBCCAddresses), "Recipient is required");
-		KLog.argException(!gMultiPartAdded, "Mail body is required");
-		
 		//
 		// Setup SMTP authentication class
 		//
@@ -249,7 +259,7 @@ public class KSMTPMailer {
 			if (mxHostnames == null) {
 				gLastErrorMessage = "Unable to get domain MX record of the first recipient";
 				KLog.error(gLastErrorMessage);
-				return (false);
+				return (null);
 			}
 			
 			gSMTPHostName = mxHostnames[0];
@@ -302,6 +312,66 @@ public class KSMTPMailer {
 			session.setDebugOut(new PrintStream(gJakartaMailLog));
 			session.setDebug(true);
 		}
+
+		// Keep session for further messages
+		if (gKeepConnection) {
+			gSession = session;
+		}
+		
+		return (session);
+	}
+	
+	/**
+	 * Get last error message.<br>
+	 * 
+	 * @return	Last error message
+	 */
+	public String getErrorMessage() {
+		return (gLastErrorMessage);
+	}
+
+	/**
+	 * Get size of last message sent.<br>
+	 * 
+	 * @return	Size of last message sent
+	 * 
+	 * @since 2024.05.27
+	 */
+	public int getMessageSize() {
+		return (gMimeMessageSize);
+	}
+	
+	/**
+	 * Close the kept connection and discard the kept session after a change of the SMTP settings.
+	 * 
+	 * @since 2026.10.17
+	 */
+	private void resetSession() {
+		close();
+		gSession = null;
+	}
+	
+	/**
+	 * Compose and send the email multi part message.<P>
+	 * 
+	 * If no SMTP server was previously set with setSMTPHost(), the message will be sent to the highest priority MX domain from
+	 * the first recipient found.
+	 * 
+	 * @return	True if success, false otherwise
+	 */
+	public boolean send() {
+
+		// Check if required data is present
+		KLog.argException(K.isEmpty(gFromAddress), "Sender is required");
+		KLog.argException(K.isEmpty(gToAddresses) && K.isEmpty(gCCAddresses) && K.isEmpty(gBCCAddresses), "Recipient is required");
+		KLog.argException(!gMultiPartAdded, "Mail body is required");
+
+		// Reuse the kept session or create a new one
+		Session session = (gSession != null) ? gSession : createSession();
+		
+		if (session == null) {
+			return (false);
+		}
 		
 		//
 		// Setup MIME message
@@ -364,7 +434,13 @@ public class KSMTPMailer {
 			//
 		    mimeMessage.setContent(gMimeMultipart);
 		    KLog.debug("SMTP message created");
-			Transport.send(mimeMessage);
+		    
+		    if (gKeepConnection) {
+		    	mimeMessage.saveChanges();
+		    	sendMessage(session, mimeMessage);
+		    } else {
+		    	Transport.send(mimeMessage);
+		    }
 		    
 			// Write Jakarta log to KLog
 			writeJakartaLog();
@@ -392,6 +468,50 @@ public class KSMTPMailer {
 		}
 	}
 	
+	/**
+	 * Send message thru the kept SMTP connection. A connection which was already open is assumed to be stale if the
+	 * message cannot be sent, so the message is sent once more thru a new connection.
+	 * 
+	 * @param	argSession	SMTP session
+	 * @param	argMessage	Message with all changes saved
+	 * @throws	MessagingException	If the message could not be sent
+	 * 
+	 * @since 2026.10.17
+	 */
+	private void sendMessage(Session argSession, MimeMessage argMessage) throws MessagingException {
+
+		while (true) {
+
+			boolean reused = false;
+			
+			try {
+				if (gTransport == null) {
+					gTransport = argSession.getTransport("smtp");
+				}
+				
+				if (gTransport.isConnected()) {
+					reused = true;
+				} else {
+					gTransport.connect();
+					KLog.debug("SMTP connection opened");
+				}
+				
+				gTransport.sendMessage(argMessage, argMessage.getAllRecipients());
+				return;
+				
+			} catch (MessagingException e) {
+				
+				close();
+				
+				if (!reused) {
+					throw e;
+				}
+				
+				KLog.debug("SMTP connection stale, reconnecting: {}", e.toString());
+			}
+		}
+	}
+	
 	/**
 	 * Set user name and password for basic client authentication.
 	 * 
@@ -407,6 +527,8 @@ public class KSMTPMailer {
 		gUserName				= argUserName;
 		gUserPassword			= argUserPassword;
 		gOAuth2Authentication	= false;
+		
+		resetSession();
 	}
 	
 	/**
@@ -436,6 +558,23 @@ public class KSMTPMailer {
 		gFromAddress = argFromAddress;
 	}
 	
+	/**
+	 * Keep the SMTP session and connection open after send() to send further messages without reconnecting. The connection
+	 * is reopened automatically if the server has closed it. Call close() to terminate the connection.
+	 * 
+	 * @param argKeepConnection	True to keep the connection open, false otherwise (default)
+	 * 
+	 * @since 2026.10.17
+	 */
+	public void setKeepConnection(boolean argKeepConnection) {
+		
+		gKeepConnection = argKeepConnection;
+		
+		if (!gKeepConnection) {
+			resetSession();
+		}
+	}
+	
 	/**
 	 * Set local FQDN host names to be used in SMTP HELO/EHLO message. If not specified, the current configured local host name is taken.
 	 * 
@@ -445,6 +584,7 @@ public class KSMTPMailer {
 	 */
 	public void setLocalFQDNHostName(String argLocalHostName) {
 		gLocalFQDNHostName = argLocalHostName;
+		resetSession();
 	}
 	
 	/**
@@ -465,6 +605,8 @@ public class KSMTPMailer {
 		gUserName				= argUserName;
 		gUserPassword			= argAccessToken;
 		gOAuth2Authentication	= true;
+		
+		resetSession();
 	}
 	
 	/**
@@ -485,6 +627,7 @@ public class KSMTPMailer {
 	 */
 	public void setSecureConnection(boolean argSecureConnection) {
 		gSecureConnection = argSecureConnection;
+		resetSession();
 	}
 	
 	/**
@@ -504,6 +647,8 @@ public class KSMTPMailer {
 		
 		gSMTPHostName	= argSMTPHostName;
 		gSMTPHostPort	= argSMTPHostPort;
+		
+		resetSession();
 	}
 	
 	/**
@@ -571,6 +716,12 @@ public class KSMTPMailer {
 		
 		KLog.debug("--- End Jakarta Mail Debug Log ---");
 		
+		// Keep the log stream of a kept session for the next message
+		if (gSession != null) {
+			gJakartaMailLog.reset();
+			return;
+		}
+		
 		// Free resource
 		try {
 			gJakartaMailLog.close();
@@ -596,6 +747,7 @@ public class KSMTPMailer {
 				+ ", gUserName=" + gUserName + ", gUserPassword=" + gUserPassword + ", gUnsubscribe=" + gUnsubscribe
 				+ ", gSMTPHostPort=" + gSMTPHostPort + ", gMimeMessageSize=" + gMimeMessageSize + ", gSecureConnection="
 				+ gSecureConnection + ", gMultiPartAdded=" + gMultiPartAdded + ", gOAuth2Authentication="
-				+ gOAuth2Authentication + "]";
+				+ gOAuth2Authentication + ", gKeepConnection=" + gKeepConnection + ", gSession=" + gSession + ", gTransport="
+				+ gTransport + "]";
 	}
 }
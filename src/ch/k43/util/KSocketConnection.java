@@ -0,0 +1,713 @@
+package ch.k43.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLSession;
+
+/**
+ * Client connection of the event loop engine of KSocketServer.<p>
+ *
+ * Notes:<br>
+ * - The connection is passed to the methods of the KSocketHandler. The write methods and close() may be called from any thread:
+ *   The data is queued and sent by the event loop thread of the connection without blocking the caller.<br>
+ * - All I/O (reading, TLS handshake and encryption, writing) is done by the event loop thread. The buffers are taken from the
+ *   pool of direct buffers of the engine only while data is pending, so idle connections hold no buffers.<br>
+ * - At most 4 MiB may be queued for sending. Further writes are rejected until the client has received the queued data, so a slow
+ *   client cannot exhaust the memory of the server.<br>
+ *
+ * @see KSocketHandler
+ * @see KSocketServer
+ *
+ * @since 2026.10.17
+ */
+public final class KSocketConnection {
+
+	// Declarations
+	private static final ByteBuffer				EMPTY_BUFFER			= ByteBuffer.allocate(0);
+	private static final long					MAX_QUEUED_BYTES		= 4 * 1024 * 1024;
+
+	private final SocketChannel					gChannel;
+	private final KSocketEventLoop				gEventLoop;
+	private final KByteBufferPool				gBufferPool;
+	private final ExecutorService				gTaskExecutor;
+	private final SSLEngine						gSSLEngine;
+	private final KSocketHandler				gHandler;
+	private final ConcurrentLinkedQueue<ByteBuffer>	gWriteQueue			= new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean					gFlushScheduled			= new AtomicBoolean(false);
+	private final AtomicLong					gQueuedBytes			= new AtomicLong(0);
+	private final String						gRemoteAddress;
+	private SelectionKey						gKey					= null;
+	private ByteBuffer							gLineBuffer				= null;
+	private ByteBuffer							gNetInBuffer			= null;
+	private ByteBuffer							gNetOutBuffer			= null;
+	private String								gUsedProtocol			= null;
+	private String								gUsedCiphers			= null;
+	private String								gAuthenticatedClient	= null;
+	private boolean								gHandshakeDone			= false;
+	private boolean								gTaskRunning			= false;
+	private volatile boolean					gIsConnected			= true;
+	private volatile boolean					gCloseRequested			= false;
+
+	/**
+	 * Create connection (called by KSocketEventLoop).
+	 *
+	 * @param	argChannel		Accepted client channel
+	 * @param	argEventLoop	Event loop handling the connection
+	 * @param	argBufferPool	Pool of direct buffers
+	 * @param	argTaskExecutor	Thread pool for the TLS handshake tasks or null for non-TLS connections
+	 * @param	argSSLEngine	TLS engine or null for non-TLS connections
+	 * @param	argHandler		User handler
+	 * @throws	IOException		If the remote address is not available
+	 */
+	KSocketConnection(SocketChannel argChannel, KSocketEventLoop argEventLoop, KByteBufferPool argBufferPool, ExecutorService argTaskExecutor, SSLEngine argSSLEngine, KSocketHandler argHandler) throws IOException {
+
+		gChannel		= argChannel;
+		gEventLoop		= argEventLoop;
+		gBufferPool		= argBufferPool;
+		gTaskExecutor	= argTaskExecutor;
+		gSSLEngine		= argSSLEngine;
+		gHandler		= argHandler;
+
+		// Get remote endpoint without starting slash
+		String remoteAddress = String.valueOf(gChannel.getRemoteAddress());
+		gRemoteAddress = remoteAddress.startsWith("/") ? remoteAddress.substring(1) : remoteAddress;
+	}
+
+	/**
+	 * Close the connection after all queued data is sent. Lines received afterwards are not passed to the handler.
+	 */
+	public void close() {
+		gCloseRequested = true;
+		scheduleFlush();
+	}
+
+	/**
+	 * Close the connection at once and call the onClose() method of the handler (event loop thread only).
+	 */
+	void closeNow() {
+
+		// Check if already closed
+		if (!gIsConnected) {
+			return;
+		}
+
+		gIsConnected = false;
+
+		if (gKey != null) {
+			gKey.cancel();
+		}
+
+		try {
+			gChannel.close();
+		} catch (IOException e) {
+			KLog.error(e.toString());
+		}
+
+		// Return the buffers to the pool
+		gBufferPool.release(gLineBuffer);
+		gBufferPool.release(gNetInBuffer);
+		gBufferPool.release(gNetOutBuffer);
+		gLineBuffer		= null;
+		gNetInBuffer	= null;
+		gNetOutBuffer	= null;
+		gWriteQueue.clear();
+		gQueuedBytes.set(0);
+
+		gEventLoop.connectionClosed();
+		KLog.debug("Client {} disconnected", gRemoteAddress);
+
+		// Notify the handler
+		try {
+			gHandler.onClose(this);
+		} catch (Exception e) {
+			KLog.error(e.toString());
+		}
+	}
+
+	/**
+	 * Call the onConnect() method of the handler.
+	 */
+	private void connected() {
+
+		try {
+			gHandler.onConnect(this);
+		} catch (Exception e) {
+			KLog.error(e.toString());
+			close();
+		}
+	}
+
+	/**
+	 * Pass a received line to the handler.
+	 *
+	 * @param	argLine	Line
+	 */
+	private void dispatch(String argLine) {
+
+		try {
+			gHandler.onLine(this, argLine);
+		} catch (Exception e) {
+			KLog.error(e.toString());
+			close();
+		}
+	}
+
+	/**
+	 * Decode a line and remove a trailing CR.
+	 *
+	 * @param	argBuffer	Line bytes without LF (read mode)
+	 * @return	Line
+	 */
+	private static String decodeLine(ByteBuffer argBuffer) {
+
+		if (argBuffer.hasRemaining() && (argBuffer.get(argBuffer.limit() - 1) == '\r')) {
+			argBuffer.limit(argBuffer.limit() - 1);
+		}
+
+		return StandardCharsets.UTF_8.decode(argBuffer).toString();
+	}
+
+	/**
+	 * Send queued data as far as possible without blocking (event loop thread only).
+	 *
+	 * @throws	IOException	If the connection failed
+	 */
+	void flush() throws IOException {
+
+		// Check if connection is active
+		if (!gIsConnected) {
+			return;
+		}
+
+		if (gSSLEngine != null) {
+			pumpTLS();
+			return;
+		}
+
+		// Write queued buffers until the socket send buffer is full
+		ByteBuffer buffer = null;
+
+		while ((buffer = gWriteQueue.peek()) != null) {
+
+			gChannel.write(buffer);
+
+			if (buffer.hasRemaining()) {
+				setWriteInterest(true);
+				return;
+			}
+
+			gWriteQueue.poll();
+			gQueuedBytes.addAndGet(-buffer.limit());
+		}
+
+		setWriteInterest(false);
+
+		if (gCloseRequested) {
+			closeNow();
+		}
+	}
+
+	/**
+	 * Return name of authenticated client based on the used client certificate.<br>
+	 *
+	 * @return DN name of peer principal or null if not TLS authenticated
+	 */
+	public String getAuthenticatedClient() {
+		return gAuthenticatedClient;
+	}
+
+	/**
+	 * Return common name (without CN=) of the DN (distinguished name) from the used client certificate.<br>
+	 *
+	 * @return Common name of peer principal or null if not TLS authenticated
+	 */
+	public String getAuthenticatedClientCN() {
+
+		if (gAuthenticatedClient == null) {
+			return null;
+		}
+
+		if (gAuthenticatedClient.toUpperCase().startsWith("CN=")) {
+			return gAuthenticatedClient.split(",")[0].substring(3);
+		} else {
+			return gAuthenticatedClient;
+		}
+	}
+
+	/**
+	 * Return used TCP cipher suite (Example: "TLS_AES_256_GCM_SHA384").<br>
+	 *
+	 * @return	TLS cipher suite or null
+	 */
+	public String getCiphers() {
+		return gUsedCiphers;
+	}
+
+	/**
+	 * Return used TCP connection protocol (Example: "TLSv1.3").<br>
+	 *
+	 * @return	TLS protocol used or null
+	 */
+	public String getProtocol() {
+		return gUsedProtocol;
+	}
+
+	/**
+	 * Return the remote endpoint (Example: "127.0.0.1:50312").<br>
+	 *
+	 * @return	Remote address and port
+	 */
+	public String getRemoteAddress() {
+		return gRemoteAddress;
+	}
+
+	/**
+	 * Read available data and pass the complete lines to the handler (event loop thread only).
+	 *
+	 * @param	argReadBuffer	Read buffer of the event loop
+	 * @throws	IOException		If the connection failed
+	 */
+	void handleRead(ByteBuffer argReadBuffer) throws IOException {
+
+		if (gSSLEngine != null) {
+
+			// Read encrypted data and decrypt it
+			if (gNetInBuffer == null) {
+				gNetInBuffer = gBufferPool.acquire();
+			}
+
+			if (gChannel.read(gNetInBuffer) < 0) {
+				closeNow();
+				return;
+			}
+
+			pumpTLS();
+			return;
+		}
+
+		// Read plain data
+		argReadBuffer.clear();
+
+		if (gChannel.read(argReadBuffer) < 0) {
+			closeNow();
+			return;
+		}
+
+		argReadBuffer.flip();
+		processInput(argReadBuffer);
+	}
+
+	/**
+	 * Save the TLS session attributes after the handshake.
+	 *
+	 * @param	argResult	Result of the last wrap or unwrap
+	 */
+	private void checkHandshake(SSLEngineResult argResult) {
+
+		if (gHandshakeDone || (argResult.getHandshakeStatus() != HandshakeStatus.FINISHED)) {
+			return;
+		}
+
+		gHandshakeDone = true;
+
+		// Save TLS protocol and used ciphers
+		SSLSession sslSession = gSSLEngine.getSession();
+		gUsedProtocol	= sslSession.getProtocol();
+		gUsedCiphers	= sslSession.getCipherSuite();
+		KLog.debug("Protocol/cipher used {}/{}", gUsedProtocol, gUsedCiphers);
+
+		// Try to get name of authenticated client
+		try {
+			gAuthenticatedClient = sslSession.getPeerPrincipal().getName();
+			KLog.debug("Client authenticated as {}", getAuthenticatedClientCN());
+		} catch (Exception e) {
+			// Exception expected if no client authentication used
+			KLog.debug("No client authentication used");
+		}
+
+		connected();
+	}
+
+	/**
+	 * Check if the connection is open.<br>
+	 *
+	 * @return	True if connected, false otherwise
+	 */
+	public boolean isConnected() {
+		return gIsConnected && !gCloseRequested;
+	}
+
+	/**
+	 * Check if connection is TLS secured.<br>
+	 *
+	 * @return True if connection is TLS secured, false otherwise
+	 */
+	public boolean isSecuredConnection() {
+		return (gSSLEngine != null);
+	}
+
+	/**
+	 * Split data into lines and pass them to the handler. Incomplete lines are kept in a pooled buffer.
+	 *
+	 * @param	argData	Received data (read mode)
+	 */
+	private void processInput(ByteBuffer argData) {
+
+		while (argData.hasRemaining() && gIsConnected && !gCloseRequested) {
+
+			// Find end of line
+			int lineEnd = -1;
+
+			for (int index = argData.position(); index < argData.limit(); index++) {
+				if (argData.get(index) == '\n') {
+					lineEnd = index;
+					break;
+				}
+			}
+
+			int lineLength = ((lineEnd < 0) ? argData.limit() : lineEnd) - argData.position();
+
+			// Check maximum line length
+			if ((gLineBuffer != null) ? (lineLength > gLineBuffer.remaining()) : (lineLength > gBufferPool.getBufferSize())) {
+				KLog.error("Client {} line exceeds {} bytes - connection closed", gRemoteAddress, gBufferPool.getBufferSize());
+				closeNow();
+				return;
+			}
+
+			// Keep incomplete line
+			if (lineEnd < 0) {
+				if (gLineBuffer == null) {
+					gLineBuffer = gBufferPool.acquire();
+				}
+				gLineBuffer.put(argData);
+				return;
+			}
+
+			// Pass complete line to the handler
+			ByteBuffer line = argData.duplicate();
+			line.limit(lineEnd);
+			argData.position(lineEnd + 1);
+
+			if (gLineBuffer != null) {
+				gLineBuffer.put(line);
+				gLineBuffer.flip();
+				line = gLineBuffer;
+				gLineBuffer = null;
+				dispatch(decodeLine(line));
+				gBufferPool.release(line);
+			} else {
+				dispatch(decodeLine(line));
+			}
+		}
+	}
+
+	/**
+	 * Drive the TLS engine: Run the handshake, decrypt received data, encrypt queued data and send it (event loop thread only).
+	 *
+	 * @throws	IOException	If the connection or the TLS handshake failed
+	 */
+	private void pumpTLS() throws IOException {
+
+		ByteBuffer appBuffer = gEventLoop.getReadBuffer();
+
+		while (gIsConnected) {
+
+			// Send pending encrypted data first
+			if (!writeNetOut()) {
+				setWriteInterest(true);
+				return;
+			}
+
+			// Close after the TLS close notification was sent completely
+			if (gSSLEngine.isOutboundDone()) {
+				closeNow();
+				return;
+			}
+
+			HandshakeStatus status = gSSLEngine.getHandshakeStatus();
+
+			// Run handshake tasks (certificate checks and key calculations) in the thread pool, the event loop continues afterwards
+			if (status == HandshakeStatus.NEED_TASK) {
+
+				if (!gTaskRunning) {
+					runDelegatedTasks();
+				}
+				break;
+			}
+
+			// Encrypt handshake messages or queued data
+			if ((status == HandshakeStatus.NEED_WRAP) || ((status == HandshakeStatus.NOT_HANDSHAKING) && !gWriteQueue.isEmpty())) {
+
+				ByteBuffer source = (status == HandshakeStatus.NEED_WRAP) ? EMPTY_BUFFER : gWriteQueue.peek();
+
+				if (gNetOutBuffer == null) {
+					gNetOutBuffer = gBufferPool.acquire();
+				}
+
+				SSLEngineResult result = gSSLEngine.wrap(source, gNetOutBuffer);
+
+				if (result.getStatus() == SSLEngineResult.Status.BUFFER_OVERFLOW) {
+					throw new IOException("TLS output buffer too small");
+				}
+
+				if ((source != EMPTY_BUFFER) && !source.hasRemaining()) {
+					gWriteQueue.poll();
+					gQueuedBytes.addAndGet(-source.limit());
+				}
+
+				checkHandshake(result);
+				continue;
+			}
+
+			// Decrypt received data
+			if ((status != HandshakeStatus.NEED_WRAP) && (gNetInBuffer != null) && (gNetInBuffer.position() > 0)) {
+
+				SSLEngineResult result = null;
+
+				gNetInBuffer.flip();
+				appBuffer.clear();
+
+				try {
+					result = gSSLEngine.unwrap(gNetInBuffer, appBuffer);
+				} finally {
+					gNetInBuffer.compact();
+				}
+
+				checkHandshake(result);
+
+				// Client sent the TLS close notification: Answer it and close
+				if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+					gSSLEngine.closeOutbound();
+					continue;
+				}
+
+				if (result.getStatus() == SSLEngineResult.Status.BUFFER_OVERFLOW) {
+					throw new IOException("TLS input buffer too small");
+				}
+
+				appBuffer.flip();
+				processInput(appBuffer);
+
+				if ((result.getStatus() == SSLEngineResult.Status.OK) && (result.bytesConsumed() > 0)) {
+					continue;
+				}
+			}
+
+			// Send the TLS close notification after all queued data
+			if (gCloseRequested && gWriteQueue.isEmpty() && !gSSLEngine.isOutboundDone()) {
+				gSSLEngine.closeOutbound();
+				continue;
+			}
+
+			break;
+		}
+
+		// Check if connection was closed
+		if (!gIsConnected) {
+			return;
+		}
+
+		setWriteInterest(false);
+
+		// Return empty buffers to the pool
+		gBufferPool.release(gNetOutBuffer);
+		gNetOutBuffer = null;
+
+		if ((gNetInBuffer != null) && (gNetInBuffer.position() == 0)) {
+			gBufferPool.release(gNetInBuffer);
+			gNetInBuffer = null;
+		}
+	}
+
+	/**
+	 * Register the connection with the selector of the event loop and start the TLS handshake (event loop thread only).
+	 *
+	 * @param	argSelector	Selector
+	 * @throws	IOException	If the connection failed
+	 */
+	void register(Selector argSelector) throws IOException {
+
+		gChannel.configureBlocking(false);
+		gKey = gChannel.register(argSelector, SelectionKey.OP_READ, this);
+
+		KLog.debug("Client {} connected ({}TLS)", gRemoteAddress, (isSecuredConnection() ? "" : "Non-"));
+
+		if (gSSLEngine != null) {
+			gSSLEngine.beginHandshake();
+			pumpTLS();
+		} else {
+			connected();
+			flush();
+		}
+	}
+
+	/**
+	 * Run the delegated tasks of the TLS engine in the thread pool and continue with the TLS engine in the event loop afterwards.
+	 *
+	 * @throws	IOException	If the thread pool was shut down
+	 */
+	private void runDelegatedTasks() throws IOException {
+
+		gTaskRunning = true;
+
+		try {
+			gTaskExecutor.execute(() -> {
+
+				try {
+					Runnable task = null;
+
+					while ((task = gSSLEngine.getDelegatedTask()) != null) {
+						task.run();
+					}
+				} finally {
+					gEventLoop.execute(() -> {
+
+						gTaskRunning = false;
+
+						try {
+							pumpTLS();
+						} catch (Exception e) {
+							KLog.debug("Client {} connection error: {}", gRemoteAddress, e.toString());
+							closeNow();
+						}
+					});
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			throw new IOException("TLS task thread pool is shut down", e);
+		}
+	}
+
+	/**
+	 * Let the event loop send the queued data.
+	 */
+	private void scheduleFlush() {
+
+		if (!gFlushScheduled.compareAndSet(false, true)) {
+			return;
+		}
+
+		gEventLoop.execute(() -> {
+
+			gFlushScheduled.set(false);
+
+			try {
+				flush();
+			} catch (Exception e) {
+				KLog.debug("Client {} connection error: {}", gRemoteAddress, e.toString());
+				closeNow();
+			}
+		});
+	}
+
+	/**
+	 * Set or clear the interest in write readiness.
+	 *
+	 * @param	argWrite	True to wait until data can be written, false otherwise
+	 */
+	private void setWriteInterest(boolean argWrite) {
+
+		if ((gKey != null) && gKey.isValid()) {
+			gKey.interestOps(argWrite ? (SelectionKey.OP_READ | SelectionKey.OP_WRITE) : SelectionKey.OP_READ);
+		}
+	}
+
+	/**
+	 * Queue byte array for sending.
+	 *
+	 * @param	argData	Bytes to be written
+	 * @return	True if queued, false if the connection is closed or more than 4 MiB are already queued
+	 */
+	public boolean write(byte[] argData) {
+
+		// Check arguments
+		KLog.argException(argData == null, "argData must not be null");
+
+		if (!isConnected()) {
+			return false;
+		}
+
+		// Reject data if the client does not receive the queued data fast enough (a single larger write is accepted)
+		long queuedBytes = gQueuedBytes.addAndGet(argData.length);
+
+		if ((queuedBytes > MAX_QUEUED_BYTES) && (queuedBytes != argData.length)) {
+			gQueuedBytes.addAndGet(-argData.length);
+			KLog.debug("Client {} write queue full ({})", gRemoteAddress, K.formatBytes(queuedBytes - argData.length));
+			return false;
+		}
+
+		gWriteQueue.offer(ByteBuffer.wrap(argData));
+		scheduleFlush();
+
+		KLog.debug("Data queued ({})", () -> new Object[] {K.formatBytes(argData.length)});
+		return true;
+	}
+
+	/**
+	 * Queue string for sending.
+	 *
+	 * @param	argData	String to be written
+	 * @return	True if queued, false if the connection is closed or the write queue is full
+	 */
+	public boolean write(String argData) {
+		return write(argData.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Queue line terminated with a platform dependent end-of-line for sending.
+	 *
+	 * @param	argLine	String to be written
+	 * @return	True if queued, false if the connection is closed or the write queue is full
+	 */
+	public boolean writeLine(String argLine) {
+		return write((argLine + K.LINE_SEPARATOR).getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Send pending encrypted data.
+	 *
+	 * @return	True if all data was sent, false if the socket send buffer is full
+	 * @throws	IOException	If the connection failed
+	 */
+	private boolean writeNetOut() throws IOException {
+
+		if ((gNetOutBuffer == null) || (gNetOutBuffer.position() == 0)) {
+			return true;
+		}
+
+		gNetOutBuffer.flip();
+
+		try {
+			gChannel.write(gNetOutBuffer);
+		} finally {
+			gNetOutBuffer.compact();
+		}
+
+		return (gNetOutBuffer.position() == 0);
+	}
+
+	/**
+	 * String representation of object.
+	 *
+	 * @return	Object representation
+	 */
+	@Override
+	public String toString() {
+		return "KSocketConnection [gRemoteAddress=" + gRemoteAddress + ", gIsConnected=" + gIsConnected + ", gCloseRequested="
+				+ gCloseRequested + ", gIsSecuredConnection=" + isSecuredConnection() + ", gUsedProtocol=" + gUsedProtocol
+				+ ", gUsedCiphers=" + gUsedCiphers + ", gAuthenticatedClient=" + gAuthenticatedClient + ", gHandler=" + gHandler + "]";
+	}
+}
@@ -0,0 +1,227 @@
+package ch.k43.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.net.ssl.SSLEngine;
+
+/**
+ * Event loop of the KSocketServerEngine. Each event loop runs in its own thread and handles the I/O of its connections with a selector.<p>
+ *
+ * Notes:<br>
+ * - Tasks of other threads (new connections, queued writes, close requests) are passed with execute() and run by the event loop
+ *   thread after the ready connections were handled.<br>
+ * - The direct read buffer of the event loop is shared by all its connections.<br>
+ * - Tasks passed after the event loop has terminated (e.g. a connection accepted during shutdown) are run by the calling thread,
+ *   so their connections are closed and not leaked.<br>
+ *
+ * @see KSocketServerEngine
+ * @see KSocketConnection
+ *
+ * @since 2026.10.17
+ */
+final class KSocketEventLoop implements Runnable, AutoCloseable {
+
+	// Declarations
+	private final Selector							gSelector;
+	private final KByteBufferPool					gBufferPool;
+	private final ExecutorService					gTaskExecutor;
+	private final ByteBuffer						gReadBuffer;
+	private final ConcurrentLinkedQueue<Runnable>	gTasks				= new ConcurrentLinkedQueue<>();
+	private final AtomicInteger						gConnectionCount	= new AtomicInteger(0);
+	private volatile Thread							gThread				= null;
+	private volatile boolean						gClosed				= false;
+	private volatile boolean						gTerminated			= false;
+
+	/**
+	 * Create event loop.
+	 *
+	 * @param	argBufferPool	Pool of direct buffers
+	 * @param	argTaskExecutor	Thread pool for the TLS handshake tasks or null for non-TLS connections
+	 * @throws	IOException		If the selector could not be opened
+	 */
+	KSocketEventLoop(KByteBufferPool argBufferPool, ExecutorService argTaskExecutor) throws IOException {
+		gBufferPool		= argBufferPool;
+		gTaskExecutor	= argTaskExecutor;
+		gSelector		= Selector.open();
+		gReadBuffer		= gBufferPool.acquire();
+	}
+
+	/**
+	 * Stop the event loop. All connections are closed by the event loop thread.
+	 */
+	@Override
+	public void close() {
+		gClosed = true;
+		gSelector.wakeup();
+	}
+
+	/**
+	 * Count a closed connection (called by KSocketConnection).
+	 */
+	void connectionClosed() {
+		gConnectionCount.decrementAndGet();
+	}
+
+	/**
+	 * Run a task on the event loop thread.
+	 *
+	 * @param	argTask	Task
+	 */
+	void execute(Runnable argTask) {
+
+		gTasks.offer(argTask);
+
+		// Event loop terminated: Run the task here (the closed selector makes new connections close at once)
+		if (gTerminated) {
+			runTasks();
+			return;
+		}
+
+		if (Thread.currentThread() != gThread) {
+			gSelector.wakeup();
+		}
+	}
+
+	/**
+	 * Get the number of connections.
+	 *
+	 * @return	Number of connections
+	 */
+	int getConnectionCount() {
+		return gConnectionCount.get();
+	}
+
+	/**
+	 * Get the read buffer shared by all connections (event loop thread only).
+	 *
+	 * @return	Direct buffer
+	 */
+	ByteBuffer getReadBuffer() {
+		return gReadBuffer;
+	}
+
+	/**
+	 * Add a new connection.
+	 *
+	 * @param	argChannel		Accepted client channel
+	 * @param	argSSLEngine	TLS engine or null for non-TLS connections
+	 * @param	argHandler		User handler
+	 * @throws	IOException		If the remote address is not available
+	 */
+	void register(SocketChannel argChannel, SSLEngine argSSLEngine, KSocketHandler argHandler) throws IOException {
+
+		KSocketConnection connection = new KSocketConnection(argChannel, this, gBufferPool, gTaskExecutor, argSSLEngine, argHandler);
+
+		gConnectionCount.incrementAndGet();
+
+		execute(() -> {
+			try {
+				connection.register(gSelector);
+			} catch (Exception e) {
+				KLog.error("Client {} connection error: {}", connection.getRemoteAddress(), e.toString());
+				connection.closeNow();
+			}
+		});
+	}
+
+	/**
+	 * Main entry point for thread.
+	 */
+	@Override
+	public void run() {
+
+		gThread = Thread.currentThread();
+
+		while (!gClosed) {
+
+			try {
+				gSelector.select();
+			} catch (IOException e) {
+				KLog.error(e.toString());
+				break;
+			}
+
+			// Handle ready connections
+			Iterator<SelectionKey> keys = gSelector.selectedKeys().iterator();
+
+			while (keys.hasNext()) {
+
+				SelectionKey		key			= keys.next();
+				KSocketConnection	connection	= (KSocketConnection) key.attachment();
+
+				keys.remove();
+
+				try {
+					if (key.isValid() && key.isReadable()) {
+						connection.handleRead(gReadBuffer);
+					}
+
+					if (key.isValid() && key.isWritable()) {
+						connection.flush();
+					}
+				} catch (IOException | CancelledKeyException e) {
+					KLog.debug("Client {} connection error: {}", connection.getRemoteAddress(), e.toString());
+					connection.closeNow();
+				}
+			}
+
+			runTasks();
+		}
+
+		// Register pending connections and close all connections
+		runTasks();
+
+		for (SelectionKey key : gSelector.keys()) {
+			((KSocketConnection) key.attachment()).closeNow();
+		}
+
+		try {
+			gSelector.close();
+		} catch (IOException e) {
+			KLog.error(e.toString());
+		}
+
+		// Tasks passed from now on are run by the calling thread. Close the connections passed in the meantime.
+		gTerminated = true;
+		runTasks();
+
+		gBufferPool.release(gReadBuffer);
+		KLog.debug("Event loop {} terminated", gThread.getName());
+	}
+
+	/**
+	 * Run the tasks passed by other threads or by the connections of this event loop (called by other threads only after the event
+	 * loop has terminated).
+	 */
+	private void runTasks() {
+
+		Runnable task = null;
+
+		while ((task = gTasks.poll()) != null) {
+			try {
+				task.run();
+			} catch (Exception e) {
+				KLog.error(e.toString());
+			}
+		}
+	}
+
+	/**
+	 * String representation of object.
+	 *
+	 * @return	Object representation
+	 */
+	@Override
+	public String toString() {
+		return "KSocketEventLoop [gThread=" + gThread + ", gConnectionCount=" + gConnectionCount + ", gClosed=" + gClosed + "]";
+	}
+}
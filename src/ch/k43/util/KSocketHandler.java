@@ -0,0 +1,61 @@
+package ch.k43.util;
+
+/**
+ * Handler of client connections for the event loop engine of KSocketServer.<p>
+ *
+ * Notes:<br>
+ * - A user class implementing this interface (with a public constructor without arguments) may be passed to the KSocketServer
+ *   constructors instead of a subclass of KSocketServerThread. The server then handles all connections with a few event loop
+ *   threads (non-blocking I/O) instead of one thread per connection.<br>
+ * - One handler object is created per client connection, so the handler may keep the state of its connection in its own fields.<br>
+ * - All methods are called on the event loop thread of the connection and must not block. Long running work must be passed to
+ *   other threads (e.g. a KQueue), which may then answer with KSocketConnection.write().<br>
+ * - Received data is split into lines (terminated by LF or CR/LF, decoded as UTF-8). Lines longer than the buffer size (32 KiB)
+ *   close the connection.<br>
+ *
+ * <pre>
+ * Example:
+ *
+ * public class EchoHandler implements KSocketHandler {
+ *
+ *    public void onLine(KSocketConnection argConnection, String argLine) {
+ *       argConnection.writeLine(argLine.toUpperCase());
+ *    }
+ * }
+ *
+ * KSocketServer server = new KSocketServer(9999, EchoHandler.class);
+ * </pre>
+ *
+ * @see KSocketServer
+ * @see KSocketConnection
+ *
+ * @since 2026.10.17
+ */
+public interface KSocketHandler {
+
+	/**
+	 * Called after the connection was accepted (and the TLS handshake was completed).
+	 *
+	 * @param	argConnection	Client connection
+	 */
+	default void onConnect(KSocketConnection argConnection) {
+		// Nothing to do by default
+	}
+
+	/**
+	 * Called for each complete line received from the client.
+	 *
+	 * @param	argConnection	Client connection
+	 * @param	argLine			Line without the line terminator
+	 */
+	void onLine(KSocketConnection argConnection, String argLine);
+
+	/**
+	 * Called after the connection was closed by the client, the handler or the server.
+	 *
+	 * @param	argConnection	Client connection
+	 */
+	default void onClose(KSocketConnection argConnection) {
+		// Nothing to do by default
+	}
+}
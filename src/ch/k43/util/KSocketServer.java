@@ -1,8 +1,10 @@
 package ch.k43.util;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.io.FileInputStream;
+import java.nio.channels.ServerSocketChannel;
 import java.security.KeyStore;
 import java.security.cert.X509Certificate;
 import java.util.Collection;
@@ -21,14 +23,47 @@ import javax.net.ssl.SSLServerSocket;
  * 
  * Notes:<br>
  * - The constructor will load and start the KSocketServerListener thread which process all incoming client connects.<br>
- * - The KSocketServerListener will start a separate KSocketServerThread for each accepted client connection.<br>
+ * - The KSocketServerListener will run a separate KSocketServerThread for each accepted client connection (on its own platform thread).<br>
+ * - With the thread mode VIRTUAL_THREADS, the user class runs on a virtual thread (Java 21+) instead of its own platform thread, so
+ *   tens of thousands of mostly idle connections need no operating system thread each. On older JVMs, the connections are handled by
+ *   a bounded pool of platform threads. The user class (subclass of KSocketServerThread) is unchanged: It is created and its run()
+ *   method is called on the virtual or pooled thread (the user class itself is not started as a thread).<br>
+ * - If the user class implements KSocketHandler instead of extending KSocketServerThread, the server uses the event loop engine
+ *   (KSocketServerEngine): All connections are handled with non-blocking I/O by one event loop thread per processor, which passes the
+ *   received lines to the handler. This serves many thousand connections with a handful of threads. The number of event loops may
+ *   be set with the system property KSocketEventLoops (e.g. -DKSocketEventLoops=4).<br>
  * 
  * @see KSocketServerListener
  * @see KSocketServerThread
+ * @see KSocketHandler
  */
 public class KSocketServer implements AutoCloseable{
 
+	/**
+	 * Thread mode: Each client connection runs on its own platform thread (default)
+	 * 
+	 * @since 2026.10.17
+	 */
+	public static final int	PLATFORM_THREADS	= 0x01;
+
+	/**
+	 * Thread mode: Each client connection runs on its own virtual thread (Java 21+) or on a bounded platform thread pool (older JVMs)
+	 * 
+	 * @since 2026.10.17
+	 */
+	public static final int	VIRTUAL_THREADS		= 0x02;
+
+	/**
+	 * Thread mode: All client connections are handled by a few event loop threads (user class must implement KSocketHandler)
+	 * 
+	 * @since 2026.10.17
+	 */
+	public static final int	EVENT_LOOP			= 0x04;
+
 	// Class variables
+	private static final String	EVENT_LOOPS_PROPERTY	= "KSocketEventLoops";
+	private static final int	MAX_EVENT_LOOPS			= 1024;
+
 	private ServerSocket	gServerSocket		= null;
 	private Thread			gListenerThread		= null;
 	private String			gLastErrorMessage	= null;
@@ -55,12 +90,30 @@ public class KSocketServer implements AutoCloseable{
 	 * @see close
 	 * 
 	 * @param	argLocalPort	Local host port
-	 * @param	argClass		User class handling the client connections (subclass of KSocketServerThread)
+	 * @param	argClass		User class handling the client connections (subclass of KSocketServerThread or implementing KSocketHandler)
 	 */
 	public KSocketServer(int argLocalPort, Class<?> argClass) {
 		this(argLocalPort, argClass.getName(), false, null, null, null, null);
 	}
 	
+	/**
+	 * Start a non-TLS socket server with the given thread mode.<p>
+	 * 
+	 * <p>Example:<br>
+	 * <pre>
+	 * KSocketServer server = new KSocketServer(9999, KSocketServerThreadSample.class, KSocketServer.VIRTUAL_THREADS);
+	 * </pre>
+	 * 
+	 * @param	argLocalPort	Local host port
+	 * @param	argClass		User class handling the client connections (subclass of KSocketServerThread or implementing KSocketHandler)
+	 * @param	argThreadMode	PLATFORM_THREADS, VIRTUAL_THREADS or EVENT_LOOP
+	 * 
+	 * @since 2026.10.17
+	 */
+	public KSocketServer(int argLocalPort, Class<?> argClass, int argThreadMode) {
+		this(argLocalPort, argClass.getName(), false, null, null, null, null, argThreadMode);
+	}
+	
 	/**
 	 * Start a TLS-secured socket server.<p>
 	 * 
@@ -82,7 +135,7 @@ public class KSocketServer implements AutoCloseable{
 	 * @see close
 	 * 
 	 * @param	argLocalPort			Local host port
-	 * @param	argClass				User class handling the client socket request (must be subclass of KSocketServerThread)
+	 * @param	argClass				User class handling the client socket request (must be subclass of KSocketServerThread or implement KSocketHandler)
 	 * @param	argKeyStoreFileName		Key store file name to be loaded
 	 * @param	argKeyStorePassword		Key store password
 	 */
@@ -114,7 +167,7 @@ public class KSocketServer implements AutoCloseable{
 	 * @see close
 	 * 
 	 * @param	argLocalPort			Local host port
-	 * @param	argClass				User class handling the client socket request (must be subclass of KSocketServerThread)
+	 * @param	argClass				User class handling the client socket request (must be subclass of KSocketServerThread or implement KSocketHandler)
 	 * @param	argKeyStoreFileName		Key store file name to be loaded
 	 * @param	argKeyStorePassword		Key store password
 	 * @param	argTrustStoreFileName	Trust store file name to be loaded or null for non-TLS
@@ -148,7 +201,7 @@ public class KSocketServer implements AutoCloseable{
 	 * @see close
 	 * 
 	 * @param	argLocalPort			Local host port
-	 * @param	argClassName			User class name handling the client socket requests (must be subclass of KSocketServerThread)
+	 * @param	argClassName			User class name handling the client socket requests (must be subclass of KSocketServerThread or implement KSocketHandler)
 	 * @param	argTLS					True for TLS-secured socket, false for non-secured socket
 	 * @param	argKeyStoreFileName		Key store file name to be loaded (TLS requirement) or null for non-TLS
 	 * @param	argKeyStorePassword		Key store password or null
@@ -156,11 +209,48 @@ public class KSocketServer implements AutoCloseable{
 	 * @param	argTrustStorePassword	Trust store password or null
 	 */
 	public KSocketServer(int argLocalPort, String argClassName, boolean argTLS, String argKeyStoreFileName, char[] argKeyStorePassword, String argTrustStoreFileName, char[] argTrustStorePassword) {
+		this(argLocalPort, argClassName, argTLS, argKeyStoreFileName, argKeyStorePassword, argTrustStoreFileName, argTrustStorePassword, PLATFORM_THREADS);
+	}
+	
+	/**
+	 * Start a TLS-secured or non-secured socket server with the given thread mode.<p>
+	 * 
+	 * With VIRTUAL_THREADS, each client connection (including the TLS handshake) is handled on a virtual thread, or on a bounded
+	 * pool of platform threads if the JVM does not support virtual threads. User classes implementing KSocketHandler are handled
+	 * by the event loop engine (thread mode PLATFORM_THREADS or EVENT_LOOP), VIRTUAL_THREADS is rejected for them.<br>
+	 * 
+	 * @param	argLocalPort			Local host port
+	 * @param	argClassName			User class name handling the client socket requests (must be subclass of KSocketServerThread or implement KSocketHandler)
+	 * @param	argTLS					True for TLS-secured socket, false for non-secured socket
+	 * @param	argKeyStoreFileName		Key store file name to be loaded (TLS requirement) or null for non-TLS
+	 * @param	argKeyStorePassword		Key store password or null
+	 * @param	argTrustStoreFileName	Trust store file name to be loaded or null for non-TLS
+	 * @param	argTrustStorePassword	Trust store password or null
+	 * @param	argThreadMode			PLATFORM_THREADS, VIRTUAL_THREADS (only for subclasses of KSocketServerThread) or EVENT_LOOP (only for KSocketHandler classes)
+	 * 
+	 * @since 2026.10.17
+	 */
+	public KSocketServer(int argLocalPort, String argClassName, boolean argTLS, String argKeyStoreFileName, char[] argKeyStorePassword, String argTrustStoreFileName, char[] argTrustStorePassword, int argThreadMode) {
 
 		// Check arguments
 		KLog.argException(argLocalPort < 1 || argLocalPort > 65535, "argLocalPort must be between 1 and 65535");
+		KLog.argException(argThreadMode != PLATFORM_THREADS && argThreadMode != VIRTUAL_THREADS && argThreadMode != EVENT_LOOP, "Thread mode must be PLATFORM_THREADS, VIRTUAL_THREADS or EVENT_LOOP");
 		KLog.argException(argTLS && (K.isEmpty(argKeyStoreFileName)), "Key store file name is required for TLS connections");		
 		
+		// Use the event loop engine for KSocketHandler classes
+		Class<?> handlerClass = null;
+		
+		if (!K.isEmpty(argClassName)) {
+			Class<?> userClass = K.loadClass(argClassName);
+			
+			if ((userClass != null) && KSocketHandler.class.isAssignableFrom(userClass)) {
+				handlerClass = userClass;
+			}
+		}
+		
+		KLog.argException(argThreadMode == EVENT_LOOP && handlerClass == null, "Thread mode EVENT_LOOP requires a class implementing KSocketHandler");
+		KLog.argException(argThreadMode == VIRTUAL_THREADS && handlerClass != null, "Thread mode VIRTUAL_THREADS requires a subclass of KSocketServerThread (KSocketHandler classes use EVENT_LOOP)");
+		
 		// Setup and start the socket server
 		try {
 
@@ -208,6 +298,12 @@ public class KSocketServer implements AutoCloseable{
 				sslContext.init(keyManagerFactory.getKeyManagers(), trustManagerFactory.getTrustManagers(), null);
 				KLog.debug("Key manager and TLS context initialized");
 
+				// Start event loop engine
+				if (handlerClass != null) {
+					gServerSocket = startEngine(argLocalPort, handlerClass, sslContext);
+					return;
+				}
+				
 				SSLServerSocket sslServerSocket = (SSLServerSocket) sslContext.getServerSocketFactory().createServerSocket(argLocalPort);
 
 				// Ask for optional client certificate during TLS handshake 
@@ -220,6 +316,11 @@ public class KSocketServer implements AutoCloseable{
 				//
 				// Non-TLS socket server
 				//
+				if (handlerClass != null) {
+					gServerSocket = startEngine(argLocalPort, handlerClass, null);
+					return;
+				}
+				
 				gServerSocket = ServerSocketFactory.getDefault().createServerSocket(argLocalPort);
 			}
 			
@@ -244,10 +345,48 @@ public class KSocketServer implements AutoCloseable{
 		//
 		// Create and start connection listener thread
 		//
-		gListenerThread = new KSocketServerListener(gServerSocket, argClassName);
+		gListenerThread = new KSocketServerListener(gServerSocket, argClassName, argThreadMode == VIRTUAL_THREADS);
 		gListenerThread.start();
 	}
 	
+	/**
+	 * Bind a server channel and start the event loop engine.
+	 * 
+	 * @param	argLocalPort		Local host port
+	 * @param	argHandlerClass		User class implementing KSocketHandler
+	 * @param	argSSLContext		TLS context or null for non-TLS
+	 * @return	Server socket of the channel
+	 * @throws	Exception			If the port could not be bound or the engine could not be started
+	 * 
+	 * @since 2026.10.17
+	 */
+	private ServerSocket startEngine(int argLocalPort, Class<?> argHandlerClass, SSLContext argSSLContext) throws Exception {
+		
+		ServerSocketChannel serverChannel = ServerSocketChannel.open();
+		
+		try {
+			serverChannel.bind(new InetSocketAddress(argLocalPort));
+			
+			// Number of event loops (default one per processor)
+			int		eventLoops			= Runtime.getRuntime().availableProcessors();
+			String	eventLoopsProperty	= System.getProperty(EVENT_LOOPS_PROPERTY, "").trim();
+			
+			if (!eventLoopsProperty.isEmpty()) {
+				KLog.argException(!K.isInteger(eventLoopsProperty, 1, MAX_EVENT_LOOPS), "System property {} must be between 1 and {}", EVENT_LOOPS_PROPERTY, MAX_EVENT_LOOPS);
+				eventLoops = Integer.parseInt(eventLoopsProperty);
+			}
+			
+			gListenerThread = new KSocketServerEngine(serverChannel, argHandlerClass, argSSLContext, eventLoops);
+			gListenerThread.start();
+			
+		} catch (Exception e) {
+			serverChannel.close();
+			throw e;
+		}
+		
+		return serverChannel.socket();
+	}
+	
 	/**
 	 * Stop the socket server by terminating the KSocketServerListener thread. During shutdown, KSocketServerListener will itself terminate
 	 * all client connections.<br>
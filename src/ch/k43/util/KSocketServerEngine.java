@@ -0,0 +1,203 @@
+package ch.k43.util;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
+
+/**
+ * Event loop engine of KSocketServer for user classes implementing KSocketHandler.<p>
+ *
+ * Notes:<br>
+ * - This class is started as a separate thread by KSocketServer and accepts the client connections of the server channel.<br>
+ * - The accepted connections are assigned round robin to a fixed number of event loops (KSocketEventLoop), each running in its
+ *   own thread. The event loops read into pooled direct buffers, run the TLS engine and pass the complete lines to a new
+ *   KSocketHandler object per connection.<br>
+ * - The delegated tasks of the TLS handshake (certificate checks and key calculations) run in a small thread pool, so they do not
+ *   block the other connections of the event loop.<br>
+ * - The thread terminates if the server channel is closed (KSocketServer.close()) and then closes all connections.<br>
+ *
+ * @see KSocketServer
+ * @see KSocketHandler
+ *
+ * @since 2026.10.17
+ */
+final class KSocketServerEngine extends Thread implements AutoCloseable {
+
+	// Declarations
+	static final int						BUFFER_SIZE			= 32 * 1024;
+	private static final int				MAX_POOLED_BUFFERS	= 1024;
+
+	private final ServerSocketChannel		gServerChannel;
+	private final SSLContext				gSSLContext;
+	private final Constructor<?>			gHandlerConstructor;
+	private final KSocketEventLoop[]		gEventLoops;
+	private final KByteBufferPool			gBufferPool;
+	private final ThreadPoolExecutor		gTaskExecutor;
+	private final String					gThisClassName;
+	private final int						gPortNumber;
+	private int								gNextEventLoop		= 0;
+
+	/**
+	 * Create the engine and start the event loop threads.
+	 *
+	 * @param	argServerChannel	Bound server channel (blocking mode)
+	 * @param	argHandlerClass		User class implementing KSocketHandler with a public constructor without arguments
+	 * @param	argSSLContext		TLS context or null for non-TLS connections
+	 * @param	argEventLoops		Number of event loop threads
+	 * @throws	IOException				If the selectors could not be opened
+	 * @throws	NoSuchMethodException	If the user class has no public constructor without arguments
+	 */
+	KSocketServerEngine(ServerSocketChannel argServerChannel, Class<?> argHandlerClass, SSLContext argSSLContext, int argEventLoops) throws IOException, NoSuchMethodException {
+
+		// Check arguments
+		KLog.argException(argServerChannel == null, "Server channel is required");
+		KLog.argException(argHandlerClass == null || !KSocketHandler.class.isAssignableFrom(argHandlerClass), "Handler class must implement KSocketHandler");
+		KLog.argException(argEventLoops < 1, "Number of event loops must be positive");
+
+		gServerChannel		= argServerChannel;
+		gSSLContext			= argSSLContext;
+		gHandlerConstructor	= argHandlerClass.getConstructor();
+		gPortNumber			= gServerChannel.socket().getLocalPort();
+		gThisClassName		= this.getClass().getName();
+
+		// Size the buffers for the largest TLS record
+		int bufferSize = BUFFER_SIZE;
+
+		if (gSSLContext != null) {
+			SSLSession sslSession = gSSLContext.createSSLEngine().getSession();
+			bufferSize = Math.max(bufferSize, Math.max(sslSession.getPacketBufferSize(), sslSession.getApplicationBufferSize()));
+		}
+
+		gBufferPool = new KByteBufferPool(bufferSize, MAX_POOLED_BUFFERS);
+
+		// Create the thread pool for the TLS handshake tasks (one thread per event loop at most)
+		gTaskExecutor = (gSSLContext == null) ? null : new ThreadPoolExecutor(argEventLoops, argEventLoops, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(), new KThreadFactory("KSocketTLSTask-" + gPortNumber, false));
+
+		if (gTaskExecutor != null) {
+			gTaskExecutor.allowCoreThreadTimeOut(true);
+		}
+
+		// Create and start the event loops
+		KThreadFactory threadFactory = new KThreadFactory("KSocketEventLoop-" + gPortNumber, false);
+
+		gEventLoops = new KSocketEventLoop[argEventLoops];
+
+		for (int index = 0; index < gEventLoops.length; index++) {
+			gEventLoops[index] = new KSocketEventLoop(gBufferPool, gTaskExecutor);
+			threadFactory.newThread(gEventLoops[index]).start();
+		}
+
+		KLog.debug("{} started {} event loops with {} byte buffers", gThisClassName, gEventLoops.length, bufferSize);
+	}
+
+	/**
+	 * Stop the event loops and close all client connections.
+	 */
+	@Override
+	public synchronized void close() {
+
+		for (KSocketEventLoop eventLoop : gEventLoops) {
+			eventLoop.close();
+		}
+
+		if (gTaskExecutor != null) {
+			gTaskExecutor.shutdown();
+		}
+
+		try {
+			gServerChannel.close();
+		} catch (IOException e) {
+			KLog.error(e.toString());
+		}
+	}
+
+	/**
+	 * Get the number of client connections.
+	 *
+	 * @return	Number of connections
+	 */
+	int getConnectionCount() {
+
+		int connectionCount = 0;
+
+		for (KSocketEventLoop eventLoop : gEventLoops) {
+			connectionCount += eventLoop.getConnectionCount();
+		}
+
+		return connectionCount;
+	}
+
+	/**
+	 * Main entry point for thread.
+	 */
+	@Override
+	public void run() {
+
+		// Wait for incoming client connections and pass them to the event loops
+		while (true) {
+
+			SocketChannel channel = null;
+
+			try {
+				KLog.debug("{} waiting on port {} ({}TLS)", gThisClassName, gPortNumber, (gSSLContext == null ? "non-" : ""));
+				channel = gServerChannel.accept();
+			} catch (IOException e) {
+				// Terminate this thread if server channel was closed (mostly due to KSocketServer.close())
+				break;
+			}
+
+			try {
+				// Create TLS engine asking for an optional client certificate
+				SSLEngine sslEngine = null;
+
+				if (gSSLContext != null) {
+					sslEngine = gSSLContext.createSSLEngine();
+					sslEngine.setUseClientMode(false);
+					sslEngine.setWantClientAuth(true);
+				}
+
+				// Create handler and assign connection round robin
+				KSocketHandler handler = (KSocketHandler) gHandlerConstructor.newInstance();
+
+				gEventLoops[gNextEventLoop].register(channel, sslEngine, handler);
+				gNextEventLoop = (gNextEventLoop + 1) % gEventLoops.length;
+
+				KLog.debug("Active client connections: {}", getConnectionCount());
+
+			} catch (Exception e) {
+
+				KLog.error(e.toString());
+
+				try {
+					channel.close();
+				} catch (IOException ee) {
+					KLog.error(ee.toString());
+				}
+			}
+		}
+
+		// Terminate thread and close all connections
+		KLog.debug("{} on port {} ({}TLS) terminated", gThisClassName, gPortNumber, (gSSLContext == null ? "non-" : ""));
+		close();
+	}
+
+	/**
+	 * String representation of object.
+	 *
+	 * @return	Object representation
+	 */
+	@Override
+	public String toString() {
+		return "KSocketServerEngine [gThisClassName=" + gThisClassName + ", gPortNumber=" + gPortNumber + ", gEventLoops="
+				+ gEventLoops.length + ", gIsSecuredConnection=" + (gSSLContext != null) + ", gBufferPool=" + gBufferPool + "]";
+	}
+}
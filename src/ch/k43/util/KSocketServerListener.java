@@ -1,11 +1,17 @@
 package ch.k43.util;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
-import java.util.Vector;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.SSLServerSocket;
 
@@ -14,7 +20,12 @@ import javax.net.ssl.SSLServerSocket;
  * 
  * Notes:<br>
  * - This class is started as a separate thread by KSocketServer.<br>
- * - For each client connection, this class will start a separate user thread (subclass of KSocketServerThread or KHTTPServerThread).<br>
+ * - For each client connection, this class will run a separate user class (subclass of KSocketServerThread or KHTTPServerThread).<br>
+ * - The user class is not started as a thread. It is created and run as Runnable on a new platform thread, or with virtual threads
+ *   on a new virtual thread (or a pooled platform thread on older JVMs), so the accept loop is not blocked by the TLS handshake in the
+ *   user class constructor.<br>
+ * - The constructor of the user class is resolved once as method handle. The client sockets are kept in a concurrent set until the
+ *   run() method of the user class returns (or throws).<br>
  * 
  * @see KSocketServerThread
  * @see KHTTPServerThread
@@ -23,7 +34,12 @@ import javax.net.ssl.SSLServerSocket;
 class KSocketServerListener extends Thread implements AutoCloseable {
 
 	// Class variables
-	private Vector<Socket>	gClientSockets			= null;
+	private static final int	MAX_POOL_THREADS		= 512;
+	
+	private Set<Socket>		gClientSockets			= null;
+	private MethodHandle	gUserConstructor		= null;
+	private KThreadFactory	gThreadFactory			= null;
+	private ExecutorService	gThreadPool				= null;
 	private Class<?>		gUserClass				= null;
 	private ServerSocket	gServerSocket			= null;
 	private String			gThisClassName			= null;
@@ -49,6 +65,19 @@ class KSocketServerListener extends Thread implements AutoCloseable {
 	 * @see run
 	 */
 	public KSocketServerListener(ServerSocket argServerSocket, String argClassName) {
+		this(argServerSocket, argClassName, false);
+	}
+	
+	/**
+	 * Loads the user class (subclass of KSocketServerThread) and runs it on a platform thread or a virtual thread per connection.<br>
+	 * 
+	 * @param argServerSocket	Server socket passed by KSocketServer
+	 * @param argClassName		User class name to be dynamically loaded (passed by KSocketServer)
+	 * @param argVirtual		True to run the user class on virtual threads (bounded platform thread pool on older JVMs)
+	 * 
+	 * @since 2026.10.17
+	 */
+	public KSocketServerListener(ServerSocket argServerSocket, String argClassName, boolean argVirtual) {
 		
 		// Check arguments
 		KLog.argException(K.isEmpty(argServerSocket), "argServerSocket must not be empty");
@@ -86,36 +115,35 @@ class KSocketServerListener extends Thread implements AutoCloseable {
     		return;
     	}
 		
-    	// Create vector to hold connected client sockets
-    	gClientSockets = new Vector<>();
+		// Resolve constructor of user class
+		try {
+			gUserConstructor = MethodHandles.lookup().unreflectConstructor(gUserClass.getConstructor(Socket.class))
+					.asType(MethodType.methodType(KSocketServerThread.class, Socket.class));
+		} catch (Exception e) {
+			KLog.error("{} must have a public constructor with a Socket argument: {}", argClassName, e.toString());
+			return;
+		}
+		
+    	// Create set to hold connected client sockets
+    	gClientSockets = ConcurrentHashMap.newKeySet();
+    	
+    	// Create virtual thread factory or bounded platform thread pool
+    	if (argVirtual) {
+    		
+    		gThreadFactory = new KThreadFactory("KSocketServer-" + gPortNumber, true);
+    		
+    		if (!gThreadFactory.isVirtual()) {
+    			ThreadPoolExecutor threadPool = new ThreadPoolExecutor(MAX_POOL_THREADS, MAX_POOL_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), gThreadFactory);
+    			threadPool.allowCoreThreadTimeOut(true);
+    			gThreadPool = threadPool;
+    			KLog.debug("Virtual threads not supported, using pool of {} platform threads", MAX_POOL_THREADS);
+    		}
+    	}
     	
     	// Mark initialization successful
     	gInitialized = true;
 	}
 	
-	/**
-	 * Remove inactive client sockets from vector.
-	 */
-	private synchronized void cleanupSockets() {
-		
-		// Declarations
-		int	socketsCleared = 0;
-		
-		for (int index = 0; index < gClientSockets.size(); index++) {
-		
-			Socket clientSocket = gClientSockets.get(index);
-
-			if ((clientSocket != null) && (clientSocket.isClosed())) {
-				gClientSockets.remove(index);
-				socketsCleared++;
-			}
-		}
-		
-		if (socketsCleared > 0) {
-			KLog.debug("Inactive client connections removed: {}", socketsCleared);
-		}
-	}
-	
 	/**
 	 * Close all client sockets to force KSocketServerThread threads termination.<p>
 	 * 
@@ -123,6 +151,11 @@ class KSocketServerListener extends Thread implements AutoCloseable {
 	 */
 	public synchronized void close() {
 		
+		// Stop pooled threads after their connections are closed
+		if (gThreadPool != null) {
+			gThreadPool.shutdown();
+		}
+		
 		// Check if any work to be done
 		if ((gClientSockets == null) || (gClientSockets.isEmpty())) {
 			return;
@@ -143,8 +176,8 @@ class KSocketServerListener extends Thread implements AutoCloseable {
 			}
 		}
 		
-		// Clear vector
-		gClientSockets.removeAllElements();
+		// Clear set
+		gClientSockets.clear();
 	}
 	
 	/**
@@ -171,20 +204,20 @@ class KSocketServerListener extends Thread implements AutoCloseable {
 				Socket socket = gServerSocket.accept();
 				KLog.debug("{} connected on port {} ({}TLS)", gThisClassName, gPortNumber, (!gIsSecuredConnection ? "non-" : ""));
 				
-				// Save client socket to vector for cleanup
+				// Save client socket to set for cleanup
 				gClientSockets.add(socket);
-				
-				// Remove terminated sockets from vector
-				cleanupSockets();
 				KLog.debug("Active client connections: {}", gClientSockets.size());
 			
-				// Create a new instance for the user class and call the constructor
-				Constructor<?> classConstructor = gUserClass.getConstructor( Socket.class );		
-				Object object = classConstructor.newInstance(socket);
+				// Create and run the user class on a new platform thread, a virtual thread or a pooled thread
+				Runnable task = () -> runUserClass(socket);
 				
-				// Call the start() method which itself calls the run() method
-				Method startMethod = gUserClass.getMethod("start");
-				startMethod.invoke(object);
+				if (gThreadPool != null) {
+					gThreadPool.execute(task);
+				} else if (gThreadFactory != null) {
+					gThreadFactory.newThread(task).start();
+				} else {
+					new Thread(task).start();
+				}
 
 			} catch (SocketException e1) {
 				
@@ -204,6 +237,65 @@ class KSocketServerListener extends Thread implements AutoCloseable {
 		
 	}
 
+	/**
+	 * Create the user class for the client socket.
+	 * 
+	 * @param argSocket	Client socket
+	 * @return	User class or null for errors (the socket is then closed)
+	 * 
+	 * @since 2026.10.17
+	 */
+	private KSocketServerThread createUserClass(Socket argSocket) {
+		
+		try {
+			return (KSocketServerThread) gUserConstructor.invokeExact(argSocket);
+			
+		} catch (Throwable e) {
+			
+			KLog.error(e.toString());
+			gClientSockets.remove(argSocket);
+			
+			try {
+				argSocket.close();
+			} catch (Exception ee) {
+				KLog.error(ee.toString());
+			}
+			return null;
+		}
+	}
+	
+	/**
+	 * Create the user class for the client socket and run it as Runnable on the current (platform, virtual or pooled) thread. The
+	 * user object itself is never started as a thread, the current thread takes its name while it runs. The socket is removed from
+	 * the set when run() returns or throws, even if the user class does not call close().
+	 * 
+	 * @param argSocket	Client socket
+	 * 
+	 * @since 2026.10.17
+	 */
+	private void runUserClass(Socket argSocket) {
+		
+		KSocketServerThread userThread = createUserClass(argSocket);
+		
+		if (userThread == null) {
+			return;
+		}
+		
+		Runnable	userTask	= userThread;
+		Thread		thread		= Thread.currentThread();
+		String		threadName	= thread.getName();
+		
+		try {
+			thread.setName(userThread.getName());
+			userTask.run();
+		} catch (Exception e) {
+			KLog.error(e.toString());
+		} finally {
+			thread.setName(threadName);
+			gClientSockets.remove(argSocket);
+		}
+	}
+	
 	/**
 	 * String representation of object.
 	 * 
@@ -214,6 +306,6 @@ class KSocketServerListener extends Thread implements AutoCloseable {
 		return "KSocketServerListener [gClientSockets=" + gClientSockets + ", gUserClass=" + gUserClass
 				+ ", gServerSocket=" + gServerSocket + ", gThisClassName=" + gThisClassName + ", gPortNumber="
 				+ gPortNumber + ", gInitialized=" + gInitialized + ", gIsSecuredConnection=" + gIsSecuredConnection
-				+ "]";
+				+ ", gThreadFactory=" + gThreadFactory + "]";
 	}
 }
@@ -10,7 +10,12 @@ import javax.net.ssl.SSLSession;
 import javax.net.ssl.SSLSocket;
 
 /**
- * Class to handle user connections accepted by KSocketServerListener. The input is read as characters while output is sent as bytes.
+ * Class to handle user connections accepted by KSocketServerListener. The input is read as characters while output is sent as bytes.<p>
+ * 
+ * Note: KSocketServerListener does not start this object as a thread. It is used as Runnable and its run() method is called on a
+ * new platform thread (or a virtual or pooled thread with the KSocketServer thread mode VIRTUAL_THREADS), which gets the name of
+ * this object while it runs. Thread methods of this object (e.g. isAlive(), join() or interrupt()) therefore do not refer to the
+ * running thread, use Thread.currentThread() instead.<br>
  * 
  * @see getLastError
  * @see isSecuredConnection
@@ -284,7 +289,8 @@ public abstract class KSocketServerThread extends Thread implements AutoCloseabl
 			bytesRead = gBufferedReader.read(argData, 0, argData.length);
 			
 			if (bytesRead != -1) {
-				KLog.debug("Data read ({} characters)", K.formatBytes(bytesRead));
+				int charsRead = bytesRead;
+				KLog.debug("Data read ({} characters)", () -> new Object[] {K.formatBytes(charsRead)});
 			} else {
 				KLog.debug("End-of-data received");
 			}
@@ -375,7 +381,7 @@ public abstract class KSocketServerThread extends Thread implements AutoCloseabl
 		try {
 			gOutputStream.write(argData);
 			gOutputStream.flush();
-			KLog.debug("Data sent ({})", K.formatBytes(argData.length));
+			KLog.debug("Data sent ({})", () -> new Object[] {K.formatBytes(argData.length)});
 			return (true);
 			
 		} catch (Exception e) {
@@ -0,0 +1,121 @@
+package ch.k43.util;
+
+/**
+ * Pre-parsed message template with "{}" parameter holders used by K.replaceParams().<p>
+ *
+ * Notes:<br>
+ * - Parsed templates are kept in a small direct-mapped cache indexed by the identity of the template string. As log messages are
+ *   mostly string literals, each message is parsed only once.<br>
+ * - A template evicted by another one with the same cache index is simply parsed again.<br>
+ * - The formatted string is built in a single pass within a reusable per-thread StringBuilder.<br>
+ *
+ * @see K#replaceParams(String, Object...)
+ *
+ * @since 2026.10.17
+ */
+final class KTemplate {
+
+	// Declarations
+	private static final	int							CACHE_SIZE			= 512;						// Must be a power of two
+	private static final	int							MAX_BUILDER_SIZE	= 16 * 1_024;				// Larger builders are not kept for reuse
+	private static final	KTemplate[]					CACHE				= new KTemplate[CACHE_SIZE];
+	private static final	ThreadLocal<StringBuilder>	BUILDER				= ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+	private final			String						gTemplate;
+	private final			int[]						gSlots;										// Start positions of the "{}" holders
+
+	/**
+	 * Parse template.
+	 *
+	 * @param argTemplate	Message text with "{}" parameter holders
+	 */
+	private KTemplate(String argTemplate) {
+
+		gTemplate = argTemplate;
+
+		// Count parameter holders
+		int slotCount	= 0;
+		int position	= argTemplate.indexOf("{}");
+
+		while (position != -1) {
+			slotCount++;
+			position = argTemplate.indexOf("{}", position + 2);
+		}
+
+		// Save parameter holder positions
+		gSlots		= new int[slotCount];
+		slotCount	= 0;
+		position	= argTemplate.indexOf("{}");
+
+		while (position != -1) {
+			gSlots[slotCount++] = position;
+			position = argTemplate.indexOf("{}", position + 2);
+		}
+	}
+
+	/**
+	 * Replace parameter holders "{}" with the passed arguments. Surplus arguments are ignored and surplus parameter holders are left unchanged.
+	 *
+	 * @param	argTemplate	Message text
+	 * @param	argObjects	Data to be inserted
+	 * @return	Formatted string
+	 */
+	static String format(String argTemplate, Object[] argObjects) {
+
+		// Get parsed template from cache or parse it
+		int			index		= System.identityHashCode(argTemplate) & (CACHE_SIZE - 1);
+		KTemplate	template	= CACHE[index];
+
+		if ((template == null) || (template.gTemplate != argTemplate)) {
+			template		= new KTemplate(argTemplate);
+			CACHE[index]	= template;
+		}
+
+		// Check if nothing to replace
+		int slotCount = Math.min(template.gSlots.length, argObjects.length);
+
+		if (slotCount == 0) {
+			return argTemplate;
+		}
+
+		// Use per-thread builder unless it is in use by an outer call on this thread (e.g. thru an argument's toString())
+		StringBuilder builder = BUILDER.get();
+
+		if (builder.length() != 0) {
+			builder = new StringBuilder(argTemplate.length() + 64);
+		}
+
+		try {
+
+			// Append literal segments and arguments
+			int literalStart = 0;
+
+			for (int slot = 0; slot < slotCount; slot++) {
+				builder.append(argTemplate, literalStart, template.gSlots[slot])
+					.append(String.valueOf(argObjects[slot]));
+				literalStart = template.gSlots[slot] + 2;
+			}
+
+			builder.append(argTemplate, literalStart, argTemplate.length());
+
+			return builder.toString();
+
+		} finally {
+
+			// Release builder for the next call
+			if (builder.capacity() > MAX_BUILDER_SIZE) {
+				BUILDER.remove();
+			} else {
+				builder.setLength(0);
+			}
+		}
+	}
+
+	/**
+	 * String representation of object.
+	 */
+	@Override
+	public String toString() {
+		return "KTemplate [gTemplate=" + gTemplate + ", gSlots=" + gSlots.length + "]";
+	}
+}
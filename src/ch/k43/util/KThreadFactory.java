@@ -0,0 +1,97 @@
+package ch.k43.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread factory for platform or virtual threads.<p>
+ *
+ * Notes:<br>
+ * - Virtual threads (Java 21+) are created thru the virtual thread builder looked up at runtime, so the package still runs on older
+ *   JVMs. If they are not supported, platform threads are created instead.<br>
+ * - Platform threads are daemon threads, virtual threads are always daemon threads.<br>
+ * - The threads are named {prefix}-{number}.<br>
+ *
+ * @since 2026.10.17
+ */
+final class KThreadFactory implements ThreadFactory {
+
+	// Declarations
+	private static final	ThreadFactory	VIRTUAL_FACTORY		= createVirtualFactory();
+
+	private final			String			gNamePrefix;
+	private final			boolean			gVirtual;
+	private final			AtomicInteger	gThreadCount		= new AtomicInteger(0);
+
+	/**
+	 * Create factory.
+	 *
+	 * @param	argNamePrefix	Prefix of the thread names
+	 * @param	argVirtual		True for virtual threads (if supported), false for platform threads
+	 */
+	KThreadFactory(String argNamePrefix, boolean argVirtual) {
+		gNamePrefix	= argNamePrefix;
+		gVirtual	= argVirtual && (VIRTUAL_FACTORY != null);
+	}
+
+	/**
+	 * Get the virtual thread factory of the JVM.
+	 *
+	 * @return	Factory or null if virtual threads are not supported
+	 */
+	private static ThreadFactory createVirtualFactory() {
+
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Check if the threads are virtual threads.
+	 *
+	 * @return	True if virtual, false otherwise
+	 */
+	boolean isVirtual() {
+		return gVirtual;
+	}
+
+	/**
+	 * Check if the JVM supports virtual threads.
+	 *
+	 * @return	True if supported, false otherwise
+	 */
+	static boolean isVirtualSupported() {
+		return (VIRTUAL_FACTORY != null);
+	}
+
+	/**
+	 * Create an unstarted thread.
+	 *
+	 * @param	argRunnable	Code to run
+	 * @return	Thread
+	 */
+	@Override
+	public Thread newThread(Runnable argRunnable) {
+
+		Thread thread = gVirtual ? VIRTUAL_FACTORY.newThread(argRunnable) : new Thread(argRunnable);
+
+		thread.setName(gNamePrefix + '-' + gThreadCount.incrementAndGet());
+
+		if (!gVirtual) {
+			thread.setDaemon(true);
+		}
+
+		return thread;
+	}
+
+	/**
+	 * String representation of object.
+	 */
+	@Override
+	public String toString() {
+		return "KThreadFactory [gNamePrefix=" + gNamePrefix + ", gVirtual=" + gVirtual + ", gThreadCount=" + gThreadCount.get() + "]";
+	}
+}
@@ -0,0 +1,84 @@
+package ch.k43.util;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Fast ISO 8601 time stamp formatting (Example: "2024-02-24T14:12:44.234") used by K.getTimeISO8601() and all KLog formatters.<p>
+ *
+ * Notes:<br>
+ * - The formatted date and time up to the seconds is cached. Only the milliseconds are rendered for time stamps within the same second.<br>
+ * - The cache is an immutable object replaced as a whole, so it is safe for concurrent use without locking.<br>
+ * - The local time zone is read again for each new second, so changes of the daylight saving time or the default time zone are honored.<br>
+ *
+ * @see K#getTimeISO8601()
+ *
+ * @since 2026.10.17
+ */
+final class KTimestamp {
+
+	// Declarations
+	static final			DateTimeFormatter	ISO8601_FORMATTER	= DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS");
+
+	private static volatile	KTimestamp	gCache		= new KTimestamp(Long.MIN_VALUE, null);
+
+	private final			long		gEpochSecond;
+	private final			char[]		gPrefix;									// "yyyy-MM-ddTHH:mm:ss."
+
+	/**
+	 * Create cache entry.
+	 *
+	 * @param argEpochSecond	Seconds since epoch
+	 * @param argPrefix			Formatted date and time up to the seconds including the decimal point
+	 */
+	private KTimestamp(long argEpochSecond, char[] argPrefix) {
+		gEpochSecond	= argEpochSecond;
+		gPrefix			= argPrefix;
+	}
+
+	/**
+	 * Format time stamp in the local time zone.
+	 *
+	 * @param	argEpochMillis	Milliseconds since epoch
+	 * @return	ISO 8601 date/time
+	 */
+	static String format(long argEpochMillis) {
+
+		long		epochSecond	= Math.floorDiv(argEpochMillis, 1_000L);
+		int			millis		= (int) Math.floorMod(argEpochMillis, 1_000L);
+		KTimestamp	cache		= gCache;
+
+		// Render date and time for a new second
+		if (cache.gEpochSecond != epochSecond) {
+
+			ZoneOffset		zoneOffset	= ZoneId.systemDefault().getRules().getOffset(Instant.ofEpochSecond(epochSecond));
+			LocalDateTime	dateTime	= LocalDateTime.ofEpochSecond(epochSecond, 0, zoneOffset);
+			String			prefix		= dateTime.format(ISO8601_FORMATTER);
+
+			cache	= new KTimestamp(epochSecond, prefix.substring(0, prefix.length() - 3).toCharArray());
+			gCache	= cache;
+		}
+
+		// Append milliseconds
+		char[] timeStamp = new char[cache.gPrefix.length + 3];
+
+		System.arraycopy(cache.gPrefix, 0, timeStamp, 0, cache.gPrefix.length);
+
+		timeStamp[cache.gPrefix.length]		= (char) ('0' + millis / 100);
+		timeStamp[cache.gPrefix.length + 1]	= (char) ('0' + millis / 10 % 10);
+		timeStamp[cache.gPrefix.length + 2]	= (char) ('0' + millis % 10);
+
+		return new String(timeStamp);
+	}
+
+	/**
+	 * String representation of object.
+	 */
+	@Override
+	public String toString() {
+		return "KTimestamp [gEpochSecond=" + gEpochSecond + ", gPrefix=" + ((gPrefix != null) ? new String(gPrefix) : null) + "]";
+	}
+}
@@ -0,0 +1,377 @@
+package ch.k43.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Type-safe facade of a KQueue for elements of a given class.<p>
+ *
+ * The facade checks the class of each added element, so consumers get typed elements without casts. All queue modes (including
+ * comparator ordered, durable and shared queues), options and rejection policies of KQueue are supported. The queue itself is
+ * registered under its name as usual and may be obtained with getQueue() or wrapped again with open().<p>
+ *
+ * <pre>
+ * Example:
+ *
+ * try (KTypedQueue&lt;Order&gt; queue = new KTypedQueue&lt;&gt;("Orders", Order.class)) {
+ *    queue.put(new Order(4711));
+ *    ...
+ *    Order order = queue.get();
+ * }
+ * </pre>
+ *
+ * @param	<T>	Element class
+ *
+ * @see KQueue
+ *
+ * @since 2026.10.17
+ */
+public final class KTypedQueue<T> implements AutoCloseable {
+
+	// Declarations
+	private final KQueue		gQueue;
+	private final Class<T>		gType;
+
+	/**
+	 * Create an unbounded FIFO queue.
+	 *
+	 * @param	argQueueName	The name of the queue
+	 * @param	argType			Element class
+	 */
+	public KTypedQueue(String argQueueName, Class<T> argType) {
+		this(argQueueName, argType, KQueue.FIFO, KQueue.UNBOUNDED, KQueue.BLOCK);
+	}
+
+	/**
+	 * Create a queue with the given mode, capacity and rejection policy.
+	 *
+	 * @param	argQueueName		The name of the queue
+	 * @param	argType				Element class
+	 * @param	argQueueMode		The type of the queue and its options (see KQueue)
+	 * @param	argCapacity			Maximum number of elements (or KQueue.UNBOUNDED)
+	 * @param	argRejectPolicy		Action of put() if the queue is full (BLOCK, FAIL or DROP_OLDEST)
+	 */
+	public KTypedQueue(String argQueueName, Class<T> argType, int argQueueMode, int argCapacity, int argRejectPolicy) {
+		this(requireType(argType), new KQueue(argQueueName, argQueueMode, argCapacity, argRejectPolicy));
+	}
+
+	/**
+	 * Create a durable or shared queue with the given mode, capacity and rejection policy.
+	 *
+	 * @param	argQueueName		The name of the queue
+	 * @param	argType				Element class
+	 * @param	argQueueMode		The type of the queue and its options (see KQueue)
+	 * @param	argCapacity			Maximum number of elements (or KQueue.UNBOUNDED), ring size in bytes of a shared queue
+	 * @param	argRejectPolicy		Action of put() if the queue is full (BLOCK, FAIL or DROP_OLDEST)
+	 * @param	argDirectory		Journal directory of a durable queue, directory of the ring file of a shared queue or null
+	 */
+	public KTypedQueue(String argQueueName, Class<T> argType, int argQueueMode, int argCapacity, int argRejectPolicy, String argDirectory) {
+		this(requireType(argType), new KQueue(argQueueName, argQueueMode, argCapacity, argRejectPolicy, argDirectory));
+	}
+
+	/**
+	 * Create a priority queue ordered by a comparator.
+	 *
+	 * @param	argQueueName		The name of the queue
+	 * @param	argType				Element class
+	 * @param	argComparator		Comparator for the elements or null (see KQueue)
+	 * @param	argCapacity			Maximum number of elements (or KQueue.UNBOUNDED)
+	 * @param	argRejectPolicy		Action of put() if the queue is full (BLOCK or FAIL)
+	 */
+	public KTypedQueue(String argQueueName, Class<T> argType, Comparator<? super T> argComparator, int argCapacity, int argRejectPolicy) {
+		this(requireType(argType), new KQueue(argQueueName, argComparator, argCapacity, argRejectPolicy));
+	}
+
+	/**
+	 * Wrap an existing queue.
+	 *
+	 * @param	argType		Element class (checked by requireType() before the queue is created)
+	 * @param	argQueue	Queue
+	 */
+	private KTypedQueue(Class<T> argType, KQueue argQueue) {
+		gType	= argType;
+		gQueue	= argQueue;
+	}
+
+	/**
+	 * Check the element class. Called as first constructor argument, so no named queue is registered for an invalid class.
+	 *
+	 * @param	<T>			Element class
+	 * @param	argType		Element class
+	 * @return	Element class
+	 */
+	private static <T> Class<T> requireType(Class<T> argType) {
+		KLog.argException(argType == null, "Missing required element class");
+		return argType;
+	}
+
+	/**
+	 * Return the queue if present.
+	 *
+	 * @param	<T>				Element class
+	 * @param	argQueueName	The name of the queue
+	 * @param	argType			Element class
+	 * @return	Queue object or null if the queue does not exist
+	 */
+	public static <T> KTypedQueue<T> open(String argQueueName, Class<T> argType) {
+
+		requireType(argType);
+
+		KQueue queue = KQueue.open(argQueueName);
+
+		return (queue == null) ? null : new KTypedQueue<>(argType, queue);
+	}
+
+	/**
+	 * Clear (empty) the queue.
+	 */
+	public void clear() {
+		gQueue.clear();
+	}
+
+	/**
+	 * Close the queue.
+	 */
+	@Override
+	public void close() {
+		gQueue.close();
+	}
+
+	/**
+	 * Move the available elements into the given collection without waiting.<br>
+	 *
+	 * Note: Elements of another class (only possible if added directly to the underlying KQueue) are removed from the queue like
+	 * with get(). All elements of the correct class are still moved into the collection before the exception is thrown.
+	 *
+	 * @param	argCollection	Target collection
+	 * @param	argMaxElements	Maximum number of elements to move
+	 * @return	Number of elements moved
+	 * @throws	ClassCastException	If a removed element is not of the element class
+	 */
+	public int drainTo(Collection<? super T> argCollection, int argMaxElements) {
+
+		// Check argument
+		KLog.argException(argCollection == null, "Missing required collection");
+
+		ArrayList<Object>	elements	= new ArrayList<>();
+		Object				invalid		= null;
+		int					count		= 0;
+
+		gQueue.drainTo(elements, argMaxElements);
+
+		// Move the valid elements first, so they are not lost by an invalid one
+		for (Object element : elements) {
+			if ((element == null) || gType.isInstance(element)) {
+				argCollection.add(gType.cast(element));
+				count++;
+			} else if (invalid == null) {
+				invalid = element;
+			}
+		}
+
+		if (invalid != null) {
+			gType.cast(invalid);
+		}
+
+		return count;
+	}
+
+	/**
+	 * Return the next element and wait if the queue is empty.
+	 *
+	 * @return	Element or null if the queue was closed
+	 */
+	public T get() {
+		return gType.cast(gQueue.get());
+	}
+
+	/**
+	 * Return the next element and wait up to the given time if the queue is empty.
+	 *
+	 * @param	argTimeOutMs	Maximum wait time in milliseconds
+	 * @return	Element or null if no element found or the queue was closed
+	 */
+	public T get(long argTimeOutMs) {
+		return gType.cast(gQueue.get(argTimeOutMs));
+	}
+
+	/**
+	 * Return up to the given number of elements. Waits up to the given time for the first element.
+	 *
+	 * @param	argMaxElements	Maximum number of elements
+	 * @param	argTimeOutMs	Maximum wait time in milliseconds
+	 * @return	List of elements (empty if no element found or the queue was closed) or null for errors (see KQueue)
+	 */
+	public List<T> get(int argMaxElements, long argTimeOutMs) {
+
+		List<Object> elements = gQueue.get(argMaxElements, argTimeOutMs);
+
+		if (elements == null) {
+			return null;
+		}
+
+		ArrayList<T> typedElements = new ArrayList<>(elements.size());
+
+		for (Object element : elements) {
+			typedElements.add(gType.cast(element));
+		}
+
+		return typedElements;
+	}
+
+	/**
+	 * Get the metrics of the queue.
+	 *
+	 * @return	Metrics
+	 */
+	public KQueueMetrics getMetrics() {
+		return gQueue.getMetrics();
+	}
+
+	/**
+	 * Get the name of the queue.
+	 *
+	 * @return	Name of the queue
+	 */
+	public String getName() {
+		return gQueue.getName();
+	}
+
+	/**
+	 * Get the underlying queue.
+	 *
+	 * @return	Queue
+	 */
+	public KQueue getQueue() {
+		return gQueue;
+	}
+
+	/**
+	 * Get number of elements in queue.
+	 *
+	 * @return	Number of elements
+	 */
+	public int getSize() {
+		return gQueue.getSize();
+	}
+
+	/**
+	 * Get the element class.
+	 *
+	 * @return	Element class
+	 */
+	public Class<T> getType() {
+		return gType;
+	}
+
+	/**
+	 * Check if queue is closed.
+	 *
+	 * @return	True if queue is closed, false otherwise
+	 */
+	public boolean isClosed() {
+		return gQueue.isClosed();
+	}
+
+	/**
+	 * Check if queue is empty.
+	 *
+	 * @return	True if queue is empty, false otherwise
+	 */
+	public boolean isEmpty() {
+		return gQueue.isEmpty();
+	}
+
+	/**
+	 * Return the next element without removing it.
+	 *
+	 * @return	Element or null if no element found or the queue was closed
+	 */
+	public T peek() {
+		return gType.cast(gQueue.peek());
+	}
+
+	/**
+	 * Add an element to the queue. If the queue is full, the rejection policy is applied.
+	 *
+	 * @param	argElement	Element to add to the queue
+	 * @return	True if success, false otherwise
+	 */
+	public boolean put(T argElement) {
+		return gQueue.put(checkType(argElement));
+	}
+
+	/**
+	 * Add an element to the queue and wait up to the given time if the queue is full.
+	 *
+	 * @param	argElement		Element to add to the queue
+	 * @param	argTimeOutMs	Maximum wait time in milliseconds
+	 * @return	True if success, false if the queue is still full after the wait time or error
+	 */
+	public boolean put(T argElement, long argTimeOutMs) {
+		return gQueue.put(checkType(argElement), argTimeOutMs);
+	}
+
+	/**
+	 * Add all elements to the queue (see KQueue.putAll()).
+	 *
+	 * @param	argElements	Elements to add to the queue
+	 * @return	Number of elements added
+	 */
+	public int putAll(Collection<? extends T> argElements) {
+
+		// Check argument
+		KLog.argException(argElements == null, "Missing required elements");
+
+		for (T element : argElements) {
+			checkType(element);
+		}
+
+		return gQueue.putAll(argElements);
+	}
+
+	/**
+	 * Add an element to a DELAYED queue. The element is returned after the delay.
+	 *
+	 * @param	argElement	Element to add to the queue
+	 * @param	argDelayMs	Delay in milliseconds
+	 * @return	True if success, false otherwise
+	 */
+	public boolean putDelayed(T argElement, long argDelayMs) {
+		return gQueue.putDelayed(checkType(argElement), argDelayMs);
+	}
+
+	/**
+	 * Add an element with a priority to a PRIORITY queue.
+	 *
+	 * @param	argElement	Element to add to the queue
+	 * @param	argPriority	Priority (elements with higher priority are returned first)
+	 * @return	True if success, false otherwise
+	 */
+	public boolean putPriority(T argElement, int argPriority) {
+		return gQueue.putPriority(checkType(argElement), argPriority);
+	}
+
+	/**
+	 * Check the class of an element (raw types or unchecked casts may bypass the compiler check).
+	 *
+	 * @param	argElement	Element
+	 * @return	Element
+	 */
+	private T checkType(T argElement) {
+		KLog.argException((argElement != null) && !gType.isInstance(argElement), "Element must be of class {}", gType.getName());
+		return argElement;
+	}
+
+	/**
+	 * String representation of object.
+	 *
+	 * @return	Object representation
+	 */
+	@Override
+	public String toString() {
+		return "KTypedQueue [gQueue=" + gQueue + ", gType=" + gType + "]";
+	}
+}